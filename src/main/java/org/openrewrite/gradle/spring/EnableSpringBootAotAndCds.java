@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.spring;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.gradle.GradleParser;
+import org.openrewrite.gradle.IsBuildGradle;
+import org.openrewrite.gradle.plugins.AddBuildPlugin;
+import org.openrewrite.gradle.search.FindPlugins;
+import org.openrewrite.gradle.tree.GradlePlugin;
+import org.openrewrite.groovy.tree.G;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.kotlin.tree.K;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+public class EnableSpringBootAotAndCds extends Recipe {
+    /**
+     * Spring Boot's own plugin for ahead-of-time processing on the JVM. Unlike the GraalVM native build tools plugin,
+     * it doesn't make {@code bootBuildImage} build a native image.
+     */
+    private static final String AOT_PLUGIN = "org.springframework.boot.aot";
+
+    @Getter
+    final String displayName = "Enable Spring AOT and CDS in Gradle builds";
+
+    @Getter
+    final String description = "Apply the `org.springframework.boot.aot` plugin so that Spring Boot runs ahead-of-time " +
+            "processing for the `bootJar`, and enable the `BP_JVM_CDS_ENABLED` and `BP_SPRING_AOT_ENABLED` buildpack settings " +
+            "for `bootBuildImage`. The buildpack then performs a Class Data Sharing training run with " +
+            "`spring.context.exit=onRefresh` and launches the application with the shared archive and " +
+            "`spring.aot.enabled=true`, which reduces startup time. AOT processing fixes the bean definitions at build time, " +
+            "evaluating `@Profile` and `@Conditional` with the build's environment, so applications that select profiles " +
+            "or rely on conditions at runtime, like properties that only the deployment sets, no longer start correctly.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new IsBuildGradle<>(), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof JavaSourceFile)) {
+                    return (J) tree;
+                }
+                List<GradlePlugin> springBoot = FindPlugins.find((J) tree, "org.springframework.boot");
+                if (springBoot.isEmpty()) {
+                    return (J) tree;
+                }
+                // Both plugins come from the same artifact, so they share a version
+                JavaSourceFile cu = (JavaSourceFile) new AddBuildPlugin(AOT_PLUGIN, springBoot.get(0).getVersion(), null, null, null)
+                        .getVisitor().visitNonNull(tree, ctx);
+                if (cu.printAll().contains("BP_JVM_CDS_ENABLED")) {
+                    return cu;
+                }
+                if (cu instanceof G.CompilationUnit) {
+                    G.CompilationUnit g = (G.CompilationUnit) cu;
+                    return g.withStatements(ListUtils.concatAll(g.getStatements(), parse(ctx, "build.gradle",
+                            "tasks.named(\"bootBuildImage\") {\n" +
+                            "    environment.putAll([\"BP_JVM_CDS_ENABLED\": \"true\", \"BP_SPRING_AOT_ENABLED\": \"true\"])\n" +
+                            "}")));
+                } else if (cu instanceof K.CompilationUnit) {
+                    // Kotlin build scripts wrap their statements in a single block
+                    K.CompilationUnit k = (K.CompilationUnit) cu;
+                    if (k.getStatements().size() != 1 || !(k.getStatements().get(0) instanceof J.Block)) {
+                        return k;
+                    }
+                    J.Block script = (J.Block) k.getStatements().get(0);
+                    List<Statement> added = parse(ctx, "build.gradle.kts",
+                            "tasks.bootBuildImage {\n" +
+                            "    environment.putAll(mapOf(\"BP_JVM_CDS_ENABLED\" to \"true\", \"BP_SPRING_AOT_ENABLED\" to \"true\"))\n" +
+                            "}");
+                    return k.withStatements(singletonList(script.withStatements(ListUtils.concatAll(script.getStatements(), added))));
+                }
+                return cu;
+            }
+        });
+    }
+
+    private static List<Statement> parse(ExecutionContext ctx, String fileName, String snippet) {
+        SourceFile parsed = GradleParser.builder().build()
+                .parseInputs(singletonList(Parser.Input.fromString(Paths.get(fileName), snippet)), null, ctx)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unable to parse " + fileName + " snippet"));
+        List<Statement> statements = parsed instanceof K.CompilationUnit ?
+                ((J.Block) ((K.CompilationUnit) parsed).getStatements().get(0)).getStatements() :
+                ((G.CompilationUnit) parsed).getStatements();
+        return ListUtils.mapFirst(statements, s -> s.withPrefix(Space.format("\n\n")));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.spring.table.DataSourcePoolSettings;
+import org.openrewrite.properties.search.FindProperties;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.search.FindProperty;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+
+/**
+ * Reports Spring configuration files that configure a data source but leave the HikariCP pool size, connection timeout
+ * or leak detection threshold at their defaults, and optionally sets organization-wide defaults for them. The profile
+ * of a file is taken from its name, so {@code application-prod.yml} configures the {@code prod} profile, which inherits
+ * the settings of the base {@code application} configuration files of the same project.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class AddDataSourcePoolDefaults extends ScanningRecipe<AddDataSourcePoolDefaults.Accumulator> {
+    private static final Pattern APPLICATION_CONFIG = Pattern.compile("application(?:-(.+))?\\.(?:ya?ml|properties)");
+    private static final String HIKARI = "spring.datasource.hikari.";
+    private static final String HIKARI_DATA_SOURCE = "com.zaxxer.hikari.HikariDataSource";
+    private static final String ON_PROFILE = "spring.config.activate.on-profile";
+    private static final List<String> SETTINGS = Arrays.asList("maximum-pool-size", "connection-timeout", "leak-detection-threshold");
+
+    @Option(displayName = "Profile",
+            description = "The profile whose configuration files, like `application-prod.yml`, receive the defaults. " +
+                    "When not set, the defaults are added to the base `application` configuration files.",
+            required = false,
+            example = "prod")
+    @Nullable
+    String profile;
+
+    @Option(displayName = "Maximum pool size",
+            description = "The `spring.datasource.hikari.maximum-pool-size` to set where it is missing.",
+            required = false,
+            example = "20")
+    @Nullable
+    Integer maximumPoolSize;
+
+    @Option(displayName = "Connection timeout",
+            description = "The `spring.datasource.hikari.connection-timeout`, in milliseconds, to set where it is missing.",
+            required = false,
+            example = "5000")
+    @Nullable
+    Long connectionTimeout;
+
+    @Option(displayName = "Leak detection threshold",
+            description = "The `spring.datasource.hikari.leak-detection-threshold`, in milliseconds, to set where it is missing.",
+            required = false,
+            example = "60000")
+    @Nullable
+    Long leakDetectionThreshold;
+
+    transient DataSourcePoolSettings poolSettings = new DataSourcePoolSettings(this);
+
+    String displayName = "Add data source connection pool defaults";
+
+    String description = "Report Spring configuration files that configure a `spring.datasource` without an explicit HikariCP " +
+            "`maximum-pool-size`, `connection-timeout` or `leak-detection-threshold`, and add the configured defaults to " +
+            "the configuration files of the selected profile. Profile configuration files inherit the settings of the base " +
+            "`application` configuration files of their project. Only projects with HikariCP on the classpath are considered.";
+
+    public static class Accumulator {
+        final Set<String> hikariProjects = new HashSet<>();
+
+        /**
+         * The HikariCP settings of the base {@code application} configuration files, by project.
+         */
+        final Map<String, Set<String>> baseSettings = new HashMap<>();
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                SourceFile sourceFile = (SourceFile) tree;
+                if (sourceFile.getMarkers().findFirst(JavaSourceSet.class)
+                        .map(sourceSet -> sourceSet.getClasspath().stream()
+                                .anyMatch(type -> HIKARI_DATA_SOURCE.equals(type.getFullyQualifiedName())))
+                        .orElse(false)) {
+                    acc.hikariProjects.add(project(sourceFile));
+                }
+                Matcher matcher = APPLICATION_CONFIG.matcher(sourceFile.getSourcePath().getFileName().toString());
+                if (matcher.matches() && matcher.group(1) == null) {
+                    Set<String> settings = acc.baseSettings.computeIfAbsent(project(sourceFile), k -> new HashSet<>());
+                    for (String setting : SETTINGS) {
+                        if (hasBaseProperty(tree, HIKARI + setting)) {
+                            settings.add(setting);
+                        }
+                    }
+                }
+                return tree;
+            }
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        return Preconditions.check(new IsPossibleSpringConfigFile(), new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                SourceFile sourceFile = (SourceFile) tree;
+                Matcher matcher = APPLICATION_CONFIG.matcher(sourceFile.getSourcePath().getFileName().toString());
+                if (!matcher.matches() || !acc.hikariProjects.contains(project(sourceFile)) ||
+                    !hasProperty(tree, "spring.datasource.*")) {
+                    return tree;
+                }
+                String fileProfile = matcher.group(1);
+                boolean selectedProfile = profile == null ? fileProfile == null : profile.equals(fileProfile);
+
+                Map<String, @Nullable Object> defaults = new LinkedHashMap<>();
+                defaults.put("maximum-pool-size", maximumPoolSize);
+                defaults.put("connection-timeout", connectionTimeout);
+                defaults.put("leak-detection-threshold", leakDetectionThreshold);
+
+                Tree t = tree;
+                List<String> missing = new ArrayList<>();
+                Set<String> inherited = fileProfile == null ? emptySet() :
+                        acc.baseSettings.getOrDefault(project(sourceFile), emptySet());
+                for (Map.Entry<String, @Nullable Object> setting : defaults.entrySet()) {
+                    String key = HIKARI + setting.getKey();
+                    if (inherited.contains(setting.getKey()) || hasProperty(t, key)) {
+                        continue;
+                    }
+                    if (selectedProfile && setting.getValue() != null) {
+                        t = new AddSpringProperty(key, String.valueOf(setting.getValue()), null,
+                                singletonList(sourceFile.getSourcePath().toString())).getVisitor().visit(t, ctx);
+                    } else {
+                        missing.add(setting.getKey());
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    poolSettings.insertRow(ctx, new DataSourcePoolSettings.Row(
+                            sourceFile.getSourcePath().toString(),
+                            fileProfile == null ? "default" : fileProfile,
+                            String.join(", ", missing)
+                    ));
+                }
+                return t;
+            }
+        });
+    }
+
+    private static String project(SourceFile sourceFile) {
+        return sourceFile.getMarkers().findFirst(JavaProject.class).map(JavaProject::getProjectName).orElse("");
+    }
+
+    /**
+     * Whether the property is set outside of the documents that only activate on some profiles.
+     */
+    private static boolean hasBaseProperty(Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            for (Yaml.Document document : ((Yaml.Documents) tree).getDocuments()) {
+                if (FindProperty.find(document, ON_PROFILE, true).isEmpty() && !FindProperty.find(document, key, true).isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return !hasProperty(tree, ON_PROFILE) && hasProperty(tree, key);
+    }
+
+    private static boolean hasProperty(@Nullable Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            return !FindProperty.find((Yaml.Documents) tree, key, true).isEmpty();
+        } else if (tree instanceof Properties.File) {
+            return !FindProperties.find((Properties.File) tree, key, true).isEmpty();
+        }
+        return false;
+    }
+}
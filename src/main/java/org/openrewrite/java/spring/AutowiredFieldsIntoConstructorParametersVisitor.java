@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.search.FindAnnotations;
+import org.openrewrite.java.service.ImportService;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.java.tree.J.Block;
+import org.openrewrite.java.tree.J.ClassDeclaration;
+import org.openrewrite.java.tree.J.MethodDeclaration;
+import org.openrewrite.java.tree.J.VariableDeclarations;
+import org.openrewrite.java.tree.JavaType.FullyQualified;
+import org.openrewrite.marker.Markers;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static org.openrewrite.java.spring.AutowiredFieldIntoConstructorParameterVisitor.isNotConstructorInitializingField;
+
+/**
+ * Batch variant of {@link AutowiredFieldIntoConstructorParameterVisitor}: collects every eligible {@code @Autowired}
+ * field of the class up front and moves them all into the constructor in a single visit. A missing constructor is
+ * generated with one template, an existing one is extended with one template for the parameters and one for the
+ * assignments, regardless of the number of fields.
+ */
+@RequiredArgsConstructor
+public class AutowiredFieldsIntoConstructorParametersVisitor extends JavaIsoVisitor<ExecutionContext> {
+    private static final String AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
+    private static final AnnotationMatcher AUTOWIRED_MATCHER = new AnnotationMatcher("@" + AUTOWIRED);
+
+    private static final String FIELDS = "autowiredFields";
+    private static final String CONSTRUCTOR = "applicableConstructor";
+
+    private final String classFqName;
+
+    @Override
+    public ClassDeclaration visitClassDeclaration(ClassDeclaration classDecl, ExecutionContext ctx) {
+        if (TypeUtils.isOfClassType(classDecl.getType(), classFqName) &&
+                classDecl.getKind() == ClassDeclaration.Kind.Type.Class &&
+                // Lombok can also provide a constructor, which would then clash with the one added here
+                FindAnnotations.find(classDecl, "@lombok.*Constructor").isEmpty()) {
+            MethodDeclaration constructor = findApplicableConstructor(classDecl);
+            if (constructor != null || !hasConstructor(classDecl)) {
+                List<VariableDeclarations> fields = new ArrayList<>();
+                for (Statement s : classDecl.getBody().getStatements()) {
+                    if (s instanceof VariableDeclarations && isEligible((VariableDeclarations) s, constructor)) {
+                        fields.add((VariableDeclarations) s);
+                    }
+                }
+                if (!fields.isEmpty()) {
+                    getCursor().putMessage(FIELDS, fields);
+                    if (constructor != null) {
+                        getCursor().putMessage(CONSTRUCTOR, constructor);
+                    }
+                    maybeRemoveImport(AUTOWIRED);
+                    return super.visitClassDeclaration(classDecl, ctx);
+                }
+            }
+        }
+        return classDecl;
+    }
+
+    private static boolean hasConstructor(ClassDeclaration classDecl) {
+        return classDecl.getBody().getStatements().stream()
+                .anyMatch(s -> s instanceof MethodDeclaration && ((MethodDeclaration) s).isConstructor());
+    }
+
+    private static @Nullable MethodDeclaration findApplicableConstructor(ClassDeclaration classDecl) {
+        List<MethodDeclaration> constructors = classDecl.getBody().getStatements().stream()
+                .filter(MethodDeclaration.class::isInstance)
+                .map(MethodDeclaration.class::cast)
+                .filter(MethodDeclaration::isConstructor)
+                .collect(toList());
+        if (constructors.size() == 1) {
+            return constructors.get(0);
+        }
+        List<MethodDeclaration> autowiredConstructors = constructors.stream()
+                .filter(c -> c.getLeadingAnnotations().stream().anyMatch(AUTOWIRED_MATCHER::matches))
+                .limit(2)
+                .collect(toList());
+        return autowiredConstructors.size() == 1 ? autowiredConstructors.get(0) : null;
+    }
+
+    private static boolean isEligible(VariableDeclarations field, @Nullable MethodDeclaration constructor) {
+        if (field.getVariables().size() != 1 || field.getTypeExpression() == null ||
+                field.getVariables().get(0).getInitializer() != null ||
+                field.hasModifier(J.Modifier.Type.Static) ||
+                field.getType() == null || field.getType() instanceof JavaType.Primitive) {
+            return false;
+        }
+        // Other annotations, like `@Qualifier` or `@Value`, would have to move to the constructor parameter
+        if (field.getLeadingAnnotations().size() != 1 || !AUTOWIRED_MATCHER.matches(field.getLeadingAnnotations().get(0))) {
+            return false;
+        }
+        // `@Autowired(required = false)` fields are optional, which a constructor parameter is not
+        List<Expression> args = field.getLeadingAnnotations().get(0).getArguments();
+        if (args != null && args.stream().anyMatch(arg -> !(arg instanceof J.Empty))) {
+            return false;
+        }
+        return constructor == null || isNotConstructorInitializingField(constructor, field.getVariables().get(0).getSimpleName());
+    }
+
+    @Override
+    public VariableDeclarations visitVariableDeclarations(VariableDeclarations multiVariable, ExecutionContext ctx) {
+        VariableDeclarations mv = super.visitVariableDeclarations(multiVariable, ctx);
+        Cursor classCursor = getCursor().getParentTreeCursor().getParentTreeCursor();
+        List<VariableDeclarations> fields = classCursor.getValue() instanceof ClassDeclaration ? classCursor.getMessage(FIELDS) : null;
+        if (fields == null || !fields.contains(multiVariable)) {
+            return mv;
+        }
+
+        mv = (VariableDeclarations) new RemoveAnnotationVisitor(AUTOWIRED_MATCHER).visitNonNull(mv, ctx, getCursor().getParentOrThrow());
+        if (!mv.hasModifier(J.Modifier.Type.Final)) {
+            Space prefix = Space.firstPrefix(mv.getVariables());
+            J.Modifier m = new J.Modifier(Tree.randomId(), Space.EMPTY, Markers.EMPTY, null, J.Modifier.Type.Final, emptyList());
+            if (mv.getModifiers().isEmpty()) {
+                mv = mv.withTypeExpression(requireTypeExpression(mv).withPrefix(prefix));
+            } else {
+                m = m.withPrefix(prefix);
+            }
+            mv = mv.withModifiers(ListUtils.concat(mv.getModifiers(), m));
+        }
+        return mv;
+    }
+
+    @Override
+    public MethodDeclaration visitMethodDeclaration(MethodDeclaration method, ExecutionContext ctx) {
+        MethodDeclaration md = super.visitMethodDeclaration(method, ctx);
+        Cursor classCursor = getCursor().getParentTreeCursor().getParentTreeCursor();
+        if (!(classCursor.getValue() instanceof ClassDeclaration) || classCursor.getMessage(CONSTRUCTOR) != method || md.getBody() == null) {
+            return md;
+        }
+        List<VariableDeclarations> fields = classCursor.getMessage(FIELDS, emptyList());
+
+        // The parameter template is parsed without the surrounding file's imports, so simple names would not
+        // resolve; render the types fully qualified and shorten the references after the template is applied.
+        List<J> params = md.getParameters().stream().filter(s -> !(s instanceof J.Empty)).collect(toList());
+        String paramsStr = Stream.concat(
+                params.stream().map(s -> "#{}"),
+                fields.stream().map(f -> qualifiedTypeName(requireTypeExpression(f)) + " " + f.getVariables().get(0).getSimpleName())
+        ).collect(joining(", "));
+        md = JavaTemplate.builder(paramsStr)
+                .contextSensitive()
+                .build()
+                .apply(getCursor(), md.getCoordinates().replaceParameters(), params.toArray());
+        updateCursor(md);
+        for (Statement addedParam : md.getParameters().subList(params.size(), md.getParameters().size())) {
+            if (addedParam instanceof VariableDeclarations) {
+                TypeTree addedType = ((VariableDeclarations) addedParam).getTypeExpression();
+                if (addedType != null && !(addedType instanceof J.Identifier || addedType instanceof J.Primitive)) {
+                    doAfterVisit(service(ImportService.class).shortenFullyQualifiedTypeReferencesIn(addedType));
+                }
+            }
+        }
+
+        //noinspection ConstantConditions
+        return JavaTemplate.builder(assignments(fields))
+                .contextSensitive()
+                .build()
+                .apply(getCursor(), md.getBody().getCoordinates().lastStatement());
+    }
+
+    @Override
+    public Block visitBlock(Block block, ExecutionContext ctx) {
+        Block b = super.visitBlock(block, ctx);
+        Cursor classCursor = getCursor().getParentTreeCursor();
+        if (!(classCursor.getValue() instanceof ClassDeclaration) || classCursor.getMessage(CONSTRUCTOR) != null) {
+            return b;
+        }
+        List<VariableDeclarations> fields = classCursor.getMessage(FIELDS);
+        if (fields == null) {
+            return b;
+        }
+
+        updateCursor(b);
+        ClassDeclaration classDecl = classCursor.getValue();
+        String params = fields.stream()
+                .map(f -> requireTypeExpression(f) + " " + f.getVariables().get(0).getSimpleName())
+                .collect(joining(", "));
+        JavaTemplate.Builder template = JavaTemplate.builder(classDecl.getSimpleName() + "(" + params + ") {\n" +
+                assignments(fields) +
+                "}\n"
+        ).contextSensitive();
+        for (VariableDeclarations f : fields) {
+            FullyQualified fq = TypeUtils.asFullyQualified(f.getType());
+            if (fq != null) {
+                template.imports(fq.getFullyQualifiedName());
+                maybeAddImport(fq);
+            }
+        }
+        Optional<Statement> firstMethod = b.getStatements().stream().filter(MethodDeclaration.class::isInstance).findFirst();
+        return template.build().apply(getCursor(), firstMethod
+                .map(statement -> statement.getCoordinates().before())
+                .orElseGet(() -> b.getCoordinates().lastStatement()));
+    }
+
+    private static String assignments(List<VariableDeclarations> fields) {
+        StringBuilder assignments = new StringBuilder();
+        for (VariableDeclarations f : fields) {
+            String name = f.getVariables().get(0).getSimpleName();
+            assignments.append("this.").append(name).append(" = ").append(name).append(";\n");
+        }
+        return assignments.toString();
+    }
+
+    private static String qualifiedTypeName(TypeTree type) {
+        return type.getType() == null ? type.toString() : TypeUtils.toString(type.getType()).replace("$", ".");
+    }
+
+    private static TypeTree requireTypeExpression(VariableDeclarations field) {
+        return Objects.requireNonNull(field.getTypeExpression());
+    }
+}
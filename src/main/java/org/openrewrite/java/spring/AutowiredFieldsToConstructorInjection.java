@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import lombok.Getter;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+public class AutowiredFieldsToConstructorInjection extends Recipe {
+    private static final String AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
+    private static final AnnotationMatcher COMPONENT_MATCHER = new AnnotationMatcher("@org.springframework.stereotype.Component", true);
+
+    @Getter
+    final String displayName = "Use constructor injection for `@Autowired` fields";
+
+    @Getter
+    final String description = "Moves all `@Autowired` fields of Spring components into parameters of a single constructor and makes the fields `final`. " +
+            "An existing constructor is extended, otherwise a new one is added. Fields with other annotations, optional `@Autowired(required = false)` " +
+            "fields and classes with several constructors and no single `@Autowired` one are left unchanged.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new UsesType<>(AUTOWIRED, false), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration cd = super.visitClassDeclaration(classDecl, ctx);
+                JavaType.FullyQualified type = TypeUtils.asFullyQualified(cd.getType());
+                if (type != null && cd.getLeadingAnnotations().stream()
+                        .anyMatch(a -> COMPONENT_MATCHER.matchesAnnotationOrMetaAnnotation(TypeUtils.asFullyQualified(a.getType())))) {
+                    doAfterVisit(new AutowiredFieldsIntoConstructorParametersVisitor(type.getFullyQualifiedName()));
+                }
+                return cd;
+            }
+        });
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.spring.table.TracingSampling;
+import org.openrewrite.properties.search.FindProperties;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.search.FindProperty;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+
+/**
+ * Reports Spring configuration files that sample every trace outside of development profiles, and optionally sets the
+ * sampling probability and OpenTelemetry batch span processor settings of a profile. The profile of a file is taken
+ * from its name, so {@code application-prod.yml} configures the {@code prod} profile, unless a document of a YAML file
+ * activates on other profiles with {@code spring.config.activate.on-profile}. Profiles inherit the settings of the base
+ * {@code application} configuration files of the same project.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class ConfigureTracingSampling extends ScanningRecipe<ConfigureTracingSampling.Accumulator> {
+    private static final Pattern APPLICATION_CONFIG = Pattern.compile("application(?:-(.+))?\\.(?:ya?ml|properties)");
+    private static final Set<String> DEVELOPMENT_PROFILES = new HashSet<>(Arrays.asList("dev", "development", "local", "test"));
+    private static final String SAMPLING_PROBABILITY = "management.tracing.sampling.probability";
+    private static final String OTEL_SAMPLER = "otel.traces.sampler";
+    private static final List<String> INHERITED_SETTINGS = Arrays.asList(SAMPLING_PROBABILITY,
+            "otel.bsp.schedule.delay", "otel.bsp.max.export.batch.size", "otel.bsp.max.queue.size");
+    private static final String ON_PROFILE = "spring.config.activate.on-profile";
+    // Only the OpenTelemetry Spring Boot starter reads `otel.*` settings from the Spring configuration
+    private static final String OPEN_TELEMETRY_STARTER = "io.opentelemetry.instrumentation.spring.autoconfigure.OpenTelemetryAutoConfiguration";
+
+    @Option(displayName = "Profile",
+            description = "The profile whose configuration files, like `application-prod.yml`, receive the settings. " +
+                    "When not set, the settings are added to the base `application` configuration files.",
+            required = false,
+            example = "prod")
+    @Nullable
+    String profile;
+
+    @Option(displayName = "Sampling probability",
+            description = "The `management.tracing.sampling.probability` to set where it is missing or samples every trace.",
+            required = false,
+            example = "0.1")
+    @Nullable
+    Double samplingProbability;
+
+    @Option(displayName = "Batch schedule delay",
+            description = "The `otel.bsp.schedule.delay`, in milliseconds, between two exports of the batch span processor " +
+                    "to set where it is missing. Like the other batch span processor settings, it is only added to " +
+                    "projects which use the OpenTelemetry Spring Boot starter.",
+            required = false,
+            example = "5000")
+    @Nullable
+    Long batchScheduleDelay;
+
+    @Option(displayName = "Maximum export batch size",
+            description = "The `otel.bsp.max.export.batch.size` to set where it is missing.",
+            required = false,
+            example = "512")
+    @Nullable
+    Integer maxExportBatchSize;
+
+    @Option(displayName = "Maximum queue size",
+            description = "The `otel.bsp.max.queue.size` to set where it is missing. Spans are dropped instead of " +
+                    "blocking the application when the queue is full.",
+            required = false,
+            example = "2048")
+    @Nullable
+    Integer maxQueueSize;
+
+    transient TracingSampling tracingSampling = new TracingSampling(this);
+
+    String displayName = "Configure tracing sampling and span export";
+
+    String description = "Report Spring configuration files that sample every trace with `management.tracing.sampling.probability` " +
+            "or `otel.traces.sampler` in a profile other than `dev`, `development`, `local` or `test`. Optionally lower " +
+            "the sampling probability and add the OpenTelemetry batch span processor settings to the configuration files " +
+            "of the selected profile that configure tracing, when the project uses the OpenTelemetry Spring Boot starter. " +
+            "Documents of multi-document YAML files belong to the profiles of their `spring.config.activate.on-profile`. " +
+            "Profiles inherit the settings of the base `application` configuration files of their project, so they only " +
+            "receive a sampling probability when the inherited one samples every trace.";
+
+    public static class Accumulator {
+        final Set<String> openTelemetryProjects = new HashSet<>();
+
+        /**
+         * The sampling probability and batch span processor settings of the base {@code application} configuration
+         * files, by project.
+         */
+        final Map<String, Map<String, String>> baseSettings = new HashMap<>();
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                SourceFile sourceFile = (SourceFile) tree;
+                if (sourceFile.getMarkers().findFirst(JavaSourceSet.class)
+                        .map(sourceSet -> sourceSet.getClasspath().stream()
+                                .anyMatch(type -> OPEN_TELEMETRY_STARTER.equals(type.getFullyQualifiedName())))
+                        .orElse(false)) {
+                    acc.openTelemetryProjects.add(project(sourceFile));
+                }
+                Matcher matcher = APPLICATION_CONFIG.matcher(sourceFile.getSourcePath().getFileName().toString());
+                if (matcher.matches() && matcher.group(1) == null) {
+                    Map<String, String> settings = acc.baseSettings.computeIfAbsent(project(sourceFile), k -> new HashMap<>());
+                    for (String key : INHERITED_SETTINGS) {
+                        String value = baseValue(tree, key);
+                        if (value != null) {
+                            settings.put(key, value);
+                        }
+                    }
+                }
+                return tree;
+            }
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        return Preconditions.check(new IsPossibleSpringConfigFile(), new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                SourceFile sourceFile = (SourceFile) tree;
+                Matcher matcher = APPLICATION_CONFIG.matcher(sourceFile.getSourcePath().getFileName().toString());
+                if (!matcher.matches()) {
+                    return tree;
+                }
+                String fileProfile = matcher.group(1);
+                boolean openTelemetry = acc.openTelemetryProjects.contains(project(sourceFile));
+                if (tree instanceof Yaml.Documents) {
+                    Yaml.Documents documents = (Yaml.Documents) tree;
+                    return documents.withDocuments(ListUtils.map(documents.getDocuments(), document -> {
+                        Yaml.Block onProfile = FindProperty.find(document, ON_PROFILE, true).stream().findFirst().orElse(null);
+                        String documentProfile = onProfile == null ? fileProfile : profiles(onProfile);
+                        if (onProfile != null && documentProfile == null) {
+                            return document;
+                        }
+                        Tree configured = configure(documents.withDocuments(singletonList(document)), sourceFile,
+                                documentProfile, openTelemetry, ctx);
+                        return configured instanceof Yaml.Documents ? ((Yaml.Documents) configured).getDocuments().get(0) : document;
+                    }));
+                } else if (hasProperty(tree, ON_PROFILE)) {
+                    // The properties of the documents of a multi-document properties file can't be told apart
+                    return tree;
+                }
+                return configure(tree, sourceFile, fileProfile, openTelemetry, ctx);
+            }
+
+            private @Nullable Tree configure(Tree tree, SourceFile sourceFile, @Nullable String documentProfile,
+                                             boolean openTelemetry, ExecutionContext ctx) {
+                if (!configuresTracing(tree)) {
+                    return tree;
+                }
+                boolean selectedProfile = profile == null ? documentProfile == null :
+                        documentProfile != null && splitProfiles(documentProfile).contains(profile);
+
+                String probability = propertyValue(tree, SAMPLING_PROBABILITY);
+                boolean fullSampling = isFullSampling(probability);
+                String sampler = propertyValue(tree, OTEL_SAMPLER);
+                if (documentProfile == null || !DEVELOPMENT_PROFILES.containsAll(splitProfiles(documentProfile))) {
+                    if (fullSampling) {
+                        insertRow(sourceFile, documentProfile, SAMPLING_PROBABILITY, probability, ctx);
+                    }
+                    if ("always_on".equals(sampler) || "parentbased_always_on".equals(sampler)) {
+                        insertRow(sourceFile, documentProfile, OTEL_SAMPLER, sampler, ctx);
+                    }
+                }
+                if (!selectedProfile) {
+                    return tree;
+                }
+
+                Map<String, String> inherited = documentProfile == null ? emptyMap() :
+                        acc.baseSettings.getOrDefault(project(sourceFile), emptyMap());
+                Tree t = tree;
+                if (samplingProbability != null) {
+                    if (fullSampling) {
+                        t = new ChangeSpringPropertyValue(SAMPLING_PROBABILITY, String.valueOf(samplingProbability),
+                                null, null, null).getVisitor().visit(t, ctx);
+                    } else if (probability == null && (!inherited.containsKey(SAMPLING_PROBABILITY) ||
+                                                       isFullSampling(inherited.get(SAMPLING_PROBABILITY)))) {
+                        t = addProperty(t, SAMPLING_PROBABILITY, samplingProbability, sourceFile, ctx);
+                    }
+                }
+                if (!openTelemetry) {
+                    return t;
+                }
+                Map<String, @Nullable Object> batchSettings = new LinkedHashMap<>();
+                batchSettings.put("otel.bsp.schedule.delay", batchScheduleDelay);
+                batchSettings.put("otel.bsp.max.export.batch.size", maxExportBatchSize);
+                batchSettings.put("otel.bsp.max.queue.size", maxQueueSize);
+                for (Map.Entry<String, @Nullable Object> setting : batchSettings.entrySet()) {
+                    if (!inherited.containsKey(setting.getKey())) {
+                        t = addProperty(t, setting.getKey(), setting.getValue(), sourceFile, ctx);
+                    }
+                }
+                return t;
+            }
+
+            private void insertRow(SourceFile sourceFile, @Nullable String documentProfile, String property, String value, ExecutionContext ctx) {
+                tracingSampling.insertRow(ctx, new TracingSampling.Row(
+                        sourceFile.getSourcePath().toString(),
+                        documentProfile == null ? "default" : documentProfile,
+                        property,
+                        value
+                ));
+            }
+
+            private @Nullable Tree addProperty(@Nullable Tree t, String key, @Nullable Object value, SourceFile sourceFile, ExecutionContext ctx) {
+                if (value == null || propertyValue(t, key) != null) {
+                    return t;
+                }
+                return new AddSpringProperty(key, String.valueOf(value), null,
+                        singletonList(sourceFile.getSourcePath().toString())).getVisitor().visit(t, ctx);
+            }
+        });
+    }
+
+    private static String project(SourceFile sourceFile) {
+        return sourceFile.getMarkers().findFirst(JavaProject.class).map(JavaProject::getProjectName).orElse("");
+    }
+
+    /**
+     * @return The comma separated profiles of a {@code spring.config.activate.on-profile} value, or {@code null} when
+     * they aren't literal values.
+     */
+    private static @Nullable String profiles(Yaml.Block onProfile) {
+        if (onProfile instanceof Yaml.Scalar) {
+            return ((Yaml.Scalar) onProfile).getValue();
+        } else if (onProfile instanceof Yaml.Sequence) {
+            List<String> profiles = new ArrayList<>();
+            for (Yaml.Sequence.Entry entry : ((Yaml.Sequence) onProfile).getEntries()) {
+                if (!(entry.getBlock() instanceof Yaml.Scalar)) {
+                    return null;
+                }
+                profiles.add(((Yaml.Scalar) entry.getBlock()).getValue());
+            }
+            return String.join(",", profiles);
+        }
+        return null;
+    }
+
+    /**
+     * @return The value of the property outside of the documents that only activate on some profiles.
+     */
+    private static @Nullable String baseValue(Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            for (Yaml.Document document : ((Yaml.Documents) tree).getDocuments()) {
+                if (FindProperty.find(document, ON_PROFILE, true).isEmpty()) {
+                    String value = propertyValue(((Yaml.Documents) tree).withDocuments(singletonList(document)), key);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+            }
+            return null;
+        }
+        return hasProperty(tree, ON_PROFILE) ? null : propertyValue(tree, key);
+    }
+
+    private static List<String> splitProfiles(String profiles) {
+        return Arrays.asList(profiles.trim().split("\\s*,\\s*"));
+    }
+
+    private static boolean configuresTracing(Tree tree) {
+        return hasProperty(tree, "management.tracing.*") || hasProperty(tree, "management.otlp.tracing.*") ||
+               hasProperty(tree, "otel.*");
+    }
+
+    private static boolean hasProperty(Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            return !FindProperty.find((Yaml.Documents) tree, key, true).isEmpty();
+        } else if (tree instanceof Properties.File) {
+            return !FindProperties.find((Properties.File) tree, key, true).isEmpty();
+        }
+        return false;
+    }
+
+    private static boolean isFullSampling(@Nullable String probability) {
+        if (probability == null) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(probability.trim()) >= 1.0;
+        } catch (NumberFormatException e) {
+            // A placeholder, like ${TRACING_PROBABILITY:1.0}, that is resolved at runtime
+            return false;
+        }
+    }
+
+    private static @Nullable String propertyValue(@Nullable Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            for (Yaml.Block block : FindProperty.find((Yaml.Documents) tree, key, true)) {
+                if (block instanceof Yaml.Scalar) {
+                    return ((Yaml.Scalar) block).getValue();
+                }
+            }
+        } else if (tree instanceof Properties.File) {
+            for (Properties.Entry entry : FindProperties.find((Properties.File) tree, key, true)) {
+                return entry.getValue().getText();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import lombok.Getter;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.*;
+
+import java.util.*;
+
+import static java.util.Comparator.comparing;
+
+public class MemoizingMapToCacheable extends Recipe {
+    private static final MethodMatcher COMPUTE_IF_ABSENT = new MethodMatcher("java.util.Map computeIfAbsent(..)", true);
+    private static final String CACHEABLE = "org.springframework.cache.annotation.Cacheable";
+
+    @Getter
+    final String displayName = "Replace memoizing maps in Spring components with `@Cacheable`";
+
+    @Getter
+    final String description = "Replace a private `ConcurrentHashMap` field of a Spring component that is only used by " +
+            "a method returning `cache.computeIfAbsent(argument, ...)` with a `@Cacheable` method. The map never evicts " +
+            "an entry, while the cache is bounded by the configured cache provider. The cache is named after the class and the field, " +
+            "so that the caches of different components don't share their entries.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new UsesType<>("java.util.concurrent.ConcurrentHashMap", false), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+                List<Memoization> memoizations = find(c);
+                if (memoizations.isEmpty()) {
+                    return c;
+                }
+
+                Set<JavaType.Variable> fields = new HashSet<>();
+                for (Memoization memoization : memoizations) {
+                    fields.add(memoization.getField());
+                }
+                c = c.withBody(c.getBody().withStatements(ListUtils.map(c.getBody().getStatements(), s ->
+                        s instanceof J.VariableDeclarations &&
+                        fields.contains(((J.VariableDeclarations) s).getVariables().get(0).getVariableType()) ? null : s)));
+
+                for (Memoization memoization : memoizations) {
+                    c = replaceWithCacheable(c, memoization, ctx);
+                }
+                maybeAddImport(CACHEABLE);
+                maybeRemoveImport("java.util.Map");
+                maybeRemoveImport("java.util.concurrent.ConcurrentMap");
+                maybeRemoveImport("java.util.concurrent.ConcurrentHashMap");
+                return c;
+            }
+
+            private J.ClassDeclaration replaceWithCacheable(J.ClassDeclaration c, Memoization memoization, ExecutionContext ctx) {
+                return (J.ClassDeclaration) new JavaIsoVisitor<ExecutionContext>() {
+                    @Override
+                    public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                        J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+                        if (!m.getId().equals(memoization.getMethod().getId())) {
+                            return m;
+                        }
+                        m = JavaTemplate.builder("@Cacheable(\"" + memoization.getCacheName() + "\")")
+                                .imports(CACHEABLE)
+                                .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-context-6"))
+                                .build()
+                                .apply(updateCursor(m), m.getCoordinates().addAnnotation(comparing(J.Annotation::getSimpleName)));
+                        return m;
+                    }
+
+                    @Override
+                    public J.Return visitReturn(J.Return _return, ExecutionContext ctx) {
+                        J.Return r = super.visitReturn(_return, ctx);
+                        J.MethodDeclaration enclosing = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                        if (enclosing == null || !enclosing.getId().equals(memoization.getMethod().getId()) ||
+                            !(r.getExpression() instanceof J.MethodInvocation)) {
+                            return r;
+                        }
+                        J.MethodInvocation computeIfAbsent = (J.MethodInvocation) r.getExpression();
+                        J.Identifier key = (J.Identifier) computeIfAbsent.getArguments().get(0);
+                        Expression function = computeIfAbsent.getArguments().get(1);
+                        if (function instanceof J.Lambda) {
+                            J.Lambda lambda = (J.Lambda) function;
+                            JavaType.Variable lambdaParameter = ((J.VariableDeclarations) lambda.getParameters().getParameters().get(0))
+                                    .getVariables().get(0).getVariableType();
+                            J body = new JavaVisitor<Integer>() {
+                                @Override
+                                public J visitIdentifier(J.Identifier ident, Integer p) {
+                                    if (ident.getFieldType() != null && ident.getFieldType().equals(lambdaParameter)) {
+                                        return key.withId(Tree.randomId()).withPrefix(ident.getPrefix());
+                                    }
+                                    return ident;
+                                }
+                            }.visitNonNull(lambda.getBody(), 0);
+                            return r.withExpression(((Expression) body).withPrefix(computeIfAbsent.getPrefix()));
+                        }
+                        J.MemberReference reference = (J.MemberReference) function;
+                        J.MethodInvocation invocation = JavaTemplate.builder(reference.getReference().getSimpleName() + "(#{any()})")
+                                .contextSensitive()
+                                .build()
+                                .apply(new Cursor(getCursor(), computeIfAbsent), computeIfAbsent.getCoordinates().replace(), key);
+                        return r.withExpression(invocation.withPrefix(computeIfAbsent.getPrefix()));
+                    }
+                }.visitNonNull(c, ctx, getCursor().getParentOrThrow());
+            }
+        });
+    }
+
+    /**
+     * Finds the memoizing maps of a Spring component: private {@code ConcurrentHashMap} fields that are only used in a
+     * method consisting of {@code return map.computeIfAbsent(parameter, function)}, where the function is a lambda
+     * with an expression body or a {@code this::method} reference. The method must be proxied by Spring for
+     * {@code @Cacheable} to apply, so it may not be private, static, final or called from within the class.
+     */
+    static List<Memoization> find(J.ClassDeclaration classDecl) {
+        if (!isComponent(classDecl)) {
+            return Collections.emptyList();
+        }
+        Map<JavaType.Variable, J.VariableDeclarations.NamedVariable> candidates = new LinkedHashMap<>();
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.VariableDeclarations) {
+                J.VariableDeclarations field = (J.VariableDeclarations) statement;
+                J.VariableDeclarations.NamedVariable variable = field.getVariables().get(0);
+                if (field.getVariables().size() == 1 && field.hasModifier(J.Modifier.Type.Private) &&
+                    variable.getVariableType() != null && variable.getInitializer() instanceof J.NewClass &&
+                    TypeUtils.isOfClassType(variable.getInitializer().getType(), "java.util.concurrent.ConcurrentHashMap") &&
+                    ((J.NewClass) variable.getInitializer()).getArguments().stream().allMatch(J.Empty.class::isInstance)) {
+                    candidates.put(variable.getVariableType(), variable);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<JavaType.Variable, List<Cursor>> usages = new HashMap<>();
+        Set<JavaType.Method> invokedMethods = new HashSet<>();
+        new JavaIsoVisitor<Integer>() {
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, Integer p) {
+                if (identifier.getFieldType() != null && candidates.containsKey(identifier.getFieldType()) &&
+                    !(getCursor().getParentTreeCursor().getValue() instanceof J.VariableDeclarations.NamedVariable)) {
+                    usages.computeIfAbsent(identifier.getFieldType(), v -> new ArrayList<>()).add(getCursor());
+                }
+                return identifier;
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Integer p) {
+                if (method.getMethodType() != null) {
+                    invokedMethods.add(method.getMethodType());
+                }
+                return super.visitMethodInvocation(method, p);
+            }
+
+            @Override
+            public J.MemberReference visitMemberReference(J.MemberReference memberRef, Integer p) {
+                if (memberRef.getMethodType() != null) {
+                    invokedMethods.add(memberRef.getMethodType());
+                }
+                return super.visitMemberReference(memberRef, p);
+            }
+        }.visit(classDecl.getBody(), 0, new Cursor(null, Cursor.ROOT_VALUE));
+
+        String className = classDecl.getType() == null ? classDecl.getSimpleName() : classDecl.getType().getFullyQualifiedName();
+        List<Memoization> memoizations = new ArrayList<>();
+        for (Map.Entry<JavaType.Variable, List<Cursor>> usage : usages.entrySet()) {
+            if (usage.getValue().size() != 1) {
+                continue;
+            }
+            J.MethodDeclaration method = memoizingMethod(usage.getValue().get(0));
+            if (method != null && !invokedMethods.contains(method.getMethodType())) {
+                memoizations.add(new Memoization(usage.getKey(), method, cacheName(className, candidates.get(usage.getKey()).getSimpleName())));
+            }
+        }
+        return memoizations;
+    }
+
+    private static boolean isComponent(J.ClassDeclaration classDecl) {
+        for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+            if (TypeUtils.isAssignableTo("org.springframework.stereotype.Component", annotation.getType()) ||
+                TypeUtils.isOfClassType(annotation.getType(), "org.springframework.stereotype.Service")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static J.@Nullable MethodDeclaration memoizingMethod(Cursor usage) {
+        Cursor invocationCursor = usage.getParentTreeCursor();
+        if (!(invocationCursor.getValue() instanceof J.MethodInvocation)) {
+            return null;
+        }
+        J.MethodInvocation invocation = invocationCursor.getValue();
+        Cursor returnCursor = invocationCursor.getParentTreeCursor();
+        Cursor blockCursor = returnCursor.getParentTreeCursor();
+        if (!COMPUTE_IF_ABSENT.matches(invocation) || invocation.getSelect() != usage.getValue() ||
+            !(returnCursor.getValue() instanceof J.Return) || !(blockCursor.getValue() instanceof J.Block) ||
+            !(blockCursor.getParentTreeCursor().getValue() instanceof J.MethodDeclaration)) {
+            return null;
+        }
+
+        J.MethodDeclaration method = blockCursor.getParentTreeCursor().getValue();
+        if (method.getBody() == null || method.getBody().getStatements().size() != 1 || method.getParameters().size() != 1 ||
+            !(method.getParameters().get(0) instanceof J.VariableDeclarations) || method.getMethodType() == null ||
+            method.hasModifier(J.Modifier.Type.Private) || method.hasModifier(J.Modifier.Type.Static) ||
+            method.hasModifier(J.Modifier.Type.Final)) {
+            return null;
+        }
+        JavaType.Variable parameter = ((J.VariableDeclarations) method.getParameters().get(0)).getVariables().get(0).getVariableType();
+        Expression key = invocation.getArguments().get(0);
+        if (!(key instanceof J.Identifier) || parameter == null || !parameter.equals(((J.Identifier) key).getFieldType())) {
+            return null;
+        }
+
+        Expression function = invocation.getArguments().get(1);
+        if (function instanceof J.Lambda) {
+            J.Lambda lambda = (J.Lambda) function;
+            return lambda.getParameters().getParameters().size() == 1 &&
+                   lambda.getParameters().getParameters().get(0) instanceof J.VariableDeclarations &&
+                   lambda.getBody() instanceof Expression ? method : null;
+        } else if (function instanceof J.MemberReference) {
+            Expression containing = ((J.MemberReference) function).getContaining();
+            return containing instanceof J.Identifier && "this".equals(((J.Identifier) containing).getSimpleName()) ? method : null;
+        }
+        return null;
+    }
+
+    /**
+     * Names the cache after the declaring class and the field, so {@code PRICE_CACHE} and {@code priceCache} of
+     * {@code com.example.PriceService} both become {@code com.example.PriceService.priceCache}. Another component with
+     * an equally named field gets a cache of its own, like it had a map of its own.
+     */
+    static String cacheName(String className, String fieldName) {
+        if (!fieldName.equals(fieldName.toUpperCase(Locale.ROOT))) {
+            return className + "." + fieldName;
+        }
+        StringBuilder name = new StringBuilder();
+        for (String part : fieldName.toLowerCase(Locale.ROOT).split("_")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            name.append(name.length() == 0 ? part : Character.toUpperCase(part.charAt(0)) + part.substring(1));
+        }
+        return className + "." + name;
+    }
+
+    @Value
+    static class Memoization {
+        JavaType.Variable field;
+        J.MethodDeclaration method;
+        String cacheName;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.dependencies.AddDependency;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.properties.search.FindProperties;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.search.FindProperty;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Configures Spring Boot to back the caches of applications that enable caching without a cache provider with a
+ * bounded Caffeine cache, instead of the {@code ConcurrentMapCacheManager} whose maps are never evicted.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class MigrateToCaffeineCache extends ScanningRecipe<MigrateToCaffeineCache.Accumulator> {
+    private static final String DEFAULT_SPEC = "maximumSize=1000,expireAfterWrite=10m";
+    private static final String CACHE_MANAGER = "org.springframework.cache.CacheManager";
+    private static final String CONCURRENT_MAP_CACHE_MANAGER = "org.springframework.cache.concurrent.ConcurrentMapCacheManager";
+    private static final Pattern BASE_APPLICATION_CONFIG = Pattern.compile("application\\.(?:ya?ml|properties)");
+    private static final AddDependency ADD_CAFFEINE = new AddDependency("com.github.ben-manes.caffeine", "caffeine", "3.x", null,
+            "org.springframework.cache.annotation.EnableCaching", null, null, null, null, null, null, null, null, null);
+
+    /**
+     * Spring Boot prefers these cache providers over Caffeine when they are on the classpath.
+     */
+    private static final Set<String> OTHER_CACHE_PROVIDERS = new HashSet<>(Arrays.asList(
+            "javax.cache.Caching",
+            "com.hazelcast.core.HazelcastInstance",
+            "org.springframework.data.couchbase.CouchbaseClientFactory",
+            "org.infinispan.spring.embedded.provider.SpringEmbeddedCacheManager",
+            "org.springframework.data.redis.connection.RedisConnectionFactory"
+    ));
+    private static final Set<String> CACHE_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "org.springframework.cache.annotation.Cacheable",
+            "org.springframework.cache.annotation.CachePut",
+            "org.springframework.cache.annotation.CacheEvict"
+    ));
+
+    @Option(displayName = "Caffeine spec",
+            description = "The `spring.cache.caffeine.spec` bounding every cache. Defaults to `" + DEFAULT_SPEC + "`.",
+            required = false,
+            example = "maximumSize=500,expireAfterAccess=5m")
+    @Nullable
+    String spec;
+
+    @Option(displayName = "Convert memoizing maps",
+            description = "Also replace `ConcurrentHashMap` fields of Spring components that memoize a method with " +
+                    "`computeIfAbsent` by a `@Cacheable` method, when this recipe backs the caches with Caffeine. " +
+                    "Defaults to `false`.",
+            required = false)
+    @Nullable
+    Boolean convertMemoizingMaps;
+
+    String displayName = "Back Spring caches with bounded Caffeine caches";
+
+    String description = "Applications that use `@EnableCaching` without a cache provider get a `ConcurrentMapCacheManager`, " +
+            "whose caches grow without bounds. This recipe adds the Caffeine dependency and a `spring.cache.caffeine.spec` " +
+            "to the application configuration, together with the `spring.cache.cache-names` when all cache names are " +
+            "known. Applications that declare their own `CacheManager` bean, already set `spring.cache.type` or a " +
+            "Caffeine spec, have another cache provider like JCache, Hazelcast, Infinispan, Couchbase or Redis on the " +
+            "classpath, or have no base `application` configuration file to receive the spec are left unchanged, and " +
+            "`ConcurrentMapCacheManager` beans are marked. Every project is considered on its own.";
+
+    public static class Accumulator {
+        final Map<String, Project> projects = new HashMap<>();
+        final AddDependency.Accumulator addDependency;
+
+        Accumulator(AddDependency.Accumulator addDependency) {
+            this.addDependency = addDependency;
+        }
+
+        Project project(SourceFile sourceFile) {
+            return projects.computeIfAbsent(sourceFile.getMarkers().findFirst(JavaProject.class)
+                    .map(JavaProject::getProjectName).orElse(""), k -> new Project());
+        }
+    }
+
+    public static class Project {
+        boolean enableCaching;
+        boolean configured;
+        boolean otherCacheProvider;
+        boolean configFile;
+        boolean unknownCacheNames;
+        final Set<String> cacheNames = new TreeSet<>();
+
+        boolean isBackedByCaffeine() {
+            return enableCaching && !configured && !otherCacheProvider && configFile;
+        }
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator(ADD_CAFFEINE.getInitialValue(ctx));
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                SourceFile sourceFile = (SourceFile) tree;
+                Project project = acc.project(sourceFile);
+                TreeVisitor<?, ExecutionContext> dependencyScanner = ADD_CAFFEINE.getScanner(acc.addDependency);
+                if (dependencyScanner.isAcceptable(sourceFile, ctx)) {
+                    dependencyScanner.visit(tree, ctx);
+                }
+                project.otherCacheProvider |= sourceFile.getMarkers().findFirst(JavaSourceSet.class)
+                        .map(sourceSet -> sourceSet.getClasspath().stream()
+                                .anyMatch(type -> OTHER_CACHE_PROVIDERS.contains(type.getFullyQualifiedName())))
+                        .orElse(false);
+                if (tree instanceof JavaSourceFile) {
+                    javaScanner.visit(tree, ctx);
+                } else if (tree instanceof Yaml.Documents || tree instanceof Properties.File) {
+                    project.configured |= hasProperty(tree, "spring.cache.type") || hasProperty(tree, "spring.cache.caffeine.spec");
+                    project.configFile |= isBaseApplicationConfig(sourceFile);
+                }
+                return tree;
+            }
+
+            final TreeVisitor<?, ExecutionContext> javaScanner = new JavaIsoVisitor<ExecutionContext>() {
+                @Override
+                public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                    if (Boolean.TRUE.equals(convertMemoizingMaps)) {
+                        for (MemoizingMapToCacheable.Memoization memoization : MemoizingMapToCacheable.find(classDecl)) {
+                            project().cacheNames.add(memoization.getCacheName());
+                        }
+                    }
+                    return super.visitClassDeclaration(classDecl, ctx);
+                }
+
+                @Override
+                public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+                    if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.cache.annotation.EnableCaching")) {
+                        project().enableCaching = true;
+                    } else if (isCacheAnnotation(annotation)) {
+                        List<String> names = cacheNames(annotation);
+                        if (names == null) {
+                            project().unknownCacheNames = true;
+                        } else {
+                            project().cacheNames.addAll(names);
+                        }
+                    }
+                    return annotation;
+                }
+
+                @Override
+                public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                    if (isCacheManagerBean(method)) {
+                        project().configured = true;
+                    }
+                    return super.visitMethodDeclaration(method, ctx);
+                }
+
+                private Project project() {
+                    return acc.project(getCursor().firstEnclosingOrThrow(SourceFile.class));
+                }
+            };
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        TreeVisitor<?, ExecutionContext> java = new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.Return visitReturn(J.Return _return, ExecutionContext ctx) {
+                J.Return r = super.visitReturn(_return, ctx);
+                J.MethodDeclaration enclosing = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                if (enclosing != null && isCacheManagerBean(enclosing) && r.getExpression() != null &&
+                    TypeUtils.isOfClassType(r.getExpression().getType(), CONCURRENT_MAP_CACHE_MANAGER)) {
+                    return r.withExpression(SearchResult.found(r.getExpression(), "Unbounded cache manager"));
+                }
+                return r;
+            }
+        };
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                Project project = acc.project((SourceFile) tree);
+                if (tree instanceof JavaSourceFile) {
+                    // Memoizing maps are only converted when the caches they become are backed by Caffeine
+                    Tree t = Boolean.TRUE.equals(convertMemoizingMaps) && project.isBackedByCaffeine() ?
+                            new MemoizingMapToCacheable().getVisitor().visit(tree, ctx) : tree;
+                    return java.visit(t, ctx);
+                } else if (!project.isBackedByCaffeine()) {
+                    return tree;
+                } else if (!(tree instanceof Yaml.Documents || tree instanceof Properties.File)) {
+                    TreeVisitor<?, ExecutionContext> addDependency = ADD_CAFFEINE.getVisitor(acc.addDependency);
+                    return addDependency.isAcceptable((SourceFile) tree, ctx) ? addDependency.visit(tree, ctx) : tree;
+                } else if (!isBaseApplicationConfig((SourceFile) tree)) {
+                    return tree;
+                }
+                Tree t = new AddSpringProperty("spring.cache.caffeine.spec", spec == null ? DEFAULT_SPEC : spec, null, null)
+                        .getVisitor().visit(tree, ctx);
+                if (!project.unknownCacheNames && !project.cacheNames.isEmpty() && !hasProperty(t, "spring.cache.cache-names")) {
+                    t = new AddSpringProperty("spring.cache.cache-names", String.join(",", project.cacheNames), null, null)
+                            .getVisitor().visit(t, ctx);
+                }
+                return t;
+            }
+        };
+    }
+
+    private static boolean isBaseApplicationConfig(SourceFile sourceFile) {
+        return BASE_APPLICATION_CONFIG.matcher(sourceFile.getSourcePath().getFileName().toString()).matches();
+    }
+
+    private static boolean isCacheAnnotation(J.Annotation annotation) {
+        JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+        return type != null && CACHE_ANNOTATIONS.contains(type.getFullyQualifiedName());
+    }
+
+    /**
+     * @return The literal cache names of a caching annotation, or {@code null} when they are not declared literally,
+     * like when they are inherited from {@code @CacheConfig} or resolved by a {@code CacheResolver}.
+     */
+    private static @Nullable List<String> cacheNames(J.Annotation annotation) {
+        List<String> names = new ArrayList<>();
+        for (Expression argument : annotation.getArguments() == null ? Collections.<Expression>emptyList() : annotation.getArguments()) {
+            Expression value = argument;
+            if (argument instanceof J.Assignment) {
+                String name = ((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName();
+                if (!"value".equals(name) && !"cacheNames".equals(name)) {
+                    continue;
+                }
+                value = ((J.Assignment) argument).getAssignment();
+            }
+            List<Expression> elements = value instanceof J.NewArray && ((J.NewArray) value).getInitializer() != null ?
+                    ((J.NewArray) value).getInitializer() : Collections.singletonList(value);
+            for (Expression element : elements) {
+                if (!(element instanceof J.Literal) || !(((J.Literal) element).getValue() instanceof String)) {
+                    return null;
+                }
+                names.add((String) ((J.Literal) element).getValue());
+            }
+        }
+        return names.isEmpty() ? null : names;
+    }
+
+    private static boolean isCacheManagerBean(J.MethodDeclaration method) {
+        if (method.getMethodType() == null || !TypeUtils.isAssignableTo(CACHE_MANAGER, method.getMethodType().getReturnType())) {
+            return false;
+        }
+        for (J.Annotation annotation : method.getLeadingAnnotations()) {
+            if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.context.annotation.Bean")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasProperty(@Nullable Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            return !FindProperty.find((Yaml.Documents) tree, key, true).isEmpty();
+        } else if (tree instanceof Properties.File) {
+            return !FindProperties.find((Properties.File) tree, key, true).isEmpty();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.batch;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.search.UsesMethod;
+import org.openrewrite.java.spring.table.ChunkOrientedSteps;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class AuditChunkOrientedSteps extends Recipe {
+    private static final MethodMatcher BUILD = new MethodMatcher("org.springframework.batch.core.step.builder.SimpleStepBuilder build()", true);
+    private static final String STEP_BUILDER = "org.springframework.batch.core.step.builder.StepBuilder";
+    private static final String VIRTUAL_THREAD_TASK_EXECUTOR = "org.springframework.core.task.VirtualThreadTaskExecutor";
+
+    /**
+     * Readers documented as safe to share between the threads of a multithreaded step.
+     */
+    private static final List<String> THREAD_SAFE_READERS = Arrays.asList(
+            "org.springframework.batch.item.database.JdbcPagingItemReader",
+            "org.springframework.batch.item.database.JpaPagingItemReader",
+            "org.springframework.batch.item.support.SynchronizedItemReader",
+            "org.springframework.batch.item.support.SynchronizedItemStreamReader"
+    );
+
+    /**
+     * Writers without state of their own, or which synchronize access to it.
+     */
+    private static final List<String> THREAD_SAFE_WRITERS = Arrays.asList(
+            "org.springframework.batch.item.database.JdbcBatchItemWriter",
+            "org.springframework.batch.item.database.JpaItemWriter",
+            "org.springframework.batch.item.data.MongoItemWriter",
+            "org.springframework.batch.item.data.RepositoryItemWriter",
+            "org.springframework.batch.item.support.SynchronizedItemWriter",
+            "org.springframework.batch.item.support.SynchronizedItemStreamWriter"
+    );
+
+    /**
+     * Processors without state of their own.
+     */
+    private static final List<String> THREAD_SAFE_PROCESSORS = Arrays.asList(
+            "org.springframework.batch.item.support.PassThroughItemProcessor",
+            "org.springframework.batch.item.validator.ValidatingItemProcessor",
+            "org.springframework.batch.item.validator.BeanValidatingItemProcessor"
+    );
+
+    @Option(displayName = "Add virtual thread task executor",
+            description = "Add a `VirtualThreadTaskExecutor` to single-threaded steps whose reader, writer and processor are thread-safe, " +
+                    "so chunks are processed concurrently. The reader must be configured with `saveState(false)` in the same class, " +
+                    "as the state of a reader that is read concurrently can't be used to restart the step. " +
+                    "Requires Spring Framework 6.1 or later.",
+            required = false)
+    @Nullable
+    Boolean addTaskExecutor;
+
+    @Option(displayName = "Minimum chunk size",
+            description = "Raise literal chunk sizes below this value to it, reducing the number of transactions a step commits.",
+            required = false,
+            example = "100")
+    @Nullable
+    Integer minimumChunkSize;
+
+    transient ChunkOrientedSteps chunkOrientedSteps = new ChunkOrientedSteps(this);
+
+    String displayName = "Audit chunk-oriented Spring Batch steps";
+
+    String description = "List the chunk size, reader, writer, task executor and throttle limit of every chunk-oriented step " +
+            "built with a `StepBuilder` in a data table, and mark the steps that run single-threaded. Optionally adds a virtual " +
+            "thread task executor to steps with a thread-safe reader that doesn't save its state, like a `JdbcPagingItemReader`, " +
+            "and a thread-safe writer and processor, and raises small chunk sizes.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new UsesMethod<>(BUILD), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                if (!BUILD.matches(m)) {
+                    return m;
+                }
+
+                // The builder chain, keyed by the last call of each builder method
+                Map<String, J.MethodInvocation> calls = new HashMap<>();
+                Expression select = m.getSelect();
+                while (select instanceof J.MethodInvocation) {
+                    calls.putIfAbsent(((J.MethodInvocation) select).getSimpleName(), (J.MethodInvocation) select);
+                    select = ((J.MethodInvocation) select).getSelect();
+                }
+                J.MethodInvocation chunk = calls.get("chunk");
+                if (chunk == null) {
+                    return m;
+                }
+
+                Expression name = select instanceof J.NewClass && TypeUtils.isOfClassType(select.getType(), STEP_BUILDER) ?
+                        ((J.NewClass) select).getArguments().get(0) :
+                        calls.containsKey("get") ? calls.get("get").getArguments().get(0) : null;
+                String literalName = name instanceof J.Literal && ((J.Literal) name).getValue() instanceof String ?
+                        (String) ((J.Literal) name).getValue() : null;
+                J.MethodInvocation reader = calls.get("reader");
+                boolean threadSafeReader = reader != null && THREAD_SAFE_READERS.stream()
+                        .anyMatch(fqn -> TypeUtils.isAssignableTo(fqn, reader.getArguments().get(0).getType()));
+                J.MethodInvocation taskExecutor = calls.get("taskExecutor");
+                J.MethodInvocation throttleLimit = calls.get("throttleLimit");
+
+                chunkOrientedSteps.insertRow(ctx, new ChunkOrientedSteps.Row(
+                        getCursor().firstEnclosingOrThrow(JavaSourceFile.class).getSourcePath().toString(),
+                        literalName != null ? literalName : name == null ? "" : name.printTrimmed(getCursor()),
+                        chunk.getArguments().get(0).printTrimmed(getCursor()),
+                        argumentType(reader),
+                        argumentType(calls.get("writer")),
+                        threadSafeReader,
+                        taskExecutor == null ? "" : taskExecutor.getArguments().get(0).printTrimmed(getCursor()),
+                        throttleLimit == null ? "" : throttleLimit.getArguments().get(0).printTrimmed(getCursor())
+                ));
+
+                Expression size = chunk.getArguments().get(0);
+                if (minimumChunkSize != null && size instanceof J.Literal && ((J.Literal) size).getValue() instanceof Integer &&
+                        (Integer) ((J.Literal) size).getValue() < minimumChunkSize) {
+                    m = (J.MethodInvocation) new JavaIsoVisitor<Integer>() {
+                        @Override
+                        public J.Literal visitLiteral(J.Literal literal, Integer p) {
+                            return literal == size ?
+                                    literal.withValue(minimumChunkSize).withValueSource(String.valueOf(minimumChunkSize)) :
+                                    literal;
+                        }
+                    }.visitNonNull(m, 0, getCursor().getParentOrThrow());
+                }
+
+                if (taskExecutor != null) {
+                    return m;
+                } else if (!Boolean.TRUE.equals(addTaskExecutor)) {
+                    return SearchResult.found(m, "Single-threaded step");
+                }
+                String blocker = !threadSafeReader ? "the reader isn't thread-safe" :
+                        !savesNoState(reader.getArguments().get(0).getType()) ?
+                                "the reader isn't configured with `saveState(false)` in this class" :
+                        !isThreadSafe(calls.get("writer"), THREAD_SAFE_WRITERS) ? "the writer isn't known to be thread-safe" :
+                        calls.containsKey("processor") && !isThreadSafe(calls.get("processor"), THREAD_SAFE_PROCESSORS) ?
+                                "the processor isn't known to be thread-safe" : null;
+                if (blocker != null) {
+                    return SearchResult.found(m, "Single-threaded step, as " + blocker);
+                }
+                maybeAddImport(VIRTUAL_THREAD_TASK_EXECUTOR);
+                String threadNamePrefix = literalName == null ? "" : "\"" + literalName + "-\"";
+                return JavaTemplate.builder("#{any()}\n.taskExecutor(new VirtualThreadTaskExecutor(" + threadNamePrefix + "))\n.build()")
+                        .imports(VIRTUAL_THREAD_TASK_EXECUTOR)
+                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx,
+                                "spring-batch-core-5.1", "spring-batch-infrastructure-5.1", "spring-core-6", "spring-tx-5"))
+                        .build()
+                        .apply(getCursor(), m.getCoordinates().replace(), m.getSelect());
+            }
+
+            private boolean isThreadSafe(J.@Nullable MethodInvocation call, List<String> threadSafeTypes) {
+                return call != null && threadSafeTypes.stream()
+                        .anyMatch(fqn -> TypeUtils.isAssignableTo(fqn, call.getArguments().get(0).getType()));
+            }
+
+            /**
+             * Whether the class configures a reader of the step's reader type with {@code saveState(false)}, either on
+             * the reader itself or on its builder, like {@code JdbcPagingItemReaderBuilder}. The reader of synchronized
+             * readers is a delegate of any type.
+             */
+            private boolean savesNoState(@Nullable JavaType readerType) {
+                JavaType.FullyQualified reader = TypeUtils.asFullyQualified(readerType);
+                J.ClassDeclaration classDecl = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                if (reader == null || classDecl == null) {
+                    return false;
+                }
+                return new JavaIsoVisitor<AtomicBoolean>() {
+                    @Override
+                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, AtomicBoolean found) {
+                        // The type of the reader or builder that is configured, rather than the type declaring the method
+                        JavaType.FullyQualified configured = method.getSelect() == null ? null :
+                                TypeUtils.asFullyQualified(method.getSelect().getType());
+                        if (("saveState".equals(method.getSimpleName()) || "setSaveState".equals(method.getSimpleName())) &&
+                            J.Literal.isLiteralValue(method.getArguments().get(0), false) && configured != null) {
+                            found.compareAndSet(false, reader.getClassName().startsWith("Synchronized") ?
+                                    configured.getPackageName().startsWith("org.springframework.batch.item") :
+                                    configured.getClassName().equals(reader.getClassName()) ||
+                                    configured.getClassName().equals(reader.getClassName() + "Builder"));
+                        }
+                        return super.visitMethodInvocation(method, found);
+                    }
+                }.reduce(classDecl, new AtomicBoolean()).get();
+            }
+
+            private String argumentType(J.@Nullable MethodInvocation call) {
+                if (call == null) {
+                    return "";
+                }
+                JavaType.FullyQualified type = TypeUtils.asFullyQualified(call.getArguments().get(0).getType());
+                return type == null ? call.getArguments().get(0).printTrimmed(getCursor()) : type.getFullyQualifiedName();
+            }
+        });
+    }
+}
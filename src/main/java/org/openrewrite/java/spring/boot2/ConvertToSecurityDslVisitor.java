@@ -38,6 +38,7 @@ public class ConvertToSecurityDslVisitor<P> extends JavaIsoVisitor<P> {
 
     private static final String MSG_FLATTEN_CHAIN = "http-security-dsl-flatten-invocation-chain";
     private static final String MSG_TOP_INVOCATION = "top-method-invocation";
+    private static final String MSG_CONVERTED = "http-security-dsl-converted-invocations";
 
     private static final String FQN_CUSTOMIZER = "org.springframework.security.config.Customizer";
     private static final JavaType.FullyQualified CUSTOMIZER_SHALLOW_TYPE = JavaType.ShallowClass.build(FQN_CUSTOMIZER);
@@ -61,6 +62,13 @@ public class ConvertToSecurityDslVisitor<P> extends JavaIsoVisitor<P> {
      */
     private final Map<String, String> methodRenames;
 
+    /**
+     * When set, each builder chain is decomposed once from its top invocation and converted in a single pass,
+     * instead of every applicable invocation walking up the cursor and marking the calls to fold into its lambda.
+     * The result is the same, but long chains are no longer re-walked and only the converted invocations are formatted.
+     */
+    private final boolean convertWholeChains;
+
     public ConvertToSecurityDslVisitor(String securityFqn, Collection<String> convertableMethods) {
         this(securityFqn, convertableMethods, new HashMap<>());
     }
@@ -70,27 +78,21 @@ public class ConvertToSecurityDslVisitor<P> extends JavaIsoVisitor<P> {
         this(securityFqn, convertableMethods, argReplacements, new HashMap<>());
     }
 
+    public ConvertToSecurityDslVisitor(String securityFqn, Collection<String> convertableMethods,
+                                       Map<String, String> argReplacements, Map<String, String> methodRenames) {
+        this(securityFqn, convertableMethods, argReplacements, methodRenames, false);
+    }
+
     @Override
     public J.MethodInvocation visitMethodInvocation(J.MethodInvocation initialMethod, P executionContext) {
+        if (convertWholeChains) {
+            return visitWholeChain(initialMethod, executionContext);
+        }
         J.MethodInvocation method = super.visitMethodInvocation(initialMethod, executionContext);
         if (isApplicableMethod(method)) {
             J.MethodInvocation m = method;
             method = createDesiredReplacement(method)
-                    .map(newMethodType -> {
-                        List<J.MethodInvocation> chain = computeAndMarkChain();
-                        boolean keepArg = keepArg(m.getSimpleName());
-                        String paramName = keepArg ? "configurer" : generateParamNameFromMethodName(m.getSimpleName());
-                        return m
-                                .withMethodType(newMethodType)
-                                .withName(m.getName().withSimpleName(newMethodType.getName()))
-                                .withArguments(ListUtils.concat(
-                                                keepArg ? m.getArguments().get(0) : null,
-                                                singletonList(chain.isEmpty() ?
-                                                        createDefaultsCall() :
-                                                        createLambdaParam(paramName, newMethodType.getParameterTypes().get(keepArg ? 1 : 0), chain))
-                                        )
-                                );
-                    })
+                    .map(newMethodType -> convert(m, newMethodType, computeAndMarkChain()))
                     .orElse(method);
         }
         Boolean msg = getCursor().pollMessage(MSG_FLATTEN_CHAIN);
@@ -107,6 +109,112 @@ public class ConvertToSecurityDslVisitor<P> extends JavaIsoVisitor<P> {
         return method;
     }
 
+    private J.MethodInvocation visitWholeChain(J.MethodInvocation initialMethod, P executionContext) {
+        Cursor grandParent = getCursor().getParent(2);
+        if (grandParent != null && grandParent.getValue() instanceof J.MethodInvocation) {
+            // not the top of a chain, the enclosing invocation converts the chain this one is part of
+            return super.visitMethodInvocation(initialMethod, executionContext);
+        }
+        Set<UUID> converted = new HashSet<>();
+        getCursor().putMessage(MSG_CONVERTED, converted);
+        J.MethodInvocation method = super.visitMethodInvocation(initialMethod, executionContext);
+
+        // Decompose the (already visited) chain from the innermost invocation to the top one
+        List<J.MethodInvocation> chain = new ArrayList<>();
+        for (Expression e = method; e instanceof J.MethodInvocation; e = ((J.MethodInvocation) e).getSelect()) {
+            chain.add((J.MethodInvocation) e);
+        }
+        Collections.reverse(chain);
+
+        Expression select = chain.get(0).getSelect();
+        for (int i = 0; i < chain.size(); ) {
+            J.MethodInvocation m = chain.get(i).withSelect(select);
+            int next = i + 1;
+            if (isApplicableMethod(m)) {
+                Optional<JavaType.Method> newMethodType = createDesiredReplacement(m);
+                if (newMethodType.isPresent()) {
+                    List<J.MethodInvocation> lambdaChain = new ArrayList<>();
+                    J.MethodInvocation applicable = m;
+                    // the invocation taking over the argument is a new one, the converted invocation keeps its id
+                    createDesiredReplacementForArg(applicable).ifPresent(methodType ->
+                            lambdaChain.add(applicable.withId(Tree.randomId()).withName(applicable.getName().withType(methodType).withSimpleName(methodType.getName()))));
+                    for (; next < chain.size() && !isAndMethod(chain.get(next)) && !isDisableMethod(chain.get(next)); next++) {
+                        lambdaChain.add(chain.get(next));
+                    }
+                    if (next < chain.size()) {
+                        if (isAndMethod(chain.get(next))) {
+                            next++;
+                        } else if (isDisableMethod(chain.get(next))) {
+                            lambdaChain.add(chain.get(next++));
+                        }
+                    }
+                    if (next == chain.size() && !lambdaChain.isEmpty()) {
+                        // the top invocation carries the prefix of the whole chain, which doesn't belong in the lambda
+                        J.MethodInvocation topInvocation = lambdaChain.remove(lambdaChain.size() - 1);
+                        lambdaChain.add(topInvocation.withMarkers(topInvocation.getMarkers().addIfAbsent(new Markup.Info(Tree.randomId(), MSG_TOP_INVOCATION, null))));
+                    }
+                    m = convert(m, newMethodType.get(), lambdaChain);
+                    converted.add(m.getId());
+                    if (next > i + 1) {
+                        // the folded invocations are replaced by the converted one
+                        J.MethodInvocation lastFolded = chain.get(next - 1);
+                        m = m.withPrefix(lastFolded.getPrefix()).withComments(lastFolded.getComments());
+                    }
+                }
+            }
+            select = m;
+            i = next;
+        }
+
+        J.MethodInvocation top = (J.MethodInvocation) requireNonNull(select);
+        Set<UUID> enclosingConverted = getCursor().getParentOrThrow().getNearestMessage(MSG_CONVERTED);
+        if (enclosingConverted != null) {
+            // a chain in a lambda of another chain, whose formatting the conversions are indented relative to
+            enclosingConverted.addAll(converted);
+            return top;
+        }
+        return converted.isEmpty() ? top : withFormattedConversions(top, converted, executionContext);
+    }
+
+    /**
+     * Only the arguments of the converted invocations take the formatting of the chain, the rest is kept as written.
+     */
+    private J.MethodInvocation withFormattedConversions(J.MethodInvocation top, Set<UUID> converted, P p) {
+        Map<UUID, JContainer<Expression>> formattedArguments = new HashMap<>();
+        new JavaIsoVisitor<Map<UUID, JContainer<Expression>>>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Map<UUID, JContainer<Expression>> arguments) {
+                if (converted.contains(method.getId())) {
+                    arguments.put(method.getId(), method.getPadding().getArguments());
+                }
+                return super.visitMethodInvocation(method, arguments);
+            }
+        }.visit(autoFormat(top, p), formattedArguments);
+        return (J.MethodInvocation) new JavaIsoVisitor<Integer>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Integer unused) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, unused);
+                JContainer<Expression> arguments = formattedArguments.get(m.getId());
+                return arguments == null ? m : m.getPadding().withArguments(arguments);
+            }
+        }.visitNonNull(top, 0);
+    }
+
+    private J.MethodInvocation convert(J.MethodInvocation m, JavaType.Method newMethodType, List<J.MethodInvocation> chain) {
+        boolean keepArg = keepArg(m.getSimpleName());
+        String paramName = keepArg ? "configurer" : generateParamNameFromMethodName(m.getSimpleName());
+        return m
+                .withMethodType(newMethodType)
+                .withName(m.getName().withSimpleName(newMethodType.getName()))
+                .withArguments(ListUtils.concat(
+                                keepArg ? m.getArguments().get(0) : null,
+                                singletonList(chain.isEmpty() ?
+                                        createDefaultsCall() :
+                                        createLambdaParam(paramName, newMethodType.getParameterTypes().get(keepArg ? 1 : 0), chain))
+                        )
+                );
+    }
+
     private static String generateParamNameFromMethodName(String n) {
         int i = n.length() - 1;
         //noinspection StatementWithEmptyBody
@@ -27,6 +27,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
+import static java.util.Collections.emptyMap;
+
 public final class HeadersConfigurerLambdaDsl extends Recipe {
 
     private static final String FQN_HEADERS_CONFIGURER = "org.springframework.security.config.annotation.web.configurers.HeadersConfigurer";
@@ -51,7 +53,7 @@ public final class HeadersConfigurerLambdaDsl extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new UsesType<>(FQN_HEADERS_CONFIGURER, true),
-                new ConvertToSecurityDslVisitor<>(FQN_HEADERS_CONFIGURER, APPLICABLE_METHOD_NAMES, ARG_REPLACEMENTS)
+                new ConvertToSecurityDslVisitor<>(FQN_HEADERS_CONFIGURER, APPLICABLE_METHOD_NAMES, ARG_REPLACEMENTS, emptyMap(), true)
         );
     }
 
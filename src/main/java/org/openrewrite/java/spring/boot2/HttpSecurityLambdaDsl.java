@@ -25,6 +25,8 @@ import org.openrewrite.java.search.UsesType;
 import java.util.Arrays;
 import java.util.Collection;
 
+import static java.util.Collections.emptyMap;
+
 public final class HttpSecurityLambdaDsl extends Recipe {
 
     private static final String FQN_HTTP_SECURITY = "org.springframework.security.config.annotation.web.builders.HttpSecurity";
@@ -45,7 +47,7 @@ public final class HttpSecurityLambdaDsl extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new UsesType<>(FQN_HTTP_SECURITY, true),
-                new ConvertToSecurityDslVisitor<>(FQN_HTTP_SECURITY, APPLICABLE_METHOD_NAMES)
+                new ConvertToSecurityDslVisitor<>(FQN_HTTP_SECURITY, APPLICABLE_METHOD_NAMES, emptyMap(), emptyMap(), true)
         );
     }
 
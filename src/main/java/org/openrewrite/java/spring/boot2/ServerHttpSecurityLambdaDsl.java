@@ -25,6 +25,8 @@ import org.openrewrite.java.search.UsesType;
 import java.util.Arrays;
 import java.util.Collection;
 
+import static java.util.Collections.emptyMap;
+
 public final class ServerHttpSecurityLambdaDsl extends Recipe {
 
     private static final String FQN_SERVER_HTTP_SECURITY = "org.springframework.security.config.web.server.ServerHttpSecurity";
@@ -44,7 +46,7 @@ public final class ServerHttpSecurityLambdaDsl extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new UsesType<>(FQN_SERVER_HTTP_SECURITY, true),
-                new ConvertToSecurityDslVisitor<>(FQN_SERVER_HTTP_SECURITY, APPLICABLE_METHOD_NAMES)
+                new ConvertToSecurityDslVisitor<>(FQN_SERVER_HTTP_SECURITY, APPLICABLE_METHOD_NAMES, emptyMap(), emptyMap(), true)
         );
     }
 
@@ -15,30 +15,37 @@
  */
 package org.openrewrite.java.spring.boot2.search;
 
-import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
 import org.openrewrite.Tree;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.marker.JavaSourceSet;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.marker.Marker;
 import org.openrewrite.marker.SearchResult;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 
 /**
  * Adds a marker to an AST if Spring Data Repository invalid domain ID type is discovered. The marker is over the AST
  * node of an ID type if it is available in the AST. Alternatively it would over the class name the repository extends
  * from.
+ * <p>
+ * Resolved repository ancestries and entity ID types are memoized in a {@link IdTypeCache}, keyed by fully qualified
+ * name. When the visitor is driven by an {@link ExecutionContext} the cache is shared by the source files of one
+ * source set in one cycle, as the same name may refer to different types in other source sets and other recipes may
+ * change the types between cycles. Otherwise it lives as long as the visitor instance.
  *
  * @author Alex Boyko
  */
-@RequiredArgsConstructor
 public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
 
     private static final String REPOSITORY = "org.springframework.data.repository.Repository";
@@ -47,32 +54,71 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
     private static final AnnotationMatcher ID_ANNOTATION_MATCHER = new AnnotationMatcher("@" + ID, true);
     public static final String ID_CLASS = "idClass";
 
+    private static final String ID_TYPE_CACHE = EntityIdForRepositoryVisitor.class.getName() + ".ID_TYPE_CACHE";
+
     final private boolean considerIdField;
 
+    private @Nullable IdTypeCache idTypeCache;
+
     public EntityIdForRepositoryVisitor() {
         this(false);
     }
 
+    public EntityIdForRepositoryVisitor(boolean considerIdField) {
+        this.considerIdField = considerIdField;
+    }
+
+    /**
+     * @param cache explicitly shared cache, e.g. across several runs over the same sources
+     */
+    public EntityIdForRepositoryVisitor(boolean considerIdField, IdTypeCache cache) {
+        this.considerIdField = considerIdField;
+        this.idTypeCache = cache;
+    }
+
+    private IdTypeCache idTypeCache(T p) {
+        if (idTypeCache == null && !(p instanceof ExecutionContext)) {
+            idTypeCache = new IdTypeCache();
+        }
+        if (idTypeCache != null) {
+            return idTypeCache;
+        }
+
+        ExecutionContext ctx = (ExecutionContext) p;
+        JavaSourceFile sourceFile = getCursor().firstEnclosing(JavaSourceFile.class);
+        String scope = ctx.getCycle() + ":" + (sourceFile == null ? "" : sourceFile.getMarkers().findFirst(JavaSourceSet.class)
+                .map(sourceSet -> sourceSet.getId().toString())
+                .orElse(""));
+        ScopedIdTypeCache scoped = ctx.getMessage(ID_TYPE_CACHE);
+        if (scoped == null || !scoped.scope.equals(scope)) {
+            // Only the cache of the source set being visited is kept, so the cached types don't outlive it
+            scoped = new ScopedIdTypeCache(scope);
+            ctx.putMessage(ID_TYPE_CACHE, scoped);
+        }
+        return scoped.cache;
+    }
+
     @Override
     public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, T p) {
+        IdTypeCache cache = idTypeCache(p);
         J.Annotation noBeanRepoAnnotation = findAnnotation(classDecl.getLeadingAnnotations(), "org.springframework.data.repository.NoRepositoryBean");
         if (noBeanRepoAnnotation == null) {
             J.Annotation repoDefAnnotation = findAnnotation(classDecl.getLeadingAnnotations(), "org.springframework.data.repository.RepositoryDefinition");
             if (repoDefAnnotation != null) {
-                J.Annotation newRepoDefAnnotation = handleRepoDefinition(repoDefAnnotation);
+                J.Annotation newRepoDefAnnotation = handleRepoDefinition(repoDefAnnotation, cache);
                 if (newRepoDefAnnotation != repoDefAnnotation) {
                     return classDecl.withLeadingAnnotations(ListUtils.map(classDecl.getLeadingAnnotations(), a -> a == repoDefAnnotation ? newRepoDefAnnotation : a));
                 }
             }
-            return handleRepoType(classDecl);
+            return handleRepoType(classDecl, cache);
         }
         return super.visitClassDeclaration(classDecl, p);
     }
 
-    private J.ClassDeclaration handleRepoType(J.ClassDeclaration typeDecl) {
+    private J.ClassDeclaration handleRepoType(J.ClassDeclaration typeDecl, IdTypeCache cache) {
         JavaType.FullyQualified type = TypeUtils.asFullyQualified(typeDecl.getType());
         if (type != null) {
-            List<JavaType.FullyQualified> repoTypeChain = findRepoTypeChain(type, emptyList());
+            List<JavaType.FullyQualified> repoTypeChain = findRepoTypeChain(type, cache, new HashSet<>());
             if (repoTypeChain != null) {
                 JavaType domainType = null;
                 JavaType idType = null;
@@ -136,7 +182,7 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
                     domainClassType = TypeUtils.asFullyQualified(domainType);
                 }
                 if (domainClassType != null) {
-                    JavaType domainIdType = findIdType(domainClassType);
+                    JavaType domainIdType = findIdType(domainClassType, cache);
                     if (domainIdType != null && !isValidRepoIdType(idType, domainIdType)) {
                         if (idTypeIndexInChain == 0) {
                             List<J.TypeParameter> astParams = typeDecl.getTypeParameters();
@@ -148,7 +194,7 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
                             astParams.set(idx, astParams.get(idx).withMarkers(astParams.get(idx).getMarkers().addIfAbsent(createMarker(domainIdType))));
                             return typeDecl.withTypeParameters(astParams);
                         }
-                        if (typeDecl.getExtends() != null && repoTypeChain.get(1).equals(typeDecl.getExtends().getType())) {
+                        if (typeDecl.getExtends() != null && TypeUtils.isOfType(repoTypeChain.get(1), typeDecl.getExtends().getType())) {
                             return typeDecl.withExtends(markTypeParam(typeDecl.getExtends(), idTypeIndex, createMarker(domainIdType)));
                         }
                         if (typeDecl.getImplements() != null) {
@@ -157,7 +203,7 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
                             AtomicBoolean hasMarker = new AtomicBoolean(false);
                             J.ClassDeclaration newTypeDecl = typeDecl.withImplements(ListUtils.map(typeDecl.getImplements(), it -> {
                                 JavaType.FullyQualified interfaceType = TypeUtils.asFullyQualified(it.getType());
-                                if (repoTypeChain.get(1).equals(interfaceType)) {
+                                if (TypeUtils.isOfType(repoTypeChain.get(1), interfaceType)) {
                                     hasMarker.set(true);
                                     return markTypeParam(it, finalIdTypeIndexInChain == 1 ? finalIdTypeIndex : -1, createMarker(domainIdType));
                                 }
@@ -199,38 +245,59 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
         return -1;
     }
 
-    private static @Nullable List<JavaType.FullyQualified> findRepoTypeChain(JavaType.FullyQualified type, List<JavaType.FullyQualified> visited) {
-        if (visited.contains(type)) {
+    /**
+     * The chain from {@code type} up to the parameterized {@code Repository} type, or {@code null} if {@code type}
+     * is not a repository. Only the ancestry above {@code type} is memoized, keyed by the raw type name: supertypes
+     * are declared on the raw type (in terms of its type variables), so they are identical for every
+     * parameterization of it and the substitution of type variables is left to the caller.
+     */
+    private static @Nullable List<JavaType.FullyQualified> findRepoTypeChain(JavaType.FullyQualified type, IdTypeCache cache, Set<String> inProgress) {
+        if (type instanceof JavaType.Parameterized && REPOSITORY.equals(((JavaType.Parameterized) type).getType().getFullyQualifiedName())) {
+            return singletonList(type);
+        }
+        List<JavaType.FullyQualified> ancestry = findRepoAncestry(type, cache, inProgress);
+        if (ancestry == null) {
             return null;
         }
-        List<JavaType.FullyQualified> ls = new ArrayList<>(visited.size() + 1);
-        ls.addAll(visited);
+        List<JavaType.FullyQualified> ls = new ArrayList<>(ancestry.size() + 1);
         ls.add(type);
-        if (type instanceof JavaType.Parameterized && REPOSITORY.equals(((JavaType.Parameterized) type).getType().getFullyQualifiedName())) {
-            return ls;
+        ls.addAll(ancestry);
+        return ls;
+    }
+
+    private static @Nullable List<JavaType.FullyQualified> findRepoAncestry(JavaType.FullyQualified type, IdTypeCache cache, Set<String> inProgress) {
+        String key = type.getFullyQualifiedName();
+        Optional<List<JavaType.FullyQualified>> cached = cache.repoAncestry.get(key);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        if (!inProgress.add(key)) {
+            // cyclic hierarchy, nothing to find along this path
+            return null;
         }
 
+        List<JavaType.FullyQualified> ancestry = null;
         if (type.getSupertype() != null) {
-            List<JavaType.FullyQualified> superChain = findRepoTypeChain(type.getSupertype(), ls);
-            if (superChain != null) {
-                return superChain;
-            }
+            ancestry = findRepoTypeChain(type.getSupertype(), cache, inProgress);
         }
-
-        for (JavaType.FullyQualified it : type.getInterfaces()) {
-            List<JavaType.FullyQualified> superChain = findRepoTypeChain(it, ls);
-            if (superChain != null) {
-                return superChain;
+        if (ancestry == null) {
+            for (JavaType.FullyQualified it : type.getInterfaces()) {
+                ancestry = findRepoTypeChain(it, cache, inProgress);
+                if (ancestry != null) {
+                    break;
+                }
             }
         }
 
-        return null;
+        inProgress.remove(key);
+        cache.repoAncestry.putIfAbsent(key, Optional.ofNullable(ancestry).map(Collections::unmodifiableList));
+        return ancestry;
     }
 
-    private J.Annotation handleRepoDefinition(J.Annotation repoDefAnnotation) {
+    private J.Annotation handleRepoDefinition(J.Annotation repoDefAnnotation, IdTypeCache cache) {
         JavaType.FullyQualified domainClass = TypeUtils.asFullyQualified(getParameterClass(repoDefAnnotation, "domainClass"));
         if (domainClass != null) {
-            JavaType idType = findIdType(domainClass);
+            JavaType idType = findIdType(domainClass, cache);
             if (idType != null) {
                 JavaType.FullyQualified repoIdType = TypeUtils.asFullyQualified(getParameterClass(repoDefAnnotation, ID_CLASS));
                 if (repoIdType != null) {
@@ -299,8 +366,14 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
         return null;
     }
 
-    private @Nullable JavaType findIdType(JavaType.FullyQualified type) {
-        JavaType idType = findAnnotatedIdType(type, new HashSet<>());
+    private @Nullable JavaType findIdType(JavaType.FullyQualified type, IdTypeCache cache) {
+        String key = type.toString();
+        Optional<JavaType> cached = cache.annotatedIdTypes.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(findAnnotatedIdType(type, new HashSet<>()));
+            cache.annotatedIdTypes.putIfAbsent(key, cached);
+        }
+        JavaType idType = cached.orElse(null);
         if (idType == null && considerIdField) {
             idType = findIdFieldType(type);
         }
@@ -340,11 +413,26 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
             visited.add(s);
         }
         if (type.getSupertype() != null) {
-            return findAnnotatedIdType(type.getSupertype(), visited);
+            return substituteTypeVariable(type.getSupertype(), findAnnotatedIdType(type.getSupertype(), visited));
         }
         return null;
     }
 
+    /**
+     * Members of a parameterized supertype are declared in terms of its type variables, e.g. {@code @Id ID id} in
+     * {@code AbstractEntity<ID>}. Replace such a variable with the actual type argument of the parameterization.
+     */
+    private static @Nullable JavaType substituteTypeVariable(JavaType.FullyQualified type, @Nullable JavaType t) {
+        if (t instanceof JavaType.GenericTypeVariable && type instanceof JavaType.Parameterized) {
+            JavaType.Parameterized parameterized = (JavaType.Parameterized) type;
+            int idx = findTypeVarIndex(parameterized.getType().getTypeParameters(), ((JavaType.GenericTypeVariable) t).getName());
+            if (idx >= 0 && idx < parameterized.getTypeParameters().size()) {
+                return parameterized.getTypeParameters().get(idx);
+            }
+        }
+        return t;
+    }
+
     private static String methodSignature(JavaType.Method m) {
         String s = MethodMatcher.methodPattern(m);
         int idx = s.indexOf(' ');
@@ -358,4 +446,25 @@ public class EntityIdForRepositoryVisitor<T> extends JavaIsoVisitor<T> {
         return f.getName();
     }
 
+    /**
+     * Memoized repository ancestries and entity {@code @Id} types. Safe to share between visitors running
+     * concurrently.
+     */
+    public static final class IdTypeCache {
+        private final ConcurrentMap<String, Optional<List<JavaType.FullyQualified>>> repoAncestry = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Optional<JavaType>> annotatedIdTypes = new ConcurrentHashMap<>();
+
+        int size() {
+            return repoAncestry.size() + annotatedIdTypes.size();
+        }
+    }
+
+    private static final class ScopedIdTypeCache {
+        private final String scope;
+        private final IdTypeCache cache = new IdTypeCache();
+
+        private ScopedIdTypeCache(String scope) {
+            this.scope = scope;
+        }
+    }
 }
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.spring.ChangeSpringPropertyValue;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.properties.search.FindProperties;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.search.FindProperty;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+
+/**
+ * Switches {@code spring.reactor.context-propagation} from {@code auto} to {@code limited} when every read of
+ * {@code ThreadLocal}-based context inside a reactive chain can be moved into a {@code handle} operator, which restores
+ * the context captured with {@code contextCapture()}.
+ */
+public class LimitReactorContextPropagation extends ScanningRecipe<LimitReactorContextPropagation.Accumulator> {
+    private static final String CONTEXT_PROPAGATION = "spring.reactor.context-propagation";
+    private static final List<String> PUBLISHERS = Arrays.asList("reactor.core.publisher.Mono", "reactor.core.publisher.Flux");
+
+    private static final MethodMatcher[] THREAD_LOCAL_READS = {
+            new MethodMatcher("org.slf4j.MDC get*(..)"),
+            // Log patterns commonly include MDC entries, like the trace id
+            new MethodMatcher("org.slf4j.Logger *(..)"),
+            new MethodMatcher("io.micrometer.tracing.Tracer current*()", true),
+            new MethodMatcher("io.micrometer.observation.ObservationRegistry getCurrentObservation()", true),
+            new MethodMatcher("org.springframework.security.core.context.SecurityContextHolder getContext()"),
+            new MethodMatcher("org.springframework.context.i18n.LocaleContextHolder get*(..)"),
+            new MethodMatcher("java.lang.ThreadLocal get()", true)
+    };
+
+    /**
+     * The operators whose callbacks see the {@code ThreadLocal} values restored from the Reactor context when context
+     * propagation is limited.
+     */
+    private static final List<String> RESTORING_OPERATORS = Arrays.asList("handle", "tap");
+
+    //language=java
+    private static final String[] REACTOR_STUBS = {
+            "package reactor.core.publisher;\n" +
+            "public interface SynchronousSink<T> { void next(T t); }",
+            "package reactor.core.publisher;\n" +
+            "public abstract class Mono<T> {\n" +
+            "    public abstract <R> Mono<R> handle(java.util.function.BiConsumer<? super T, SynchronousSink<R>> handler);\n" +
+            "    public abstract Mono<T> contextCapture();\n" +
+            "}",
+            "package reactor.core.publisher;\n" +
+            "public abstract class Flux<T> {\n" +
+            "    public abstract <R> Flux<R> handle(java.util.function.BiConsumer<? super T, SynchronousSink<R>> handler);\n" +
+            "    public abstract Flux<T> contextCapture();\n" +
+            "}"
+    };
+
+    @Getter
+    final String displayName = "Limit Reactor context propagation to the operators that need it";
+
+    @Getter
+    final String description = "Switch `spring.reactor.context-propagation` from `auto`, which restores `ThreadLocal` values " +
+            "around every operator, to `limited` when the `ThreadLocal`-based context read inside reactive chains, like MDC " +
+            "entries, the current span or the security context, is only read directly in `doOnNext` and `map` lambdas. These " +
+            "become `handle` operators, which restore the context, and `contextCapture()` is added at the end of their chain. " +
+            "Otherwise the reads that need automatic context propagation are marked, including method references and " +
+            "calls to methods of the sources that read the context.";
+
+    public static class Accumulator {
+        boolean automaticPropagation;
+        final List<String> unsupportedReads = new ArrayList<>();
+
+        /**
+         * The methods of the sources that read {@code ThreadLocal} context themselves.
+         */
+        final Set<String> readingMethods = new HashSet<>();
+
+        /**
+         * The methods of the sources and the methods they call.
+         */
+        final Map<String, Set<String>> calls = new HashMap<>();
+
+        /**
+         * The methods called or referenced by the callbacks of Reactor operators.
+         */
+        final Set<String> calledByOperators = new HashSet<>();
+
+        /**
+         * @return The methods of the sources which read {@code ThreadLocal} context, directly or through other methods.
+         */
+        Set<String> readingMethods() {
+            Set<String> reading = new HashSet<>(readingMethods);
+            for (boolean changed = true; changed; ) {
+                changed = false;
+                for (Map.Entry<String, Set<String>> call : calls.entrySet()) {
+                    if (!reading.contains(call.getKey()) && !Collections.disjoint(reading, call.getValue())) {
+                        changed = reading.add(call.getKey());
+                    }
+                }
+            }
+            return reading;
+        }
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        JavaIsoVisitor<ExecutionContext> javaScanner = new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                String operator = readingOperator(method, getCursor());
+                if (operator != null && !RESTORING_OPERATORS.contains(operator) && !isConvertible(getCursor())) {
+                    acc.unsupportedReads.add(method.getSimpleName());
+                }
+                if (method.getMethodType() != null) {
+                    recordCall(MethodMatcher.methodPattern(method.getMethodType()), isRead(method), callbackOperator(getCursor()) != null);
+                }
+                return super.visitMethodInvocation(method, ctx);
+            }
+
+            @Override
+            public J.MemberReference visitMemberReference(J.MemberReference memberRef, ExecutionContext ctx) {
+                if (memberRef.getMethodType() != null) {
+                    String referenced = MethodMatcher.methodPattern(memberRef.getMethodType());
+                    if (isRead(memberRef.getMethodType())) {
+                        // Like `doOnNext(log::info)`, which reads the context itself
+                        acc.readingMethods.add(referenced);
+                    }
+                    recordCall(referenced, false,
+                            callbackOperator(getCursor()) != null || operator(getCursor().getParentTreeCursor()) != null);
+                }
+                return super.visitMemberReference(memberRef, ctx);
+            }
+
+            private void recordCall(String callee, boolean read, boolean byOperator) {
+                J.MethodDeclaration caller = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                if (caller != null && caller.getMethodType() != null) {
+                    String pattern = MethodMatcher.methodPattern(caller.getMethodType());
+                    if (read) {
+                        acc.readingMethods.add(pattern);
+                    }
+                    acc.calls.computeIfAbsent(pattern, k -> new HashSet<>()).add(callee);
+                }
+                if (byOperator) {
+                    acc.calledByOperators.add(callee);
+                }
+            }
+        };
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof J.CompilationUnit) {
+                    javaScanner.visit(tree, ctx);
+                } else if (tree instanceof Yaml.Documents) {
+                    for (Yaml.Block block : FindProperty.find((Yaml.Documents) tree, CONTEXT_PROPAGATION, true)) {
+                        acc.automaticPropagation |= block instanceof Yaml.Scalar && "auto".equals(((Yaml.Scalar) block).getValue());
+                    }
+                } else if (tree instanceof Properties.File) {
+                    for (Properties.Entry entry : FindProperties.find((Properties.File) tree, CONTEXT_PROPAGATION, true)) {
+                        acc.automaticPropagation |= "auto".equals(entry.getValue().getText().trim());
+                    }
+                }
+                return tree;
+            }
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        if (!acc.automaticPropagation) {
+            return TreeVisitor.noop();
+        }
+        Set<String> readingMethods = acc.readingMethods();
+        boolean limit = acc.unsupportedReads.isEmpty() && Collections.disjoint(readingMethods, acc.calledByOperators);
+        JavaIsoVisitor<ExecutionContext> java = new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                if (!limit) {
+                    String operator = readingOperator(method, getCursor());
+                    if (operator != null && !RESTORING_OPERATORS.contains(operator) && !isConvertible(getCursor())) {
+                        return SearchResult.found(m, "Reads `ThreadLocal` context in `" + operator +
+                                                     "`, which needs automatic context propagation");
+                    }
+                    operator = callbackOperator(getCursor());
+                    if (operator != null && !RESTORING_OPERATORS.contains(operator) && m.getMethodType() != null &&
+                        readingMethods.contains(MethodMatcher.methodPattern(m.getMethodType()))) {
+                        return SearchResult.found(m, "Calls a method that reads `ThreadLocal` context in `" + operator +
+                                                     "`, which needs automatic context propagation");
+                    }
+                    return m;
+                }
+                if (isOperatorToConvert(method)) {
+                    m = toHandle(m, ctx);
+                    // The outermost publisher of the chain captures the context when it is subscribed to
+                    Cursor chain = getCursor();
+                    while (chain.getParentTreeCursor().getValue() instanceof J.MethodInvocation &&
+                           ((J.MethodInvocation) chain.getParentTreeCursor().getValue()).getSelect() == chain.getValue() &&
+                           isPublisher(((J.MethodInvocation) chain.getParentTreeCursor().getValue()).getType())) {
+                        chain = chain.getParentTreeCursor();
+                    }
+                    chain.putMessage("CONTEXT_CAPTURE", true);
+                }
+                if (getCursor().getMessage("CONTEXT_CAPTURE") != null && !capturesContext(m)) {
+                    m = contextCapture(m);
+                }
+                return m;
+            }
+
+            @Override
+            public J.MemberReference visitMemberReference(J.MemberReference memberRef, ExecutionContext ctx) {
+                J.MemberReference m = super.visitMemberReference(memberRef, ctx);
+                String operator = operator(getCursor().getParentTreeCursor());
+                if (operator == null) {
+                    operator = callbackOperator(getCursor());
+                }
+                if (!limit && operator != null && !RESTORING_OPERATORS.contains(operator) && m.getMethodType() != null &&
+                    readingMethods.contains(MethodMatcher.methodPattern(m.getMethodType()))) {
+                    return SearchResult.found(m, "References a method that reads `ThreadLocal` context in `" + operator +
+                                                 "`, which needs automatic context propagation");
+                }
+                return m;
+            }
+
+            /**
+             * Whether the operator is a {@code doOnNext} or {@code map} whose callback reads {@code ThreadLocal} context.
+             */
+            private boolean isOperatorToConvert(J.MethodInvocation method) {
+                if (!isPublisher(method.getType()) || method.getArguments().size() != 1 ||
+                    !(method.getArguments().get(0) instanceof J.Lambda)) {
+                    return false;
+                }
+                return new JavaIsoVisitor<List<Boolean>>() {
+                    @Override
+                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation invocation, List<Boolean> reads) {
+                        if (readingOperator(invocation, getCursor()) != null && isConvertible(getCursor()) &&
+                            getCursor().firstEnclosing(J.Lambda.class) == method.getArguments().get(0)) {
+                            reads.add(true);
+                        }
+                        return super.visitMethodInvocation(invocation, reads);
+                    }
+                }.reduce(method.getArguments().get(0), new ArrayList<>(), getCursor()).size() > 0;
+            }
+
+            private J.MethodInvocation toHandle(J.MethodInvocation m, ExecutionContext ctx) {
+                J.Lambda lambda = (J.Lambda) m.getArguments().get(0);
+                String parameter = parameterName(lambda);
+                JavaType.FullyQualified element = m.getSelect() == null ? null : elementType(m.getSelect().getType());
+                JavaType.FullyQualified result = elementType(m.getType());
+                if (parameter == null || element == null || result == null) {
+                    return m;
+                }
+                String select = "#{any(" + publisher(m.getType()) + "<" + element.getFullyQualifiedName() + ">)}";
+                JavaTemplate.Builder template;
+                Object[] parameters;
+                if ("map".equals(m.getSimpleName())) {
+                    template = JavaTemplate.builder(select + ".<" + result.getClassName() + ">handle((" +
+                                                    parameter + ", sink) -> sink.next(#{any()}))");
+                    parameters = new Object[]{m.getSelect(), lambda.getBody()};
+                } else {
+                    template = JavaTemplate.builder(select + ".<" + result.getClassName() + ">handle((" +
+                                                    parameter + ", sink) -> {\nsink.next(" + parameter + ");\n})");
+                    parameters = new Object[]{m.getSelect()};
+                }
+                maybeAddImport(result.getFullyQualifiedName());
+                J.MethodInvocation handle = template
+                        .imports(result.getFullyQualifiedName())
+                        .javaParser(JavaParser.fromJavaVersion().dependsOn(stubs(element, result)))
+                        .build()
+                        .apply(new Cursor(getCursor().getParentOrThrow(), m), m.getCoordinates().replace(), parameters);
+                if (!"map".equals(m.getSimpleName())) {
+                    List<Statement> statements = lambda.getBody() instanceof J.Block ?
+                            ((J.Block) lambda.getBody()).getStatements() :
+                            new ArrayList<>(Arrays.asList((Statement) lambda.getBody()));
+                    handle = handle.withArguments(ListUtils.mapFirst(handle.getArguments(), arg -> {
+                        J.Lambda l = (J.Lambda) arg;
+                        J.Block body = (J.Block) l.getBody();
+                        return l.withBody(body.withStatements(ListUtils.concatAll(statements, body.getStatements())));
+                    }));
+                }
+                handle = withPublisherType(handle, m);
+                if (handle.getPadding().getSelect() != null && m.getPadding().getSelect() != null) {
+                    handle = handle.getPadding().withSelect(handle.getPadding().getSelect().withAfter(m.getPadding().getSelect().getAfter()));
+                }
+                return autoFormat(handle, ctx, getCursor().getParentOrThrow());
+            }
+
+            private J.MethodInvocation contextCapture(J.MethodInvocation m) {
+                J.MethodInvocation capture = JavaTemplate.builder("#{any(" + publisher(m.getType()) + ")}.contextCapture()")
+                        .javaParser(JavaParser.fromJavaVersion().dependsOn(REACTOR_STUBS))
+                        .build()
+                        .apply(new Cursor(getCursor().getParentOrThrow(), m), m.getCoordinates().replace(), m);
+                return withPublisherType(capture, m);
+            }
+
+            /**
+             * The operators keep the type of the publisher, even where the template only knows stubs of Reactor.
+             */
+            private J.MethodInvocation withPublisherType(J.MethodInvocation operator, J.MethodInvocation original) {
+                if (operator.getMethodType() == null || original.getMethodType() == null) {
+                    return operator;
+                }
+                JavaType.Method type = operator.getMethodType()
+                        .withReturnType(original.getMethodType().getReturnType())
+                        .withDeclaringType(original.getMethodType().getDeclaringType());
+                return operator.withMethodType(type).withName(operator.getName().withType(type));
+            }
+        };
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof J.CompilationUnit) {
+                    return java.visit(tree, ctx);
+                } else if (limit && (tree instanceof Yaml.Documents || tree instanceof Properties.File)) {
+                    return new ChangeSpringPropertyValue(CONTEXT_PROPAGATION, "limited", "auto", null, null)
+                            .getVisitor().visit(tree, ctx);
+                }
+                return tree;
+            }
+        };
+    }
+
+    /**
+     * @return The name of the Reactor operator whose callback makes the {@code ThreadLocal} read, or {@code null} when
+     * the method doesn't read {@code ThreadLocal} context inside of a reactive chain.
+     */
+    private static @Nullable String readingOperator(J.MethodInvocation method, Cursor cursor) {
+        return isRead(method) ? callbackOperator(cursor) : null;
+    }
+
+    private static boolean isRead(J.MethodInvocation method) {
+        return isRead(method.getMethodType());
+    }
+
+    private static boolean isRead(JavaType.@Nullable Method method) {
+        for (MethodMatcher matcher : THREAD_LOCAL_READS) {
+            if (matcher.matches(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The name of the Reactor operator whose lambda callback encloses the cursor, also through the lambdas of
+     * other calls inside the callback, like {@code items.forEach(..)}, or {@code null} when the cursor isn't inside of a
+     * reactive chain.
+     */
+    private static @Nullable String callbackOperator(Cursor cursor) {
+        for (Cursor lambda = cursor; ; ) {
+            lambda = lambda.dropParentUntil(t -> t instanceof J.Lambda || t instanceof J.MethodDeclaration ||
+                                                 t instanceof J.ClassDeclaration || t == Cursor.ROOT_VALUE);
+            if (!(lambda.getValue() instanceof J.Lambda)) {
+                return null;
+            }
+            String operator = operator(lambda.getParentTreeCursor());
+            if (operator != null) {
+                return operator;
+            }
+        }
+    }
+
+    private static @Nullable String operator(Cursor cursor) {
+        Object operator = cursor.getValue();
+        if (operator instanceof J.MethodInvocation && ((J.MethodInvocation) operator).getMethodType() != null &&
+            PUBLISHERS.contains(((J.MethodInvocation) operator).getMethodType().getDeclaringType().getFullyQualifiedName())) {
+            return ((J.MethodInvocation) operator).getSimpleName();
+        }
+        return null;
+    }
+
+    /**
+     * Whether the read is made in a {@code doOnNext} or {@code map} callback that can become a {@code handle} operator.
+     */
+    private static boolean isConvertible(Cursor read) {
+        Cursor lambdaCursor = read.dropParentUntil(J.Lambda.class::isInstance);
+        J.Lambda lambda = lambdaCursor.getValue();
+        if (operator(lambdaCursor.getParentTreeCursor()) == null) {
+            // Read in a nested lambda, which may run later or more than once
+            return false;
+        }
+        J.MethodInvocation operator = lambdaCursor.getParentTreeCursor().getValue();
+        if (parameterName(lambda) == null || elementType(operator.getType()) == null || operator.getSelect() == null ||
+            elementType(operator.getSelect().getType()) == null) {
+            return false;
+        } else if ("map".equals(operator.getSimpleName())) {
+            return !(lambda.getBody() instanceof J.Block);
+        } else if ("doOnNext".equals(operator.getSimpleName())) {
+            if (lambda.getBody() instanceof J.Block) {
+                return new JavaIsoVisitor<List<J.Return>>() {
+                    @Override
+                    public J.Return visitReturn(J.Return aReturn, List<J.Return> returns) {
+                        returns.add(aReturn);
+                        return aReturn;
+                    }
+
+                    @Override
+                    public J.Lambda visitLambda(J.Lambda l, List<J.Return> returns) {
+                        return l == lambda ? super.visitLambda(l, returns) : l;
+                    }
+                }.reduce(lambda, new ArrayList<>()).isEmpty();
+            }
+            return lambda.getBody() instanceof Statement;
+        }
+        return false;
+    }
+
+    private static @Nullable String parameterName(J.Lambda lambda) {
+        List<J> parameters = lambda.getParameters().getParameters();
+        if (parameters.size() == 1 && parameters.get(0) instanceof J.VariableDeclarations) {
+            return ((J.VariableDeclarations) parameters.get(0)).getVariables().get(0).getSimpleName();
+        }
+        return null;
+    }
+
+    private static boolean isPublisher(@Nullable JavaType type) {
+        JavaType.FullyQualified publisher = TypeUtils.asFullyQualified(type);
+        return publisher != null && PUBLISHERS.contains(publisher.getFullyQualifiedName());
+    }
+
+    private static boolean capturesContext(J.MethodInvocation m) {
+        for (Expression e = m; e instanceof J.MethodInvocation; e = ((J.MethodInvocation) e).getSelect()) {
+            if ("contextCapture".equals(((J.MethodInvocation) e).getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The type of the elements the publisher emits, when it is a top-level class type.
+     */
+    private static JavaType.@Nullable FullyQualified elementType(@Nullable JavaType type) {
+        JavaType.Parameterized publisher = TypeUtils.asParameterized(type);
+        if (publisher == null || !PUBLISHERS.contains(publisher.getFullyQualifiedName()) ||
+            publisher.getTypeParameters().size() != 1 || publisher.getTypeParameters().get(0) instanceof JavaType.Parameterized) {
+            return null;
+        }
+        JavaType.FullyQualified element = TypeUtils.asFullyQualified(publisher.getTypeParameters().get(0));
+        return element == null || element.getOwningClass() != null ? null : element;
+    }
+
+    private static String publisher(@Nullable JavaType type) {
+        JavaType.FullyQualified publisher = TypeUtils.asFullyQualified(type);
+        return publisher == null ? PUBLISHERS.get(0) : publisher.getFullyQualifiedName();
+    }
+
+    private static String[] stubs(JavaType.FullyQualified... elementTypes) {
+        Set<String> stubs = new LinkedHashSet<>(Arrays.asList(REACTOR_STUBS));
+        for (JavaType.FullyQualified elementType : elementTypes) {
+            // The element types are usually part of the sources, so they are stubbed for the template to refer to them
+            if (!elementType.getPackageName().startsWith("java.")) {
+                stubs.add((elementType.getPackageName().isEmpty() ? "" : "package " + elementType.getPackageName() + ";\n") +
+                          "public class " + elementType.getClassName() + " {}");
+            }
+        }
+        return stubs.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.marker.JavaVersion;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.spring.table.UnmigratedExecutors;
+import org.openrewrite.java.tree.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Collections.emptyList;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class MigrateExecutorsToVirtualThreads extends Recipe {
+
+    private static final String SIMPLE_ASYNC_TASK_EXECUTOR = "org.springframework.core.task.SimpleAsyncTaskExecutor";
+    private static final String THREAD_POOL_TASK_EXECUTOR = "org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor";
+    private static final String VIRTUAL_THREAD_TASK_EXECUTOR = "org.springframework.core.task.VirtualThreadTaskExecutor";
+    /**
+     * The types a {@code VirtualThreadTaskExecutor} can be assigned to. Unlike a {@code SimpleAsyncTaskExecutor}, it
+     * isn't an {@code AsyncListenableTaskExecutor} or {@code AutoCloseable}.
+     */
+    private static final Set<String> VIRTUAL_THREAD_TASK_EXECUTOR_TYPES = new HashSet<>(Arrays.asList(
+            VIRTUAL_THREAD_TASK_EXECUTOR,
+            "org.springframework.core.task.AsyncTaskExecutor",
+            "org.springframework.core.task.TaskExecutor",
+            "java.util.concurrent.Executor",
+            "java.lang.Object"
+    ));
+    private static final AnnotationMatcher BEAN = new AnnotationMatcher("@org.springframework.context.annotation.Bean");
+
+    private static final MethodMatcher EXECUTORS_FACTORY = new MethodMatcher("java.util.concurrent.Executors new*(..)");
+    private static final MethodMatcher NEW_FIXED_THREAD_POOL = new MethodMatcher("java.util.concurrent.Executors newFixedThreadPool(int)");
+    private static final MethodMatcher NEW_CACHED_THREAD_POOL = new MethodMatcher("java.util.concurrent.Executors newCachedThreadPool()");
+    private static final MethodMatcher EXECUTOR_BUILDER = new MethodMatcher("org.springframework.boot.task.*TaskExecutorBuilder build(..)");
+    private static final MethodMatcher SET_VIRTUAL_THREADS = new MethodMatcher(SIMPLE_ASYNC_TASK_EXECUTOR + " setVirtualThreads(boolean)");
+
+    private static final String NOT_A_BEAN = "Only executors created in `@Bean` methods are migrated, " +
+            "as the use of other executors isn't known";
+
+    transient UnmigratedExecutors unmigratedExecutors = new UnmigratedExecutors(this);
+
+    String displayName = "Migrate executors to virtual threads";
+
+    String description = "Replaces `Executors.newCachedThreadPool()` with `Executors.newVirtualThreadPerTaskExecutor()` and makes " +
+            "`SimpleAsyncTaskExecutor` instances use virtual threads in `@Bean` methods, on Java 21 and Spring Framework 6.1 " +
+            "(Spring Boot 3.2) or later. Only these unbounded executor beans, which are also the ones `@Async` methods run on, " +
+            "are migrated. Executors that cannot safely be migrated, like fixed size thread pools, whose bound would be lost, " +
+            "`ThreadPoolTaskExecutor` beans, executors built by the `TaskExecutorBuilder` or executors with a custom `ThreadFactory`, " +
+            "are reported in a data table instead.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(
+                Preconditions.or(
+                        new UsesType<>("java.util.concurrent.Executors", false),
+                        new UsesType<>(SIMPLE_ASYNC_TASK_EXECUTOR, false),
+                        new UsesType<>(THREAD_POOL_TASK_EXECUTOR, false),
+                        new UsesType<>("org.springframework.boot.task.*TaskExecutorBuilder", false)
+                ),
+                new JavaIsoVisitor<ExecutionContext>() {
+                    @Override
+                    public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                        // Virtual threads are only available as of Java 21
+                        if (!cu.getMarkers().findFirst(JavaVersion.class).filter(v -> v.getMajorVersion() >= 21).isPresent()) {
+                            return cu;
+                        }
+                        return super.visitCompilationUnit(cu, ctx);
+                    }
+
+                    @Override
+                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                        J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                        if (NEW_FIXED_THREAD_POOL.matches(m)) {
+                            report(m, "The pool is bounded to " + m.getArguments().get(0).printTrimmed(getCursor()) +
+                                    " threads, which a virtual thread per task executor isn't; " +
+                                    "limit the concurrency of the tasks themselves before migrating", ctx);
+                        } else if (NEW_CACHED_THREAD_POOL.matches(m)) {
+                            if (getCursor().getParentTreeCursor().getValue() instanceof J.TypeCast) {
+                                report(m, "The executor is cast to its `ThreadPoolExecutor` implementation", ctx);
+                                return m;
+                            } else if (!isInBeanMethod()) {
+                                report(m, NOT_A_BEAN, ctx);
+                                return m;
+                            }
+                            JavaType.Method methodType = m.getMethodType();
+                            if (methodType != null) {
+                                methodType = methodType.withName("newVirtualThreadPerTaskExecutor")
+                                        .withParameterNames(emptyList())
+                                        .withParameterTypes(emptyList());
+                            }
+                            return m.withName(m.getName().withSimpleName("newVirtualThreadPerTaskExecutor").withType(methodType))
+                                    .withMethodType(methodType)
+                                    .withArguments(emptyList());
+                        } else if (EXECUTORS_FACTORY.matches(m) && !m.getSimpleName().endsWith("ThreadPerTaskExecutor")) {
+                            report(m, "Only `newFixedThreadPool(int)` and `newCachedThreadPool()` are migrated; " +
+                                    "scheduled, single-threaded, work-stealing and `ThreadFactory` based executors are not", ctx);
+                        } else if (EXECUTOR_BUILDER.matches(m)) {
+                            report(m, "The builder creates a `ThreadPoolTaskExecutor`; with `spring.threads.virtual.enabled` " +
+                                    "Spring Boot auto-configures a virtual thread `SimpleAsyncTaskExecutor` instead", ctx);
+                        }
+                        return m;
+                    }
+
+                    @Override
+                    public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+                        J.NewClass n = super.visitNewClass(newClass, ctx);
+                        if (TypeUtils.isOfClassType(n.getType(), THREAD_POOL_TASK_EXECUTOR)) {
+                            report(n, "Pool sizes, queue capacity and rejection policy have no virtual thread equivalent; " +
+                                    "consider a `SimpleAsyncTaskExecutor` with virtual threads and a concurrency limit", ctx);
+                        } else if (TypeUtils.isOfClassType(n.getType(), SIMPLE_ASYNC_TASK_EXECUTOR) && !isLocalSimpleAsyncTaskExecutor()) {
+                            String reason = isInBeanMethod() ? unmigratableReason(n) : NOT_A_BEAN;
+                            if (reason == null && isDeclaredAsVirtualThreadTaskExecutorType()) {
+                                maybeRemoveImport(SIMPLE_ASYNC_TASK_EXECUTOR);
+                                maybeAddImport(VIRTUAL_THREAD_TASK_EXECUTOR);
+                                boolean withPrefix = n.getArguments().stream().anyMatch(arg -> !(arg instanceof J.Empty));
+                                return JavaTemplate.builder(withPrefix ? "new VirtualThreadTaskExecutor(#{any(String)})" : "new VirtualThreadTaskExecutor()")
+                                        .imports(VIRTUAL_THREAD_TASK_EXECUTOR)
+                                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-core-6"))
+                                        .build()
+                                        .apply(getCursor(), n.getCoordinates().replace(), withPrefix ? n.getArguments().toArray() : new Object[0]);
+                            }
+                            report(n, reason != null ? reason : "The executor is used as a type that `VirtualThreadTaskExecutor` doesn't " +
+                                                               "implement, like `SimpleAsyncTaskExecutor`, outside of a local variable", ctx);
+                        }
+                        return n;
+                    }
+
+                    @Override
+                    public J.Block visitBlock(J.Block block, ExecutionContext ctx) {
+                        J.Block b = super.visitBlock(block, ctx);
+                        if (getCursor().getParentTreeCursor().getValue() instanceof J.ClassDeclaration) {
+                            return b;
+                        }
+                        // `SimpleAsyncTaskExecutor` locals can be further configured, so opt them into virtual threads in place
+                        for (Statement statement : b.getStatements()) {
+                            if (statement instanceof J.VariableDeclarations) {
+                                J.VariableDeclarations vd = (J.VariableDeclarations) statement;
+                                J.VariableDeclarations.NamedVariable variable = vd.getVariables().get(0);
+                                if (vd.getVariables().size() == 1 &&
+                                        TypeUtils.isOfClassType(vd.getType(), SIMPLE_ASYNC_TASK_EXECUTOR) &&
+                                        variable.getInitializer() instanceof J.NewClass &&
+                                        TypeUtils.isOfClassType(variable.getInitializer().getType(), SIMPLE_ASYNC_TASK_EXECUTOR) &&
+                                        !configuresVirtualThreads(b, variable.getSimpleName())) {
+                                    String reason = isInBeanMethod() ? unmigratableReason((J.NewClass) variable.getInitializer()) : NOT_A_BEAN;
+                                    if (reason != null) {
+                                        report(variable.getInitializer(), reason, ctx);
+                                        continue;
+                                    }
+                                    b = JavaTemplate.builder("#{any(" + SIMPLE_ASYNC_TASK_EXECUTOR + ")}.setVirtualThreads(true);")
+                                            .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-core-6"))
+                                            .build()
+                                            .apply(updateCursor(b), statement.getCoordinates().after(), variable.getName());
+                                }
+                            }
+                        }
+                        return b;
+                    }
+
+                    private boolean isInBeanMethod() {
+                        J.MethodDeclaration md = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                        return md != null && md.getLeadingAnnotations().stream().anyMatch(BEAN::matches);
+                    }
+
+                    private boolean isLocalSimpleAsyncTaskExecutor() {
+                        Cursor parent = getCursor().getParentTreeCursor();
+                        if (!(parent.getValue() instanceof J.VariableDeclarations.NamedVariable)) {
+                            return false;
+                        }
+                        Cursor declarations = parent.getParentTreeCursor();
+                        return TypeUtils.isOfClassType(declarations.<J.VariableDeclarations>getValue().getType(), SIMPLE_ASYNC_TASK_EXECUTOR) &&
+                                declarations.getParentTreeCursor().getValue() instanceof J.Block &&
+                                !(declarations.getParentTreeCursor().getParentTreeCursor().getValue() instanceof J.ClassDeclaration);
+                    }
+
+                    /**
+                     * Whether the value is assigned to a field or returned from a method typed as one of the types a
+                     * {@code VirtualThreadTaskExecutor} can be assigned to, like {@code AsyncTaskExecutor}.
+                     */
+                    private boolean isDeclaredAsVirtualThreadTaskExecutorType() {
+                        Cursor parent = getCursor().getParentTreeCursor();
+                        if (parent.getValue() instanceof J.VariableDeclarations.NamedVariable) {
+                            return isVirtualThreadTaskExecutorType(parent.getParentTreeCursor().<J.VariableDeclarations>getValue().getType());
+                        } else if (parent.getValue() instanceof J.Return) {
+                            Object enclosing = getCursor().dropParentUntil(t -> t instanceof J.Lambda ||
+                                                                                t instanceof J.MethodDeclaration ||
+                                                                                t == Cursor.ROOT_VALUE).getValue();
+                            return enclosing instanceof J.MethodDeclaration &&
+                                   ((J.MethodDeclaration) enclosing).getReturnTypeExpression() != null &&
+                                   isVirtualThreadTaskExecutorType(((J.MethodDeclaration) enclosing).getReturnTypeExpression().getType());
+                        }
+                        return false;
+                    }
+
+                    private boolean isVirtualThreadTaskExecutorType(@Nullable JavaType type) {
+                        JavaType.FullyQualified declared = TypeUtils.asFullyQualified(type);
+                        return declared != null && VIRTUAL_THREAD_TASK_EXECUTOR_TYPES.contains(declared.getFullyQualifiedName());
+                    }
+
+                    private @Nullable String unmigratableReason(J.NewClass newClass) {
+                        JavaType.FullyQualified type = TypeUtils.asFullyQualified(newClass.getType());
+                        if (type == null || type.getMethods().stream().noneMatch(SET_VIRTUAL_THREADS::matches)) {
+                            return "Virtual thread support requires Spring Framework 6.1 (Spring Boot 3.2) or later";
+                        }
+                        List<Expression> args = newClass.getArguments();
+                        if (args.stream().anyMatch(arg -> !(arg instanceof J.Empty) && !TypeUtils.isString(arg.getType()))) {
+                            return "The executor uses a custom `ThreadFactory`";
+                        }
+                        return null;
+                    }
+
+                    private boolean configuresVirtualThreads(J.Block block, String name) {
+                        return new JavaIsoVisitor<AtomicBoolean>() {
+                            @Override
+                            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, AtomicBoolean found) {
+                                if ("setVirtualThreads".equals(method.getSimpleName()) && method.getSelect() instanceof J.Identifier &&
+                                        ((J.Identifier) method.getSelect()).getSimpleName().equals(name)) {
+                                    found.set(true);
+                                }
+                                return super.visitMethodInvocation(method, found);
+                            }
+                        }.reduce(block, new AtomicBoolean()).get();
+                    }
+
+                    private void report(J j, String reason, ExecutionContext ctx) {
+                        unmigratedExecutors.insertRow(ctx, new UnmigratedExecutors.Row(
+                                getCursor().firstEnclosingOrThrow(SourceFile.class).getSourcePath().toString(),
+                                j.printTrimmed(getCursor()),
+                                reason
+                        ));
+                    }
+                });
+    }
+}
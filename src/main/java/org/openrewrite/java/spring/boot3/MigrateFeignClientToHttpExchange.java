@@ -0,0 +1,720 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.StringUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.properties.PropertiesVisitor;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.YamlIsoVisitor;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Converts {@code @FeignClient} interfaces into HTTP interfaces and registers them with an {@code HttpServiceProxyFactory}
+ * in a generated configuration class.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class MigrateFeignClientToHttpExchange extends ScanningRecipe<MigrateFeignClientToHttpExchange.Accumulator> {
+    private static final String FEIGN_CLIENT = "org.springframework.cloud.openfeign.FeignClient";
+    private static final String ENABLE_FEIGN_CLIENTS = "org.springframework.cloud.openfeign.EnableFeignClients";
+    private static final String HTTP_EXCHANGE = "org.springframework.web.service.annotation.HttpExchange";
+    private static final String WEB_BIND_ANNOTATION = "org.springframework.web.bind.annotation.";
+    private static final String REQUEST_INTERCEPTOR = "feign.RequestInterceptor";
+    private static final String FEIGN_EXCEPTION = "feign.FeignException";
+    private static final String REQUEST_FACTORY_BUILDER = "org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder";
+    private static final String HTTP_CLIENTS = "org.apache.hc.client5.http.impl.classic.HttpClients";
+    private static final String CONFIGURATION_CLASS = "HttpInterfaceClientsConfiguration";
+    private static final Pattern APPLICATION_CONFIG = Pattern.compile("application(?:-(.+))?\\.(?:ya?ml|properties)");
+    private static final Pattern CLIENT_PROPERTY = Pattern.compile("(?:feign|spring\\.cloud\\.openfeign)\\.client\\.config\\.([^.]+)\\.([^.]+)");
+    private static final Pattern HTTP_CLIENT_PROPERTY = Pattern.compile("(?:feign|spring\\.cloud\\.openfeign)\\.httpclient\\.([^.]+)");
+
+    /**
+     * The Spring MVC mapping annotations Feign clients use and the HTTP interface annotations they are replaced with.
+     */
+    private static final Map<String, String> EXCHANGES = new HashMap<>();
+
+    static {
+        EXCHANGES.put("GetMapping", "GetExchange");
+        EXCHANGES.put("PostMapping", "PostExchange");
+        EXCHANGES.put("PutMapping", "PutExchange");
+        EXCHANGES.put("PatchMapping", "PatchExchange");
+        EXCHANGES.put("DeleteMapping", "DeleteExchange");
+        EXCHANGES.put("RequestMapping", null);
+    }
+
+    /**
+     * The parameter annotations supported by both Feign clients and HTTP interfaces.
+     */
+    private static final List<String> PARAMETER_ANNOTATIONS = Arrays.asList(
+            "PathVariable", "RequestParam", "RequestHeader", "RequestBody", "RequestPart", "CookieValue");
+
+    /**
+     * Feign's default connect and read timeouts, in milliseconds.
+     */
+    private static final long DEFAULT_CONNECT_TIMEOUT = 10_000;
+    private static final long DEFAULT_READ_TIMEOUT = 60_000;
+
+    /**
+     * The connection pool limits of Feign's Apache HttpClient 5, which are higher than the defaults of HttpClient 5
+     * itself of 25 connections, and 5 per route.
+     */
+    private static final long DEFAULT_MAX_CONNECTIONS = 200;
+    private static final long DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 50;
+
+    String displayName = "Migrate OpenFeign clients to HTTP interfaces";
+
+    String description = "Convert `@FeignClient` interfaces that declare their `url` and use Spring MVC mapping annotations into " +
+            "`@HttpExchange` interfaces, and register them through an `HttpServiceProxyFactory` backed by a `RestClient` in a " +
+            "generated configuration class. The clients share a pooled Apache HttpClient 5 request factory with the connect and " +
+            "read timeouts configured under `feign.client.config.default` or `spring.cloud.openfeign.client.config.default`; " +
+            "clients with their own timeouts get their own request factory. The connection pool keeps Feign's limits of 200 " +
+            "connections and 50 per route, or the configured `httpclient.max-connections` and " +
+            "`httpclient.max-connections-per-route`, rather than the much lower defaults of HttpClient 5. Methods mapped to " +
+            "several paths and clients that use Feign-specific features, like a " +
+            "custom `configuration`, fallbacks, service discovery, a class-level `@RequestMapping`, a configured retryer, " +
+            "request interceptors, encoders or decoders, or callers that catch `FeignException`, are marked instead. " +
+            "Only clients in source sets with Spring Boot 3.4 or later and `httpclient5` on the classpath are converted.";
+
+    public static class Accumulator {
+        final Map<String, Client> clients = new TreeMap<>();
+        final Map<String, Map<String, String>> clientProperties = new HashMap<>();
+
+        /**
+         * The settings of Feign's Apache HttpClient, like {@code maxconnections}, in their relaxed binding form.
+         */
+        final Map<String, String> httpClientProperties = new HashMap<>();
+        final Set<String> classes = new HashSet<>();
+
+        /**
+         * The types whose methods are called in a {@code try} block that catches a {@code FeignException}.
+         */
+        final Set<String> catchingFeignException = new HashSet<>();
+
+        /**
+         * Whether a {@code RequestInterceptor} is declared, which Feign applies to every client.
+         */
+        boolean requestInterceptors;
+
+        /**
+         * The source path of the class annotated with {@code @EnableFeignClients}, next to which the configuration class
+         * is generated.
+         */
+        @Nullable
+        Path enableFeignClients;
+
+        String packageName = "";
+
+        @Nullable
+        String reason(Client client) {
+            if (client.getReason() != null) {
+                return client.getReason();
+            } else if (client.getUrl() == null) {
+                return "Resolves `" + client.getName() + "` through service discovery, which needs a load-balanced `RestClient.Builder`";
+            } else if (setting(client, "retryer") != null) {
+                return "Configures a Feign retryer, which `RestClient` has no equivalent of";
+            } else if (setting(client, "requestinterceptors") != null) {
+                return "Configures Feign request interceptors, which the `RestClient` doesn't apply";
+            }
+            for (String codec : Arrays.asList("errorDecoder", "decoder", "encoder")) {
+                if (setting(client, codec.toLowerCase()) != null) {
+                    return "Configures a Feign `" + codec + "`, which the `RestClient` doesn't use";
+                }
+            }
+            if (requestInterceptors) {
+                return "A `RequestInterceptor` bean applies to all Feign clients, but not to the `RestClient`";
+            } else if (catchingFeignException.contains(client.getFullyQualifiedName())) {
+                return "Callers catch `FeignException`, which the `RestClient` doesn't throw";
+            }
+            return null;
+        }
+
+        boolean isMigrated(String fullyQualifiedName) {
+            Client client = clients.get(fullyQualifiedName);
+            return client != null && reason(client) == null;
+        }
+
+        boolean isAllMigrated() {
+            for (Client client : clients.values()) {
+                if (reason(client) != null) {
+                    return false;
+                }
+            }
+            return !clients.isEmpty();
+        }
+
+        long timeout(@Nullable String client, String setting, long defaultTimeout) {
+            String value = clientProperties.getOrDefault(client == null ? "default" : client, emptyMap()).get(setting);
+            if (value != null && value.matches("\\d+")) {
+                return Long.parseLong(value);
+            }
+            return client == null ? defaultTimeout : timeout(null, setting, defaultTimeout);
+        }
+
+        long httpClientSetting(String setting, long defaultValue) {
+            String value = httpClientProperties.get(setting);
+            return value != null && value.matches("\\d+") ? Long.parseLong(value) : defaultValue;
+        }
+
+        private @Nullable String setting(Client client, String setting) {
+            String value = clientProperties.getOrDefault(client.getName(), emptyMap()).get(setting);
+            return value != null ? value : clientProperties.getOrDefault("default", emptyMap()).get(setting);
+        }
+    }
+
+    @Value
+    static class Client {
+        String fullyQualifiedName;
+        String name;
+
+        @Nullable
+        String url;
+
+        @Nullable
+        String path;
+
+        /**
+         * Why the interface can't be converted, or {@code null} when it can.
+         */
+        @Nullable
+        String reason;
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        JavaIsoVisitor<ExecutionContext> javaScanner = new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                if (classDecl.getType() != null) {
+                    acc.classes.add(classDecl.getType().getFullyQualifiedName());
+                }
+                J.Annotation feignClient = findAnnotation(classDecl.getLeadingAnnotations(), FEIGN_CLIENT);
+                if (feignClient != null && classDecl.getType() != null) {
+                    acc.clients.put(classDecl.getType().getFullyQualifiedName(),
+                            client(classDecl, feignClient, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class)));
+                } else if (classDecl.getKind() == J.ClassDeclaration.Kind.Type.Class &&
+                           TypeUtils.isAssignableTo(REQUEST_INTERCEPTOR, classDecl.getType())) {
+                    acc.requestInterceptors = true;
+                }
+                if (findAnnotation(classDecl.getLeadingAnnotations(), ENABLE_FEIGN_CLIENTS) != null && acc.enableFeignClients == null) {
+                    J.CompilationUnit cu = getCursor().firstEnclosingOrThrow(J.CompilationUnit.class);
+                    acc.enableFeignClients = cu.getSourcePath();
+                    acc.packageName = cu.getPackageDeclaration() == null ? "" : cu.getPackageDeclaration().getPackageName();
+                }
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                if (method.getMethodType() != null && TypeUtils.isAssignableTo(REQUEST_INTERCEPTOR, method.getMethodType().getReturnType()) &&
+                    findAnnotation(method.getLeadingAnnotations(), "org.springframework.context.annotation.Bean") != null) {
+                    acc.requestInterceptors = true;
+                }
+                return super.visitMethodDeclaration(method, ctx);
+            }
+
+            @Override
+            public J.Try visitTry(J.Try tryable, ExecutionContext ctx) {
+                for (J.Try.Catch aCatch : tryable.getCatches()) {
+                    if (catchesFeignException(aCatch.getParameter().getTree().getType())) {
+                        new JavaIsoVisitor<Set<String>>() {
+                            @Override
+                            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Set<String> called) {
+                                if (method.getMethodType() != null) {
+                                    called.add(method.getMethodType().getDeclaringType().getFullyQualifiedName());
+                                }
+                                return super.visitMethodInvocation(method, called);
+                            }
+                        }.visit(tryable.getBody(), acc.catchingFeignException);
+                    }
+                }
+                return super.visitTry(tryable, ctx);
+            }
+        };
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof J.CompilationUnit) {
+                    javaScanner.visit(tree, ctx);
+                } else if (tree instanceof SourceFile &&
+                           APPLICATION_CONFIG.matcher(((SourceFile) tree).getSourcePath().getFileName().toString()).matches()) {
+                    scanProperties(tree, acc);
+                }
+                return tree;
+            }
+        };
+    }
+
+    @Override
+    public Collection<? extends SourceFile> generate(Accumulator acc, ExecutionContext ctx) {
+        List<Client> migrated = new ArrayList<>();
+        for (Client client : acc.clients.values()) {
+            if (acc.reason(client) == null) {
+                migrated.add(client);
+            }
+        }
+        if (migrated.isEmpty() || acc.enableFeignClients == null) {
+            return emptyList();
+        }
+        String packageName = acc.packageName;
+        if (acc.classes.contains(packageName.isEmpty() ? CONFIGURATION_CLASS : packageName + "." + CONFIGURATION_CLASS)) {
+            return emptyList();
+        }
+
+        JavaParser.Builder<?, ?> parser = JavaParser.fromJavaVersion()
+                .classpathFromResources(ctx, "spring-web-6", "spring-core-6", "spring-beans-6", "spring-context-6", "spring-boot-3",
+                        "httpclient5", "httpcore5");
+        List<String> stubs = new ArrayList<>();
+        for (Client client : migrated) {
+            JavaType.FullyQualified type = JavaType.ShallowClass.build(client.getFullyQualifiedName());
+            // The clients are part of the sources, so they are stubbed for the configuration class to refer to them
+            stubs.add((type.getPackageName().isEmpty() ? "" : "package " + type.getPackageName() + ";\n") +
+                      "public interface " + type.getClassName() + " {}");
+        }
+        return parser.dependsOn(stubs.toArray(new String[0])).build()
+                .parse(ctx, configurationClass(acc, packageName, migrated))
+                .map(cu -> (SourceFile) cu.withSourcePath(acc.enableFeignClients.resolveSibling(CONFIGURATION_CLASS + ".java")))
+                .collect(toList());
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        if (acc.clients.isEmpty()) {
+            return TreeVisitor.noop();
+        }
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+                if (c.getType() == null) {
+                    return c;
+                }
+                J.Annotation enableFeignClients = findAnnotation(c.getLeadingAnnotations(), ENABLE_FEIGN_CLIENTS);
+                if (enableFeignClients != null && acc.isAllMigrated()) {
+                    maybeRemoveImport(ENABLE_FEIGN_CLIENTS);
+                    return c.withLeadingAnnotations(ListUtils.map(c.getLeadingAnnotations(), a -> a == enableFeignClients ? null : a));
+                }
+
+                Client client = acc.clients.get(c.getType().getFullyQualifiedName());
+                J.Annotation feignClient = findAnnotation(c.getLeadingAnnotations(), FEIGN_CLIENT);
+                if (client == null || feignClient == null) {
+                    return c;
+                } else if (acc.reason(client) != null) {
+                    return c.withLeadingAnnotations(ListUtils.map(c.getLeadingAnnotations(),
+                            a -> a == feignClient ? SearchResult.found(a, acc.reason(client)) : a));
+                }
+
+                maybeRemoveImport(FEIGN_CLIENT);
+                c = c.withLeadingAnnotations(ListUtils.map(c.getLeadingAnnotations(), a -> a == feignClient ? null : a));
+                if (!StringUtils.isBlank(client.getPath())) {
+                    maybeAddImport(HTTP_EXCHANGE);
+                    c = JavaTemplate.builder("@HttpExchange(\"" + client.getPath() + "\")")
+                            .imports(HTTP_EXCHANGE)
+                            .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-web-6"))
+                            .build()
+                            .apply(updateCursor(c), c.getCoordinates().addAnnotation(comparing(J.Annotation::getSimpleName)));
+                }
+                return c;
+            }
+
+            @Override
+            public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+                J.Annotation a = super.visitAnnotation(annotation, ctx);
+                J.ClassDeclaration classDecl = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                if (!(getCursor().getParentTreeCursor().getValue() instanceof J.MethodDeclaration) || classDecl == null ||
+                    classDecl.getType() == null || !acc.isMigrated(classDecl.getType().getFullyQualifiedName())) {
+                    return a;
+                }
+                String mapping = mapping(a);
+                if (mapping == null) {
+                    return a;
+                }
+                String exchange = EXCHANGES.get(mapping);
+                if (exchange == null) {
+                    String requestMethod = requestMethod(a);
+                    if (requestMethod == null) {
+                        return a;
+                    }
+                    exchange = StringUtils.capitalize(requestMethod.toLowerCase()) + "Exchange";
+                    maybeRemoveImport(WEB_BIND_ANNOTATION + "RequestMethod");
+                }
+                maybeRemoveImport(WEB_BIND_ANNOTATION + mapping);
+                maybeAddImport(HTTP_EXCHANGE.replace("HttpExchange", exchange));
+
+                Space firstPrefix = a.getArguments() == null || a.getArguments().isEmpty() ? Space.EMPTY :
+                        a.getArguments().get(0).getPrefix();
+                a = a.withArguments(ListUtils.map(a.getArguments(), arg -> {
+                    String attribute = attribute(arg);
+                    if ("method".equals(attribute)) {
+                        return null;
+                    } else if (attribute == null) {
+                        // The url and content type of an exchange are single values
+                        return singleElement(arg);
+                    } else if ("value".equals(attribute)) {
+                        return ((J.Assignment) arg).withAssignment(singleElement(((J.Assignment) arg).getAssignment()));
+                    } else if ("path".equals(attribute) || "produces".equals(attribute) || "consumes".equals(attribute)) {
+                        J.Assignment assignment = (J.Assignment) arg;
+                        Expression value = assignment.getAssignment();
+                        if (!"produces".equals(attribute)) {
+                            value = singleElement(value);
+                        }
+                        String renamed = "path".equals(attribute) ? "url" : "produces".equals(attribute) ? "accept" : "contentType";
+                        return assignment.withVariable(((J.Identifier) assignment.getVariable()).withSimpleName(renamed))
+                                .withAssignment(value);
+                    }
+                    return arg;
+                }));
+                a = a.withArguments(ListUtils.mapFirst(a.getArguments(), arg -> arg.withPrefix(firstPrefix)));
+                return (J.Annotation) new ChangeType(WEB_BIND_ANNOTATION + mapping, HTTP_EXCHANGE.replace("HttpExchange", exchange), false)
+                        .getVisitor().visitNonNull(a, ctx, getCursor().getParentOrThrow());
+            }
+        };
+    }
+
+    private static Client client(J.ClassDeclaration classDecl, J.Annotation feignClient, J.CompilationUnit cu) {
+        String name = null;
+        String url = null;
+        String path = null;
+        String reason = missingDependency(cu);
+        if (reason == null && findAnnotation(classDecl.getLeadingAnnotations(), WEB_BIND_ANNOTATION + "RequestMapping") != null) {
+            reason = "Declares a path prefix with a class-level `@RequestMapping`, which should be moved to the `path` attribute first";
+        }
+        if (feignClient.getArguments() != null) {
+            for (Expression argument : feignClient.getArguments()) {
+                String attribute = attribute(argument);
+                Expression value = argument instanceof J.Assignment ? ((J.Assignment) argument).getAssignment() : argument;
+                String literal = value instanceof J.Literal && ((J.Literal) value).getValue() instanceof String ?
+                        (String) ((J.Literal) value).getValue() : null;
+                if (argument instanceof J.Empty || "contextId".equals(attribute) || reason != null) {
+                    continue;
+                } else if (attribute != null && !"value".equals(attribute) && !"name".equals(attribute) &&
+                           !"url".equals(attribute) && !"path".equals(attribute)) {
+                    reason = "Uses the Feign-specific `" + attribute + "` attribute";
+                } else if (literal == null) {
+                    reason = "The `" + (attribute == null ? "value" : attribute) + "` of the Feign client is not a literal";
+                } else if ("url".equals(attribute)) {
+                    url = literal;
+                } else if ("path".equals(attribute)) {
+                    path = literal;
+                } else {
+                    name = literal;
+                }
+            }
+        }
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (reason == null && statement instanceof J.MethodDeclaration && ((J.MethodDeclaration) statement).getBody() == null) {
+                reason = methodReason((J.MethodDeclaration) statement);
+            }
+        }
+        return new Client(classDecl.getType().getFullyQualifiedName(), name == null ? "" : name, url, path, reason);
+    }
+
+    /**
+     * The generated configuration uses the {@code ClientHttpRequestFactoryBuilder} of Spring Boot 3.4 with Apache
+     * HttpClient 5, so both have to be on the classpath of the client's source set.
+     */
+    private static @Nullable String missingDependency(J.CompilationUnit cu) {
+        List<JavaType.FullyQualified> classpath = cu.getMarkers().findFirst(JavaSourceSet.class)
+                .map(JavaSourceSet::getClasspath)
+                .orElse(emptyList());
+        if (classpath.stream().noneMatch(type -> REQUEST_FACTORY_BUILDER.equals(type.getFullyQualifiedName()))) {
+            return "The `RestClient` configuration requires Spring Boot 3.4 or later";
+        } else if (classpath.stream().noneMatch(type -> HTTP_CLIENTS.equals(type.getFullyQualifiedName()))) {
+            return "The `RestClient` configuration requires `org.apache.httpcomponents.client5:httpclient5`";
+        }
+        return null;
+    }
+
+    private static boolean catchesFeignException(@Nullable JavaType type) {
+        if (type instanceof JavaType.MultiCatch) {
+            for (JavaType throwable : ((JavaType.MultiCatch) type).getThrowableTypes()) {
+                if (catchesFeignException(throwable)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return TypeUtils.isAssignableTo(FEIGN_EXCEPTION, type);
+    }
+
+    private static @Nullable String methodReason(J.MethodDeclaration method) {
+        J.Annotation mapping = null;
+        for (J.Annotation annotation : method.getLeadingAnnotations()) {
+            if (mapping(annotation) != null) {
+                mapping = annotation;
+            }
+        }
+        if (mapping == null) {
+            return "`" + method.getSimpleName() + "` has no Spring MVC mapping annotation";
+        } else if ("RequestMapping".equals(mapping(mapping)) && requestMethod(mapping) == null) {
+            return "`" + method.getSimpleName() + "` is not mapped to a single request method";
+        }
+        if (mapping.getArguments() != null) {
+            for (Expression argument : mapping.getArguments()) {
+                String attribute = attribute(argument);
+                if ("headers".equals(attribute) || "params".equals(attribute) || "name".equals(attribute)) {
+                    return "`" + method.getSimpleName() + "` uses the `" + attribute + "` attribute, which HTTP interfaces don't support";
+                }
+                Expression value = argument instanceof J.Assignment ? ((J.Assignment) argument).getAssignment() : argument;
+                if (value instanceof J.NewArray && singleElement(value) == value) {
+                    if ("consumes".equals(attribute)) {
+                        return "`" + method.getSimpleName() + "` consumes multiple media types";
+                    } else if (attribute == null || "value".equals(attribute) || "path".equals(attribute)) {
+                        return "`" + method.getSimpleName() + "` is mapped to multiple paths";
+                    }
+                }
+            }
+        }
+        for (Statement parameter : method.getParameters()) {
+            if (!(parameter instanceof J.VariableDeclarations)) {
+                continue;
+            }
+            List<J.Annotation> annotations = ((J.VariableDeclarations) parameter).getLeadingAnnotations();
+            if (annotations.isEmpty()) {
+                return "`" + method.getSimpleName() + "` has a parameter without a Spring MVC annotation";
+            }
+            for (J.Annotation annotation : annotations) {
+                if (!PARAMETER_ANNOTATIONS.contains(annotation.getSimpleName()) ||
+                    !TypeUtils.isOfClassType(annotation.getType(), WEB_BIND_ANNOTATION + annotation.getSimpleName())) {
+                    return "`" + method.getSimpleName() + "` has a parameter annotated with `@" + annotation.getSimpleName() +
+                           "`, which HTTP interfaces don't support";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The simple name of the Spring MVC mapping annotation, or {@code null} when the annotation is another one.
+     */
+    private static @Nullable String mapping(J.Annotation annotation) {
+        for (String mapping : EXCHANGES.keySet()) {
+            if (TypeUtils.isOfClassType(annotation.getType(), WEB_BIND_ANNOTATION + mapping)) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable String requestMethod(J.Annotation requestMapping) {
+        if (requestMapping.getArguments() == null) {
+            return null;
+        }
+        for (Expression argument : requestMapping.getArguments()) {
+            if ("method".equals(attribute(argument))) {
+                Expression value = ((J.Assignment) argument).getAssignment();
+                if (value instanceof J.NewArray) {
+                    List<Expression> initializer = ((J.NewArray) value).getInitializer();
+                    value = initializer != null && initializer.size() == 1 ? initializer.get(0) : null;
+                }
+                if (value instanceof J.FieldAccess) {
+                    return ((J.FieldAccess) value).getSimpleName();
+                } else if (value instanceof J.Identifier) {
+                    return ((J.Identifier) value).getSimpleName();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The element of an array with a single element, or the value itself.
+     */
+    private static Expression singleElement(Expression value) {
+        if (value instanceof J.NewArray) {
+            List<Expression> initializer = ((J.NewArray) value).getInitializer();
+            if (initializer != null && initializer.size() == 1 && !(initializer.get(0) instanceof J.Empty)) {
+                return initializer.get(0).withPrefix(value.getPrefix());
+            }
+        }
+        return value;
+    }
+
+    private static @Nullable String attribute(Expression argument) {
+        if (argument instanceof J.Assignment && ((J.Assignment) argument).getVariable() instanceof J.Identifier) {
+            return ((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName();
+        }
+        return null;
+    }
+
+    private static J.@Nullable Annotation findAnnotation(List<J.Annotation> annotations, String fullyQualifiedName) {
+        for (J.Annotation annotation : annotations) {
+            if (TypeUtils.isOfClassType(annotation.getType(), fullyQualifiedName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static void scanProperties(Tree tree, Accumulator acc) {
+        if (tree instanceof Properties.File) {
+            new PropertiesVisitor<Accumulator>() {
+                @Override
+                public Properties visitEntry(Properties.Entry entry, Accumulator acc) {
+                    addClientProperty(entry.getKey(), entry.getValue().getText(), acc);
+                    return entry;
+                }
+            }.visit(tree, acc);
+        } else if (tree instanceof Yaml.Documents) {
+            new YamlIsoVisitor<Accumulator>() {
+                @Override
+                public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, Accumulator acc) {
+                    if (entry.getValue() instanceof Yaml.Scalar || entry.getValue() instanceof Yaml.Sequence) {
+                        StringBuilder key = new StringBuilder(entry.getKey().getValue());
+                        for (Cursor c = getCursor().getParentOrThrow(); c != null; c = c.getParent()) {
+                            if (c.getValue() instanceof Yaml.Mapping.Entry) {
+                                key.insert(0, ((Yaml.Mapping.Entry) c.getValue()).getKey().getValue() + ".");
+                            }
+                        }
+                        // Only the presence of list settings like `request-interceptors` matters
+                        addClientProperty(key.toString(), entry.getValue() instanceof Yaml.Scalar ?
+                                ((Yaml.Scalar) entry.getValue()).getValue() : "", acc);
+                    }
+                    return super.visitMappingEntry(entry, acc);
+                }
+            }.visit(tree, acc);
+        }
+    }
+
+    private static void addClientProperty(String key, String value, Accumulator acc) {
+        Matcher matcher = CLIENT_PROPERTY.matcher(key);
+        if (matcher.matches()) {
+            // Relaxed binding, so `connect-timeout` and `connectTimeout` are the same setting, and indexed list elements
+            // like `requestInterceptors[0]` belong to the list setting
+            String setting = matcher.group(2).replace("-", "").replaceAll("\\[\\d+]$", "").toLowerCase();
+            acc.clientProperties.computeIfAbsent(matcher.group(1), k -> new HashMap<>()).put(setting, value.trim());
+        }
+        matcher = HTTP_CLIENT_PROPERTY.matcher(key);
+        if (matcher.matches()) {
+            acc.httpClientProperties.put(matcher.group(1).replace("-", "").toLowerCase(), value.trim());
+        }
+    }
+
+    private static String configurationClass(Accumulator acc, String packageName, List<Client> clients) {
+        Set<String> imports = new TreeSet<>(Arrays.asList(
+                "java.time.Duration",
+                "org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder",
+                "org.springframework.boot.http.client.ClientHttpRequestFactorySettings",
+                "org.springframework.context.annotation.Bean",
+                "org.springframework.context.annotation.Configuration",
+                "org.springframework.http.client.ClientHttpRequestFactory",
+                "org.springframework.web.client.RestClient",
+                "org.springframework.web.client.support.RestClientAdapter",
+                "org.springframework.web.service.invoker.HttpServiceProxyFactory"
+        ));
+        long connectTimeout = acc.timeout(null, "connecttimeout", DEFAULT_CONNECT_TIMEOUT);
+        long readTimeout = acc.timeout(null, "readtimeout", DEFAULT_READ_TIMEOUT);
+        long maxConnections = acc.httpClientSetting("maxconnections", DEFAULT_MAX_CONNECTIONS);
+        long maxConnectionsPerRoute = acc.httpClientSetting("maxconnectionsperroute", DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+
+        StringBuilder beans = new StringBuilder();
+        beans.append("    @Bean\n")
+                .append("    ClientHttpRequestFactory httpInterfaceRequestFactory() {\n")
+                .append("        return ").append(requestFactory(connectTimeout, readTimeout, maxConnections, maxConnectionsPerRoute, "                ")).append(";\n")
+                .append("    }\n");
+        for (Client client : clients) {
+            JavaType.FullyQualified type = JavaType.ShallowClass.build(client.getFullyQualifiedName());
+            if (!type.getPackageName().equals(packageName)) {
+                imports.add(type.getFullyQualifiedName());
+            }
+            String bean = Character.toLowerCase(type.getClassName().charAt(0)) + type.getClassName().substring(1);
+            boolean placeholder = client.getUrl() != null && client.getUrl().contains("${");
+            if (placeholder) {
+                imports.add("org.springframework.beans.factory.annotation.Value");
+            }
+            long clientConnectTimeout = acc.timeout(client.getName(), "connecttimeout", DEFAULT_CONNECT_TIMEOUT);
+            long clientReadTimeout = acc.timeout(client.getName(), "readtimeout", DEFAULT_READ_TIMEOUT);
+            boolean sharedRequestFactory = clientConnectTimeout == connectTimeout && clientReadTimeout == readTimeout;
+
+            beans.append("\n    @Bean\n")
+                    .append("    ").append(type.getClassName()).append(' ').append(bean).append("(RestClient.Builder restClientBuilder");
+            if (sharedRequestFactory) {
+                beans.append(", ClientHttpRequestFactory httpInterfaceRequestFactory");
+            }
+            if (placeholder) {
+                beans.append(", @Value(\"").append(client.getUrl()).append("\") String url");
+            }
+            beans.append(") {\n")
+                    .append("        RestClient restClient = restClientBuilder.clone()\n")
+                    .append("                .baseUrl(").append(placeholder ? "url" : "\"" + client.getUrl() + "\"").append(")\n")
+                    .append("                .requestFactory(").append(sharedRequestFactory ? "httpInterfaceRequestFactory" :
+                            requestFactory(clientConnectTimeout, clientReadTimeout, maxConnections, maxConnectionsPerRoute,
+                                    "                        ")).append(")\n")
+                    .append("                .build();\n")
+                    .append("        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient)).build()\n")
+                    .append("                .createClient(").append(type.getClassName()).append(".class);\n")
+                    .append("    }\n");
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        List<String> javaImports = new ArrayList<>();
+        for (String anImport : imports) {
+            if (anImport.startsWith("java.")) {
+                javaImports.add(anImport);
+            } else {
+                source.append("import ").append(anImport).append(";\n");
+            }
+        }
+        if (!javaImports.isEmpty()) {
+            source.append('\n');
+            for (String anImport : javaImports) {
+                source.append("import ").append(anImport).append(";\n");
+            }
+        }
+        return source.append("\n@Configuration(proxyBeanMethods = false)\n")
+                .append("class ").append(CONFIGURATION_CLASS).append(" {\n\n")
+                .append(beans)
+                .append("}\n")
+                .toString();
+    }
+
+    private static String requestFactory(long connectTimeout, long readTimeout, long maxConnections,
+                                         long maxConnectionsPerRoute, String indent) {
+        return "ClientHttpRequestFactoryBuilder.httpComponents()\n" +
+               indent + ".withConnectionManagerCustomizer(connectionManager -> connectionManager\n" +
+               indent + "        .setMaxConnTotal(" + maxConnections + ")\n" +
+               indent + "        .setMaxConnPerRoute(" + maxConnectionsPerRoute + "))\n" +
+               indent + ".build(ClientHttpRequestFactorySettings.defaults()\n" +
+               indent + "        .withConnectTimeout(Duration.ofMillis(" + connectTimeout + "))\n" +
+               indent + "        .withReadTimeout(Duration.ofMillis(" + readTimeout + ")))";
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.spring.table.UnmigratedRestTemplateCalls;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.Markers;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class MigrateRestTemplateToRestClient extends Recipe {
+
+    private static final String REST_TEMPLATE = "org.springframework.web.client.RestTemplate";
+    private static final String REST_CLIENT = "org.springframework.web.client.RestClient";
+    private static final JavaType.FullyQualified REST_CLIENT_TYPE = JavaType.ShallowClass.build(REST_CLIENT);
+    private static final String REQUEST_FACTORY_BUILDER = "org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder";
+    private static final String HTTP_CLIENTS = "org.apache.hc.client5.http.impl.classic.HttpClients";
+
+    private static final MethodMatcher REST_TEMPLATE_CALL = new MethodMatcher(REST_TEMPLATE + " *(..)");
+    private static final AnnotationMatcher BEAN_ANNOTATION = new AnnotationMatcher("@org.springframework.context.annotation.Bean");
+
+    /**
+     * Maps the fields of type {@code RestTemplate} visible from the current class to the reason they can't be
+     * migrated, or to {@code null} if they can.
+     */
+    private static final String REST_TEMPLATE_FIELDS = "REST_TEMPLATE_FIELDS";
+
+    @Option(displayName = "Connect timeout",
+            description = "The connect timeout, in seconds, of the pooled HTTP client that replaces `new RestTemplate()`. Defaults to 5 seconds.",
+            required = false,
+            example = "5")
+    @Nullable
+    Integer connectTimeout;
+
+    @Option(displayName = "Read timeout",
+            description = "The response timeout, in seconds, of the pooled HTTP client that replaces `new RestTemplate()`. Defaults to 30 seconds.",
+            required = false,
+            example = "30")
+    @Nullable
+    Integer readTimeout;
+
+    transient UnmigratedRestTemplateCalls unmigratedCalls = new UnmigratedRestTemplateCalls(this);
+
+    String displayName = "Migrate `RestTemplate` to a pooled `RestClient`";
+
+    String description = "Migrates private `RestTemplate` fields and their `getForObject`, `getForEntity`, `postForObject`, " +
+            "`postForEntity`, `put` and `delete` calls to `RestClient`. Injected templates are wrapped with `RestClient.create(..)`, " +
+            "which reuses their request factory and interceptors, while `new RestTemplate()` is replaced with a client backed by a " +
+            "pooled Apache HttpClient 5 request factory with explicit connect and read timeouts. `RestTemplate` beans created with " +
+            "`new RestTemplate()` get the same pooled request factory. Only source sets with Spring Boot 3.4 or later and " +
+            "`httpclient5` on the classpath are migrated. Call sites that cannot be migrated are reported in a data table.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        String requestFactory = "ClientHttpRequestFactoryBuilder.httpComponents()" +
+                ".build(ClientHttpRequestFactorySettings.defaults()" +
+                ".withConnectTimeout(Duration.ofSeconds(" + (connectTimeout == null ? 5 : connectTimeout) + "))" +
+                ".withReadTimeout(Duration.ofSeconds(" + (readTimeout == null ? 30 : readTimeout) + ")))";
+        return Preconditions.check(Preconditions.and(new UsesType<>(REST_TEMPLATE, false), new HasRequestFactoryClasspath()), new JavaIsoVisitor<ExecutionContext>() {
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                Map<String, @Nullable String> fields = new HashMap<>(getCursor().getNearestMessage(REST_TEMPLATE_FIELDS, emptyMap()));
+                Set<String> declared = new HashSet<>();
+                Set<String> initialized = new HashSet<>();
+                for (Statement statement : classDecl.getBody().getStatements()) {
+                    if (statement instanceof J.VariableDeclarations && TypeUtils.isOfClassType(((J.VariableDeclarations) statement).getType(), REST_TEMPLATE)) {
+                        J.VariableDeclarations vd = (J.VariableDeclarations) statement;
+                        for (J.VariableDeclarations.NamedVariable variable : vd.getVariables()) {
+                            String key = fieldKey(variable.getVariableType());
+                            if (key != null) {
+                                fields.put(key, !vd.hasModifier(J.Modifier.Type.Private) ? "The field is not private" :
+                                        vd.getVariables().size() != 1 ? "The field is declared together with other fields" : null);
+                                declared.add(key);
+                                if (variable.getInitializer() != null) {
+                                    initialized.add(key);
+                                }
+                            }
+                        }
+                    }
+                }
+                new JavaIsoVisitor<Map<String, @Nullable String>>() {
+                    @Override
+                    public J.Identifier visitIdentifier(J.Identifier identifier, Map<String, @Nullable String> fields) {
+                        String key = fieldKey(identifier.getFieldType());
+                        if (key != null && fields.containsKey(key) && fields.get(key) == null) {
+                            Cursor parent = getCursor().getParentTreeCursor();
+                            J usage = identifier;
+                            if (parent.getValue() instanceof J.FieldAccess && ((J.FieldAccess) parent.getValue()).getName() == identifier) {
+                                usage = parent.getValue();
+                                parent = parent.getParentTreeCursor();
+                            }
+                            if (!(parent.getValue() instanceof J.VariableDeclarations.NamedVariable)) {
+                                String reason = usageReason(usage, parent);
+                                fields.put(key, reason);
+                                if (reason == null && parent.getValue() instanceof J.Assignment) {
+                                    initialized.add(key);
+                                }
+                            }
+                        }
+                        return identifier;
+                    }
+                }.visit(classDecl, fields);
+                for (String key : declared) {
+                    if (fields.get(key) == null && !initialized.contains(key)) {
+                        // Injected fields and Lombok-generated constructors would need a `RestClient` bean, which Spring Boot doesn't provide
+                        fields.put(key, "The field is injected, and Spring Boot doesn't auto-configure a `RestClient` bean");
+                    }
+                }
+                getCursor().putMessage(REST_TEMPLATE_FIELDS, fields);
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+
+            @Override
+            public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations multiVariable, ExecutionContext ctx) {
+                J.VariableDeclarations vd = super.visitVariableDeclarations(multiVariable, ctx);
+                if (vd.getVariables().size() != 1 || !isMigratableField(vd.getVariables().get(0).getName()) || vd.getTypeExpression() == null) {
+                    return vd;
+                }
+                maybeAddImport(REST_CLIENT);
+                maybeRemoveImport(REST_TEMPLATE);
+                vd = vd.withTypeExpression(new J.Identifier(Tree.randomId(), vd.getTypeExpression().getPrefix(), Markers.EMPTY,
+                                emptyList(), "RestClient", REST_CLIENT_TYPE, null))
+                        .withVariables(ListUtils.map(vd.getVariables(), v -> v
+                                .withName(retype(v.getName()))
+                                .withVariableType(v.getVariableType() == null ? null : v.getVariableType().withType(REST_CLIENT_TYPE))));
+                Expression initializer = vd.getVariables().get(0).getInitializer();
+                return initializer == null ? vd : replaceWithRestClient(updateCursor(vd), initializer, ctx);
+            }
+
+            @Override
+            public J.Assignment visitAssignment(J.Assignment assignment, ExecutionContext ctx) {
+                J.Assignment a = super.visitAssignment(assignment, ctx);
+                if (!isMigratableField(a.getVariable())) {
+                    return a;
+                }
+                a = a.withVariable(retype(a.getVariable()));
+                return replaceWithRestClient(updateCursor(a), a.getAssignment(), ctx);
+            }
+
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+                J.NewClass n = super.visitNewClass(newClass, ctx);
+                if (!isNewDefaultRestTemplate(n)) {
+                    return n;
+                }
+                J.MethodDeclaration method = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                if (method == null || method.isConstructor()) {
+                    // Field initializers and constructor assignments are handled along with their field
+                    return n;
+                }
+                if (method.getLeadingAnnotations().stream().noneMatch(BEAN_ANNOTATION::matches)) {
+                    report(n, "A new `RestTemplate` without connection pooling is created per call; share a single client instead", ctx);
+                    return n;
+                }
+                if (!(getCursor().getParentTreeCursor().getValue() instanceof J.Return)) {
+                    return n;
+                }
+                maybeAddImport(REQUEST_FACTORY_BUILDER);
+                maybeAddImport("org.springframework.boot.http.client.ClientHttpRequestFactorySettings");
+                maybeAddImport("java.time.Duration");
+                return template("new RestTemplate(" + requestFactory + ")", ctx)
+                        .apply(getCursor(), n.getCoordinates().replace());
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                if (!REST_TEMPLATE_CALL.matches(m)) {
+                    return m;
+                }
+                Expression select = m.getSelect();
+                if (select != null && isMigratableField(select)) {
+                    return migrateCall(m, retype(select), ctx);
+                }
+
+                String reason = callReason(m);
+                String key = select == null ? null : fieldKey(select instanceof J.FieldAccess ?
+                        ((J.FieldAccess) select).getName().getFieldType() :
+                        select instanceof J.Identifier ? ((J.Identifier) select).getFieldType() : null);
+                Map<String, @Nullable String> fields = getCursor().getNearestMessage(REST_TEMPLATE_FIELDS, emptyMap());
+                if (reason == null) {
+                    reason = key != null && fields.get(key) != null ?
+                            "Other uses of the field prevent its migration: " + fields.get(key) :
+                            "The `RestTemplate` is not held in a private field";
+                }
+                report(m, reason, ctx);
+                return m;
+            }
+
+            private J.MethodInvocation migrateCall(J.MethodInvocation m, Expression client, ExecutionContext ctx) {
+                String name = m.getSimpleName();
+                List<Expression> args = m.getArguments();
+                boolean withRequest = name.startsWith("post") || "put".equals(name);
+                boolean withResponseType = name.endsWith("ForObject") || name.endsWith("ForEntity");
+                int uriVariablesStart = 1 + (withRequest ? 1 : 0) + (withResponseType ? 1 : 0);
+
+                List<Object> parameters = new ArrayList<>();
+                parameters.add(client);
+                StringBuilder code = new StringBuilder("#{any(" + REST_CLIENT + ")}.")
+                        .append(withResponseType ? name.substring(0, name.indexOf("For")) : name)
+                        .append("().uri(#{any()}");
+                parameters.add(args.get(0));
+                for (Expression uriVariable : args.subList(uriVariablesStart, args.size())) {
+                    code.append(", #{any()}");
+                    parameters.add(uriVariable);
+                }
+                code.append(")");
+                if (withRequest && !J.Literal.isLiteralValue(args.get(1), null)) {
+                    code.append(".body(#{any()})");
+                    parameters.add(args.get(1));
+                }
+                code.append(".retrieve()");
+                if (withResponseType) {
+                    code.append(name.endsWith("ForObject") ? ".body(#{any(java.lang.Class)})" : ".toEntity(#{any(java.lang.Class)})");
+                    parameters.add(args.get(uriVariablesStart - 1));
+                } else {
+                    code.append(".toBodilessEntity()");
+                }
+                return template(code.toString(), ctx).apply(getCursor(), m.getCoordinates().replace(), parameters.toArray());
+            }
+
+            private <J2 extends J> J2 replaceWithRestClient(Cursor cursor, Expression restTemplate, ExecutionContext ctx) {
+                if (isNewDefaultRestTemplate(restTemplate)) {
+                    maybeAddImport(REQUEST_FACTORY_BUILDER);
+                    maybeAddImport("org.springframework.boot.http.client.ClientHttpRequestFactorySettings");
+                    maybeAddImport("java.time.Duration");
+                    return template("RestClient.builder().requestFactory(" + requestFactory + ").build()", ctx)
+                            .apply(cursor, restTemplate.getCoordinates().replace());
+                }
+                // Reuses the request factory, interceptors and message converters of the injected template
+                return template("RestClient.create(#{any(" + REST_TEMPLATE + ")})", ctx)
+                        .apply(cursor, restTemplate.getCoordinates().replace(), restTemplate);
+            }
+
+            private JavaTemplate template(String code, ExecutionContext ctx) {
+                return JavaTemplate.builder(code)
+                        .imports(REST_CLIENT, REST_TEMPLATE, "java.time.Duration",
+                                REQUEST_FACTORY_BUILDER,
+                                "org.springframework.boot.http.client.ClientHttpRequestFactorySettings")
+                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-web-6", "spring-core-6", "spring-beans-6", "spring-boot-3", "httpclient5", "httpcore5"))
+                        .build();
+            }
+
+            private boolean isMigratableField(Expression expression) {
+                JavaType.Variable fieldType = expression instanceof J.Identifier ? ((J.Identifier) expression).getFieldType() :
+                        expression instanceof J.FieldAccess ? ((J.FieldAccess) expression).getName().getFieldType() : null;
+                String key = fieldKey(fieldType);
+                Map<String, @Nullable String> fields = getCursor().getNearestMessage(REST_TEMPLATE_FIELDS, emptyMap());
+                return key != null && fields.containsKey(key) && fields.get(key) == null;
+            }
+
+            private void report(J j, String reason, ExecutionContext ctx) {
+                unmigratedCalls.insertRow(ctx, new UnmigratedRestTemplateCalls.Row(
+                        getCursor().firstEnclosingOrThrow(SourceFile.class).getSourcePath().toString(),
+                        j.printTrimmed(getCursor()),
+                        reason
+                ));
+            }
+        });
+    }
+
+    /**
+     * The pooled request factory is built with `ClientHttpRequestFactoryBuilder`, which Spring Boot 3.4 introduced,
+     * and Apache HttpClient 5.
+     */
+    private static class HasRequestFactoryClasspath extends JavaIsoVisitor<ExecutionContext> {
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            Set<String> classpath = new HashSet<>();
+            cu.getMarkers().findFirst(JavaSourceSet.class).ifPresent(sourceSet -> {
+                for (JavaType.FullyQualified type : sourceSet.getClasspath()) {
+                    classpath.add(type.getFullyQualifiedName());
+                }
+            });
+            return classpath.contains(REQUEST_FACTORY_BUILDER) && classpath.contains(HTTP_CLIENTS) ? SearchResult.found(cu) : cu;
+        }
+    }
+
+    private static @Nullable String usageReason(J usage, Cursor parent) {
+        if (parent.getValue() instanceof J.MethodInvocation && ((J.MethodInvocation) parent.getValue()).getSelect() == usage) {
+            return callReason(parent.getValue());
+        } else if (parent.getValue() instanceof J.Assignment && ((J.Assignment) parent.getValue()).getVariable() == usage) {
+            J.MethodDeclaration method = parent.firstEnclosing(J.MethodDeclaration.class);
+            return method != null && method.isConstructor() ? null : "The field is reassigned outside of a constructor";
+        }
+        return "The field is used as a `RestTemplate` beyond simple exchanges";
+    }
+
+    private static @Nullable String callReason(J.MethodInvocation m) {
+        List<Expression> args = m.getArguments();
+        switch (m.getSimpleName()) {
+            case "getForObject":
+            case "getForEntity":
+            case "delete":
+                return null;
+            case "postForObject":
+            case "postForEntity":
+            case "put":
+                return TypeUtils.isAssignableTo("org.springframework.http.HttpEntity", args.get(1).getType()) ?
+                        "The request is an `HttpEntity`, whose headers have to be moved to the `RestClient` request manually" :
+                        null;
+            default:
+                return "`RestTemplate." + m.getSimpleName() + "(..)` has no direct `RestClient` equivalent";
+        }
+    }
+
+    private static boolean isNewDefaultRestTemplate(Expression expression) {
+        return expression instanceof J.NewClass &&
+                TypeUtils.isOfClassType(expression.getType(), REST_TEMPLATE) &&
+                ((J.NewClass) expression).getBody() == null &&
+                ((J.NewClass) expression).getArguments().stream().allMatch(J.Empty.class::isInstance);
+    }
+
+    private static <E extends Expression> E retype(E expression) {
+        if (expression instanceof J.Identifier) {
+            J.Identifier identifier = (J.Identifier) expression;
+            //noinspection unchecked
+            return (E) identifier.withType(REST_CLIENT_TYPE)
+                    .withFieldType(identifier.getFieldType() == null ? null : identifier.getFieldType().withType(REST_CLIENT_TYPE));
+        } else if (expression instanceof J.FieldAccess) {
+            J.FieldAccess fieldAccess = (J.FieldAccess) expression;
+            //noinspection unchecked
+            return (E) fieldAccess.withName(retype(fieldAccess.getName())).withType(REST_CLIENT_TYPE);
+        }
+        return expression;
+    }
+
+    private static @Nullable String fieldKey(JavaType.@Nullable Variable variable) {
+        if (variable == null || !(variable.getOwner() instanceof JavaType.FullyQualified)) {
+            return null;
+        }
+        return ((JavaType.FullyQualified) variable.getOwner()).getFullyQualifiedName() + '#' + variable.getName();
+    }
+}
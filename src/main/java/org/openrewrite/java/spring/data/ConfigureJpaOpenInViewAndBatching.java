@@ -0,0 +1,571 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.data;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.spring.AddSpringProperty;
+import org.openrewrite.java.spring.trait.SpringRequestMapping;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.properties.search.FindProperties;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.search.FindProperty;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+
+/**
+ * Disables open-session-in-view for JPA applications whose request handlers do not load lazy associations outside of a
+ * transaction, and enables Hibernate JDBC batching for applications that save entities in bulk.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class ConfigureJpaOpenInViewAndBatching extends ScanningRecipe<ConfigureJpaOpenInViewAndBatching.Accumulator> {
+    private static final String OPEN_IN_VIEW = "spring.jpa.open-in-view";
+    private static final String BATCH_SIZE = "spring.jpa.properties.hibernate.jdbc.batch_size";
+    private static final String ORDER_INSERTS = "spring.jpa.properties.hibernate.order_inserts";
+    private static final String ORDER_UPDATES = "spring.jpa.properties.hibernate.order_updates";
+
+    private static final MethodMatcher SAVE_ALL = new MethodMatcher("org.springframework.data.repository.CrudRepository saveAll(..)", true);
+    private static final MethodMatcher[] SAVE = {
+            new MethodMatcher("org.springframework.data.repository.CrudRepository save(..)", true),
+            new MethodMatcher("javax.persistence.EntityManager persist(..)", true),
+            new MethodMatcher("jakarta.persistence.EntityManager persist(..)", true)
+    };
+    private static final MethodMatcher[] FOR_EACH = {
+            new MethodMatcher("java.lang.Iterable forEach(..)", true),
+            new MethodMatcher("java.util.stream.Stream forEach(..)", true)
+    };
+
+    @Option(displayName = "Batch size",
+            description = "The `hibernate.jdbc.batch_size` to set for applications that save entities in bulk. Defaults to `50`.",
+            required = false,
+            example = "50")
+    @Nullable
+    Integer batchSize;
+
+    String displayName = "Disable open-session-in-view and enable JPA batching";
+
+    String description = "Set `spring.jpa.open-in-view=false` for JPA applications when no request handler, like a " +
+            "`@GetMapping` method, reads a lazy association of an entity, returns an entity with lazy associations or " +
+            "passes it to another method outside of a `@Transactional` method, itself or through the methods it calls " +
+            "without a transaction. Applications are configured per project. Otherwise the handlers that need " +
+            "open-session-in-view, render views, or whose entities are not part of the sources, are marked. Also enable " +
+            "Hibernate JDBC batching and the ordering of inserts and updates when repositories save entities with " +
+            "`saveAll` or in loops.";
+
+    public static class Accumulator {
+        final Map<JavaProject, Project> projects = new HashMap<>();
+        final Project withoutProject = new Project();
+
+        Project project(SourceFile sourceFile) {
+            return sourceFile.getMarkers().findFirst(JavaProject.class)
+                    .map(javaProject -> projects.computeIfAbsent(javaProject, k -> new Project()))
+                    .orElse(withoutProject);
+        }
+    }
+
+    public static class Project {
+        boolean jpa;
+        boolean bulkSaves;
+        final Set<String> configuredProperties = new HashSet<>();
+        final Map<String, Entity> entities = new HashMap<>();
+        final List<MethodUses> handlers = new ArrayList<>();
+
+        /**
+         * The entity uses of the methods declared in the sources which don't run in a transaction, by method pattern.
+         */
+        final Map<String, MethodUses> methods = new HashMap<>();
+
+        boolean isOpenInViewRequired() {
+            for (MethodUses handler : handlers) {
+                if (decide(handler, new HashSet<>()) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return Why the method, or a method it calls without a transaction, requires open-session-in-view or could
+         * not be decided, or {@code null} when none of them load lazy associations.
+         */
+        @Nullable
+        String decide(MethodUses method, Set<String> visited) {
+            for (EntityUse use : method.getEntityUses()) {
+                String reason = decide(use);
+                if (reason != null) {
+                    return reason;
+                }
+            }
+            for (String call : method.getCalls()) {
+                MethodUses callee = methods.get(call);
+                if (callee != null && visited.add(call)) {
+                    String reason = decide(callee, visited);
+                    if (reason != null) {
+                        return "Calls `" + callee.getName() + "`, which " +
+                               Character.toLowerCase(reason.charAt(0)) + reason.substring(1);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return Why the entity use requires open-session-in-view or could not be decided, or {@code null} when it
+         * doesn't load lazy associations.
+         */
+        @Nullable
+        String decide(EntityUse use) {
+            if (use.getEntityType() == null) {
+                return "Renders a view, whose template may load lazy associations of the model's entities outside of a transaction";
+            }
+            Entity entity = entities.get(use.getEntityType());
+            String simpleName = use.getEntityType().substring(use.getEntityType().lastIndexOf('.') + 1);
+            if (entity == null) {
+                return "Could not decide whether `" + simpleName + "` has lazy associations, as it is not part of the sources";
+            } else if (use.getCallee() != null) {
+                return entity.getLazyGetters().isEmpty() ? null : "Passes `" + simpleName + "` with lazy association `" +
+                        entity.getLazyGetters().iterator().next() + "` to `" + use.getCallee() +
+                        "`, which may load it outside of a transaction";
+            } else if (use.getGetter() == null && !entity.getSerializedLazyGetters().isEmpty()) {
+                return "Returns `" + simpleName + "` with lazy association `" +
+                       entity.getSerializedLazyGetters().iterator().next() + "` outside of a transaction";
+            } else if (use.getGetter() != null && entity.getLazyGetters().contains(use.getGetter())) {
+                return "Loads lazy association `" + simpleName + "." + use.getGetter() + "()` outside of a transaction";
+            }
+            return null;
+        }
+    }
+
+    @Value
+    static class Entity {
+        Set<String> lazyGetters;
+        Set<String> serializedLazyGetters;
+    }
+
+    @Value
+    static class MethodUses {
+        String name;
+        Set<EntityUse> entityUses;
+
+        /**
+         * The patterns of the methods called, which are followed when they are part of the sources.
+         */
+        Set<String> calls;
+    }
+
+    @Value
+    static class EntityUse {
+        /**
+         * The entity, or {@code null} when the handler renders a view, whose template may read any entity of the model.
+         */
+        @Nullable
+        String entityType;
+
+        /**
+         * The getter the handler calls, or {@code null} when the handler returns the entity to be serialized.
+         */
+        @Nullable
+        String getter;
+
+        /**
+         * The method or constructor the handler passes the entity to.
+         */
+        @Nullable
+        String callee;
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        JavaIsoVisitor<ExecutionContext> javaScanner = new JavaIsoVisitor<ExecutionContext>() {
+            final SpringRequestMapping.Matcher requestMapping = new SpringRequestMapping.Matcher();
+
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                Project project = acc.project(cu);
+                for (JavaType type : cu.getTypesInUse().getTypesInUse()) {
+                    JavaType.FullyQualified fq = TypeUtils.asFullyQualified(type);
+                    if (fq != null && (fq.getPackageName().startsWith("jakarta.persistence") ||
+                                       fq.getPackageName().startsWith("javax.persistence") ||
+                                       fq.getPackageName().startsWith("org.springframework.data.jpa"))) {
+                        project.jpa = true;
+                    }
+                }
+                return super.visitCompilationUnit(cu, ctx);
+            }
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                if (classDecl.getType() != null && isEntity(classDecl.getType())) {
+                    project().entities.put(classDecl.getType().getFullyQualifiedName(), entity(classDecl));
+                }
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                if (method.getMethodType() != null && method.getBody() != null && !isTransactional(method, getCursor())) {
+                    project().methods.put(MethodMatcher.methodPattern(method.getMethodType()), uses(method, getCursor(), false));
+                    if (isHandler(method, getCursor(), requestMapping)) {
+                        project().handlers.add(uses(method, getCursor(), true));
+                    }
+                }
+                return super.visitMethodDeclaration(method, ctx);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                if (SAVE_ALL.matches(method) || isSaveInLoop(method, getCursor())) {
+                    project().bulkSaves = true;
+                }
+                return super.visitMethodInvocation(method, ctx);
+            }
+
+            private Project project() {
+                return acc.project(getCursor().firstEnclosingOrThrow(SourceFile.class));
+            }
+        };
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof J.CompilationUnit) {
+                    javaScanner.visit(tree, ctx);
+                } else if (tree instanceof Yaml.Documents || tree instanceof Properties.File) {
+                    for (String property : Arrays.asList(OPEN_IN_VIEW, BATCH_SIZE, ORDER_INSERTS, ORDER_UPDATES)) {
+                        if (hasProperty(tree, property)) {
+                            acc.project((SourceFile) tree).configuredProperties.add(property);
+                        }
+                    }
+                }
+                return tree;
+            }
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof SourceFile)) {
+                    return tree;
+                }
+                Project project = acc.project((SourceFile) tree);
+                if (!project.jpa) {
+                    return tree;
+                } else if (tree instanceof J.CompilationUnit) {
+                    return markHandlersAndIdentityIds(project).visit(tree, ctx);
+                } else if (!(tree instanceof Yaml.Documents || tree instanceof Properties.File)) {
+                    return tree;
+                }
+                Tree t = tree;
+                if (!project.isOpenInViewRequired()) {
+                    t = addProperty(t, project, OPEN_IN_VIEW, "false", ctx);
+                }
+                if (project.bulkSaves) {
+                    t = addProperty(t, project, BATCH_SIZE, String.valueOf(batchSize == null ? 50 : batchSize), ctx);
+                    t = addProperty(t, project, ORDER_INSERTS, "true", ctx);
+                    t = addProperty(t, project, ORDER_UPDATES, "true", ctx);
+                }
+                return t;
+            }
+
+            private @Nullable Tree addProperty(@Nullable Tree t, Project project, String property, String value, ExecutionContext ctx) {
+                if (project.configuredProperties.contains(property)) {
+                    return t;
+                }
+                return new AddSpringProperty(property, value, null, null).getVisitor().visit(t, ctx);
+            }
+        };
+    }
+
+    private static JavaIsoVisitor<ExecutionContext> markHandlersAndIdentityIds(Project project) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            final SpringRequestMapping.Matcher requestMapping = new SpringRequestMapping.Matcher();
+
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+                if (project.configuredProperties.contains(OPEN_IN_VIEW) || !isHandler(method, getCursor(), requestMapping) ||
+                    isTransactional(method, getCursor())) {
+                    return m;
+                }
+                String reason = project.decide(uses(method, getCursor(), true), new HashSet<>());
+                return reason == null ? m : SearchResult.found(m, reason);
+            }
+
+            @Override
+            public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+                J.Annotation a = super.visitAnnotation(annotation, ctx);
+                if (project.bulkSaves && !project.configuredProperties.contains(BATCH_SIZE) && isIdentityGeneratedValue(a)) {
+                    return SearchResult.found(a, "Hibernate does not batch inserts of entities with `IDENTITY` ids");
+                }
+                return a;
+            }
+        };
+    }
+
+    private static boolean isEntity(JavaType.FullyQualified type) {
+        for (JavaType.FullyQualified annotation : type.getAnnotations()) {
+            if ("javax.persistence.Entity".equals(annotation.getFullyQualifiedName()) ||
+                "jakarta.persistence.Entity".equals(annotation.getFullyQualifiedName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Entity entity(J.ClassDeclaration classDecl) {
+        Set<String> lazyGetters = new TreeSet<>();
+        Set<String> serializedLazyGetters = new TreeSet<>();
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (!(statement instanceof J.VariableDeclarations)) {
+                continue;
+            }
+            J.VariableDeclarations field = (J.VariableDeclarations) statement;
+            boolean lazy = false;
+            boolean jsonIgnore = false;
+            for (J.Annotation annotation : field.getLeadingAnnotations()) {
+                String name = annotation.getSimpleName();
+                if (isPersistenceAnnotation(annotation)) {
+                    String fetch = fetchType(annotation);
+                    if ("OneToMany".equals(name) || "ManyToMany".equals(name) || "ElementCollection".equals(name)) {
+                        lazy |= !"EAGER".equals(fetch);
+                    } else if ("ManyToOne".equals(name) || "OneToOne".equals(name)) {
+                        lazy |= "LAZY".equals(fetch);
+                    }
+                } else if (TypeUtils.isOfClassType(annotation.getType(), "com.fasterxml.jackson.annotation.JsonIgnore")) {
+                    jsonIgnore = true;
+                }
+            }
+            if (lazy) {
+                for (J.VariableDeclarations.NamedVariable variable : field.getVariables()) {
+                    String getter = "get" + Character.toUpperCase(variable.getSimpleName().charAt(0)) + variable.getSimpleName().substring(1);
+                    lazyGetters.add(getter);
+                    if (!jsonIgnore) {
+                        serializedLazyGetters.add(getter);
+                    }
+                }
+            }
+        }
+        return new Entity(lazyGetters, serializedLazyGetters);
+    }
+
+    private static boolean isPersistenceAnnotation(J.Annotation annotation) {
+        JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+        return type != null && (type.getPackageName().equals("javax.persistence") || type.getPackageName().equals("jakarta.persistence"));
+    }
+
+    private static @Nullable String fetchType(J.Annotation annotation) {
+        if (annotation.getArguments() != null) {
+            for (Expression argument : annotation.getArguments()) {
+                if (argument instanceof J.Assignment && "fetch".equals(((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName())) {
+                    Expression value = ((J.Assignment) argument).getAssignment();
+                    return value instanceof J.FieldAccess ? ((J.FieldAccess) value).getSimpleName() :
+                            value instanceof J.Identifier ? ((J.Identifier) value).getSimpleName() : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isIdentityGeneratedValue(J.Annotation annotation) {
+        if (!isPersistenceAnnotation(annotation) || !"GeneratedValue".equals(annotation.getSimpleName()) || annotation.getArguments() == null) {
+            return false;
+        }
+        for (Expression argument : annotation.getArguments()) {
+            if (argument instanceof J.Assignment) {
+                Expression value = ((J.Assignment) argument).getAssignment();
+                if (value instanceof J.FieldAccess && "IDENTITY".equals(((J.FieldAccess) value).getSimpleName()) ||
+                    value instanceof J.Identifier && "IDENTITY".equals(((J.Identifier) value).getSimpleName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHandler(J.MethodDeclaration method, Cursor cursor, SpringRequestMapping.Matcher requestMapping) {
+        return method.getLeadingAnnotations().stream().anyMatch(a -> requestMapping.get(a, cursor).isPresent());
+    }
+
+    private static boolean isTransactional(J.MethodDeclaration method, Cursor cursor) {
+        J.ClassDeclaration classDecl = cursor.firstEnclosing(J.ClassDeclaration.class);
+        List<J.Annotation> annotations = new ArrayList<>(method.getLeadingAnnotations());
+        if (classDecl != null) {
+            annotations.addAll(classDecl.getLeadingAnnotations());
+        }
+        for (J.Annotation annotation : annotations) {
+            if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.transaction.annotation.Transactional") ||
+                TypeUtils.isOfClassType(annotation.getType(), "jakarta.transaction.Transactional") ||
+                TypeUtils.isOfClassType(annotation.getType(), "javax.transaction.Transactional")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The entity getters a method calls, the methods it passes entities to and the methods it calls. A request
+     * handler also uses the entities it returns, including those in collections, {@code Optional}s and
+     * {@code ResponseEntity}s, and, when it renders a view, the entities of its model in the view's template.
+     */
+    private static MethodUses uses(J.MethodDeclaration method, Cursor cursor, boolean handler) {
+        Set<EntityUse> uses = new LinkedHashSet<>();
+        Set<String> calls = new LinkedHashSet<>();
+        if (handler && rendersView(method, cursor)) {
+            uses.add(new EntityUse(null, null, null));
+        }
+        if (handler && method.getMethodType() != null) {
+            for (String entity : entities(method.getMethodType().getReturnType(), new LinkedHashSet<>(), 0)) {
+                uses.add(new EntityUse(entity, null, null));
+            }
+        }
+        new JavaIsoVisitor<Set<EntityUse>>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Set<EntityUse> uses) {
+                JavaType.Method type = method.getMethodType();
+                if (type != null && method.getSelect() != null && type.getName().startsWith("get")) {
+                    JavaType.FullyQualified selectType = TypeUtils.asFullyQualified(method.getSelect().getType());
+                    if (selectType != null && isEntity(selectType)) {
+                        uses.add(new EntityUse(selectType.getFullyQualifiedName(), type.getName(), null));
+                    }
+                }
+                // Repositories run in transactions of their own, so they can load lazy associations
+                if (type == null || !TypeUtils.isAssignableTo("org.springframework.data.repository.Repository", type.getDeclaringType())) {
+                    addPassedEntities(method.getArguments(), method.getSimpleName(), uses);
+                    if (type != null) {
+                        calls.add(MethodMatcher.methodPattern(type));
+                    }
+                }
+                return super.visitMethodInvocation(method, uses);
+            }
+
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, Set<EntityUse> uses) {
+                if (newClass.getClazz() != null) {
+                    addPassedEntities(newClass.getArguments(), "new " + newClass.getClazz().printTrimmed(getCursor()), uses);
+                }
+                return super.visitNewClass(newClass, uses);
+            }
+
+            private void addPassedEntities(List<Expression> arguments, String callee, Set<EntityUse> uses) {
+                for (Expression argument : arguments) {
+                    for (String entity : entities(argument.getType(), new LinkedHashSet<>(), 0)) {
+                        uses.add(new EntityUse(entity, null, callee));
+                    }
+                }
+            }
+        }.visit(method.getBody(), uses);
+        String declaringClass = method.getMethodType() == null ? "" : method.getMethodType().getDeclaringType().getClassName() + ".";
+        return new MethodUses(declaringClass + method.getSimpleName(), uses, calls);
+    }
+
+    private static boolean rendersView(J.MethodDeclaration handler, Cursor cursor) {
+        for (Statement parameter : handler.getParameters()) {
+            if (parameter instanceof J.VariableDeclarations &&
+                (TypeUtils.isAssignableTo("org.springframework.ui.Model", ((J.VariableDeclarations) parameter).getType()) ||
+                 TypeUtils.isAssignableTo("org.springframework.ui.ModelMap", ((J.VariableDeclarations) parameter).getType()))) {
+                return true;
+            }
+        }
+        JavaType returnType = handler.getMethodType() == null ? null : handler.getMethodType().getReturnType();
+        if (TypeUtils.isAssignableTo("org.springframework.web.servlet.ModelAndView", returnType)) {
+            return true;
+        } else if (!TypeUtils.isString(returnType)) {
+            return false;
+        }
+        // A string returned by a handler without @ResponseBody is the name of a view
+        J.ClassDeclaration classDecl = cursor.firstEnclosing(J.ClassDeclaration.class);
+        List<J.Annotation> annotations = new ArrayList<>(handler.getLeadingAnnotations());
+        if (classDecl != null) {
+            annotations.addAll(classDecl.getLeadingAnnotations());
+        }
+        for (J.Annotation annotation : annotations) {
+            if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.web.bind.annotation.ResponseBody") ||
+                TypeUtils.isOfClassType(annotation.getType(), "org.springframework.web.bind.annotation.RestController")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The entities of the type, including those in collections, {@code Optional}s and {@code ResponseEntity}s.
+     */
+    private static Set<String> entities(@Nullable JavaType type, Set<String> entities, int depth) {
+        if (depth > 3) {
+            return entities;
+        }
+        if (type instanceof JavaType.Parameterized) {
+            for (JavaType typeParameter : ((JavaType.Parameterized) type).getTypeParameters()) {
+                entities(typeParameter, entities, depth + 1);
+            }
+        } else if (type instanceof JavaType.Array) {
+            entities(((JavaType.Array) type).getElemType(), entities, depth + 1);
+        }
+        JavaType.FullyQualified fq = TypeUtils.asFullyQualified(type);
+        if (fq != null && isEntity(fq)) {
+            entities.add(fq.getFullyQualifiedName());
+        }
+        return entities;
+    }
+
+    private static boolean isSaveInLoop(J.MethodInvocation method, Cursor cursor) {
+        boolean save = false;
+        for (MethodMatcher matcher : SAVE) {
+            save |= matcher.matches(method);
+        }
+        if (!save) {
+            return false;
+        }
+        for (Cursor c = cursor.getParentTreeCursor(); !(c.getValue() instanceof J.MethodDeclaration) &&
+                                                       !(c.getValue() instanceof SourceFile); c = c.getParentTreeCursor()) {
+            Object value = c.getValue();
+            if (value instanceof J.ForLoop || value instanceof J.ForEachLoop || value instanceof J.WhileLoop ||
+                value instanceof J.DoWhileLoop) {
+                return true;
+            }
+            for (MethodMatcher forEach : FOR_EACH) {
+                if (value instanceof J.MethodInvocation && forEach.matches((J.MethodInvocation) value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasProperty(Tree tree, String key) {
+        if (tree instanceof Yaml.Documents) {
+            return !FindProperty.find((Yaml.Documents) tree, key, true).isEmpty();
+        } else if (tree instanceof Properties.File) {
+            return !FindProperties.find((Properties.File) tree, key, true).isEmpty();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,616 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.data;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.spring.table.UnboundedRepositoryLoads;
+import org.openrewrite.java.spring.trait.SpringRequestMapping;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparing;
+
+/**
+ * Replaces loops over repository queries that load every matching entity into memory with loops over a {@code Stream}
+ * of the same query, and lists the unbounded loads that can't be replaced.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class StreamUnboundedRepositoryLoads extends ScanningRecipe<StreamUnboundedRepositoryLoads.Accumulator> {
+    private static final String REPOSITORY = "org.springframework.data.repository.Repository";
+    private static final String TRANSACTIONAL = "org.springframework.transaction.annotation.Transactional";
+    private static final String STREAM = "java.util.stream.Stream";
+    private static final String QUERY_HINTS = "org.springframework.data.jpa.repository.QueryHints";
+    private static final AnnotationMatcher SCHEDULED = new AnnotationMatcher("@org.springframework.scheduling.annotation.Scheduled");
+    private static final AnnotationMatcher ANY_TRANSACTIONAL = new AnnotationMatcher("@*..Transactional");
+    private static final Pattern DERIVED_QUERY = Pattern.compile("^(find|read|get|query|search)(\\p{Lu}\\w*?)?By(\\p{Lu}\\w*)?$");
+    private static final MethodMatcher LOGGING = new MethodMatcher("org.slf4j.Logger *(..)");
+
+    /**
+     * Without a fetch size, drivers like PostgreSQL's read the whole result set before the stream returns its first entity.
+     */
+    private static final String FETCH_SIZE = "500";
+
+    private static final List<String> BOUNDING_PARAMETERS = Arrays.asList(
+            "org.springframework.data.domain.Pageable",
+            "org.springframework.data.domain.Limit",
+            "org.springframework.data.domain.ScrollPosition"
+    );
+
+    transient UnboundedRepositoryLoads unboundedRepositoryLoads = new UnboundedRepositoryLoads(this);
+
+    String displayName = "Stream unbounded repository loads";
+
+    String description = "Find Spring Data repository calls that load every matching entity into memory, like `findAll()` " +
+            "or derived queries returning a `List` without a `Pageable` or `Limit`, made from `@Scheduled` jobs, Spring Batch " +
+            "readers and controllers. When the caller only reads the JPA entities it iterates over, the loop is replaced by a " +
+            "loop over a `Stream` returned by an equivalent `stream*By` query with a fetch size hint, in a read-only " +
+            "transaction, which detaches every entity once it is processed. Methods that aren't transactional yet are only " +
+            "made read-only when nothing else they call may write, and when Spring can proxy them. The remaining " +
+            "unbounded loads are marked and listed in a data table, ordered by entity.";
+
+    public static class Accumulator {
+        /**
+         * The methods without a {@code @Query} declared by the repositories that are part of the sources.
+         */
+        final Map<String, Set<String>> derivedQueries = new HashMap<>();
+
+        /**
+         * The package of the persistence API, {@code javax.persistence} or {@code jakarta.persistence}, of the JPA
+         * entities that are part of the sources, by entity.
+         */
+        final Map<String, String> persistencePackages = new HashMap<>();
+
+        final List<Load> loads = new ArrayList<>();
+
+        boolean canStream(Load load) {
+            Set<String> declared = derivedQueries.get(load.getRepository());
+            return load.isLoop() && declared != null && persistencePackages.containsKey(load.getEntity()) &&
+                   ("findAll".equals(load.getMethod()) || declared.contains(load.getMethod()));
+        }
+
+        /**
+         * @return The persistence API package of the entities the class streams, or {@code null} when it doesn't stream.
+         */
+        @Nullable
+        String streamedPersistencePackage(String callerClass) {
+            for (Load load : loads) {
+                if (load.getCallerClass().equals(callerClass) && canStream(load)) {
+                    return persistencePackages.get(load.getEntity());
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return The original query of each stream query to add to the repository, by name.
+         */
+        Map<String, Load> streamQueries(String repository) {
+            Map<String, Load> queries = new TreeMap<>();
+            for (Load load : loads) {
+                if (load.getRepository().equals(repository) && canStream(load)) {
+                    queries.put(streamName(load.getMethod()), load);
+                }
+            }
+            return queries;
+        }
+    }
+
+    @Value
+    static class Load {
+        String sourcePath;
+        String entity;
+        String repository;
+        String method;
+        String caller;
+        String callerClass;
+
+        /**
+         * Whether the result is only iterated over by a loop whose body can be turned into a lambda.
+         */
+        boolean loop;
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                if (classDecl.getKind() == J.ClassDeclaration.Kind.Type.Interface && classDecl.getType() != null &&
+                    TypeUtils.isAssignableTo(REPOSITORY, classDecl.getType())) {
+                    Set<String> declared = new HashSet<>();
+                    for (Statement statement : classDecl.getBody().getStatements()) {
+                        if (statement instanceof J.MethodDeclaration && !hasQuery((J.MethodDeclaration) statement)) {
+                            declared.add(((J.MethodDeclaration) statement).getSimpleName());
+                        }
+                    }
+                    acc.derivedQueries.put(classDecl.getType().getFullyQualifiedName(), declared);
+                }
+                for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+                    for (String persistence : Arrays.asList("javax.persistence", "jakarta.persistence")) {
+                        if (classDecl.getType() != null && TypeUtils.isOfClassType(annotation.getType(), persistence + ".Entity")) {
+                            acc.persistencePackages.put(classDecl.getType().getFullyQualifiedName(), persistence);
+                        }
+                    }
+                }
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                Load load = load(method, getCursor());
+                if (load != null) {
+                    acc.loads.add(load);
+                }
+                return super.visitMethodInvocation(method, ctx);
+            }
+        };
+    }
+
+    @Override
+    public Collection<? extends SourceFile> generate(Accumulator acc, ExecutionContext ctx) {
+        List<Load> remaining = new ArrayList<>();
+        for (Load load : acc.loads) {
+            if (!acc.canStream(load)) {
+                remaining.add(load);
+            }
+        }
+        remaining.sort(comparing(Load::getEntity).thenComparing(Load::getSourcePath));
+        for (Load load : remaining) {
+            unboundedRepositoryLoads.insertRow(ctx, new UnboundedRepositoryLoads.Row(load.getEntity(),
+                    load.getSourcePath(), load.getRepository(), load.getMethod(), load.getCaller()));
+        }
+        return emptyList();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        return new JavaVisitor<ExecutionContext>() {
+            @Override
+            public @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof J.CompilationUnit) {
+                    // The imports of the entity manager the streamed entities are detached with are added first, so
+                    // the templates that refer to it can be attributed
+                    for (Load load : acc.loads) {
+                        if (load.getSourcePath().equals(((J.CompilationUnit) tree).getSourcePath().toString()) && acc.canStream(load)) {
+                            String persistence = acc.persistencePackages.get(load.getEntity());
+                            tree = new AddImport<>(persistence + ".EntityManager", null, false).visitNonNull(tree, ctx);
+                            tree = new AddImport<>(persistence + ".PersistenceContext", null, false).visitNonNull(tree, ctx);
+                        }
+                    }
+                }
+                return super.visit(tree, ctx);
+            }
+
+            @Override
+            public J visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                String persistence = classDecl.getType() == null ? null :
+                        acc.streamedPersistencePackage(classDecl.getType().getFullyQualifiedName());
+                if (persistence != null && entityManager(classDecl) == null) {
+                    // The streamed entities are detached once processed, so they don't pile up in the persistence context
+                    J.ClassDeclaration withEntityManager = JavaTemplate.builder("@PersistenceContext\nprivate EntityManager entityManager;")
+                            .contextSensitive()
+                            .javaParser(JavaParser.fromJavaVersion().dependsOn(persistenceStubs(persistence)))
+                            .build()
+                            .apply(getCursor(), classDecl.getBody().getCoordinates().firstStatement());
+                    return visit(withEntityManager, ctx, getCursor().getParentOrThrow());
+                }
+
+                J.ClassDeclaration c = (J.ClassDeclaration) super.visitClassDeclaration(classDecl, ctx);
+                if (c.getType() == null || !acc.derivedQueries.containsKey(c.getType().getFullyQualifiedName())) {
+                    return c;
+                }
+                for (Map.Entry<String, Load> query : acc.streamQueries(c.getType().getFullyQualifiedName()).entrySet()) {
+                    if (declares(c, query.getKey())) {
+                        continue;
+                    }
+                    JavaType.FullyQualified entity = JavaType.ShallowClass.build(query.getValue().getEntity());
+                    String entityPersistence = acc.persistencePackages.get(entity.getFullyQualifiedName());
+                    c = JavaTemplate.builder("@QueryHints(@QueryHint(name = \"org.hibernate.fetchSize\", value = \"" + FETCH_SIZE + "\"))\n" +
+                                             "Stream<" + entity.getClassName() + "> " +
+                                             query.getKey() + "(" + parameters(c, query.getValue().getMethod()) + ");")
+                            .contextSensitive()
+                            .javaParser(entityParser(entity, entityPersistence))
+                            .imports(STREAM, QUERY_HINTS, entityPersistence + ".QueryHint")
+                            .build()
+                            .apply(updateCursor(c), c.getBody().getCoordinates().lastStatement());
+                    maybeAddImport(STREAM);
+                    maybeAddImport(QUERY_HINTS);
+                    maybeAddImport(entityPersistence + ".QueryHint");
+                    maybeAddImport(entity.getFullyQualifiedName());
+                }
+                return c;
+            }
+
+            @Override
+            public J visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                J.MethodDeclaration m = (J.MethodDeclaration) super.visitMethodDeclaration(method, ctx);
+                if (getCursor().getMessage("STREAMED") == null || isTransactional(m, getCursor())) {
+                    return m;
+                }
+                maybeAddImport(TRANSACTIONAL);
+                return JavaTemplate.builder("@Transactional(readOnly = true)")
+                        .imports(TRANSACTIONAL)
+                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-tx-5"))
+                        .build()
+                        .apply(updateCursor(m), m.getCoordinates().addAnnotation(comparing(J.Annotation::getSimpleName)));
+            }
+
+            @Override
+            public J visitForEachLoop(J.ForEachLoop forLoop, ExecutionContext ctx) {
+                J.ForEachLoop loop = (J.ForEachLoop) super.visitForEachLoop(forLoop, ctx);
+                Load load = getCursor().pollMessage("STREAMABLE_LOAD");
+                if (load == null || !(loop.getControl().getVariable() instanceof J.VariableDeclarations) ||
+                    ((J.MethodInvocation) loop.getControl().getIterable()).getMethodType() == null) {
+                    return loop;
+                }
+                J.MethodInvocation call = (J.MethodInvocation) loop.getControl().getIterable();
+
+                String streamName = streamName(load.getMethod());
+                JavaType.FullyQualified entityType = JavaType.ShallowClass.build(load.getEntity());
+                JavaType.Method streamType = call.getMethodType()
+                        .withName(streamName)
+                        .withDeclaringType(JavaType.ShallowClass.build(load.getRepository()))
+                        .withReturnType(new JavaType.Parameterized(null, JavaType.ShallowClass.build(STREAM), singletonList(entityType)));
+                J.MethodInvocation streamCall = call
+                        .withName(call.getName().withSimpleName(streamName).withType(streamType))
+                        .withMethodType(streamType);
+
+                String variable = ((J.VariableDeclarations) loop.getControl().getVariable()).getVariables().get(0).getSimpleName();
+                String entityManager = entityManager(getCursor().firstEnclosingOrThrow(J.ClassDeclaration.class));
+                if (entityManager == null) {
+                    return loop;
+                }
+                J.Try streamed = JavaTemplate.builder("try (Stream<" + entityType.getClassName() + "> " + variable +
+                                                      "Stream = #{any(java.util.stream.Stream)}) {\n" + variable + "Stream.forEach(" +
+                                                      variable + " -> {\n" + entityManager + ".detach(" + variable + ");\n});\n}")
+                        .contextSensitive()
+                        .javaParser(entityParser(entityType, acc.persistencePackages.get(load.getEntity())))
+                        .imports(STREAM)
+                        .build()
+                        .apply(getCursor(), loop.getCoordinates().replace(), streamCall);
+                J.Block body = (J.Block) loop.getBody();
+                streamed = (J.Try) new JavaIsoVisitor<Integer>() {
+                    @Override
+                    public J.Lambda visitLambda(J.Lambda lambda, Integer p) {
+                        Statement detach = ((J.Block) lambda.getBody()).getStatements().get(0);
+                        return lambda.withBody(body.withStatements(ListUtils.concat(body.getStatements(), detach)));
+                    }
+                }.visitNonNull(streamed, 0);
+
+                maybeAddImport(STREAM);
+                getCursor().putMessageOnFirstEnclosing(J.MethodDeclaration.class, "STREAMED", true);
+                return autoFormat(streamed, ctx, getCursor().getParentOrThrow());
+            }
+
+            @Override
+            public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, ctx);
+                Load load = load(method, getCursor());
+                if (load == null) {
+                    return m;
+                } else if (acc.canStream(load)) {
+                    getCursor().putMessageOnFirstEnclosing(J.ForEachLoop.class, "STREAMABLE_LOAD", load);
+                    return m;
+                }
+                return SearchResult.found(m, "Loads every matching `" +
+                                             load.getEntity().substring(load.getEntity().lastIndexOf('.') + 1) + "` into memory");
+            }
+        };
+    }
+
+    private static @Nullable Load load(J.MethodInvocation method, Cursor cursor) {
+        JavaType.Method type = method.getMethodType();
+        JavaType.FullyQualified repository = method.getSelect() == null ? null :
+                TypeUtils.asFullyQualified(method.getSelect().getType());
+        if (type == null || repository == null || !TypeUtils.isAssignableTo(REPOSITORY, repository) || !isUnbounded(type)) {
+            return null;
+        }
+        JavaType.Parameterized result = TypeUtils.asParameterized(type.getReturnType());
+        JavaType.FullyQualified entity = result == null || result.getTypeParameters().size() != 1 ? null :
+                TypeUtils.asFullyQualified(result.getTypeParameters().get(0));
+        String caller = caller(cursor);
+        if (entity == null || caller == null) {
+            return null;
+        }
+        Object parent = cursor.getParentTreeCursor().getValue();
+        boolean loop = parent instanceof J.ForEachLoop.Control && !"Batch reader".equals(caller) &&
+                       canBeLambda(cursor.getParentTreeCursor().getParentTreeCursor().getValue(),
+                               cursor.firstEnclosingOrThrow(J.MethodDeclaration.class)) &&
+                       canBeReadOnly(cursor);
+        J.ClassDeclaration callerClass = cursor.firstEnclosingOrThrow(J.ClassDeclaration.class);
+        return new Load(cursor.firstEnclosingOrThrow(SourceFile.class).getSourcePath().toString(),
+                entity.getFullyQualifiedName(), repository.getFullyQualifiedName(), type.getName(), caller,
+                callerClass.getType() == null ? "" : callerClass.getType().getFullyQualifiedName(), loop);
+    }
+
+    private static boolean isUnbounded(JavaType.Method type) {
+        if (!TypeUtils.isAssignableTo("java.lang.Iterable", type.getReturnType()) || "findAllById".equals(type.getName())) {
+            return false;
+        }
+        for (JavaType parameter : type.getParameterTypes()) {
+            for (String bounding : BOUNDING_PARAMETERS) {
+                if (TypeUtils.isAssignableTo(bounding, parameter)) {
+                    return false;
+                }
+            }
+        }
+        if ("findAll".equals(type.getName())) {
+            return true;
+        }
+        Matcher matcher = DERIVED_QUERY.matcher(type.getName());
+        return matcher.matches() && (matcher.group(2) == null ||
+                                     !matcher.group(2).contains("First") && !matcher.group(2).contains("Top"));
+    }
+
+    private static @Nullable String caller(Cursor cursor) {
+        J.MethodDeclaration method = cursor.firstEnclosing(J.MethodDeclaration.class);
+        J.ClassDeclaration classDecl = cursor.firstEnclosing(J.ClassDeclaration.class);
+        if (method == null || classDecl == null) {
+            return null;
+        }
+        Cursor methodCursor = cursor.dropParentUntil(J.MethodDeclaration.class::isInstance);
+        SpringRequestMapping.Matcher requestMapping = new SpringRequestMapping.Matcher();
+        for (J.Annotation annotation : method.getLeadingAnnotations()) {
+            if (SCHEDULED.matches(annotation)) {
+                return "Scheduled job";
+            } else if (requestMapping.get(annotation, new Cursor(methodCursor, annotation)).isPresent()) {
+                return "Controller";
+            }
+        }
+        if (TypeUtils.isAssignableTo("org.springframework.batch.item.ItemReader", classDecl.getType())) {
+            return "Batch reader";
+        }
+        return null;
+    }
+
+    /**
+     * Whether the body of the loop can become the body of a lambda run in a read-only transaction, so it doesn't leave
+     * the loop early, reassign local variables or throw checked exceptions, and only calls getters, repository queries
+     * and JDK or logging methods. Any other call may write, which a read-only transaction wouldn't flush.
+     */
+    private static boolean canBeLambda(Object loop, J.MethodDeclaration enclosing) {
+        if (!(loop instanceof J.ForEachLoop) || !(((J.ForEachLoop) loop).getBody() instanceof J.Block)) {
+            return false;
+        }
+        Set<String> reassigned = new HashSet<>();
+        new JavaIsoVisitor<Set<String>>() {
+            @Override
+            public J.Assignment visitAssignment(J.Assignment assignment, Set<String> names) {
+                addLocal(assignment.getVariable(), names);
+                return super.visitAssignment(assignment, names);
+            }
+
+            @Override
+            public J.AssignmentOperation visitAssignmentOperation(J.AssignmentOperation assignOp, Set<String> names) {
+                addLocal(assignOp.getVariable(), names);
+                return super.visitAssignmentOperation(assignOp, names);
+            }
+
+            @Override
+            public J.Unary visitUnary(J.Unary unary, Set<String> names) {
+                if (unary.getOperator().isModifying()) {
+                    addLocal(unary.getExpression(), names);
+                }
+                return super.visitUnary(unary, names);
+            }
+
+            private void addLocal(Expression variable, Set<String> names) {
+                if (variable instanceof J.Identifier && ((J.Identifier) variable).getFieldType() != null &&
+                    ((J.Identifier) variable).getFieldType().getOwner() instanceof JavaType.Method) {
+                    names.add(((J.Identifier) variable).getSimpleName());
+                }
+            }
+        }.visit(enclosing, reassigned);
+
+        AtomicBoolean lambda = new AtomicBoolean(true);
+        new JavaIsoVisitor<AtomicBoolean>() {
+            @Override
+            public Statement visitStatement(Statement statement, AtomicBoolean lambda) {
+                if (statement instanceof J.Return || statement instanceof J.Break || statement instanceof J.Continue ||
+                    statement instanceof J.Yield || statement instanceof J.Throw &&
+                                                    !isUnchecked(((J.Throw) statement).getException().getType())) {
+                    lambda.set(false);
+                }
+                return super.visitStatement(statement, lambda);
+            }
+
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, AtomicBoolean lambda) {
+                if (identifier.getFieldType() != null && identifier.getFieldType().getOwner() instanceof JavaType.Method &&
+                    reassigned.contains(identifier.getSimpleName())) {
+                    lambda.set(false);
+                }
+                return super.visitIdentifier(identifier, lambda);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, AtomicBoolean lambda) {
+                JavaType.Method type = method.getMethodType();
+                if (type == null || !isRead(method, type)) {
+                    lambda.set(false);
+                } else {
+                    for (JavaType thrown : type.getThrownExceptions()) {
+                        if (!isUnchecked(thrown)) {
+                            lambda.set(false);
+                        }
+                    }
+                }
+                return super.visitMethodInvocation(method, lambda);
+            }
+        }.visit(((J.ForEachLoop) loop).getBody(), lambda);
+        return lambda.get();
+    }
+
+    /**
+     * Whether the method the loop is in already runs in a transaction, or can be made a read-only transaction as a
+     * whole. Then everything it calls, not just the loop, must only read, and Spring must be able to proxy it, which
+     * takes a public method before Spring 6 and a non-private one since.
+     */
+    private static boolean canBeReadOnly(Cursor cursor) {
+        J.MethodDeclaration method = cursor.firstEnclosingOrThrow(J.MethodDeclaration.class);
+        if (isTransactional(method, cursor)) {
+            return true;
+        } else if (method.getBody() == null || method.hasModifier(J.Modifier.Type.Private) ||
+                   !method.hasModifier(J.Modifier.Type.Public) && !isSpring6(cursor.firstEnclosingOrThrow(SourceFile.class))) {
+            return false;
+        }
+        AtomicBoolean readOnly = new AtomicBoolean(true);
+        new JavaIsoVisitor<AtomicBoolean>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, AtomicBoolean readOnly) {
+                if (method.getMethodType() == null || !isRead(method, method.getMethodType())) {
+                    readOnly.set(false);
+                }
+                return super.visitMethodInvocation(method, readOnly);
+            }
+        }.visit(method.getBody(), readOnly);
+        return readOnly.get();
+    }
+
+    private static boolean isSpring6(SourceFile sourceFile) {
+        return sourceFile.getMarkers().findFirst(JavaSourceSet.class)
+                .map(sourceSet -> sourceSet.getClasspath().stream()
+                        .anyMatch(type -> "org.springframework.aot.AotDetector".equals(type.getFullyQualifiedName())))
+                .orElse(false);
+    }
+
+    private static boolean isRead(J.MethodInvocation method, JavaType.Method type) {
+        String name = type.getName();
+        if (TypeUtils.isAssignableTo(REPOSITORY, type.getDeclaringType())) {
+            return name.startsWith("find") || name.startsWith("count") || name.startsWith("exists");
+        }
+        return type.getDeclaringType().getPackageName().startsWith("java.") || LOGGING.matches(method) ||
+               name.startsWith("get") || name.startsWith("is") || name.startsWith("has");
+    }
+
+    private static boolean isUnchecked(@Nullable JavaType exception) {
+        return TypeUtils.isAssignableTo("java.lang.RuntimeException", exception) ||
+               TypeUtils.isAssignableTo("java.lang.Error", exception);
+    }
+
+    private static boolean isTransactional(J.MethodDeclaration method, Cursor cursor) {
+        for (J.Annotation annotation : method.getLeadingAnnotations()) {
+            if (ANY_TRANSACTIONAL.matches(annotation)) {
+                return true;
+            }
+        }
+        J.ClassDeclaration classDecl = cursor.firstEnclosing(J.ClassDeclaration.class);
+        if (classDecl != null) {
+            for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+                if (ANY_TRANSACTIONAL.matches(annotation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The entity is usually part of the sources, so it is stubbed for templates to refer to it.
+     */
+    private static JavaParser.Builder<?, ?> entityParser(JavaType.FullyQualified entity, String persistence) {
+        List<String> stubs = new ArrayList<>(Arrays.asList(persistenceStubs(persistence)));
+        stubs.add((entity.getPackageName().isEmpty() ? "" : "package " + entity.getPackageName() + ";\n") +
+                  "public class " + entity.getClassName() + " {}");
+        return JavaParser.fromJavaVersion().dependsOn(stubs.toArray(new String[0]));
+    }
+
+    private static String[] persistenceStubs(String persistence) {
+        return new String[]{
+                "package " + persistence + ";\npublic interface EntityManager { void detach(Object entity); }",
+                "package " + persistence + ";\npublic @interface PersistenceContext {}",
+                "package " + persistence + ";\npublic @interface QueryHint { String name(); String value(); }",
+                "package org.springframework.data.jpa.repository;\n" +
+                "public @interface QueryHints { " + persistence + ".QueryHint[] value() default {}; }"
+        };
+    }
+
+    /**
+     * @return The name of the {@code EntityManager} field of the class, or {@code null} when it doesn't have one.
+     */
+    private static @Nullable String entityManager(J.ClassDeclaration classDecl) {
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.VariableDeclarations &&
+                (TypeUtils.isAssignableTo("javax.persistence.EntityManager", ((J.VariableDeclarations) statement).getType()) ||
+                 TypeUtils.isAssignableTo("jakarta.persistence.EntityManager", ((J.VariableDeclarations) statement).getType()))) {
+                return ((J.VariableDeclarations) statement).getVariables().get(0).getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasQuery(J.MethodDeclaration method) {
+        for (J.Annotation annotation : method.getLeadingAnnotations()) {
+            if ("Query".equals(annotation.getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean declares(J.ClassDeclaration classDecl, String methodName) {
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration &&
+                ((J.MethodDeclaration) statement).getSimpleName().equals(methodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String parameters(J.ClassDeclaration classDecl, String methodName) {
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration &&
+                ((J.MethodDeclaration) statement).getSimpleName().equals(methodName)) {
+                StringJoiner parameters = new StringJoiner(", ");
+                for (Statement parameter : ((J.MethodDeclaration) statement).getParameters()) {
+                    if (!(parameter instanceof J.Empty)) {
+                        parameters.add(parameter.printTrimmed());
+                    }
+                }
+                return parameters.toString();
+            }
+        }
+        return "";
+    }
+
+    static String streamName(String method) {
+        if ("findAll".equals(method)) {
+            return "streamAllBy";
+        }
+        Matcher matcher = DERIVED_QUERY.matcher(method);
+        return matcher.matches() ? "stream" + method.substring(matcher.group(1).length()) : method;
+    }
+}
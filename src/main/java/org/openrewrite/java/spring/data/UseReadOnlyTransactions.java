@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.data;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
+
+public class UseReadOnlyTransactions extends Recipe {
+    private static final String TRANSACTIONAL = "org.springframework.transaction.annotation.Transactional";
+    private static final String REPOSITORY = "org.springframework.data.repository.Repository";
+    private static final AnnotationMatcher TRANSACTIONAL_MATCHER = new AnnotationMatcher("@" + TRANSACTIONAL);
+    private static final Pattern MUTATOR = Pattern.compile(
+            "(add|put|remove|clear|set|replace|retain|compute|merge|offer|poll|push|pop|sort|increment|decrement|getAnd|accumulate)\\w*");
+    private static final MethodMatcher[] JDBC_READS = {
+            new MethodMatcher("org.springframework.jdbc.core.JdbcOperations query*(..)", true),
+            new MethodMatcher("org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations query*(..)", true)
+    };
+    private static final MethodMatcher[] WRITES = {
+            new MethodMatcher("org.springframework.jdbc.core.JdbcOperations update(..)", true),
+            new MethodMatcher("org.springframework.jdbc.core.JdbcOperations batchUpdate(..)", true),
+            new MethodMatcher("org.springframework.jdbc.core.JdbcOperations execute(..)", true),
+            new MethodMatcher("org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations update(..)", true),
+            new MethodMatcher("org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations batchUpdate(..)", true),
+            new MethodMatcher("org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations execute(..)", true),
+            new MethodMatcher("javax.persistence.EntityManager persist(..)", true),
+            new MethodMatcher("javax.persistence.EntityManager merge(..)", true),
+            new MethodMatcher("javax.persistence.EntityManager remove(..)", true),
+            new MethodMatcher("jakarta.persistence.EntityManager persist(..)", true),
+            new MethodMatcher("jakarta.persistence.EntityManager merge(..)", true),
+            new MethodMatcher("jakarta.persistence.EntityManager remove(..)", true)
+    };
+
+    @Getter
+    final String displayName = "Use read-only transactions for query-only service methods";
+
+    @Getter
+    final String description = "Add `@Transactional(readOnly = true)` to the transactional methods of `@Service` classes " +
+            "that only query data with repository `find*`, `count*` and `exists*` methods or `JdbcTemplate.query*`. " +
+            "Read-only transactions skip Hibernate's dirty checking and flushing and can be routed to read replicas. " +
+            "Methods that call other components or modify entities are left unchanged, and methods that mix reads and " +
+            "writes in one transaction are marked.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new UsesType<>(TRANSACTIONAL, false), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+                J.ClassDeclaration classDecl = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                if (m.getBody() == null || classDecl == null || !isService(classDecl)) {
+                    return m;
+                }
+                J.Annotation transactional = findTransactional(m.getLeadingAnnotations());
+                J.Annotation classTransactional = findTransactional(classDecl.getLeadingAnnotations());
+                if (transactional == null && (classTransactional == null || !m.hasModifier(J.Modifier.Type.Public)) ||
+                    transactional != null && hasReadOnly(transactional) ||
+                    transactional == null && hasReadOnly(classTransactional)) {
+                    return m;
+                }
+
+                Accesses accesses = accesses(m.getBody());
+                if (!accesses.reads.isEmpty() && !accesses.writes.isEmpty()) {
+                    return SearchResult.found(m, "Reads with `" + String.join("`, `", accesses.reads) +
+                                                 "` and writes with `" + String.join("`, `", accesses.writes) +
+                                                 "` in one read-write transaction");
+                } else if (accesses.reads.isEmpty() || !accesses.writes.isEmpty() || accesses.other) {
+                    return m;
+                }
+
+                if (transactional != null) {
+                    return m.withLeadingAnnotations(ListUtils.map(m.getLeadingAnnotations(), a -> a != transactional ? a :
+                            (J.Annotation) new AddOrUpdateAnnotationAttribute(TRANSACTIONAL, "readOnly",
+                                    "true", null, true, false).getVisitor()
+                                    .visit(a, ctx, getCursor())));
+                }
+                // A method-level annotation replaces the class-level one, so it has to repeat its attributes
+                List<Expression> classAttributes = classTransactional.getArguments() == null ? emptyList() :
+                        ListUtils.filter(classTransactional.getArguments(), a -> !(a instanceof J.Empty));
+                Expression value = null;
+                for (Expression attribute : classAttributes) {
+                    if (!(attribute instanceof J.Assignment)) {
+                        value = attribute;
+                    }
+                }
+                maybeAddImport(TRANSACTIONAL);
+                m = JavaTemplate.builder(value == null ? "@Transactional(readOnly = true)" :
+                                "@Transactional(value = #{any(java.lang.String)}, readOnly = true)")
+                        .imports(TRANSACTIONAL)
+                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-tx-5"))
+                        .build()
+                        .apply(updateCursor(m), m.getCoordinates().addAnnotation(comparing(J.Annotation::getSimpleName)),
+                                value == null ? new Object[0] : new Object[]{value});
+                List<Expression> copied = ListUtils.map(ListUtils.filter(classAttributes, J.Assignment.class::isInstance),
+                        a -> a.<Expression>withId(Tree.randomId()).withPrefix(Space.SINGLE_SPACE));
+                return m.withLeadingAnnotations(ListUtils.map(m.getLeadingAnnotations(), a -> {
+                    if (!TRANSACTIONAL_MATCHER.matches(a) || a.getArguments() == null) {
+                        return a;
+                    }
+                    List<Expression> arguments = a.getArguments();
+                    Expression readOnly = arguments.get(arguments.size() - 1).withPrefix(Space.SINGLE_SPACE);
+                    List<Expression> attributes = ListUtils.concat(ListUtils.concatAll(
+                            arguments.subList(0, arguments.size() - 1), copied), readOnly);
+                    return a.withArguments(ListUtils.mapFirst(attributes, first -> first.withPrefix(Space.EMPTY)));
+                }));
+            }
+        });
+    }
+
+    private static boolean isService(J.ClassDeclaration classDecl) {
+        for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+            if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.stereotype.Service")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static J.@Nullable Annotation findTransactional(Iterable<J.Annotation> annotations) {
+        for (J.Annotation annotation : annotations) {
+            if (TRANSACTIONAL_MATCHER.matches(annotation)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasReadOnly(J.@Nullable Annotation transactional) {
+        if (transactional == null || transactional.getArguments() == null) {
+            return false;
+        }
+        for (Expression argument : transactional.getArguments()) {
+            if (argument instanceof J.Assignment && ((J.Assignment) argument).getVariable() instanceof J.Identifier &&
+                "readOnly".equals(((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Accesses {
+        final Set<String> reads = new TreeSet<>();
+        final Set<String> writes = new TreeSet<>();
+
+        /**
+         * Whether the method calls other components or modifies objects, which may write as well.
+         */
+        boolean other;
+    }
+
+    private static Accesses accesses(J.Block body) {
+        Accesses accesses = new Accesses();
+        Set<String> newLocals = new HashSet<>();
+        new JavaIsoVisitor<Accesses>() {
+            @Override
+            public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable, Accesses accesses) {
+                if (variable.getInitializer() instanceof J.NewClass) {
+                    newLocals.add(variable.getSimpleName());
+                }
+                return super.visitVariable(variable, accesses);
+            }
+
+            @Override
+            public J.Assignment visitAssignment(J.Assignment assignment, Accesses accesses) {
+                accesses.other |= !isLocal(assignment.getVariable());
+                return super.visitAssignment(assignment, accesses);
+            }
+
+            @Override
+            public J.AssignmentOperation visitAssignmentOperation(J.AssignmentOperation assignOp, Accesses accesses) {
+                accesses.other |= !isLocal(assignOp.getVariable());
+                return super.visitAssignmentOperation(assignOp, accesses);
+            }
+
+            @Override
+            public J.Unary visitUnary(J.Unary unary, Accesses accesses) {
+                accesses.other |= unary.getOperator().isModifying() && !isLocal(unary.getExpression());
+                return super.visitUnary(unary, accesses);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Accesses accesses) {
+                JavaType.Method type = method.getMethodType();
+                if (type == null) {
+                    accesses.other = true;
+                } else if (TypeUtils.isAssignableTo(REPOSITORY, type.getDeclaringType())) {
+                    String name = type.getName();
+                    if (name.startsWith("find") || name.startsWith("count") || name.startsWith("exists")) {
+                        accesses.reads.add(name);
+                    } else {
+                        accesses.writes.add(name);
+                    }
+                } else if (matchesAny(JDBC_READS, method)) {
+                    accesses.reads.add(type.getName());
+                } else if (matchesAny(WRITES, method)) {
+                    accesses.writes.add(type.getName());
+                } else if (MUTATOR.matcher(type.getName()).matches()) {
+                    // Mutating collections or other objects that may be managed entities writes as well, unless
+                    // the object was created by the method itself
+                    accesses.other |= !(method.getSelect() instanceof J.Identifier && isLocal(method.getSelect()) &&
+                                        newLocals.contains(((J.Identifier) method.getSelect()).getSimpleName()));
+                } else if (!type.getName().startsWith("get") && !type.getName().startsWith("is") &&
+                           !type.getDeclaringType().getPackageName().startsWith("java.")) {
+                    accesses.other = true;
+                }
+                return super.visitMethodInvocation(method, accesses);
+            }
+        }.visit(body, accesses);
+        return accesses;
+    }
+
+    private static boolean isLocal(Expression variable) {
+        return variable instanceof J.Identifier && ((J.Identifier) variable).getFieldType() != null &&
+               ((J.Identifier) variable).getFieldType().getOwner() instanceof JavaType.Method;
+    }
+
+    private static boolean matchesAny(MethodMatcher[] matchers, J.MethodInvocation method) {
+        for (MethodMatcher matcher : matchers) {
+            if (matcher.matches(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
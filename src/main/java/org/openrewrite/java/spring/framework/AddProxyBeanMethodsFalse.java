@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.framework;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.AddOrUpdateAnnotationAttribute;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.Flag;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AddProxyBeanMethodsFalse extends Recipe {
+    private static final String BEAN = "org.springframework.context.annotation.Bean";
+    private static final String CONFIGURATION = "org.springframework.context.annotation.Configuration";
+    private static final AnnotationMatcher CONFIGURATION_ANNOTATION_MATCHER = new AnnotationMatcher("@" + CONFIGURATION);
+
+    @Getter
+    final String displayName = "Add `proxyBeanMethods = false` to `@Configuration` classes";
+
+    @Getter
+    final String description = "Add `proxyBeanMethods = false` to `@Configuration` classes whose `@Bean` methods are never " +
+            "called from within the class itself, either directly or through `this`. Such classes do not need the CGLIB " +
+            "subclass Spring generates to intercept inter-bean method calls, which saves startup time and metaspace.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new UsesType<>(CONFIGURATION, false), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+                J.Annotation configuration = findConfiguration(c);
+                if (configuration == null || hasProxyBeanMethods(configuration) || callsBeanMethods(c)) {
+                    return c;
+                }
+                return c.withLeadingAnnotations(ListUtils.map(c.getLeadingAnnotations(), a -> a != configuration ? a :
+                        (J.Annotation) new AddOrUpdateAnnotationAttribute(CONFIGURATION, "proxyBeanMethods",
+                                "false", null, true, false).getVisitor()
+                                .visit(a, ctx, getCursor().getParentOrThrow())));
+            }
+
+            private boolean callsBeanMethods(J.ClassDeclaration classDecl) {
+                AtomicBoolean found = new AtomicBoolean();
+                new JavaIsoVisitor<AtomicBoolean>() {
+                    @Override
+                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, AtomicBoolean found) {
+                        if (isSelfReference(method.getSelect()) && isBeanMethod(method.getMethodType())) {
+                            found.set(true);
+                        }
+                        return super.visitMethodInvocation(method, found);
+                    }
+
+                    @Override
+                    public J.MemberReference visitMemberReference(J.MemberReference memberRef, AtomicBoolean found) {
+                        if (isSelfReference(memberRef.getContaining()) && isBeanMethod(memberRef.getMethodType())) {
+                            found.set(true);
+                        }
+                        return super.visitMemberReference(memberRef, found);
+                    }
+                }.visit(classDecl.getBody(), found, getCursor());
+                return found.get();
+            }
+        });
+    }
+
+    private static J.@Nullable Annotation findConfiguration(J.ClassDeclaration classDecl) {
+        for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+            if (CONFIGURATION_ANNOTATION_MATCHER.matches(annotation)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasProxyBeanMethods(J.Annotation configuration) {
+        if (configuration.getArguments() != null) {
+            for (Expression argument : configuration.getArguments()) {
+                if (argument instanceof J.Assignment &&
+                        ((J.Assignment) argument).getVariable() instanceof J.Identifier &&
+                        "proxyBeanMethods".equals(((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSelfReference(@Nullable Expression select) {
+        if (select == null) {
+            return true;
+        }
+        if (select instanceof J.Identifier) {
+            String name = ((J.Identifier) select).getSimpleName();
+            return "this".equals(name) || "super".equals(name);
+        }
+        // Qualified `Outer.this.bean()` calls from nested classes
+        return select instanceof J.FieldAccess && "this".equals(((J.FieldAccess) select).getSimpleName());
+    }
+
+    private static boolean isBeanMethod(JavaType.@Nullable Method methodType) {
+        if (methodType == null) {
+            // Without type attribution we cannot rule out an inter-bean call
+            return true;
+        }
+        if (methodType.hasFlags(Flag.Static)) {
+            // Static `@Bean` methods are never intercepted by the proxy
+            return false;
+        }
+        for (JavaType.FullyQualified annotation : methodType.getAnnotations()) {
+            if (TypeUtils.isOfClassType(annotation, BEAN)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.framework;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.*;
+import org.openrewrite.java.search.UsesMethod;
+import org.openrewrite.java.tree.*;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.joining;
+
+public class JdbcTemplateUpdateInLoopToBatchUpdate extends Recipe {
+    private static final String JDBC_OPERATIONS = "org.springframework.jdbc.core.JdbcOperations";
+    private static final String NAMED_PARAMETER_JDBC_OPERATIONS = "org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations";
+    private static final String SQL_PARAMETER_SOURCE = "org.springframework.jdbc.core.namedparam.SqlParameterSource";
+    private static final String MAP_SQL_PARAMETER_SOURCE = "org.springframework.jdbc.core.namedparam.MapSqlParameterSource";
+
+    private static final MethodMatcher JDBC_UPDATE = new MethodMatcher(JDBC_OPERATIONS + " update(String, ..)", true);
+    private static final MethodMatcher NAMED_UPDATE = new MethodMatcher(NAMED_PARAMETER_JDBC_OPERATIONS + " update(String, ..)", true);
+    private static final MethodMatcher ITERABLE_FOR_EACH = new MethodMatcher("java.lang.Iterable forEach(java.util.function.Consumer)", true);
+    private static final MethodMatcher MAP_FOR_EACH = new MethodMatcher("java.util.Map forEach(java.util.function.BiConsumer)", true);
+
+    private static final String BATCHES = "batchUpdates";
+
+    // Calls on these types don't observe the rows the loop inserts or updates
+    private static final String[] PURE_PACKAGES = {"java.lang.", "java.math.", "java.time.", "java.util."};
+
+    @Getter
+    final String displayName = "Convert `JdbcTemplate` updates in loops to `batchUpdate`";
+
+    @Getter
+    final String description = "Collect the arguments of `JdbcTemplate.update(sql, args...)` and `NamedParameterJdbcTemplate.update(sql, params)` " +
+            "calls made with a constant SQL string inside `for` loops and `forEach` callbacks, and send them with a single " +
+            "`batchUpdate` after the loop. Loops whose update count is used, that exit early with `return` or `throw`, that " +
+            "catch exceptions around the update or that make other JDBC calls are left alone. So are loops that call " +
+            "methods which may observe the rows before they are sent, like repository, DAO or service methods, as only " +
+            "calls on `java.lang`, `java.math`, `java.time` and `java.util` types and getters of local variables are allowed.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(Preconditions.or(new UsesMethod<>(JDBC_UPDATE), new UsesMethod<>(NAMED_UPDATE)), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.Block visitBlock(J.Block block, ExecutionContext ctx) {
+                J.Block b = block;
+                Map<UUID, J.Identifier> batches = getCursor().getRoot().computeMessageIfAbsent(BATCHES, k -> new HashMap<>());
+                for (Statement statement : block.getStatements()) {
+                    J.MethodInvocation update = findBatchableUpdate(statement);
+                    if (update == null) {
+                        continue;
+                    }
+                    boolean named = NAMED_UPDATE.matches(update);
+                    String name = VariableNameUtils.generateVariableName("batchArgs", updateCursor(b), VariableNameUtils.GenerationStrategy.INCREMENT_NUMBER);
+
+                    maybeAddImport("java.util.List");
+                    maybeAddImport("java.util.ArrayList");
+                    if (named) {
+                        maybeAddImport(SQL_PARAMETER_SOURCE);
+                    }
+                    b = JavaTemplate.builder("List<" + (named ? "SqlParameterSource" : "Object[]") + "> " + name + " = new ArrayList<>();")
+                            .imports("java.util.List", "java.util.ArrayList", SQL_PARAMETER_SOURCE)
+                            .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-jdbc-4.1", "spring-tx-5", "spring-beans-5", "spring-core-5"))
+                            .build()
+                            .apply(updateCursor(b), statement.getCoordinates().before());
+                    J.Identifier batch = ((J.VariableDeclarations) b.getStatements().get(b.getStatements().indexOf(statement) - 1))
+                            .getVariables().get(0).getName();
+                    b = JavaTemplate.builder(named ?
+                                    "#{any(" + NAMED_PARAMETER_JDBC_OPERATIONS + ")}.batchUpdate(#{any(String)}, #{any(java.util.List<" + SQL_PARAMETER_SOURCE + ">)}.toArray(new SqlParameterSource[0]));" :
+                                    "#{any(" + JDBC_OPERATIONS + ")}.batchUpdate(#{any(String)}, #{any(java.util.List)});")
+                            .imports(SQL_PARAMETER_SOURCE)
+                            .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-jdbc-4.1", "spring-tx-5", "spring-beans-5", "spring-core-5"))
+                            .build()
+                            .apply(updateCursor(b), statement.getCoordinates().after(), update.getSelect(), update.getArguments().get(0), batch);
+                    batches.put(update.getId(), batch);
+                }
+                return super.visitBlock(updateCursor(b).getValue(), ctx);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                J.Identifier batch = getCursor().getRoot().<Map<UUID, J.Identifier>>getMessage(BATCHES, Collections.emptyMap()).get(method.getId());
+                if (batch == null) {
+                    return m;
+                }
+
+                List<Expression> args = m.getArguments().subList(1, m.getArguments().size());
+                String element;
+                if (NAMED_UPDATE.matches(m)) {
+                    if (isParameterOfType(m, "java.util.Map")) {
+                        maybeAddImport(MAP_SQL_PARAMETER_SOURCE);
+                        element = "new MapSqlParameterSource(#{any(java.util.Map)})";
+                    } else {
+                        element = "#{any(" + SQL_PARAMETER_SOURCE + ")}";
+                    }
+                } else if (args.size() == 1 && args.get(0).getType() instanceof JavaType.Array) {
+                    element = "#{any(java.lang.Object[])}";
+                } else {
+                    element = args.stream().map(arg -> "#{any()}").collect(joining(", ", "new Object[]{", "}"));
+                }
+                return JavaTemplate.builder("#{any(java.util.List)}.add(" + element + ")")
+                        .imports(MAP_SQL_PARAMETER_SOURCE)
+                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx, "spring-jdbc-4.1", "spring-tx-5", "spring-beans-5", "spring-core-5"))
+                        .build()
+                        .apply(getCursor(), m.getCoordinates().replace(), ListUtils.concat(batch, args).toArray());
+            }
+        });
+    }
+
+    /**
+     * The single {@code update} call of a loop statement, if the loop only repeats that update for every element and
+     * the arguments can therefore be collected and sent in one batch after the loop.
+     */
+    private static J.@Nullable MethodInvocation findBatchableUpdate(Statement statement) {
+        J body;
+        if (statement instanceof J.ForEachLoop) {
+            body = ((J.ForEachLoop) statement).getBody();
+        } else if (statement instanceof J.ForLoop) {
+            body = ((J.ForLoop) statement).getBody();
+        } else if (statement instanceof J.MethodInvocation &&
+                (ITERABLE_FOR_EACH.matches((J.MethodInvocation) statement) || MAP_FOR_EACH.matches((J.MethodInvocation) statement)) &&
+                ((J.MethodInvocation) statement).getArguments().get(0) instanceof J.Lambda) {
+            body = ((J.MethodInvocation) statement).getArguments().get(0);
+        } else {
+            return null;
+        }
+
+        List<J.MethodInvocation> jdbcCalls = new ArrayList<>();
+        Set<J.MethodInvocation> statementCalls = new HashSet<>();
+        boolean[] exits = new boolean[1];
+        boolean[] impure = new boolean[1];
+        new JavaIsoVisitor<Integer>() {
+            @Override
+            public J.Return visitReturn(J.Return _return, Integer p) {
+                exits[0] = true;
+                return _return;
+            }
+
+            @Override
+            public J.Throw visitThrow(J.Throw thrown, Integer p) {
+                exits[0] = true;
+                return thrown;
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Integer p) {
+                JavaType.Method methodType = method.getMethodType();
+                if (methodType != null && (TypeUtils.isAssignableTo(JDBC_OPERATIONS, methodType.getDeclaringType()) ||
+                        TypeUtils.isAssignableTo(NAMED_PARAMETER_JDBC_OPERATIONS, methodType.getDeclaringType()))) {
+                    jdbcCalls.add(method);
+                    if (isStatement()) {
+                        statementCalls.add(method);
+                    }
+                } else if (!isPure(method)) {
+                    impure[0] = true;
+                }
+                return super.visitMethodInvocation(method, p);
+            }
+
+            /**
+             * Whether the call is a statement of the loop body, possibly nested in conditionals, so that its result
+             * is discarded and nothing else observes it happening.
+             */
+            private boolean isStatement() {
+                Iterator<Object> path = getCursor().getParentOrThrow().getPath();
+                while (path.hasNext()) {
+                    Object p = path.next();
+                    if (p == body) {
+                        return true;
+                    } else if (p instanceof J && !(p instanceof J.Block || p instanceof J.If || p instanceof J.If.Else)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }.visit(body, 0);
+
+        if (exits[0] || impure[0] || jdbcCalls.size() != 1 || !statementCalls.contains(jdbcCalls.get(0))) {
+            return null;
+        }
+        J.MethodInvocation update = jdbcCalls.get(0);
+        return isBatchable(update) ? update : null;
+    }
+
+    /**
+     * Whether the call can't observe the rows that the loop writes, because it is made on a JDK value or collection
+     * type, or it is a getter of a local variable, like the loop element, rather than of a field holding a repository,
+     * DAO or service.
+     */
+    private static boolean isPure(J.MethodInvocation method) {
+        JavaType.Method methodType = method.getMethodType();
+        if (methodType == null) {
+            return false;
+        }
+        String declaringType = methodType.getDeclaringType().getFullyQualifiedName();
+        for (String pkg : PURE_PACKAGES) {
+            if (declaringType.startsWith(pkg)) {
+                return true;
+            }
+        }
+        Expression select = method.getSelect();
+        return methodType.getParameterTypes().isEmpty() && method.getSimpleName().matches("(get|is)[A-Z].*") &&
+               select instanceof J.Identifier && ((J.Identifier) select).getFieldType() != null &&
+               ((J.Identifier) select).getFieldType().getOwner() instanceof JavaType.Method;
+    }
+
+    private static boolean isBatchable(J.MethodInvocation update) {
+        JavaType.Method methodType = update.getMethodType();
+        if (methodType == null || methodType.getParameterTypes().size() != 2 || update.getArguments().size() < 2 ||
+                !isConstant(update.getArguments().get(0)) || !isStableSelect(update.getSelect())) {
+            return false;
+        }
+        if (JDBC_UPDATE.matches(update)) {
+            // `update(String, Object...)`, but not `update(String, PreparedStatementSetter)` or an `update(sql)` without arguments
+            JavaType parameterType = methodType.getParameterTypes().get(1);
+            return parameterType instanceof JavaType.Array &&
+                    TypeUtils.isObject(((JavaType.Array) parameterType).getElemType()) &&
+                    !(update.getArguments().get(1) instanceof J.Empty);
+        }
+        return NAMED_UPDATE.matches(update) &&
+                (isParameterOfType(update, "java.util.Map") || isParameterOfType(update, SQL_PARAMETER_SOURCE));
+    }
+
+    private static boolean isParameterOfType(J.MethodInvocation update, String fqn) {
+        return update.getMethodType() != null && TypeUtils.isOfClassType(update.getMethodType().getParameterTypes().get(1), fqn);
+    }
+
+    /**
+     * The template the batch is sent with is evaluated once after the loop instead of once per element.
+     */
+    private static boolean isStableSelect(@Nullable Expression select) {
+        return select instanceof J.Identifier ||
+                select instanceof J.FieldAccess ||
+                select instanceof J.MethodInvocation && ((J.MethodInvocation) select).getSelect() == null &&
+                        ((J.MethodInvocation) select).getArguments().stream().allMatch(J.Empty.class::isInstance);
+    }
+
+    private static boolean isConstant(Expression sql) {
+        if (sql instanceof J.Literal) {
+            return true;
+        } else if (sql instanceof J.Parentheses) {
+            return ((J.Parentheses<?>) sql).getTree() instanceof Expression && isConstant((Expression) ((J.Parentheses<?>) sql).getTree());
+        } else if (sql instanceof J.Binary) {
+            return isConstant(((J.Binary) sql).getLeft()) && isConstant(((J.Binary) sql).getRight());
+        }
+        JavaType.Variable field = sql instanceof J.Identifier ? ((J.Identifier) sql).getFieldType() :
+                sql instanceof J.FieldAccess ? ((J.FieldAccess) sql).getName().getFieldType() : null;
+        return field != null && field.hasFlags(Flag.Static, Flag.Final);
+    }
+}
@@ -24,16 +24,17 @@ import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.Statement;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
 // TODO Add in some form to the `rewrite-java` module
 public class LocalVariableUtils {
 
+    private static final String SYMBOL_TABLE = LocalVariableUtils.class.getName() + ".SYMBOL_TABLE";
+
     public static Expression resolveExpression(Expression expression, Cursor cursor) {
         JavaType.Variable fieldType = null;
         if (expression instanceof J.Identifier) {
@@ -88,46 +89,88 @@ public class LocalVariableUtils {
     }
 
     private static @Nullable Expression resolveVariable0(String name, J prior, Cursor cursor) {
-        Optional<VariableMatch> found = Optional.empty();
         J value = cursor.getValue();
         if (value instanceof SourceFile) {
             return null;
         }
-        if (value instanceof J.MethodDeclaration) {
-            found = findVariable(((J.MethodDeclaration) value).getParameters(), name);
-        } else if (value instanceof J.Block) {
-            J.Block block = (J.Block) value;
-            List<Statement> statements = block.getStatements();
-            boolean checkAllStatements = cursor.getParentTreeCursor().getValue() instanceof J.ClassDeclaration;
-            if (!checkAllStatements) {
-                @SuppressWarnings("SuspiciousMethodCalls") int index = statements.indexOf(prior);
-                statements = index != -1 ? statements.subList(0, index) : statements;
-            }
-            found = findVariable(statements, name);
-        } else if (value instanceof J.ForLoop) {
-            found = findVariable(((J.ForLoop) value).getControl().getInit(), name);
-        } else if (value instanceof J.Try && ((J.Try) value).getResources() != null) {
-            found = findVariable(((J.Try) value).getResources().stream().map(J.Try.Resource::getVariableDeclarations).collect(toList()), name);
-        } else if (value instanceof J.Lambda) {
-            found = findVariable(((J.Lambda) value).getParameters().getParameters(), name);
-        } else if (value instanceof J.VariableDeclarations) {
-            found = findVariable(singletonList((J.VariableDeclarations) value), name);
+        VariableMatch found = cursor.computeMessageIfAbsent(SYMBOL_TABLE, k -> SymbolTable.of(cursor)).lookup(name, prior);
+        if (found != null) {
+            return found.isFinal ? found.variable.getInitializer() : null;
         }
-        return found.map(f -> f.isFinal ? f.variable.getInitializer() : null).orElseGet(() -> resolveVariable0(name, value, cursor.getParentTreeCursor()));
+        return resolveVariable0(name, value, cursor.getParentTreeCursor());
     }
 
-    private static Optional<VariableMatch> findVariable(List<? extends J> list, String name) {
-        for (J j : list) {
-            if (j instanceof J.VariableDeclarations) {
-                J.VariableDeclarations declaration = (J.VariableDeclarations) j;
-                for (J.VariableDeclarations.NamedVariable variable : declaration.getVariables()) {
-                    if (variable.getSimpleName().equals(name)) {
-                        return Optional.of(new VariableMatch(variable, declaration.hasModifier(J.Modifier.Type.Final)));
+    /**
+     * The variables declared directly in one scope, built lazily on first use and kept as a message on the scope's cursor,
+     * so that repeated resolutions below the same scope don't rescan its statements.
+     */
+    private static class SymbolTable {
+        private static final SymbolTable EMPTY = new SymbolTable(emptyMap(), emptyMap());
+
+        private final Map<String, Declaration> declarations;
+
+        /**
+         * Position of each statement of a method block, used to only consider declarations preceding the reference.
+         * Empty for all other scopes, where every declaration is visible.
+         */
+        private final Map<UUID, Integer> statementIndexes;
+
+        private SymbolTable(Map<String, Declaration> declarations, Map<UUID, Integer> statementIndexes) {
+            this.declarations = declarations;
+            this.statementIndexes = statementIndexes;
+        }
+
+        static SymbolTable of(Cursor cursor) {
+            J value = cursor.getValue();
+            if (value instanceof J.MethodDeclaration) {
+                return of(((J.MethodDeclaration) value).getParameters(), false);
+            } else if (value instanceof J.Block) {
+                return of(((J.Block) value).getStatements(), !(cursor.getParentTreeCursor().getValue() instanceof J.ClassDeclaration));
+            } else if (value instanceof J.ForLoop) {
+                return of(((J.ForLoop) value).getControl().getInit(), false);
+            } else if (value instanceof J.Try && ((J.Try) value).getResources() != null) {
+                return of(((J.Try) value).getResources().stream().map(J.Try.Resource::getVariableDeclarations).collect(toList()), false);
+            } else if (value instanceof J.Lambda) {
+                return of(((J.Lambda) value).getParameters().getParameters(), false);
+            } else if (value instanceof J.VariableDeclarations) {
+                return of(singletonList((J.VariableDeclarations) value), false);
+            }
+            return EMPTY;
+        }
+
+        private static SymbolTable of(List<? extends J> list, boolean ordered) {
+            Map<String, Declaration> declarations = new HashMap<>();
+            Map<UUID, Integer> statementIndexes = ordered ? new HashMap<>() : emptyMap();
+            for (int i = 0; i < list.size(); i++) {
+                J j = list.get(i);
+                if (ordered) {
+                    statementIndexes.put(j.getId(), i);
+                }
+                if (j instanceof J.VariableDeclarations) {
+                    J.VariableDeclarations declaration = (J.VariableDeclarations) j;
+                    for (J.VariableDeclarations.NamedVariable variable : declaration.getVariables()) {
+                        declarations.putIfAbsent(variable.getSimpleName(),
+                                new Declaration(i, new VariableMatch(variable, declaration.hasModifier(J.Modifier.Type.Final))));
                     }
                 }
             }
+            return new SymbolTable(declarations, statementIndexes);
         }
-        return Optional.empty();
+
+        @Nullable VariableMatch lookup(String name, J prior) {
+            Declaration declaration = declarations.get(name);
+            if (declaration == null) {
+                return null;
+            }
+            Integer priorIndex = statementIndexes.get(prior.getId());
+            return priorIndex == null || declaration.index < priorIndex ? declaration.match : null;
+        }
+    }
+
+    @Value
+    private static class Declaration {
+        int index;
+        VariableMatch match;
     }
 
     @Value
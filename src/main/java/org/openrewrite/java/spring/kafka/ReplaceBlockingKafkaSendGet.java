@@ -0,0 +1,216 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.kafka;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.VariableNameUtils;
+import org.openrewrite.java.search.UsesMethod;
+import org.openrewrite.java.spring.table.BlockingKafkaSends;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.stream.Collectors.joining;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class ReplaceBlockingKafkaSendGet extends Recipe {
+    private static final MethodMatcher KAFKA_SEND = new MethodMatcher("org.springframework.kafka.core.KafkaOperations send*(..)", true);
+    private static final MethodMatcher FUTURE_GET = new MethodMatcher("java.util.concurrent.Future get(..)", true);
+    private static final MethodMatcher THREAD_INTERRUPT = new MethodMatcher("java.lang.Thread interrupt()");
+
+    private static final List<String> LOGGERS = Arrays.asList(
+            "org.slf4j.Logger",
+            "org.apache.commons.logging.Log",
+            "org.apache.logging.log4j.Logger",
+            "java.util.logging.Logger",
+            "java.io.PrintStream"
+    );
+
+    transient BlockingKafkaSends blockingSends = new BlockingKafkaSends(this);
+
+    String displayName = "Complete Kafka sends asynchronously";
+
+    String description = "Replace `try { kafkaTemplate.send(..).get(); } catch (..) { .. }` blocks that only log the outcome of " +
+            "the send with a `whenComplete` continuation, so the calling thread no longer waits for the broker acknowledgement. " +
+            "Other `send(..).get()` calls, whose result or failure is needed synchronously, are marked and listed in a data table.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new UsesMethod<>(KAFKA_SEND), new JavaVisitor<ExecutionContext>() {
+            @Override
+            public J visitTry(J.Try tryable, ExecutionContext ctx) {
+                J.MethodInvocation get = blockingSendOnlyLogged(tryable);
+                J.Try.Catch failure = failureCatch(tryable);
+                if (get == null || failure == null) {
+                    return super.visitTry(tryable, ctx);
+                }
+
+                J.MethodInvocation send = (J.MethodInvocation) Objects.requireNonNull(get.getSelect());
+                List<Statement> onSuccess = tryable.getBody().getStatements().subList(1, tryable.getBody().getStatements().size());
+                List<Statement> onFailure = new ArrayList<>();
+                for (Statement s : failure.getBody().getStatements()) {
+                    if (!(s instanceof J.MethodInvocation && THREAD_INTERRUPT.matches((J.MethodInvocation) s))) {
+                        onFailure.add(s);
+                    }
+                }
+                if (onSuccess.isEmpty() && onFailure.isEmpty()) {
+                    // Nothing observes the outcome of the send, so there is nothing to wait for either
+                    return send.withPrefix(tryable.getPrefix());
+                }
+
+                Statement first = tryable.getBody().getStatements().get(0);
+                String result = first instanceof J.VariableDeclarations ?
+                        ((J.VariableDeclarations) first).getVariables().get(0).getSimpleName() :
+                        VariableNameUtils.generateVariableName("result", getCursor(), VariableNameUtils.GenerationStrategy.INCREMENT_NUMBER);
+                String ex = failure.getParameter().getTree().getVariables().get(0).getSimpleName();
+                String callback;
+                if (onFailure.isEmpty()) {
+                    callback = "if (" + ex + " == null) {\n" + placeholders(onSuccess) + "}\n";
+                } else if (onSuccess.isEmpty()) {
+                    callback = "if (" + ex + " != null) {\n" + placeholders(onFailure) + "}\n";
+                } else {
+                    callback = "if (" + ex + " == null) {\n" + placeholders(onSuccess) + "} else {\n" + placeholders(onFailure) + "}\n";
+                }
+                List<Object> parameters = new ArrayList<>();
+                parameters.add(send);
+                parameters.addAll(onSuccess);
+                parameters.addAll(onFailure);
+                // Spring Kafka 2.x returns a `ListenableFuture`, which only offers `whenComplete` through its `CompletableFuture` view
+                boolean listenable = TypeUtils.isOfClassType(send.getType(), "org.springframework.util.concurrent.ListenableFuture");
+                return JavaTemplate.builder("#{any()}" + (listenable ? ".completable()" : "") +
+                                ".whenComplete((" + result + ", " + ex + ") -> {\n" + callback + "});")
+                        .javaParser(JavaParser.fromJavaVersion().classpathFromResources(ctx,
+                                "spring-kafka-2.9", "kafka-clients-3", "spring-core-5", "spring-context-5", "spring-beans-5", "spring-messaging-5"))
+                        .build()
+                        .apply(getCursor(), tryable.getCoordinates().replace(), parameters.toArray());
+            }
+
+            @Override
+            public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, ctx);
+                if (!isBlockingSend(method)) {
+                    return m;
+                }
+                String reason = getCursor().getParentTreeCursor().getValue() instanceof J.Block ?
+                        "Send failures are handled synchronously" :
+                        "The send result is used synchronously";
+                J.ClassDeclaration classDecl = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                blockingSends.insertRow(ctx, new BlockingKafkaSends.Row(
+                        getCursor().firstEnclosingOrThrow(JavaSourceFile.class).getSourcePath().toString(),
+                        classDecl == null || classDecl.getType() == null ? "" : classDecl.getType().getFullyQualifiedName(),
+                        method.printTrimmed(getCursor().getParentTreeCursor()),
+                        reason
+                ));
+                return SearchResult.found(m, reason);
+            }
+
+            private String placeholders(List<Statement> statements) {
+                return statements.stream()
+                        .map(s -> "#{any()};\n")
+                        .collect(joining());
+            }
+        });
+    }
+
+    private static boolean isBlockingSend(J.MethodInvocation method) {
+        return FUTURE_GET.matches(method) &&
+                method.getSelect() instanceof J.MethodInvocation &&
+                KAFKA_SEND.matches((J.MethodInvocation) method.getSelect());
+    }
+
+    /**
+     * The blocking send the try block starts with, provided that everything after it in the try block only logs the
+     * outcome of the send.
+     */
+    private static J.@Nullable MethodInvocation blockingSendOnlyLogged(J.Try tryable) {
+        if (tryable.getResources() != null || tryable.getFinally() != null || tryable.getBody().getStatements().isEmpty()) {
+            return null;
+        }
+        List<Statement> statements = tryable.getBody().getStatements();
+        Statement first = statements.get(0);
+        Expression get = first instanceof J.VariableDeclarations && ((J.VariableDeclarations) first).getVariables().size() == 1 ?
+                ((J.VariableDeclarations) first).getVariables().get(0).getInitializer() :
+                first instanceof Expression ? (Expression) first : null;
+        if (!(get instanceof J.MethodInvocation) || !isBlockingSend((J.MethodInvocation) get)) {
+            return null;
+        }
+        for (Statement s : statements.subList(1, statements.size())) {
+            if (!isLogging(s)) {
+                return null;
+            }
+        }
+        return (J.MethodInvocation) get;
+    }
+
+    /**
+     * The catch handling the failure of the send, provided that every catch only logs. Interruption and timeout catches
+     * are dropped, as neither can occur once the send no longer blocks. Broader catches, like {@code catch (Exception e)},
+     * also handle exceptions thrown synchronously by {@code send(..)} itself, which a continuation wouldn't see.
+     */
+    private static J.Try.@Nullable Catch failureCatch(J.Try tryable) {
+        J.Try.Catch failure = null;
+        for (J.Try.Catch c : tryable.getCatches()) {
+            for (JavaType caught : caughtTypes(c)) {
+                if (TypeUtils.isOfClassType(caught, "java.util.concurrent.ExecutionException")) {
+                    if (failure == null) {
+                        failure = c;
+                    }
+                } else if (!TypeUtils.isOfClassType(caught, "java.lang.InterruptedException") &&
+                        !TypeUtils.isOfClassType(caught, "java.util.concurrent.TimeoutException")) {
+                    return null;
+                }
+            }
+            for (Statement s : c.getBody().getStatements()) {
+                if (!isLogging(s) && !(s instanceof J.MethodInvocation && THREAD_INTERRUPT.matches((J.MethodInvocation) s))) {
+                    return null;
+                }
+            }
+        }
+        return failure;
+    }
+
+    private static List<JavaType> caughtTypes(J.Try.Catch c) {
+        JavaType type = c.getParameter().getType();
+        if (type instanceof JavaType.MultiCatch) {
+            return ((JavaType.MultiCatch) type).getThrowableTypes();
+        }
+        return type == null ? Collections.emptyList() : Collections.singletonList(type);
+    }
+
+    private static boolean isLogging(Statement statement) {
+        if (!(statement instanceof J.MethodInvocation) || ((J.MethodInvocation) statement).getMethodType() == null) {
+            return false;
+        }
+        JavaType.FullyQualified declaringType = ((J.MethodInvocation) statement).getMethodType().getDeclaringType();
+        return LOGGERS.stream().anyMatch(logger -> TypeUtils.isOfClassType(declaringType, logger));
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.mvc;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.spring.ChangeSpringPropertyValue;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class MigrateToPathPatternParser extends ScanningRecipe<Set<String>> {
+    private static final String ANT_PATH_MATCHER = "org.springframework.util.AntPathMatcher";
+
+    private static final MethodMatcher SET_PATH_MATCHER = new MethodMatcher(
+            "org.springframework.web.servlet.config.annotation.PathMatchConfigurer setPathMatcher(..)");
+    private static final MethodMatcher SET_URL_PATH_HELPER = new MethodMatcher(
+            "org.springframework.web.servlet.config.annotation.PathMatchConfigurer setUrlPathHelper(..)");
+    private static final MethodMatcher SET_SUFFIX_PATTERN_MATCH = new MethodMatcher(
+            "org.springframework.web.servlet.config.annotation.PathMatchConfigurer setUse*SuffixPatternMatch(..)");
+
+    /**
+     * The registries of a {@code WebMvcConfigurer} whose patterns are matched like those of request mappings.
+     */
+    private static final MethodMatcher[] REGISTRY_PATTERNS = {
+            new MethodMatcher("org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry addResourceHandler(..)"),
+            new MethodMatcher("org.springframework.web.servlet.config.annotation.InterceptorRegistration addPathPatterns(..)"),
+            new MethodMatcher("org.springframework.web.servlet.config.annotation.InterceptorRegistration excludePathPatterns(..)"),
+            new MethodMatcher("org.springframework.web.servlet.config.annotation.CorsRegistry addMapping(..)")
+    };
+
+    @Getter
+    final String displayName = "Migrate Spring MVC path matching from `AntPathMatcher` to `PathPatternParser`";
+
+    @Getter
+    final String description = "Spring MVC matches request mappings with precompiled `PathPattern`s, unless the application " +
+            "sets `spring.mvc.pathmatch.matching-strategy=ant_path_matcher` or configures an `AntPathMatcher`, which " +
+            "parses and matches each pattern as a string on every request. This recipe rewrites `**` within a path segment " +
+            "to `*`, which means the same for both matchers, removes `PathMatchConfigurer.setPathMatcher(new AntPathMatcher())` " +
+            "and suffix pattern matching which is disabled, and switches the matching strategy property to `path_pattern_parser`. " +
+            "Mappings with `**` before the last path segment, custom `UrlPathHelper` settings and enabled suffix pattern " +
+            "matching are not supported by `PathPatternParser`, so they are marked instead, and the strategy is only " +
+            "switched when there are none. The patterns of resource handlers, interceptors and CORS mappings are treated " +
+            "the same way. Patterns declared with constants or other non-literal expressions are marked and block the " +
+            "switch too, as they can't be verified. Every project is switched on its own.";
+
+    @Override
+    public Set<String> getInitialValue(ExecutionContext ctx) {
+        return new HashSet<>();
+    }
+
+    /**
+     * @param blockedProjects The projects whose patterns or path matching configuration aren't supported by
+     *                        {@code PathPatternParser}.
+     */
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Set<String> blockedProjects) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.Literal visitLiteral(J.Literal literal, ExecutionContext ctx) {
+                String pattern = mappingPattern(literal, getCursor());
+                if (pattern != null && !isSupported(replaceDoubleWildcardsInSegments(pattern))) {
+                    block();
+                }
+                return literal;
+            }
+
+            @Override
+            public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+                if (hasNonLiteralPattern(annotation)) {
+                    block();
+                }
+                return super.visitAnnotation(annotation, ctx);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                if (isBlocker(method) || isRegistryPatterns(method) && hasNonLiteralPattern(method.getArguments())) {
+                    block();
+                }
+                return super.visitMethodInvocation(method, ctx);
+            }
+
+            private void block() {
+                blockedProjects.add(project(getCursor().firstEnclosingOrThrow(SourceFile.class)));
+            }
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Set<String> blockedProjects) {
+        TreeVisitor<?, ExecutionContext> strategy = new ChangeSpringPropertyValue("spring.mvc.pathmatch.matching-strategy",
+                "path_pattern_parser", "ant_path_matcher", null, null).getVisitor();
+        TreeVisitor<?, ExecutionContext> java = new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.Literal visitLiteral(J.Literal literal, ExecutionContext ctx) {
+                String pattern = mappingPattern(literal, getCursor());
+                if (pattern == null) {
+                    return literal;
+                }
+                String replaced = replaceDoubleWildcardsInSegments(pattern);
+                if (!isSupported(replaced)) {
+                    return SearchResult.found(literal, "`**` is only supported as the last path segment by `PathPatternParser`");
+                }
+                if (!replaced.equals(pattern) && literal.getValueSource() != null) {
+                    return literal.withValue(replaced).withValueSource(literal.getValueSource().replace(pattern, replaced));
+                }
+                return literal;
+            }
+
+            @Override
+            public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+                return markNonLiteralPatterns(super.visitAnnotation(annotation, ctx));
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                if (isBlocker(m)) {
+                    return SearchResult.found(m, "Not supported by `PathPatternParser`");
+                } else if (isRegistryPatterns(m)) {
+                    return m.withArguments(ListUtils.map(m.getArguments(), MigrateToPathPatternParser::markNonLiterals));
+                }
+                if (!blockedProjects.contains(project(getCursor().firstEnclosingOrThrow(SourceFile.class))) &&
+                    isRedundant(m) && getCursor().getParentTreeCursor().getValue() instanceof J.Block) {
+                    maybeRemoveImport(ANT_PATH_MATCHER);
+                    //noinspection DataFlowIssue
+                    return null;
+                }
+                return m;
+            }
+        };
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof JavaSourceFile) {
+                    return java.visit(tree, ctx);
+                } else if ((tree instanceof Properties.File || tree instanceof Yaml.Documents) &&
+                           !blockedProjects.contains(project((SourceFile) tree))) {
+                    return strategy.visit(tree, ctx);
+                }
+                return tree;
+            }
+        };
+    }
+
+    private static String project(SourceFile sourceFile) {
+        return sourceFile.getMarkers().findFirst(JavaProject.class).map(JavaProject::getProjectName).orElse("");
+    }
+
+    /**
+     * @return The path pattern of a request mapping annotation or a resource handler, interceptor or CORS registry
+     * that this literal declares, or {@code null} for other literals, like the {@code produces} media types.
+     */
+    private static @Nullable String mappingPattern(J.Literal literal, Cursor cursor) {
+        if (!(literal.getValue() instanceof String)) {
+            return null;
+        }
+        for (Cursor c = cursor.getParentTreeCursor(); c.getValue() instanceof J; c = c.getParentTreeCursor()) {
+            Object value = c.getValue();
+            if (value instanceof J.MethodInvocation) {
+                return isRegistryPatterns((J.MethodInvocation) value) ? (String) literal.getValue() : null;
+            } else if (value instanceof J.Assignment) {
+                if (!isPathAttribute((J.Assignment) value)) {
+                    return null;
+                }
+            } else if (value instanceof J.Annotation) {
+                return isRequestMapping((J.Annotation) value) ? (String) literal.getValue() : null;
+            } else if (!(value instanceof J.NewArray)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark the path patterns of a request mapping annotation which are constants, concatenations or other expressions,
+     * as the patterns they evaluate to can't be verified to be supported by `PathPatternParser`.
+     */
+    private static J.Annotation markNonLiteralPatterns(J.Annotation annotation) {
+        if (!isRequestMapping(annotation)) {
+            return annotation;
+        }
+        return annotation.withArguments(ListUtils.map(annotation.getArguments(), argument -> {
+            if (argument instanceof J.Assignment) {
+                J.Assignment assignment = (J.Assignment) argument;
+                return isPathAttribute(assignment) ? assignment.withAssignment(markNonLiterals(assignment.getAssignment())) : assignment;
+            }
+            return markNonLiterals(argument);
+        }));
+    }
+
+    private static boolean hasNonLiteralPattern(J.Annotation annotation) {
+        if (!isRequestMapping(annotation) || annotation.getArguments() == null) {
+            return false;
+        }
+        for (Expression argument : annotation.getArguments()) {
+            Expression value = argument;
+            if (argument instanceof J.Assignment) {
+                if (!isPathAttribute((J.Assignment) argument)) {
+                    continue;
+                }
+                value = ((J.Assignment) argument).getAssignment();
+            }
+            if (hasNonLiteralPattern(Collections.singletonList(value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasNonLiteralPattern(List<Expression> values) {
+        for (Expression value : values) {
+            List<Expression> patterns = value instanceof J.NewArray && ((J.NewArray) value).getInitializer() != null ?
+                    ((J.NewArray) value).getInitializer() : Collections.singletonList(value);
+            for (Expression pattern : patterns) {
+                if (!(pattern instanceof J.Literal) && !(pattern instanceof J.Empty)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRegistryPatterns(J.MethodInvocation method) {
+        for (MethodMatcher registryPatterns : REGISTRY_PATTERNS) {
+            if (registryPatterns.matches(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Expression markNonLiterals(Expression expression) {
+        if (expression instanceof J.NewArray) {
+            return ((J.NewArray) expression).withInitializer(ListUtils.map(((J.NewArray) expression).getInitializer(),
+                    MigrateToPathPatternParser::markNonLiterals));
+        } else if (expression instanceof J.Literal || expression instanceof J.Empty) {
+            return expression;
+        }
+        return SearchResult.found(expression, "Not a literal, so it can't be verified to be supported by `PathPatternParser`");
+    }
+
+    private static boolean isRequestMapping(J.Annotation annotation) {
+        JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+        return type != null && type.getFullyQualifiedName().startsWith("org.springframework.web.bind.annotation.") &&
+               type.getFullyQualifiedName().endsWith("Mapping");
+    }
+
+    private static boolean isPathAttribute(J.Assignment assignment) {
+        Expression variable = assignment.getVariable();
+        return variable instanceof J.Identifier &&
+               ("value".equals(((J.Identifier) variable).getSimpleName()) ||
+                "path".equals(((J.Identifier) variable).getSimpleName()));
+    }
+
+    /**
+     * `AntPathMatcher` treats `**` that is part of a longer path segment, like `*.html` in `/static/**.html`, as a
+     * single `*`. `PathPatternParser` rejects it, so it is rewritten to the equivalent `*`.
+     */
+    static String replaceDoubleWildcardsInSegments(String pattern) {
+        String[] segments = pattern.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].contains("**") && !"**".equals(segments[i]) && !segments[i].contains("{")) {
+                segments[i] = segments[i].replaceAll("\\*{2,}", "*");
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    static boolean isSupported(String pattern) {
+        String[] segments = pattern.split("/", -1);
+        for (int i = 0; i < segments.length - 1; i++) {
+            if ("**".equals(segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlocker(J.MethodInvocation method) {
+        if (SET_URL_PATH_HELPER.matches(method)) {
+            return true;
+        } else if (SET_SUFFIX_PATTERN_MATCH.matches(method)) {
+            return !J.Literal.isLiteralValue(method.getArguments().get(0), false);
+        } else if (SET_PATH_MATCHER.matches(method)) {
+            return !isDefaultAntPathMatcher(method.getArguments().get(0));
+        }
+        return false;
+    }
+
+    private static boolean isRedundant(J.MethodInvocation method) {
+        return SET_SUFFIX_PATTERN_MATCH.matches(method) && J.Literal.isLiteralValue(method.getArguments().get(0), false) ||
+               SET_PATH_MATCHER.matches(method) && isDefaultAntPathMatcher(method.getArguments().get(0));
+    }
+
+    private static boolean isDefaultAntPathMatcher(Expression expression) {
+        if (!(expression instanceof J.NewClass) || ((J.NewClass) expression).getBody() != null ||
+            !TypeUtils.isOfClassType(expression.getType(), ANT_PATH_MATCHER)) {
+            return false;
+        }
+        for (Expression argument : ((J.NewClass) expression).getArguments()) {
+            if (!(argument instanceof J.Empty)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
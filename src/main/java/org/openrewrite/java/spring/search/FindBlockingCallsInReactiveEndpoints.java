@@ -0,0 +1,252 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.spring.table.ReactiveBlockingCalls;
+import org.openrewrite.java.spring.trait.SpringRequestMapping;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class FindBlockingCallsInReactiveEndpoints extends Recipe {
+
+    private static final List<MethodMatcher> BLOCKING_METHODS = Stream.of(
+            "org.springframework.web.client.RestTemplate *(..)",
+            "org.springframework.jdbc.core.JdbcTemplate *(..)",
+            "org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate *(..)",
+            "javax.persistence.EntityManager *(..)",
+            "jakarta.persistence.EntityManager *(..)",
+            "java.lang.Thread sleep(..)",
+            "java.util.concurrent.Future get(..)",
+            "java.util.concurrent.CompletableFuture join()",
+            "reactor.core.publisher.Mono block*(..)",
+            "reactor.core.publisher.Flux block*(..)",
+            "reactor.core.publisher.Flux toIterable(..)",
+            "reactor.core.publisher.Flux toStream(..)"
+    ).map(pattern -> new MethodMatcher(pattern, true)).collect(toList());
+
+    private static final String MONO = "reactor.core.publisher.Mono";
+    private static final String FLUX = "reactor.core.publisher.Flux";
+    private static final String ROUTER_FUNCTION = "org.springframework.web.reactive.function.server.RouterFunction";
+    private static final String CALLS = "CALLS";
+
+    transient ReactiveBlockingCalls blockingCalls = new ReactiveBlockingCalls(this);
+
+    String displayName = "Find blocking calls in reactive endpoints";
+
+    String description = "Find WebFlux handler methods returning `Mono` or `Flux`, handler functions taking a `ServerRequest` " +
+            "and `RouterFunction` definitions that call blocking APIs like `RestTemplate`, `JdbcTemplate`, `EntityManager`, " +
+            "Spring Data repositories, `Thread.sleep`, `Future.get` or `Mono.block()`, either directly or through other methods " +
+            "of the same source file. Calls deferred to lambdas and method references upstream of `subscribeOn(..)`, which move them off the event loop, are not reported.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(
+                Preconditions.or(
+                        new UsesType<>(MONO, false),
+                        new UsesType<>(FLUX, false),
+                        new UsesType<>(ROUTER_FUNCTION, false)),
+                new JavaIsoVisitor<ExecutionContext>() {
+                    final SpringRequestMapping.Matcher requestMapping = new SpringRequestMapping.Matcher();
+
+                    @Override
+                    public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                        Map<String, List<Call>> callGraph = new HashMap<>();
+                        new CallCollector().visit(cu, callGraph);
+                        getCursor().putMessage(CALLS, callGraph);
+                        return super.visitCompilationUnit(cu, ctx);
+                    }
+
+                    @Override
+                    public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                        J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+                        String key = methodKey(method.getMethodType());
+                        boolean routerFunction = TypeUtils.isOfClassType(method.getReturnTypeExpression() == null ? null :
+                                method.getReturnTypeExpression().getType(), ROUTER_FUNCTION);
+                        if (key == null || !(routerFunction || isReactiveHandler(method))) {
+                            return m;
+                        }
+
+                        // Router function definitions run once at startup, only the handlers they declare run per request
+                        Map<String, List<Call>> callGraph = getCursor().getNearestMessage(CALLS, Collections.emptyMap());
+                        List<String> path = findBlockingPath(callGraph, key, new HashSet<>(Collections.singleton(key)), routerFunction);
+                        if (path == null) {
+                            return m;
+                        }
+                        String blockingCall = path.get(path.size() - 1);
+                        path.add(0, method.getSimpleName());
+                        blockingCalls.insertRow(ctx, new ReactiveBlockingCalls.Row(
+                                getCursor().firstEnclosingOrThrow(JavaSourceFile.class).getSourcePath().toString(),
+                                method.getSimpleName(),
+                                blockingCall,
+                                String.join(" -> ", path)
+                        ));
+                        return SearchResult.found(m, "Calls blocking " + blockingCall);
+                    }
+
+                    private boolean isReactiveHandler(J.MethodDeclaration method) {
+                        JavaType returnType = method.getReturnTypeExpression() == null ? null : method.getReturnTypeExpression().getType();
+                        if (!TypeUtils.isOfClassType(returnType, MONO) && !TypeUtils.isOfClassType(returnType, FLUX)) {
+                            return false;
+                        }
+                        return method.getLeadingAnnotations().stream().anyMatch(a -> requestMapping.get(a, getCursor()).isPresent()) ||
+                                method.getParameters().stream().anyMatch(p -> p instanceof J.VariableDeclarations &&
+                                        TypeUtils.isOfClassType(((J.VariableDeclarations) p).getType(), "org.springframework.web.reactive.function.server.ServerRequest"));
+                    }
+                });
+    }
+
+    /**
+     * Depth-first search for a blocking call reachable from the given method, preferring direct calls over calls through
+     * other methods. Returns the names of the intermediate methods followed by the blocking call, or {@code null}.
+     */
+    private static @Nullable List<String> findBlockingPath(Map<String, List<Call>> callGraph, String method, Set<String> visited, boolean deferredOnly) {
+        List<Call> calls = callGraph.getOrDefault(method, Collections.emptyList());
+        for (Call call : calls) {
+            if (call.blockingCall != null && (call.deferred || !deferredOnly)) {
+                return new ArrayList<>(Collections.singletonList(call.blockingCall));
+            }
+        }
+        for (Call call : calls) {
+            if (call.callee != null && (call.deferred || !deferredOnly) && callGraph.containsKey(call.callee) && visited.add(call.callee)) {
+                List<String> path = findBlockingPath(callGraph, call.callee, visited, false);
+                if (path != null) {
+                    path.add(0, call.calleeName);
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable String methodKey(JavaType.@Nullable Method method) {
+        return method == null ? null : MethodMatcher.methodPattern(method);
+    }
+
+    /**
+     * Collects, for every method declared in the compilation unit, the blocking calls it makes and the methods it calls.
+     */
+    private static class CallCollector extends JavaIsoVisitor<Map<String, List<Call>>> {
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, Map<String, List<Call>> callGraph) {
+            String key = methodKey(method.getMethodType());
+            if (key != null) {
+                List<Call> calls = new ArrayList<>();
+                callGraph.put(key, calls);
+                getCursor().putMessage(CALLS, calls);
+            }
+            return super.visitMethodDeclaration(method, callGraph);
+        }
+
+        @Override
+        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Map<String, List<Call>> callGraph) {
+            addCall(method.getMethodType(), BLOCKING_METHODS.stream().anyMatch(matcher -> matcher.matches(method)) ||
+                    isBlockingRepositoryCall(method.getMethodType()));
+            return super.visitMethodInvocation(method, callGraph);
+        }
+
+        @Override
+        public J.MemberReference visitMemberReference(J.MemberReference memberRef, Map<String, List<Call>> callGraph) {
+            addCall(memberRef.getMethodType(), BLOCKING_METHODS.stream().anyMatch(matcher -> matcher.matches(memberRef)) ||
+                    isBlockingRepositoryCall(memberRef.getMethodType()));
+            return super.visitMemberReference(memberRef, callGraph);
+        }
+
+        private void addCall(JavaType.@Nullable Method methodType, boolean blocking) {
+            List<Call> calls = getCursor().getNearestMessage(CALLS);
+            if (calls == null || methodType == null || isOffloaded()) {
+                return;
+            }
+            boolean deferred = getCursor().getPathAsStream()
+                    .filter(p -> p instanceof J.Lambda || p instanceof J.MemberReference || p instanceof J.MethodDeclaration)
+                    .findFirst()
+                    .map(p -> !(p instanceof J.MethodDeclaration))
+                    .orElse(false);
+            if (blocking) {
+                calls.add(new Call(methodType.getDeclaringType().getClassName() + "." + methodType.getName(), null, methodType.getName(), deferred));
+            } else {
+                calls.add(new Call(null, methodKey(methodType), methodType.getName(), deferred));
+            }
+        }
+
+        /**
+         * Whether the call is deferred to a lambda or method reference upstream of {@code subscribeOn(..)}, which then runs
+         * on the given scheduler rather than on the event loop. Arguments evaluated while assembling the chain, like
+         * {@code Mono.just(blocking())}, still run on the event loop.
+         */
+        private boolean isOffloaded() {
+            boolean deferred = false;
+            Object child = null;
+            for (Iterator<Object> path = getCursor().getPath(); path.hasNext(); ) {
+                Object p = path.next();
+                if (p instanceof J.MethodDeclaration) {
+                    return false;
+                } else if (p instanceof J.Lambda || p instanceof J.MemberReference) {
+                    deferred = true;
+                } else if (deferred && p instanceof J.MethodInvocation && isSubscribeOn((J.MethodInvocation) p) &&
+                           ((J.MethodInvocation) p).getSelect() == child) {
+                    return true;
+                }
+                if (p instanceof J) {
+                    child = p;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isSubscribeOn(J.MethodInvocation method) {
+            return "subscribeOn".equals(method.getSimpleName()) &&
+                   (TypeUtils.isOfClassType(method.getType(), MONO) || TypeUtils.isOfClassType(method.getType(), FLUX));
+        }
+
+        private static boolean isBlockingRepositoryCall(JavaType.@Nullable Method methodType) {
+            return methodType != null &&
+                    TypeUtils.isAssignableTo("org.springframework.data.repository.Repository", methodType.getDeclaringType()) &&
+                    !TypeUtils.isOfClassType(methodType.getReturnType(), MONO) &&
+                    !TypeUtils.isOfClassType(methodType.getReturnType(), FLUX);
+        }
+    }
+
+    @Value
+    private static class Call {
+        @Nullable
+        String blockingCall;
+
+        @Nullable
+        String callee;
+
+        String calleeName;
+
+        /**
+         * Whether the call happens inside a lambda or method reference, rather than when the method itself runs.
+         */
+        boolean deferred;
+    }
+}
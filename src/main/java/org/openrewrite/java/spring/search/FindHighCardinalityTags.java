@@ -0,0 +1,272 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.spring.table.HighCardinalityTags;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class FindHighCardinalityTags extends Recipe {
+
+    // Every tag of a meter is a dimension of its time series
+    private static final MethodMatcher[] METRIC_TAGS = {
+            new MethodMatcher("io.micrometer.core.instrument.Tag of(String, String)"),
+            new MethodMatcher("io.micrometer.core.instrument.Tags of(String, String)"),
+            new MethodMatcher("io.micrometer.core.instrument.Tags of(String...)"),
+            new MethodMatcher("io.micrometer.core.instrument.Tags and(String, String)"),
+            new MethodMatcher("io.micrometer.core.instrument.Tags and(String...)"),
+            new MethodMatcher("io.micrometer.core.instrument.ImmutableTag <constructor>(String, String)"),
+            new MethodMatcher("io.micrometer.core.instrument.*..* tag(String, String)"),
+            new MethodMatcher("io.micrometer.observation.Observation lowCardinalityKeyValue(String, String)", true)
+    };
+    // Key values are only turned into meter tags when they are low-cardinality ones
+    private static final MethodMatcher[] KEY_VALUES = {
+            new MethodMatcher("io.micrometer.common.KeyValue of(String, String)"),
+            new MethodMatcher("io.micrometer.common.KeyValues of(String...)"),
+            new MethodMatcher("io.micrometer.common.KeyValues and(String...)")
+    };
+
+    private static final String[] REQUEST_TYPES = {
+            "javax.servlet.ServletRequest",
+            "jakarta.servlet.ServletRequest",
+            "org.springframework.http.HttpRequest",
+            "org.springframework.http.server.reactive.ServerHttpRequest",
+            "org.springframework.web.reactive.function.server.ServerRequest",
+            "org.springframework.web.servlet.function.ServerRequest"
+    };
+    private static final Map<String, String> REQUEST_SOURCES = new HashMap<>();
+    private static final Map<String, String> PARAMETER_SOURCES = new HashMap<>();
+
+    static {
+        for (String method : new String[]{"getRequestURI", "getRequestURL", "getServletPath", "getPathInfo", "getURI", "getPath", "path", "uri"}) {
+            REQUEST_SOURCES.put(method, "request URI");
+        }
+        for (String method : new String[]{"getQueryString", "getParameter", "getParameterValues", "getQueryParams", "param", "queryParam"}) {
+            REQUEST_SOURCES.put(method, "query parameter");
+        }
+        for (String method : new String[]{"getHeader", "getHeaders", "headers"}) {
+            REQUEST_SOURCES.put(method, "header");
+        }
+        for (String method : new String[]{"getRemoteAddr", "getRemoteHost", "getRemoteAddress", "remoteAddress"}) {
+            REQUEST_SOURCES.put(method, "client address");
+        }
+        for (String method : new String[]{"getRemoteUser", "getUserPrincipal", "principal"}) {
+            REQUEST_SOURCES.put(method, "user ID");
+        }
+        for (String method : new String[]{"getSession", "getRequestedSessionId", "getCookies", "getId"}) {
+            REQUEST_SOURCES.put(method, "session ID");
+        }
+        REQUEST_SOURCES.put("pathVariable", "path variable");
+        REQUEST_SOURCES.put("pathVariables", "path variable");
+        PARAMETER_SOURCES.put("org.springframework.web.bind.annotation.PathVariable", "path variable");
+        PARAMETER_SOURCES.put("org.springframework.web.bind.annotation.RequestParam", "query parameter");
+        PARAMETER_SOURCES.put("org.springframework.web.bind.annotation.RequestHeader", "header");
+        PARAMETER_SOURCES.put("org.springframework.web.bind.annotation.CookieValue", "session ID");
+    }
+
+    transient HighCardinalityTags highCardinalityTags = new HighCardinalityTags(this);
+
+    String displayName = "Find high-cardinality metric tags";
+
+    String description = "Find Micrometer meter tags, `Observation` low-cardinality key values and the key values returned by " +
+            "`getLowCardinalityKeyValues` of observation conventions whose value comes from an unbounded source, like a raw " +
+            "request URI, path variable, query parameter, header, user ID, session ID or exception message. Each distinct " +
+            "value creates another time series in the meter registry. Such values belong in `getHighCardinalityKeyValues`, " +
+            "which only adds them to traces. This is a common mistake when migrating a `WebMvcTagsProvider` to an " +
+            "observation convention.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(Preconditions.or(
+                new UsesType<>("io.micrometer.core.instrument..*", false),
+                new UsesType<>("io.micrometer.common..*", false),
+                new UsesType<>("io.micrometer.observation..*", false)
+        ), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                if (isLowCardinalityTag(m)) {
+                    return m.withArguments(markValues(m.getArguments(), ctx));
+                }
+                return m;
+            }
+
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+                J.NewClass n = super.visitNewClass(newClass, ctx);
+                if (isLowCardinalityTag(n)) {
+                    return n.withArguments(markValues(n.getArguments(), ctx));
+                }
+                return n;
+            }
+
+            private boolean isLowCardinalityTag(MethodCall call) {
+                for (MethodMatcher matcher : METRIC_TAGS) {
+                    if (matcher.matches(call)) {
+                        return true;
+                    }
+                }
+                J.MethodDeclaration enclosing = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                if (enclosing != null && "getLowCardinalityKeyValues".equals(enclosing.getSimpleName())) {
+                    for (MethodMatcher matcher : KEY_VALUES) {
+                        if (matcher.matches(call)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+
+            /**
+             * Tags are given as key and value pairs, so every second argument is a value.
+             */
+            private List<Expression> markValues(List<Expression> arguments, ExecutionContext ctx) {
+                return ListUtils.map(arguments, (i, argument) -> {
+                    if (i % 2 == 0 || !TypeUtils.isString(argument.getType())) {
+                        return argument;
+                    }
+                    String source = unboundedSource(argument, getCursor(), 0);
+                    if (source == null) {
+                        return argument;
+                    }
+                    Expression key = arguments.get(i - 1);
+                    J.MethodDeclaration enclosing = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                    highCardinalityTags.insertRow(ctx, new HighCardinalityTags.Row(
+                            getCursor().firstEnclosingOrThrow(JavaSourceFile.class).getSourcePath().toString(),
+                            enclosing == null ? "" : enclosing.getSimpleName(),
+                            key instanceof J.Literal && ((J.Literal) key).getValue() instanceof String ?
+                                    (String) ((J.Literal) key).getValue() : key.printTrimmed(getCursor()),
+                            source,
+                            argument.printTrimmed(getCursor())
+                    ));
+                    return SearchResult.found(argument, "High-cardinality " + source);
+                });
+            }
+        });
+    }
+
+    /**
+     * @return A description of the unbounded source the value is derived from, or {@code null} when the value is
+     * bounded or its source is unknown.
+     */
+    private static @Nullable String unboundedSource(Expression value, Cursor cursor, int depth) {
+        if (depth > 5) {
+            return null;
+        }
+        Expression e = value.unwrap();
+        if (e instanceof J.Binary) {
+            String left = unboundedSource(((J.Binary) e).getLeft(), cursor, depth + 1);
+            return left != null ? left : unboundedSource(((J.Binary) e).getRight(), cursor, depth + 1);
+        } else if (e instanceof J.Ternary) {
+            String truePart = unboundedSource(((J.Ternary) e).getTruePart(), cursor, depth + 1);
+            return truePart != null ? truePart : unboundedSource(((J.Ternary) e).getFalsePart(), cursor, depth + 1);
+        } else if (e instanceof J.TypeCast) {
+            return unboundedSource(((J.TypeCast) e).getExpression(), cursor, depth + 1);
+        } else if (e instanceof J.MethodInvocation) {
+            return unboundedSource((J.MethodInvocation) e, cursor, depth);
+        } else if (e instanceof J.Identifier) {
+            return unboundedSource((J.Identifier) e, cursor, depth);
+        }
+        return null;
+    }
+
+    private static @Nullable String unboundedSource(J.MethodInvocation method, Cursor cursor, int depth) {
+        JavaType.Method type = method.getMethodType();
+        if (type == null) {
+            return null;
+        }
+        JavaType.FullyQualified declaringType = type.getDeclaringType();
+        for (String requestType : REQUEST_TYPES) {
+            if (TypeUtils.isAssignableTo(requestType, declaringType) && REQUEST_SOURCES.containsKey(type.getName())) {
+                return REQUEST_SOURCES.get(type.getName());
+            }
+        }
+        if (TypeUtils.isAssignableTo("java.lang.Throwable", declaringType) &&
+            ("getMessage".equals(type.getName()) || "getLocalizedMessage".equals(type.getName()) || "toString".equals(type.getName()))) {
+            return "exception message";
+        }
+        if ((TypeUtils.isAssignableTo("java.security.Principal", declaringType) ||
+             TypeUtils.isAssignableTo("org.springframework.security.core.Authentication", declaringType)) &&
+            "getName".equals(type.getName())) {
+            return "user ID";
+        }
+        if (TypeUtils.isOfClassType(declaringType, "java.util.UUID")) {
+            return "unique ID";
+        }
+        // Values derived from an unbounded value, like `uri.toLowerCase()` or `String.valueOf(userId)`, are unbounded as well
+        if (TypeUtils.isOfClassType(declaringType, "java.lang.String") || TypeUtils.isOfClassType(declaringType, "java.util.Objects") ||
+            "toString".equals(type.getName())) {
+            if (method.getSelect() != null) {
+                String source = unboundedSource(method.getSelect(), cursor, depth + 1);
+                if (source != null) {
+                    return source;
+                }
+            }
+            for (Expression argument : method.getArguments()) {
+                String source = unboundedSource(argument, cursor, depth + 1);
+                if (source != null) {
+                    return source;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable String unboundedSource(J.Identifier identifier, Cursor cursor, int depth) {
+        JavaType.Variable variable = identifier.getFieldType();
+        J.MethodDeclaration enclosing = cursor.firstEnclosing(J.MethodDeclaration.class);
+        if (variable == null || enclosing == null) {
+            return null;
+        }
+        for (Statement parameter : enclosing.getParameters()) {
+            if (parameter instanceof J.VariableDeclarations &&
+                variable.equals(((J.VariableDeclarations) parameter).getVariables().get(0).getVariableType())) {
+                for (J.Annotation annotation : ((J.VariableDeclarations) parameter).getLeadingAnnotations()) {
+                    JavaType.FullyQualified annotationType = TypeUtils.asFullyQualified(annotation.getType());
+                    if (annotationType != null && PARAMETER_SOURCES.containsKey(annotationType.getFullyQualifiedName())) {
+                        return PARAMETER_SOURCES.get(annotationType.getFullyQualifiedName());
+                    }
+                }
+                return null;
+            }
+        }
+        // A local variable, which is as unbounded as its initializer
+        AtomicReference<@Nullable Expression> initializer = new AtomicReference<>();
+        new JavaIsoVisitor<AtomicReference<@Nullable Expression>>() {
+            @Override
+            public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable v, AtomicReference<@Nullable Expression> found) {
+                if (variable.equals(v.getVariableType()) && v.getInitializer() != null) {
+                    found.set(v.getInitializer());
+                }
+                return v;
+            }
+        }.visit(enclosing.getBody(), initializer, cursor);
+        return initializer.get() == null ? null : unboundedSource(initializer.get(), cursor, depth + 1);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.security6;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.search.SemanticallyEqual;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.List;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class SimplifyRequestMatchers extends Recipe {
+
+    private static final String REGISTRY = "org.springframework.security.config.annotation.web.AbstractRequestMatcherRegistry";
+    private static final String REGEX_REQUEST_MATCHER = "org.springframework.security.web.util.matcher.RegexRequestMatcher";
+    private static final String HTTP_METHOD = "org.springframework.http.HttpMethod";
+
+    private static final MethodMatcher REQUEST_MATCHERS = new MethodMatcher(REGISTRY + " requestMatchers(..)", true);
+    private static final MethodMatcher REGEX_MATCHERS = new MethodMatcher(REGISTRY + " regexMatchers(..)", true);
+    private static final MethodMatcher ANT_MATCHERS = new MethodMatcher(REGISTRY + " antMatchers(..)", true);
+    private static final MethodMatcher MVC_MATCHERS = new MethodMatcher(REGISTRY + " mvcMatchers(..)", true);
+    private static final MethodMatcher ANY_REQUEST = new MethodMatcher(REGISTRY + " anyRequest()", true);
+    private static final MethodMatcher NEW_REGEX_REQUEST_MATCHER = new MethodMatcher(REGEX_REQUEST_MATCHER + " <constructor>(String, String)");
+    private static final MethodMatcher REGEX_MATCHER_FACTORY = new MethodMatcher(REGEX_REQUEST_MATCHER + " regexMatcher(String)");
+
+    @Option(displayName = "Maximum request matchers",
+            description = "The number of request matchers that may be evaluated before `anyRequest()` without being reported. " +
+                    "Defaults to 10.",
+            required = false,
+            example = "10")
+    @Nullable
+    Integer maxMatchers;
+
+    String displayName = "Simplify request matchers of security filter chains";
+
+    String description = "The request matchers of an `authorizeHttpRequests` chain are evaluated in order on every request. " +
+            "This recipe marks `regexMatchers(..)`, `new RegexRequestMatcher(regex, null)` and `RegexRequestMatcher.regexMatcher(regex)` " +
+            "when the regular expression is a literal path like `^/health$` or a path prefix like `^/api/.*`, which could be a path " +
+            "pattern after checking that matching `/api` itself and ignoring the query string doesn't change which requests are " +
+            "authorized. Adjacent `requestMatchers(..)` calls with the same authorization rule are merged into a single call with all of " +
+            "their patterns, and `anyRequest()` is marked when more than `maxMatchers` request matchers are evaluated before it.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        int max = maxMatchers == null ? 10 : maxMatchers;
+        return Preconditions.check(new UsesType<>(REGISTRY, true), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
+                if (REGEX_MATCHERS.matches(m) || REQUEST_MATCHERS.matches(m)) {
+                    return markRegularExpressions(m);
+                } else if (ANY_REQUEST.matches(m)) {
+                    int matchers = countRequestMatchers(m.getSelect());
+                    if (matchers > max) {
+                        return m.withName(SearchResult.found(m.getName(), matchers + " request matchers are evaluated before `anyRequest()`"));
+                    }
+                    return m;
+                }
+                return mergeWithPreviousRule(m);
+            }
+        });
+    }
+
+    /**
+     * Mark the regular expressions which look like a path pattern. A {@code RegexRequestMatcher} matches the path
+     * including the query string, and the {@code String} based {@code requestMatchers(..)} require a servlet path as of
+     * Spring Security 6.1.2 when more than one servlet is registered, so replacing them would change which requests
+     * are authorized.
+     */
+    private static J.MethodInvocation markRegularExpressions(J.MethodInvocation m) {
+        boolean regex = REGEX_MATCHERS.matches(m);
+        return m.withArguments(ListUtils.map(m.getArguments(), argument -> {
+            J.Literal pattern = regex ? (argument instanceof J.Literal ? (J.Literal) argument : null) : regexOf(argument);
+            String path = pattern == null || !(pattern.getValue() instanceof String) ? null : toPathPattern((String) pattern.getValue());
+            if (path == null) {
+                return argument;
+            }
+            return SearchResult.found(argument, "Could be the path pattern `" + path + "`, which unlike the regular expression " +
+                    (path.endsWith("/**") ? "also matches `" + path.substring(0, path.length() - 3) + "` and " : "") +
+                    "ignores the query string");
+        }));
+    }
+
+    private static J.@Nullable Literal regexOf(Expression argument) {
+        if (argument instanceof J.NewClass && NEW_REGEX_REQUEST_MATCHER.matches(argument)) {
+            List<Expression> arguments = ((J.NewClass) argument).getArguments();
+            if (arguments.get(0) instanceof J.Literal && J.Literal.isLiteralValue(arguments.get(1), null)) {
+                return (J.Literal) arguments.get(0);
+            }
+        } else if (argument instanceof J.MethodInvocation && REGEX_MATCHER_FACTORY.matches(argument)) {
+            Expression regex = ((J.MethodInvocation) argument).getArguments().get(0);
+            if (regex instanceof J.Literal) {
+                return (J.Literal) regex;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merge {@code requestMatchers("/a").permitAll().requestMatchers("/b").permitAll()} into
+     * {@code requestMatchers("/a", "/b").permitAll()}. Both rules are adjacent, so no other request matcher is
+     * evaluated between them and the order of evaluation is preserved.
+     */
+    private static J.MethodInvocation mergeWithPreviousRule(J.MethodInvocation rule) {
+        if (!isRule(rule)) {
+            return rule;
+        }
+        J.MethodInvocation matchers = (J.MethodInvocation) rule.getSelect();
+        if (!(matchers.getSelect() instanceof J.MethodInvocation) || !isRule((J.MethodInvocation) matchers.getSelect())) {
+            return rule;
+        }
+        J.MethodInvocation previousRule = (J.MethodInvocation) matchers.getSelect();
+        J.MethodInvocation previousMatchers = (J.MethodInvocation) previousRule.getSelect();
+        if (!rule.getSimpleName().equals(previousRule.getSimpleName()) ||
+            !sameArguments(rule.getArguments(), previousRule.getArguments()) ||
+            !isPatternMethod(matchers) || !isPatternMethod(previousMatchers) ||
+            matchers.getMethodType() == null || !matchers.getMethodType().equals(previousMatchers.getMethodType())) {
+            return rule;
+        }
+        List<Expression> patterns = matchers.getArguments();
+        if (patterns.get(0).getType() != null && TypeUtils.isOfClassType(patterns.get(0).getType(), HTTP_METHOD)) {
+            if (!SemanticallyEqual.areEqual(patterns.get(0), previousMatchers.getArguments().get(0))) {
+                return rule;
+            }
+            patterns = patterns.subList(1, patterns.size());
+        }
+        List<Expression> merged = ListUtils.concatAll(previousMatchers.getArguments(),
+                ListUtils.map(patterns, p -> p.withPrefix(Space.SINGLE_SPACE)));
+        return rule.withSelect(previousMatchers.withArguments(merged));
+    }
+
+    private static boolean isRule(J.MethodInvocation m) {
+        return m.getSelect() instanceof J.MethodInvocation && REQUEST_MATCHERS.matches(m.getSelect()) &&
+               m.getMethodType() != null && m.getMethodType().getDeclaringType().getFullyQualifiedName().endsWith("AuthorizedUrl");
+    }
+
+    private static boolean isPatternMethod(J.MethodInvocation matchers) {
+        if (matchers.getMethodType() == null) {
+            return false;
+        }
+        List<JavaType> parameters = matchers.getMethodType().getParameterTypes();
+        return !parameters.isEmpty() && parameters.get(parameters.size() - 1) instanceof JavaType.Array &&
+               TypeUtils.isString(((JavaType.Array) parameters.get(parameters.size() - 1)).getElemType());
+    }
+
+    private static boolean sameArguments(List<Expression> arguments, List<Expression> others) {
+        if (arguments.size() != others.size()) {
+            return false;
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            if (!(arguments.get(i) instanceof J.Empty && others.get(i) instanceof J.Empty) &&
+                !SemanticallyEqual.areEqual(arguments.get(i), others.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countRequestMatchers(@Nullable Expression select) {
+        int count = 0;
+        for (Expression e = select; e instanceof J.MethodInvocation; e = ((J.MethodInvocation) e).getSelect()) {
+            J.MethodInvocation m = (J.MethodInvocation) e;
+            if (REQUEST_MATCHERS.matches(m) || REGEX_MATCHERS.matches(m) || ANT_MATCHERS.matches(m) || MVC_MATCHERS.matches(m)) {
+                for (Expression argument : m.getArguments()) {
+                    if (!(argument instanceof J.Empty) && !TypeUtils.isOfClassType(argument.getType(), HTTP_METHOD)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The path pattern closest to a regular expression that is a literal path like {@code ^/health$} or a
+     * path prefix like {@code ^/api/.*}, or {@code null} for any other regular expression.
+     */
+    static @Nullable String toPathPattern(String regex) {
+        String r = regex;
+        if (r.startsWith("^")) {
+            r = r.substring(1);
+        }
+        if (r.endsWith("$") && !r.endsWith("\\$")) {
+            r = r.substring(0, r.length() - 1);
+        }
+        boolean prefix = r.endsWith("/.*");
+        if (prefix) {
+            r = r.substring(0, r.length() - 2);
+        }
+        if (!r.startsWith("/")) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < r.length(); i++) {
+            char c = r.charAt(i);
+            if (c == '\\' && i + 1 < r.length() && (r.charAt(i + 1) == '.' || r.charAt(i + 1) == '-')) {
+                path.append(r.charAt(++i));
+            } else if (Character.isLetterOrDigit(c) || c == '/' || c == '_' || c == '-' || c == '~') {
+                path.append(c);
+            } else {
+                return null;
+            }
+        }
+        return prefix ? path + "**" : path.toString();
+    }
+}
@@ -26,6 +26,7 @@ import org.openrewrite.java.spring.boot2.ConvertToSecurityDslVisitor;
 
 import java.util.Collection;
 
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 
 @EqualsAndHashCode(callSuper = false)
@@ -43,7 +44,7 @@ public class OAuth2ClientLambdaDsl extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new UsesType<>(FQN_OAUTH2_CLIENT_CONFIGURER, true),
-                new ConvertToSecurityDslVisitor<>(FQN_OAUTH2_CLIENT_CONFIGURER, APPLICABLE_METHODS)
+                new ConvertToSecurityDslVisitor<>(FQN_OAUTH2_CLIENT_CONFIGURER, APPLICABLE_METHODS, emptyMap(), emptyMap(), true)
         );
     }
 }
@@ -27,6 +27,8 @@ import org.openrewrite.java.spring.boot2.ConvertToSecurityDslVisitor;
 import java.util.Arrays;
 import java.util.Collection;
 
+import static java.util.Collections.emptyMap;
+
 @EqualsAndHashCode(callSuper = false)
 @Value
 public class OAuth2ResourceServerLambdaDsl extends Recipe {
@@ -42,7 +44,7 @@ public class OAuth2ResourceServerLambdaDsl extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new UsesType<>(FQN_OAUTH2_CLIENT_CONFIGURER, true),
-                new ConvertToSecurityDslVisitor<>(FQN_OAUTH2_CLIENT_CONFIGURER, APPLICABLE_METHODS)
+                new ConvertToSecurityDslVisitor<>(FQN_OAUTH2_CLIENT_CONFIGURER, APPLICABLE_METHODS, emptyMap(), emptyMap(), true)
         );
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class BlockingKafkaSends extends DataTable<BlockingKafkaSends.Row> {
+
+    public BlockingKafkaSends(Recipe recipe) {
+        super(recipe, "Blocking Kafka sends",
+                "Kafka sends that still wait for the broker acknowledgement on the calling thread.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the source file containing the send.")
+        String sourcePath;
+
+        @Column(displayName = "Class",
+                description = "The fully qualified name of the class containing the send.")
+        String className;
+
+        @Column(displayName = "Send",
+                description = "The blocking `send(..).get()` expression.")
+        String send;
+
+        @Column(displayName = "Reason",
+                description = "Why the send could not be made asynchronous.")
+        String reason;
+    }
+}
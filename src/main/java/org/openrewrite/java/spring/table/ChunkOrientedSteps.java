@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class ChunkOrientedSteps extends DataTable<ChunkOrientedSteps.Row> {
+
+    public ChunkOrientedSteps(Recipe recipe) {
+        super(recipe, "Chunk-oriented steps",
+                "The chunk size, reader, writer and concurrency settings of Spring Batch chunk-oriented steps.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the source file defining the step.")
+        String sourcePath;
+
+        @Column(displayName = "Step",
+                description = "The name of the step.")
+        String step;
+
+        @Column(displayName = "Chunk size",
+                description = "The commit interval or completion policy passed to `chunk(..)`.")
+        String chunkSize;
+
+        @Column(displayName = "Reader",
+                description = "The type of the item reader.")
+        String reader;
+
+        @Column(displayName = "Writer",
+                description = "The type of the item writer.")
+        String writer;
+
+        @Column(displayName = "Thread-safe reader",
+                description = "Whether the reader can be shared by multiple threads.")
+        boolean threadSafeReader;
+
+        @Column(displayName = "Task executor",
+                description = "The task executor the step processes chunks on, empty when the step is single-threaded.")
+        String taskExecutor;
+
+        @Column(displayName = "Throttle limit",
+                description = "The maximum number of chunks processed concurrently, empty when not configured.")
+        String throttleLimit;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class DataSourcePoolSettings extends DataTable<DataSourcePoolSettings.Row> {
+
+    public DataSourcePoolSettings(Recipe recipe) {
+        super(recipe, "Data source pool settings",
+                "Spring configuration files configuring a data source without explicit HikariCP pool sizing.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the configuration file.")
+        String sourcePath;
+
+        @Column(displayName = "Profile",
+                description = "The profile the configuration file applies to, `default` for the base `application` file.")
+        String profile;
+
+        @Column(displayName = "Missing settings",
+                description = "The `spring.datasource.hikari.*` settings that are not set explicitly, separated by commas.")
+        String missingSettings;
+    }
+}
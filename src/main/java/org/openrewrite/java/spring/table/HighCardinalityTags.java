@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class HighCardinalityTags extends DataTable<HighCardinalityTags.Row> {
+
+    public HighCardinalityTags(Recipe recipe) {
+        super(recipe, "High-cardinality tags",
+                "Metric tags and low-cardinality key values whose value comes from an unbounded source.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the source file declaring the tag.")
+        String sourcePath;
+
+        @Column(displayName = "Method",
+                description = "The name of the method declaring the tag.")
+        String method;
+
+        @Column(displayName = "Tag key",
+                description = "The key of the tag.")
+        String tagKey;
+
+        @Column(displayName = "Value source",
+                description = "The unbounded source of the tag value, like a request URI, path variable, header, " +
+                        "user ID or exception message.")
+        String valueSource;
+
+        @Column(displayName = "Value",
+                description = "The expression computing the tag value.")
+        String value;
+    }
+}
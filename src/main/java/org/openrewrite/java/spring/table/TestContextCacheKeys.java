@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class TestContextCacheKeys extends DataTable<TestContextCacheKeys.Row> {
+
+    public TestContextCacheKeys(Recipe recipe) {
+        super(recipe, "Test context cache keys",
+                "Spring test classes and the application context cache key they resolve to.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the source file containing the test class.")
+        String sourcePath;
+
+        @Column(displayName = "Project",
+                description = "The project, or module, the test class belongs to.")
+        String project;
+
+        @Column(displayName = "Test class",
+                description = "The fully qualified name of the test class.")
+        String testClass;
+
+        @Column(displayName = "Context key",
+                description = "The annotations and mock definitions that make up the context cache key, " +
+                        "including those inherited from superclasses in the same project.")
+        String contextKey;
+
+        @Column(displayName = "Classes sharing context",
+                description = "The number of test classes in the project that resolve to the same context.")
+        int classesSharingContext;
+
+        @Column(displayName = "Contexts in project",
+                description = "The number of distinct application contexts the tests of the project start.")
+        int contextsInProject;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class TracingSampling extends DataTable<TracingSampling.Row> {
+
+    public TracingSampling(Recipe recipe) {
+        super(recipe, "Tracing sampling",
+                "Spring configuration files that sample every trace in a profile other than a development profile.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the configuration file.")
+        String sourcePath;
+
+        @Column(displayName = "Profile",
+                description = "The profile the configuration file applies to, `default` for the base `application` file.")
+        String profile;
+
+        @Column(displayName = "Property",
+                description = "The property that configures sampling every trace.")
+        String property;
+
+        @Column(displayName = "Value",
+                description = "The value of the property.")
+        String value;
+    }
+}
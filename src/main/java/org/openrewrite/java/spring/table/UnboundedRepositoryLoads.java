@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class UnboundedRepositoryLoads extends DataTable<UnboundedRepositoryLoads.Row> {
+
+    public UnboundedRepositoryLoads(Recipe recipe) {
+        super(recipe, "Unbounded repository loads",
+                "Spring Data repository calls that load every matching entity into memory at once.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Entity",
+                description = "The fully qualified name of the loaded entity.")
+        String entity;
+
+        @Column(displayName = "Source path",
+                description = "The path to the source file making the call.")
+        String sourcePath;
+
+        @Column(displayName = "Repository",
+                description = "The fully qualified name of the repository.")
+        String repository;
+
+        @Column(displayName = "Method",
+                description = "The repository method called.")
+        String method;
+
+        @Column(displayName = "Caller",
+                description = "Whether the call is made from a scheduled job, a Spring Batch reader or a controller.")
+        String caller;
+    }
+}
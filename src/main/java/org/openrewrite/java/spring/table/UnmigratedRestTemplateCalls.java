@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class UnmigratedRestTemplateCalls extends DataTable<UnmigratedRestTemplateCalls.Row> {
+
+    public UnmigratedRestTemplateCalls(Recipe recipe) {
+        super(recipe, "Unmigrated `RestTemplate` calls",
+                "`RestTemplate` call sites that could not be migrated to `RestClient`.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The path to the source file containing the call.")
+        String sourcePath;
+
+        @Column(displayName = "Call",
+                description = "The `RestTemplate` call or construction.")
+        String call;
+
+        @Column(displayName = "Reason",
+                description = "Why the call was not migrated.")
+        String reason;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.test;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.spring.table.TestContextCacheKeys;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class FindTestContextCacheKeys extends ScanningRecipe<FindTestContextCacheKeys.Accumulator> {
+
+    transient TestContextCacheKeys cacheKeys = new TestContextCacheKeys(this);
+
+    String displayName = "Find Spring test context cache keys";
+
+    String description = "Compute the application context cache key of each Spring test class from its context " +
+            "configuration annotations, `@ActiveProfiles`, `@TestPropertySource`, `@Import`, `@DirtiesContext` and " +
+            "`@MockBean`, `@SpyBean`, `@MockitoBean` or `@MockitoSpyBean` fields, including those inherited from " +
+            "superclasses in the same project. Every distinct key makes the Spring TestContext framework start another " +
+            "application context, so the number of distinct keys per project is reported as well. Test classes that " +
+            "do not share their context with any other test class are marked. They only share one once their mocks, " +
+            "profiles and properties match those of another test class, which changes what the test sees, so it is " +
+            "left to the developer.";
+
+    static class Accumulator {
+        final Map<String, TestClass> classes = new LinkedHashMap<>();
+        final Map<String, Integer> sharing = new HashMap<>();
+        final Map<String, Integer> contextsPerProject = new HashMap<>();
+    }
+
+    @Value
+    static class TestClass {
+        String sourcePath;
+        String project;
+        String fullyQualifiedName;
+
+        @Nullable
+        String superclass;
+
+        SortedSet<String> keyParts;
+        boolean springTest;
+        boolean dirtiesContext;
+        boolean concrete;
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                // Nested test classes share the context of their enclosing class
+                if (classDecl.getType() == null || getCursor().getParentTreeCursor().getValue() instanceof J.Block) {
+                    return classDecl;
+                }
+                SortedSet<String> keyParts = new TreeSet<>();
+                boolean dirtiesContext = false;
+                for (J.Annotation annotation : TestContextAnnotations.contextAnnotations(classDecl)) {
+                    keyParts.add(TestContextAnnotations.normalize(annotation, getCursor()));
+                    dirtiesContext |= TestContextAnnotations.isDirtiesContext(annotation);
+                }
+                for (J.VariableDeclarations field : TestContextAnnotations.mockFields(classDecl)) {
+                    keyParts.add(TestContextAnnotations.mockKey(field, getCursor()));
+                }
+                JavaType.FullyQualified superclass = TypeUtils.asFullyQualified(classDecl.getType().getSupertype());
+                SourceFile sourceFile = getCursor().firstEnclosingOrThrow(SourceFile.class);
+                acc.classes.put(classDecl.getType().getFullyQualifiedName(), new TestClass(
+                        sourceFile.getSourcePath().toString(),
+                        sourceFile.getMarkers().findFirst(JavaProject.class).map(JavaProject::getProjectName).orElse(""),
+                        classDecl.getType().getFullyQualifiedName(),
+                        superclass == null ? null : superclass.getFullyQualifiedName(),
+                        keyParts,
+                        TestContextAnnotations.isSpringTest(classDecl),
+                        dirtiesContext,
+                        classDecl.getKind() == J.ClassDeclaration.Kind.Type.Class && !classDecl.hasModifier(J.Modifier.Type.Abstract)
+                ));
+                return classDecl;
+            }
+        };
+    }
+
+    @Override
+    public Collection<? extends SourceFile> generate(Accumulator acc, ExecutionContext ctx) {
+        Map<String, Map<String, List<TestClass>>> contextsByProject = new TreeMap<>();
+        Map<String, String> keys = new HashMap<>();
+        for (TestClass testClass : acc.classes.values()) {
+            if (!testClass.isConcrete() || !isSpringTest(testClass, acc)) {
+                continue;
+            }
+            SortedSet<String> keyParts = new TreeSet<>();
+            boolean dirtiesContext = false;
+            Set<String> visited = new HashSet<>();
+            for (TestClass c = testClass; c != null && visited.add(c.getFullyQualifiedName());
+                 c = c.getSuperclass() == null ? null : acc.classes.get(c.getSuperclass())) {
+                keyParts.addAll(c.getKeyParts());
+                dirtiesContext |= c.isDirtiesContext();
+            }
+            String key = String.join(" ", keyParts);
+            if (dirtiesContext) {
+                // A dirtied context is closed after use, so it is never reused by another test class
+                key += " #" + testClass.getFullyQualifiedName();
+            }
+            keys.put(testClass.getFullyQualifiedName(), key);
+            contextsByProject.computeIfAbsent(testClass.getProject(), p -> new LinkedHashMap<>())
+                    .computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(testClass);
+        }
+
+        for (Map.Entry<String, Map<String, List<TestClass>>> project : contextsByProject.entrySet()) {
+            int contexts = project.getValue().size();
+            acc.contextsPerProject.put(project.getKey(), contexts);
+            for (List<TestClass> sharingContext : project.getValue().values()) {
+                for (TestClass testClass : sharingContext) {
+                    acc.sharing.put(testClass.getFullyQualifiedName(), sharingContext.size());
+                    cacheKeys.insertRow(ctx, new TestContextCacheKeys.Row(
+                            testClass.getSourcePath(),
+                            testClass.getProject(),
+                            testClass.getFullyQualifiedName(),
+                            keys.get(testClass.getFullyQualifiedName()),
+                            sharingContext.size(),
+                            contexts
+                    ));
+                }
+            }
+        }
+        return emptyList();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+                if (c.getType() == null) {
+                    return c;
+                }
+                TestClass testClass = acc.classes.get(c.getType().getFullyQualifiedName());
+                Integer sharing = acc.sharing.get(c.getType().getFullyQualifiedName());
+                if (testClass != null && sharing != null && sharing == 1 &&
+                    acc.contextsPerProject.getOrDefault(testClass.getProject(), 0) > 1) {
+                    return SearchResult.found(c, "Unique test context");
+                }
+                return c;
+            }
+        };
+    }
+
+    private static boolean isSpringTest(TestClass testClass, Accumulator acc) {
+        Set<String> visited = new HashSet<>();
+        for (TestClass c = testClass; c != null && visited.add(c.getFullyQualifiedName());
+             c = c.getSuperclass() == null ? null : acc.classes.get(c.getSuperclass())) {
+            if (c.isSpringTest()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
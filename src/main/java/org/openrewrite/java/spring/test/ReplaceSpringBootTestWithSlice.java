@@ -0,0 +1,587 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.test;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.marker.JavaProject;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.*;
+
+import java.util.*;
+
+import static java.util.Comparator.comparing;
+
+public class ReplaceSpringBootTestWithSlice extends ScanningRecipe<ReplaceSpringBootTestWithSlice.Accumulator> {
+    private static final String SPRING_BOOT_TEST = "org.springframework.boot.test.context.SpringBootTest";
+    private static final String AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
+    private static final String VALUE = "org.springframework.beans.factory.annotation.Value";
+    private static final String OBJECT_MAPPER = "com.fasterxml.jackson.databind.ObjectMapper";
+
+    private static final String WEB_MVC_TEST = "org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest";
+    private static final String AUTO_CONFIGURE_MOCK_MVC = "org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc";
+    private static final String JSON_TEST = "org.springframework.boot.test.autoconfigure.json.JsonTest";
+    private static final String AUTO_CONFIGURE_JSON_TESTERS = "org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters";
+    private static final String DATA_JPA_TEST = "org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest";
+    private static final String AUTO_CONFIGURE_TEST_DATABASE = "org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase";
+
+    private static final Set<String> CONTROLLER_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "org.springframework.stereotype.Controller",
+            "org.springframework.web.bind.annotation.RestController"
+    ));
+    private static final Set<String> MVC_INFRASTRUCTURE_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "org.springframework.web.bind.annotation.ControllerAdvice",
+            "org.springframework.web.bind.annotation.RestControllerAdvice",
+            "org.springframework.boot.jackson.JsonComponent"
+    ));
+    // Beans besides controllers, controller advice and JSON components which `@WebMvcTest` includes
+    private static final String[] MVC_INFRASTRUCTURE = {
+            "javax.servlet.Filter",
+            "jakarta.servlet.Filter",
+            "org.springframework.core.convert.converter.Converter",
+            "org.springframework.core.convert.converter.GenericConverter",
+            "org.springframework.web.method.support.HandlerMethodArgumentResolver",
+            "org.springframework.web.servlet.HandlerInterceptor",
+            "org.springframework.web.servlet.config.annotation.WebMvcConfigurer",
+            "org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations",
+            "com.fasterxml.jackson.databind.Module"
+    };
+    private static final String BEAN = "org.springframework.context.annotation.Bean";
+    private static final String SECURITY_FILTER_CHAIN = "org.springframework.security.web.SecurityFilterChain";
+    private static final String ENABLE_WEB_SECURITY = "org.springframework.security.config.annotation.web.configuration.EnableWebSecurity";
+    private static final Set<String> LOMBOK_CONSTRUCTORS = new HashSet<>(Arrays.asList(
+            "lombok.RequiredArgsConstructor",
+            "lombok.AllArgsConstructor"
+    ));
+    private static final Set<String> MOCK_MVC = new HashSet<>(Arrays.asList(
+            "org.springframework.test.web.servlet.MockMvc",
+            "org.springframework.test.web.servlet.assertj.MockMvcTester"
+    ));
+    private static final Set<String> JSON_TESTERS = new HashSet<>(Arrays.asList(
+            "org.springframework.boot.test.json.BasicJsonTester",
+            "org.springframework.boot.test.json.GsonTester",
+            "org.springframework.boot.test.json.JacksonTester",
+            "org.springframework.boot.test.json.JsonbTester"
+    ));
+    private static final Set<String> JPA = new HashSet<>(Arrays.asList(
+            "org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager",
+            "javax.persistence.EntityManager",
+            "jakarta.persistence.EntityManager"
+    ));
+    private static final String JPA_REPOSITORY = "org.springframework.data.jpa.repository.JpaRepository";
+    private static final Set<String> TRANSACTIONAL = new HashSet<>(Arrays.asList(
+            "org.springframework.transaction.annotation.Transactional",
+            "javax.transaction.Transactional",
+            "jakarta.transaction.Transactional"
+    ));
+    // Beans that `@WebMvcTest` auto-configures, so controllers may depend on them without a mock
+    private static final Set<String> WEB_MVC_BEANS = new HashSet<>(Arrays.asList(
+            OBJECT_MAPPER,
+            "org.springframework.context.ApplicationContext",
+            "org.springframework.context.MessageSource",
+            "org.springframework.core.convert.ConversionService",
+            "org.springframework.core.env.Environment",
+            "org.springframework.validation.Validator"
+    ));
+    // Spring annotations on a test class or its members which every slice supports in the same way
+    private static final String[] SLICE_INDEPENDENT = {
+            "org.springframework.test.annotation.",
+            "org.springframework.test.context.ActiveProfiles",
+            "org.springframework.test.context.DynamicPropertySource",
+            "org.springframework.test.context.TestPropertySource",
+            "org.springframework.test.context.jdbc.",
+            "org.springframework.test.context.junit.jupiter.",
+            "org.springframework.transaction.annotation.Transactional"
+    };
+
+    @Getter
+    final String displayName = "Replace `@SpringBootTest` with a test slice";
+
+    @Getter
+    final String description = "Replace `@SpringBootTest` with `@WebMvcTest`, `@DataJpaTest` or `@JsonTest` when the test " +
+            "class provably only uses beans of that slice. A `@WebMvcTest` is limited to the single controller under test, " +
+            "or to all controllers when the test doesn't inject one, and is only used when `@MockBean` or `@MockitoBean` fields " +
+            "cover all of the dependencies of these controllers and of the controller advice, filters, interceptors and " +
+            "JSON components, converters, argument resolvers, Jackson modules and `WebMvcConfigurer`s of the same " +
+            "project that the slice also loads. Applications with a security configuration keep `@SpringBootTest`, " +
+            "because the slice doesn't load it. " +
+            "A `@DataJpaTest` keeps the configured `DataSource` with `@AutoConfigureTestDatabase(replace = Replace.NONE)`, " +
+            "and is only used for test classes which are already `@Transactional`, because the slice rolls back each test. " +
+            "Test classes with custom configuration, other injected beans or `@Value` injection are left unchanged. " +
+            "Slices start a much smaller application context than `@SpringBootTest`.";
+
+    @Override
+    public Set<String> getTags() {
+        return new HashSet<>(Arrays.asList("spring", "test"));
+    }
+
+    static class Accumulator {
+        final Map<String, Project> projects = new HashMap<>();
+
+        Project project(SourceFile sourceFile) {
+            return projects.computeIfAbsent(sourceFile.getMarkers().findFirst(JavaProject.class)
+                    .map(JavaProject::getProjectName).orElse(""), k -> new Project());
+        }
+    }
+
+    private static class Project {
+        final Map<String, Component> controllers = new HashMap<>();
+        final List<Component> mvcInfrastructure = new ArrayList<>();
+        boolean securityConfiguration;
+    }
+
+    private static class Component {
+        final String fullyQualifiedName;
+        final Set<String> dependencies = new HashSet<>();
+        boolean resolved = true;
+
+        Component(String fullyQualifiedName) {
+            this.fullyQualifiedName = fullyQualifiedName;
+        }
+
+        void addDependency(@Nullable JavaType type) {
+            JavaType.FullyQualified fq = TypeUtils.asFullyQualified(type);
+            if (fq == null) {
+                resolved = false;
+            } else {
+                dependencies.add(fq.getFullyQualifiedName());
+            }
+        }
+    }
+
+    private enum Slice {
+        WEB_MVC, JSON, DATA_JPA
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+                if (c.getType() == null) {
+                    return c;
+                }
+                Project project = acc.project(getCursor().firstEnclosingOrThrow(JavaSourceFile.class));
+                if (isSecurityConfiguration(c)) {
+                    project.securityConfiguration = true;
+                }
+                boolean controller = hasAnyAnnotation(c.getLeadingAnnotations(), CONTROLLER_ANNOTATIONS);
+                if (!controller && !isMvcInfrastructure(c)) {
+                    return c;
+                }
+                Component component = new Component(c.getType().getFullyQualifiedName());
+                boolean lombokConstructor = hasAnyAnnotation(c.getLeadingAnnotations(), LOMBOK_CONSTRUCTORS);
+                List<J.MethodDeclaration> constructors = new ArrayList<>();
+                for (Statement statement : c.getBody().getStatements()) {
+                    if (statement instanceof J.VariableDeclarations) {
+                        J.VariableDeclarations field = (J.VariableDeclarations) statement;
+                        if (hasAnnotation(field.getLeadingAnnotations(), AUTOWIRED) ||
+                            lombokConstructor && !field.hasModifier(J.Modifier.Type.Static) &&
+                            field.getVariables().stream().allMatch(v -> v.getInitializer() == null)) {
+                            component.addDependency(field.getType());
+                        }
+                    } else if (statement instanceof J.MethodDeclaration) {
+                        J.MethodDeclaration method = (J.MethodDeclaration) statement;
+                        if (method.isConstructor()) {
+                            constructors.add(method);
+                        } else if (hasAnnotation(method.getLeadingAnnotations(), AUTOWIRED)) {
+                            addParameters(component, method);
+                        }
+                    }
+                }
+                for (J.MethodDeclaration constructor : constructors) {
+                    if (constructors.size() == 1 || hasAnnotation(constructor.getLeadingAnnotations(), AUTOWIRED)) {
+                        addParameters(component, constructor);
+                    }
+                }
+                if (controller) {
+                    project.controllers.put(component.fullyQualifiedName, component);
+                } else {
+                    project.mvcInfrastructure.add(component);
+                }
+                return c;
+            }
+
+            private boolean isSecurityConfiguration(J.ClassDeclaration c) {
+                if (hasAnnotation(c.getLeadingAnnotations(), ENABLE_WEB_SECURITY)) {
+                    return true;
+                }
+                for (Statement statement : c.getBody().getStatements()) {
+                    if (statement instanceof J.MethodDeclaration &&
+                        hasAnnotation(((J.MethodDeclaration) statement).getLeadingAnnotations(), BEAN) &&
+                        ((J.MethodDeclaration) statement).getMethodType() != null &&
+                        TypeUtils.isOfClassType(((J.MethodDeclaration) statement).getMethodType().getReturnType(), SECURITY_FILTER_CHAIN)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private boolean isMvcInfrastructure(J.ClassDeclaration c) {
+                if (hasAnyAnnotation(c.getLeadingAnnotations(), MVC_INFRASTRUCTURE_ANNOTATIONS)) {
+                    return true;
+                }
+                for (String type : MVC_INFRASTRUCTURE) {
+                    if (TypeUtils.isAssignableTo(type, c.getType())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private void addParameters(Component component, J.MethodDeclaration method) {
+                for (Statement parameter : method.getParameters()) {
+                    if (parameter instanceof J.VariableDeclarations &&
+                        !hasAnnotation(((J.VariableDeclarations) parameter).getLeadingAnnotations(), VALUE)) {
+                        component.addDependency(((J.VariableDeclarations) parameter).getType());
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        return Preconditions.check(new UsesType<>(SPRING_BOOT_TEST, false), new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                if (classDecl.getType() == null || classDecl.getExtends() != null ||
+                    !(getCursor().getParentTreeCursor().getValue() instanceof JavaSourceFile)) {
+                    return classDecl;
+                }
+
+                J.Annotation springBootTest = null;
+                List<J.Annotation> redundant = new ArrayList<>();
+                boolean transactional = false;
+                for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+                    JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+                    if (type == null) {
+                        return classDecl;
+                    }
+                    String fqn = type.getFullyQualifiedName();
+                    if (SPRING_BOOT_TEST.equals(fqn)) {
+                        springBootTest = annotation;
+                    } else if ((AUTO_CONFIGURE_MOCK_MVC.equals(fqn) || AUTO_CONFIGURE_JSON_TESTERS.equals(fqn)) &&
+                               hasNoArguments(annotation)) {
+                        redundant.add(annotation);
+                    } else if (!isSliceIndependent(fqn)) {
+                        return classDecl;
+                    }
+                    transactional |= TRANSACTIONAL.contains(fqn);
+                }
+                if (springBootTest == null) {
+                    return classDecl;
+                }
+                List<String> properties = new ArrayList<>();
+                if (!supportedArguments(springBootTest, properties)) {
+                    return classDecl;
+                }
+
+                List<JavaType.FullyQualified> autowired = new ArrayList<>();
+                Set<String> mocked = new HashSet<>();
+                if (!collectMembers(classDecl, autowired, mocked)) {
+                    return classDecl;
+                }
+
+                Slice slice = slice(autowired, mocked, transactional);
+                Component controller = null;
+                if (slice == Slice.WEB_MVC) {
+                    Project project = acc.project(getCursor().firstEnclosingOrThrow(JavaSourceFile.class));
+                    if (project.securityConfiguration) {
+                        return classDecl;
+                    }
+                    for (JavaType.FullyQualified type : autowired) {
+                        if (MOCK_MVC.contains(type.getFullyQualifiedName()) || OBJECT_MAPPER.equals(type.getFullyQualifiedName())) {
+                            continue;
+                        }
+                        Component injected = project.controllers.get(type.getFullyQualifiedName());
+                        if (injected == null || controller != null && controller != injected) {
+                            return classDecl;
+                        }
+                        controller = injected;
+                    }
+                    // Without an injected controller to limit the slice to, `@WebMvcTest` loads all of them
+                    List<Component> loaded = new ArrayList<>(project.mvcInfrastructure);
+                    loaded.addAll(controller == null ? project.controllers.values() : Collections.singletonList(controller));
+                    if (!allMocked(loaded, mocked)) {
+                        return classDecl;
+                    }
+                } else if (slice == null) {
+                    return classDecl;
+                }
+                for (J.Annotation annotation : redundant) {
+                    if (slice == Slice.WEB_MVC && !TypeUtils.isOfClassType(annotation.getType(), AUTO_CONFIGURE_MOCK_MVC) ||
+                        slice == Slice.JSON && !TypeUtils.isOfClassType(annotation.getType(), AUTO_CONFIGURE_JSON_TESTERS)) {
+                        return classDecl;
+                    }
+                }
+
+                J.Annotation original = springBootTest;
+                J.Annotation replacement = sliceAnnotation(slice, controller, properties, springBootTest);
+                J.ClassDeclaration c = classDecl.withLeadingAnnotations(ListUtils.map(classDecl.getLeadingAnnotations(),
+                        a -> a == original ? replacement : a));
+                c = TestContextAnnotations.removeAnnotations(c, redundant);
+                if (slice == Slice.DATA_JPA) {
+                    maybeAddImport(AUTO_CONFIGURE_TEST_DATABASE);
+                    c = JavaTemplate.builder("@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)")
+                            .imports(AUTO_CONFIGURE_TEST_DATABASE)
+                            .javaParser(JavaParser.fromJavaVersion().dependsOn(
+                                    "package org.springframework.boot.test.autoconfigure.jdbc;" +
+                                    "public @interface AutoConfigureTestDatabase {" +
+                                    "Replace replace() default Replace.ANY;" +
+                                    "enum Replace { ANY, AUTO_CONFIGURED, NONE }" +
+                                    "}"))
+                            .build()
+                            .apply(updateCursor(c), c.getCoordinates().addAnnotation(comparing(J.Annotation::getSimpleName)));
+                }
+
+                maybeAddImport(sliceType(slice));
+                maybeRemoveImport(SPRING_BOOT_TEST);
+                maybeRemoveImport(SPRING_BOOT_TEST + ".WebEnvironment");
+                maybeRemoveImport(AUTO_CONFIGURE_MOCK_MVC);
+                maybeRemoveImport(AUTO_CONFIGURE_JSON_TESTERS);
+                return c;
+            }
+
+            private J.Annotation sliceAnnotation(Slice slice, @Nullable Component controller, List<String> properties,
+                                                 J.Annotation springBootTest) {
+                String type = sliceType(slice);
+                int dot = type.lastIndexOf('.');
+                String simpleName = type.substring(dot + 1);
+                List<String> stubs = new ArrayList<>();
+                stubs.add("package " + type.substring(0, dot) + ";" +
+                          "public @interface " + simpleName + " {" +
+                          "String[] properties() default {}; Class<?>[] value() default {}; Class<?>[] controllers() default {};" +
+                          "}");
+                List<String> imports = new ArrayList<>();
+                imports.add(type);
+                List<String> arguments = new ArrayList<>();
+                if (controller != null) {
+                    int controllerDot = controller.fullyQualifiedName.lastIndexOf('.');
+                    String controllerName = controller.fullyQualifiedName.substring(controllerDot + 1);
+                    stubs.add((controllerDot < 0 ? "" : "package " + controller.fullyQualifiedName.substring(0, controllerDot) + ";") +
+                              "public class " + controllerName + " {}");
+                    imports.add(controller.fullyQualifiedName);
+                    arguments.add((properties.isEmpty() ? "" : "controllers = ") + controllerName + ".class");
+                }
+                if (!properties.isEmpty()) {
+                    arguments.add("properties = " + (properties.size() == 1 ? properties.get(0) : "{" + String.join(", ", properties) + "}"));
+                }
+                return JavaTemplate.builder("@" + simpleName + (arguments.isEmpty() ? "" : "(" + String.join(", ", arguments) + ")"))
+                        .imports(imports.toArray(new String[0]))
+                        .javaParser(JavaParser.fromJavaVersion().dependsOn(stubs.toArray(new String[0])))
+                        .build()
+                        .apply(new Cursor(getCursor(), springBootTest), springBootTest.getCoordinates().replace());
+            }
+        });
+    }
+
+    /**
+     * Only `webEnvironment = MOCK`, which is the default, and `properties` with literal values are supported,
+     * because every slice offers the same `properties` attribute.
+     */
+    private static boolean supportedArguments(J.Annotation springBootTest, List<String> properties) {
+        if (springBootTest.getArguments() == null) {
+            return true;
+        }
+        for (Expression argument : springBootTest.getArguments()) {
+            if (argument instanceof J.Empty) {
+                continue;
+            }
+            Expression value = argument;
+            String name = "value";
+            if (argument instanceof J.Assignment) {
+                if (!(((J.Assignment) argument).getVariable() instanceof J.Identifier)) {
+                    return false;
+                }
+                name = ((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName();
+                value = ((J.Assignment) argument).getAssignment();
+            }
+            if ("webEnvironment".equals(name)) {
+                if (!(value instanceof J.FieldAccess && "MOCK".equals(((J.FieldAccess) value).getSimpleName()) ||
+                      value instanceof J.Identifier && "MOCK".equals(((J.Identifier) value).getSimpleName()))) {
+                    return false;
+                }
+            } else if ("properties".equals(name) || "value".equals(name)) {
+                if (value instanceof J.Literal) {
+                    properties.add(((J.Literal) value).getValueSource());
+                } else if (value instanceof J.NewArray && ((J.NewArray) value).getInitializer() != null) {
+                    for (Expression element : ((J.NewArray) value).getInitializer()) {
+                        if (element instanceof J.Literal) {
+                            properties.add(((J.Literal) element).getValueSource());
+                        } else if (!(element instanceof J.Empty)) {
+                            return false;
+                        }
+                    }
+                } else {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collect the types of injected fields and mocks, and reject test classes which depend on the application
+     * context in any other way, like nested configuration, `@Value` injection or injected constructors.
+     */
+    private static boolean collectMembers(J.ClassDeclaration classDecl, List<JavaType.FullyQualified> autowired, Set<String> mocked) {
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.VariableDeclarations) {
+                J.VariableDeclarations field = (J.VariableDeclarations) statement;
+                JavaType.FullyQualified type = TypeUtils.asFullyQualified(field.getType());
+                if (TestContextAnnotations.isMockField(field)) {
+                    for (J.Annotation annotation : field.getLeadingAnnotations()) {
+                        // Spies wrap a bean which the slice may not contain
+                        if (annotation.getSimpleName().endsWith("SpyBean")) {
+                            return false;
+                        }
+                    }
+                    if (type == null) {
+                        return false;
+                    }
+                    mocked.add(type.getFullyQualifiedName());
+                } else if (hasAnnotation(field.getLeadingAnnotations(), AUTOWIRED)) {
+                    if (type == null) {
+                        return false;
+                    }
+                    autowired.add(type);
+                } else if (!allSliceIndependent(field.getLeadingAnnotations())) {
+                    return false;
+                }
+            } else if (statement instanceof J.MethodDeclaration) {
+                J.MethodDeclaration method = (J.MethodDeclaration) statement;
+                if (method.isConstructor() && !method.getParameters().stream().allMatch(J.Empty.class::isInstance) ||
+                    !allSliceIndependent(method.getLeadingAnnotations())) {
+                    return false;
+                }
+            } else if (statement instanceof J.ClassDeclaration &&
+                       !allSliceIndependent(((J.ClassDeclaration) statement).getLeadingAnnotations())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean allMocked(Collection<Component> components, Set<String> mocked) {
+        for (Component component : components) {
+            if (!component.resolved) {
+                return false;
+            }
+            for (String dependency : component.dependencies) {
+                if (!mocked.contains(dependency) && !WEB_MVC_BEANS.contains(dependency)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static @Nullable Slice slice(List<JavaType.FullyQualified> autowired, Set<String> mocked, boolean transactional) {
+        EnumSet<Slice> candidates = EnumSet.allOf(Slice.class);
+        EnumSet<Slice> anchored = EnumSet.noneOf(Slice.class);
+        for (JavaType.FullyQualified fq : autowired) {
+            String type = fq.getFullyQualifiedName();
+            if (MOCK_MVC.contains(type)) {
+                candidates.retainAll(EnumSet.of(Slice.WEB_MVC));
+                anchored.add(Slice.WEB_MVC);
+            } else if (JSON_TESTERS.contains(type)) {
+                candidates.retainAll(EnumSet.of(Slice.JSON));
+                anchored.add(Slice.JSON);
+            } else if (JPA.contains(type) || TypeUtils.isAssignableTo(JPA_REPOSITORY, fq)) {
+                candidates.retainAll(EnumSet.of(Slice.DATA_JPA));
+                anchored.add(Slice.DATA_JPA);
+            } else if (OBJECT_MAPPER.equals(type)) {
+                candidates.retainAll(EnumSet.of(Slice.WEB_MVC, Slice.JSON));
+            } else {
+                // Either a controller under test, which is verified later, or a bean which no slice provides
+                candidates.retainAll(EnumSet.of(Slice.WEB_MVC));
+            }
+        }
+        if (!mocked.isEmpty()) {
+            candidates.retainAll(EnumSet.of(Slice.WEB_MVC));
+        }
+        if (!transactional) {
+            candidates.remove(Slice.DATA_JPA);
+        }
+        candidates.retainAll(anchored);
+        return candidates.size() == 1 ? candidates.iterator().next() : null;
+    }
+
+    private static String sliceType(Slice slice) {
+        switch (slice) {
+            case WEB_MVC:
+                return WEB_MVC_TEST;
+            case JSON:
+                return JSON_TEST;
+            default:
+                return DATA_JPA_TEST;
+        }
+    }
+
+    private static boolean isSliceIndependent(String fqn) {
+        if (!fqn.startsWith("org.springframework.")) {
+            return true;
+        }
+        for (String prefix : SLICE_INDEPENDENT) {
+            if (fqn.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean allSliceIndependent(List<J.Annotation> annotations) {
+        for (J.Annotation annotation : annotations) {
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+            if (type == null || !isSliceIndependent(type.getFullyQualifiedName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasNoArguments(J.Annotation annotation) {
+        return annotation.getArguments() == null || annotation.getArguments().stream().allMatch(J.Empty.class::isInstance);
+    }
+
+    private static boolean hasAnnotation(List<J.Annotation> annotations, String fqn) {
+        return hasAnyAnnotation(annotations, Collections.singleton(fqn));
+    }
+
+    private static boolean hasAnyAnnotation(List<J.Annotation> annotations, Set<String> fqns) {
+        for (J.Annotation annotation : annotations) {
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+            if (type != null && fqns.contains(type.getFullyQualifiedName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.test;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of a test class that the Spring TestContext framework uses to decide whether an application context
+ * can be reused from its context cache.
+ */
+final class TestContextAnnotations {
+    static final String DIRTIES_CONTEXT = "org.springframework.test.annotation.DirtiesContext";
+    private static final String IMPORT = "org.springframework.context.annotation.Import";
+    private static final String[] CONTEXT_PACKAGES = {
+            "org.springframework.test.context.",
+            "org.springframework.boot.test."
+    };
+    // Test execution concerns which do not change the application context
+    private static final String[] NON_CONTEXT_PREFIXES = {
+            "org.springframework.test.context.jdbc.",
+            "org.springframework.test.context.transaction.",
+            "org.springframework.test.context.TestExecutionListeners"
+    };
+    private static final String[] MOCK_ANNOTATIONS = {
+            "org.springframework.boot.test.mock.mockito.MockBean",
+            "org.springframework.boot.test.mock.mockito.SpyBean",
+            "org.springframework.test.context.bean.override.mockito.MockitoBean",
+            "org.springframework.test.context.bean.override.mockito.MockitoSpyBean"
+    };
+
+    private TestContextAnnotations() {
+    }
+
+    /**
+     * @return The class level annotations which contribute to the context cache key, like {@code @SpringBootTest},
+     * {@code @ActiveProfiles}, {@code @TestPropertySource}, {@code @Import} or {@code @DirtiesContext}.
+     */
+    static List<J.Annotation> contextAnnotations(J.ClassDeclaration classDecl) {
+        List<J.Annotation> annotations = new ArrayList<>();
+        for (J.Annotation annotation : classDecl.getLeadingAnnotations()) {
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+            if (type != null && (isContextType(type) || isComposedContextAnnotation(type) ||
+                                 IMPORT.equals(type.getFullyQualifiedName()) ||
+                                 DIRTIES_CONTEXT.equals(type.getFullyQualifiedName()))) {
+                annotations.add(annotation);
+            }
+        }
+        return annotations;
+    }
+
+    /**
+     * @return Fields annotated with {@code @MockBean}, {@code @SpyBean}, {@code @MockitoBean} or {@code @MockitoSpyBean}.
+     */
+    static List<J.VariableDeclarations> mockFields(J.ClassDeclaration classDecl) {
+        List<J.VariableDeclarations> fields = new ArrayList<>();
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.VariableDeclarations && isMockField((J.VariableDeclarations) statement)) {
+                fields.add((J.VariableDeclarations) statement);
+            }
+        }
+        return fields;
+    }
+
+    static boolean isSpringTest(J.ClassDeclaration classDecl) {
+        for (J.Annotation annotation : contextAnnotations(classDecl)) {
+            if (!TypeUtils.isOfClassType(annotation.getType(), DIRTIES_CONTEXT) &&
+                !TypeUtils.isOfClassType(annotation.getType(), IMPORT)) {
+                return true;
+            }
+        }
+        return !mockFields(classDecl).isEmpty();
+    }
+
+    static boolean isDirtiesContext(J.Annotation annotation) {
+        return TypeUtils.isOfClassType(annotation.getType(), DIRTIES_CONTEXT);
+    }
+
+    /**
+     * @return The mock definition of a field as Spring compares it, ignoring the field name and modifiers.
+     */
+    static String mockKey(J.VariableDeclarations field, Cursor cursor) {
+        StringBuilder key = new StringBuilder();
+        for (J.Annotation annotation : field.getLeadingAnnotations()) {
+            key.append(normalize(annotation, cursor)).append(' ');
+        }
+        return key.append(field.getTypeExpression() == null ? "" : normalize(field.getTypeExpression(), cursor)).toString();
+    }
+
+    static J.ClassDeclaration removeAnnotations(J.ClassDeclaration c, List<J.Annotation> removed) {
+        List<J.Annotation> annotations = c.getLeadingAnnotations();
+        List<J.Annotation> kept = ListUtils.map(annotations, a -> removed.contains(a) ? null : a);
+        if (kept.isEmpty()) {
+            if (!c.getModifiers().isEmpty()) {
+                c = c.withModifiers(ListUtils.mapFirst(c.getModifiers(), m -> m.withPrefix(Space.EMPTY)));
+            } else {
+                c = c.getPadding().withKind(c.getPadding().getKind().withPrefix(Space.EMPTY));
+            }
+        } else if (kept.get(0) != annotations.get(0)) {
+            kept = ListUtils.mapFirst(kept, a -> a.withPrefix(annotations.get(0).getPrefix()));
+        }
+        return c.withLeadingAnnotations(kept);
+    }
+
+    static String normalize(J tree, Cursor cursor) {
+        return tree.printTrimmed(cursor).replaceAll("\\s+", " ");
+    }
+
+    static boolean isMockField(J.VariableDeclarations field) {
+        for (J.Annotation annotation : field.getLeadingAnnotations()) {
+            for (String mockAnnotation : MOCK_ANNOTATIONS) {
+                if (TypeUtils.isOfClassType(annotation.getType(), mockAnnotation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isContextType(JavaType.FullyQualified type) {
+        for (String prefix : NON_CONTEXT_PREFIXES) {
+            if (type.getFullyQualifiedName().startsWith(prefix)) {
+                return false;
+            }
+        }
+        for (String contextPackage : CONTEXT_PACKAGES) {
+            if (type.getFullyQualifiedName().startsWith(contextPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isComposedContextAnnotation(JavaType.FullyQualified type) {
+        for (JavaType.FullyQualified metaAnnotation : type.getAnnotations()) {
+            if (isContextType(metaAnnotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
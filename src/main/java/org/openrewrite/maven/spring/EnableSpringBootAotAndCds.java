@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.maven.spring;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.maven.MavenIsoVisitor;
+import org.openrewrite.maven.MavenTagInsertionComparator;
+import org.openrewrite.xml.AddToTagVisitor;
+import org.openrewrite.xml.XPathMatcher;
+import org.openrewrite.xml.search.FindTags;
+import org.openrewrite.xml.tree.Xml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EnableSpringBootAotAndCds extends Recipe {
+    private static final XPathMatcher PLUGIN_MATCHER = new XPathMatcher("/project/build/plugins/plugin");
+    private static final String[] IMAGE_ENVIRONMENT = {"BP_JVM_CDS_ENABLED", "BP_SPRING_AOT_ENABLED"};
+
+    @Getter
+    final String displayName = "Enable Spring AOT and CDS in `spring-boot-maven-plugin`";
+
+    @Getter
+    final String description = "Add a `process-aot` execution to the `spring-boot-maven-plugin` and enable the " +
+            "`BP_JVM_CDS_ENABLED` and `BP_SPRING_AOT_ENABLED` buildpack settings for `spring-boot:build-image`. The " +
+            "buildpack then performs a Class Data Sharing training run with `spring.context.exit=onRefresh` and launches " +
+            "the application with the shared archive and `spring.aot.enabled=true`, which reduces startup time. AOT processing fixes the bean definitions at build time, " +
+            "evaluating `@Profile` and `@Conditional` with the build's environment, so applications that select profiles " +
+            "or rely on conditions at runtime, like properties that only the deployment sets, no longer start correctly.";
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new MavenIsoVisitor<ExecutionContext>() {
+            @Override
+            public Xml.Tag visitTag(Xml.Tag tag, ExecutionContext ctx) {
+                Xml.Tag t = super.visitTag(tag, ctx);
+                if (!PLUGIN_MATCHER.matches(getCursor()) || !isPluginTag("org.springframework.boot", "spring-boot-maven-plugin")) {
+                    return t;
+                }
+
+                if (FindTags.find(t, "//goal").stream().noneMatch(goal -> goal.getValue().filter("process-aot"::equals).isPresent())) {
+                    addChild(t, t.getChild("executions").orElse(null), "executions",
+                            "<execution>\n" +
+                            "<id>process-aot</id>\n" +
+                            "<goals>\n<goal>process-aot</goal>\n</goals>\n" +
+                            "</execution>");
+                }
+
+                Xml.Tag configuration = t.getChild("configuration").orElse(null);
+                Xml.Tag image = configuration == null ? null : configuration.getChild("image").orElse(null);
+                Xml.Tag env = image == null ? null : image.getChild("env").orElse(null);
+                List<String> missing = new ArrayList<>();
+                for (String variable : IMAGE_ENVIRONMENT) {
+                    if (env == null || !env.getChild(variable).isPresent()) {
+                        missing.add(variable);
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    if (env != null) {
+                        for (String variable : missing) {
+                            doAfterVisit(new AddToTagVisitor<>(env, Xml.Tag.build("<" + variable + ">true</" + variable + ">")));
+                        }
+                    } else {
+                        StringBuilder envTag = new StringBuilder("<env>\n");
+                        for (String variable : missing) {
+                            envTag.append('<').append(variable).append(">true</").append(variable).append(">\n");
+                        }
+                        envTag.append("</env>");
+                        if (image != null) {
+                            doAfterVisit(new AddToTagVisitor<>(image, Xml.Tag.build(envTag.toString())));
+                        } else {
+                            addChild(t, configuration, "configuration", "<image>\n" + envTag + "\n</image>");
+                        }
+                    }
+                }
+                return t;
+            }
+
+            private void addChild(Xml.Tag plugin, Xml.@Nullable Tag parent, String parentName, String child) {
+                if (parent != null) {
+                    doAfterVisit(new AddToTagVisitor<>(parent, Xml.Tag.build(child)));
+                } else {
+                    doAfterVisit(new AddToTagVisitor<>(plugin,
+                            Xml.Tag.build("<" + parentName + ">\n" + child + "\n</" + parentName + ">"),
+                            new MavenTagInsertionComparator(plugin.getChildren())));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.gradle.marker.GradlePluginDescriptor;
+import org.openrewrite.gradle.marker.GradleProject;
+import org.openrewrite.maven.tree.MavenRepository;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static org.openrewrite.gradle.Assertions.buildGradle;
+import static org.openrewrite.gradle.Assertions.buildGradleKts;
+
+class EnableSpringBootAotAndCdsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        GradleProject gp = GradleProject.builder()
+          .group("group")
+          .name("example")
+          .version("version")
+          .path(":")
+          .plugins(List.of(new GradlePluginDescriptor("org.springframework.boot.gradle.plugin.SpringBootPlugin", "org.springframework.boot")))
+          .mavenPluginRepositories(List.of(MavenRepository.builder()
+            .id("Gradle Central Plugin Repository")
+            .uri("https://plugins.gradle.org/m2")
+            .releases(true)
+            .snapshots(true)
+            .build()))
+          .build();
+        spec.allSources(source -> source.markers(gp))
+          .recipe(new EnableSpringBootAotAndCds());
+    }
+
+    @DocumentExample
+    @Test
+    void groovyDsl() {
+        rewriteRun(
+          buildGradle(
+            """
+              plugins {
+                  id "java"
+                  id "org.springframework.boot" version "3.3.5"
+              }
+              """,
+            """
+              plugins {
+                  id "java"
+                  id "org.springframework.boot" version "3.3.5"
+                  id "org.springframework.boot.aot" version "3.3.5"
+              }
+
+              tasks.named("bootBuildImage") {
+                  environment.putAll(["BP_JVM_CDS_ENABLED": "true", "BP_SPRING_AOT_ENABLED": "true"])
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void kotlinDsl() {
+        rewriteRun(
+          buildGradleKts(
+            """
+              plugins {
+                  java
+                  id("org.springframework.boot") version "3.3.5"
+              }
+              """,
+            """
+              plugins {
+                  java
+                  id("org.springframework.boot") version "3.3.5"
+                  id("org.springframework.boot.aot") version "3.3.5"
+              }
+
+              tasks.bootBuildImage {
+                  environment.putAll(mapOf("BP_JVM_CDS_ENABLED" to "true", "BP_SPRING_AOT_ENABLED" to "true"))
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void ignoreProjectsWithoutSpringBootPlugin() {
+        rewriteRun(
+          buildGradle(
+            """
+              plugins {
+                  id "java"
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.spring.table.DataSourcePoolSettings;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.mavenProject;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class AddDataSourcePoolDefaultsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.beforeRecipe(AddDataSourcePoolDefaultsTest::withHikariClasspath);
+    }
+
+    private static void withHikariClasspath(List<SourceFile> sources) {
+        JavaSourceSet main = new JavaSourceSet(Tree.randomId(), "main",
+          singletonList(JavaType.ShallowClass.build("com.zaxxer.hikari.HikariDataSource")), emptyMap());
+        sources.replaceAll(source -> source.withMarkers(source.getMarkers().computeByType(main, (existing, classpath) -> classpath)));
+    }
+
+    @DocumentExample
+    @Test
+    void addDefaultsToProfile() {
+        rewriteRun(
+          spec -> spec.recipe(new AddDataSourcePoolDefaults("prod", 20, 5000L, null))
+            .dataTable(DataSourcePoolSettings.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+              new DataSourcePoolSettings.Row("project/src/main/resources/application.yml", "default",
+                "connection-timeout, leak-detection-threshold"),
+              new DataSourcePoolSettings.Row("project/src/main/resources/application-prod.properties", "prod",
+                "leak-detection-threshold")
+            )),
+          mavenProject("project",
+            srcMainResources(
+              yaml(
+                """
+                  spring:
+                    datasource:
+                      url: jdbc:postgresql://localhost/orders
+                      hikari:
+                        maximum-pool-size: 10
+                  """,
+                s -> s.path("application.yml")
+              ),
+              properties(
+                """
+                  spring.datasource.url=jdbc:postgresql://db/orders
+                  """,
+                """
+                  spring.datasource.hikari.connection-timeout=5000
+                  spring.datasource.url=jdbc:postgresql://db/orders
+                  """,
+                s -> s.path("application-prod.properties")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void reportProfilesOnlyForSettingsTheBaseLacks() {
+        rewriteRun(
+          spec -> spec.recipe(new AddDataSourcePoolDefaults(null, null, null, null))
+            .dataTable(DataSourcePoolSettings.Row.class, rows -> assertThat(rows).containsExactly(
+              new DataSourcePoolSettings.Row("project/src/main/resources/application-prod.yml", "prod",
+                "leak-detection-threshold")
+            )),
+          mavenProject("project",
+            srcMainResources(
+              yaml(
+                """
+                  spring:
+                    datasource:
+                      url: jdbc:postgresql://localhost/orders
+                      hikari:
+                        maximum-pool-size: 10
+                        connection-timeout: 5000
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: staging
+                    datasource:
+                      hikari:
+                        leak-detection-threshold: 30000
+                  """,
+                s -> s.path("application.yml")
+              ),
+              yaml(
+                """
+                  spring:
+                    datasource:
+                      url: jdbc:postgresql://db/orders
+                  """,
+                s -> s.path("application-prod.yml")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void ignoreProjectsWithoutHikari() {
+        rewriteRun(
+          spec -> spec.recipe(new AddDataSourcePoolDefaults(null, 20, 5000L, 60000L))
+            .beforeRecipe(sources -> sources.replaceAll(source ->
+              source.withMarkers(source.getMarkers().removeByType(JavaSourceSet.class)))),
+          mavenProject("project",
+            srcMainResources(
+              properties(
+                """
+                  spring.datasource.url=jdbc:postgresql://localhost/orders
+                  """,
+                s -> s.path("application.properties")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void ignoreFilesWithoutDataSource() {
+        rewriteRun(
+          spec -> spec.recipe(new AddDataSourcePoolDefaults(null, 20, 5000L, 60000L)),
+          mavenProject("project",
+            srcMainResources(
+              properties(
+                """
+                  server.port=8080
+                  """,
+                s -> s.path("application.properties")
+              )
+            )
+          )
+        );
+    }
+}
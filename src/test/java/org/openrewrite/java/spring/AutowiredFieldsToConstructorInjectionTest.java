@@ -0,0 +1,226 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+
+class AutowiredFieldsToConstructorInjectionTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new AutowiredFieldsToConstructorInjection())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(), "spring-beans-5.+", "spring-context-5.+"));
+    }
+
+    @DocumentExample
+    @Test
+    void allFieldsIntoNewConstructor() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              package demo;
+
+              import java.util.List;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.stereotype.Service;
+
+              @Service
+              public class A {
+
+                  @Autowired
+                  private String a;
+
+                  @Autowired
+                  private List<String> b;
+
+                  @Autowired
+                  Runnable c;
+
+                  void run() {
+                      c.run();
+                  }
+              }
+              """,
+            """
+              package demo;
+
+              import java.util.List;
+
+              import org.springframework.stereotype.Service;
+
+              @Service
+              public class A {
+
+                  private final String a;
+
+                  private final List<String> b;
+
+                  final Runnable c;
+
+                  A(String a, List<String> b, Runnable c) {
+                      this.a = a;
+                      this.b = b;
+                      this.c = c;
+                  }
+
+                  void run() {
+                      c.run();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void allFieldsIntoExistingConstructor() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              package demo;
+
+              import java.util.List;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.stereotype.Component;
+
+              @Component
+              public class A {
+
+                  @Autowired
+                  private String a;
+
+                  @Autowired
+                  private List<String> b;
+
+                  private final long l;
+
+                  A(long l) {
+                      this.l = l;
+                  }
+              }
+              """,
+            """
+              package demo;
+
+              import java.util.List;
+
+              import org.springframework.stereotype.Component;
+
+              @Component
+              public class A {
+
+                  private final String a;
+
+                  private final List<String> b;
+
+                  private final long l;
+
+                  A(long l, String a, List<String> b) {
+                      this.l = l;
+                      this.a = a;
+                      this.b = b;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void skipOptionalAndQualifiedFields() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              package demo;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.beans.factory.annotation.Qualifier;
+              import org.springframework.stereotype.Component;
+
+              @Component
+              public class A {
+
+                  @Autowired
+                  private String a;
+
+                  @Autowired(required = false)
+                  private Runnable optional;
+
+                  @Autowired
+                  @Qualifier("main")
+                  private Runnable qualified;
+              }
+              """,
+            """
+              package demo;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.beans.factory.annotation.Qualifier;
+              import org.springframework.stereotype.Component;
+
+              @Component
+              public class A {
+
+                  private final String a;
+
+                  @Autowired(required = false)
+                  private Runnable optional;
+
+                  @Autowired
+                  @Qualifier("main")
+                  private Runnable qualified;
+
+                  A(String a) {
+                      this.a = a;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noComponent() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              package demo;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+
+              public class A {
+
+                  @Autowired
+                  private String a;
+              }
+              """
+          )
+        );
+    }
+}
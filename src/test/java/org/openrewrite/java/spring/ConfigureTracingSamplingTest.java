@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.spring.table.TracingSampling;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.mavenProject;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class ConfigureTracingSamplingTest implements RewriteTest {
+
+    private static void withOpenTelemetryStarter(List<SourceFile> sources) {
+        JavaSourceSet main = new JavaSourceSet(Tree.randomId(), "main", singletonList(
+          JavaType.ShallowClass.build("io.opentelemetry.instrumentation.spring.autoconfigure.OpenTelemetryAutoConfiguration")
+        ), emptyMap());
+        sources.replaceAll(source -> source.withMarkers(source.getMarkers().computeByType(main, (existing, classpath) -> classpath)));
+    }
+
+    @DocumentExample
+    @Test
+    void lowerSamplingAndAddBatchSettingsToProfile() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureTracingSampling("prod", 0.1, 5000L, 512, null))
+            .beforeRecipe(ConfigureTracingSamplingTest::withOpenTelemetryStarter)
+            .dataTable(TracingSampling.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+              new TracingSampling.Row("project/src/main/resources/application-prod.properties", "prod",
+                "management.tracing.sampling.probability", "1.0"),
+              new TracingSampling.Row("project/src/main/resources/application.yml", "default",
+                "otel.traces.sampler", "parentbased_always_on")
+            )),
+          mavenProject("project",
+            srcMainResources(
+              yaml(
+                """
+                  otel:
+                    traces:
+                      sampler: parentbased_always_on
+                  """,
+                s -> s.path("application.yml")
+              ),
+              properties(
+                """
+                  management.otlp.tracing.endpoint=http://collector:4318/v1/traces
+                  management.tracing.sampling.probability=1.0
+                  """,
+                """
+                  management.otlp.tracing.endpoint=http://collector:4318/v1/traces
+                  management.tracing.sampling.probability=0.1
+                  otel.bsp.max.export.batch.size=512
+                  otel.bsp.schedule.delay=5000
+                  """,
+                s -> s.path("application-prod.properties")
+              ),
+              properties(
+                """
+                  management.tracing.sampling.probability=1.0
+                  """,
+                s -> s.path("application-dev.properties")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void addMissingSamplingProbability() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureTracingSampling(null, 0.05, null, null, null)),
+          mavenProject("project",
+            srcMainResources(
+              yaml(
+                """
+                  management:
+                    otlp:
+                      tracing:
+                        endpoint: http://collector:4318/v1/traces
+                  """,
+                """
+                  management:
+                    otlp:
+                      tracing:
+                        endpoint: http://collector:4318/v1/traces
+                    tracing:
+                      sampling:
+                        probability: 0.05
+                  """,
+                s -> s.path("application.yml")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepFilesWithoutTracing() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureTracingSampling(null, 0.1, 5000L, 512, 2048)),
+          mavenProject("project",
+            srcMainResources(
+              properties(
+                """
+                  server.port=8080
+                  """,
+                s -> s.path("application.properties")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void configureDocumentsOfProfile() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureTracingSampling("prod", 0.1, null, null, null))
+            .dataTable(TracingSampling.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+              new TracingSampling.Row("project/src/main/resources/application.yml", "default",
+                "management.tracing.sampling.probability", "1.0"),
+              new TracingSampling.Row("project/src/main/resources/application.yml", "prod",
+                "management.tracing.sampling.probability", "1.0")
+            )),
+          mavenProject("project",
+            srcMainResources(
+              yaml(
+                """
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: prod
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: local
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  """,
+                """
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: prod
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 0.1
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: local
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  """,
+                s -> s.path("application.yml")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void inheritSettingsOfBaseConfiguration() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureTracingSampling("prod", 0.1, 5000L, 512, null))
+            .beforeRecipe(ConfigureTracingSamplingTest::withOpenTelemetryStarter),
+          mavenProject("project",
+            srcMainResources(
+              properties(
+                """
+                  management.tracing.sampling.probability=0.2
+                  otel.bsp.schedule.delay=1000
+                  """,
+                s -> s.path("application.properties")
+              ),
+              properties(
+                """
+                  management.otlp.tracing.endpoint=http://collector:4318/v1/traces
+                  """,
+                """
+                  management.otlp.tracing.endpoint=http://collector:4318/v1/traces
+                  otel.bsp.max.export.batch.size=512
+                  """,
+                s -> s.path("application-prod.properties")
+              )
+            )
+          ),
+          mavenProject("sampling-everything",
+            srcMainResources(
+              yaml(
+                """
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: prod
+                  management:
+                    otlp:
+                      tracing:
+                        endpoint: http://collector:4318/v1/traces
+                  """,
+                """
+                  management:
+                    tracing:
+                      sampling:
+                        probability: 1.0
+                  ---
+                  spring:
+                    config:
+                      activate:
+                        on-profile: prod
+                  management:
+                    otlp:
+                      tracing:
+                        endpoint: http://collector:4318/v1/traces
+                    tracing:
+                      sampling:
+                        probability: 0.1
+                  otel:
+                    bsp:
+                      schedule:
+                        delay: 5000
+                      max:
+                        export:
+                          batch:
+                            size: 512
+                  """,
+                s -> s.path("application.yml")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void skipBatchSettingsWithoutOpenTelemetryStarter() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureTracingSampling(null, null, 5000L, 512, 2048)),
+          mavenProject("project",
+            srcMainResources(
+              properties(
+                """
+                  management.otlp.tracing.endpoint=http://collector:4318/v1/traces
+                  management.tracing.sampling.probability=0.1
+                  """,
+                s -> s.path("application.properties")
+              )
+            )
+          )
+        );
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class MemoizingMapToCacheableTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MemoizingMapToCacheable())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(), "spring-context-6"));
+    }
+
+    @DocumentExample
+    @Test
+    void replaceComputeIfAbsentWithCacheable() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.stereotype.Service;
+
+              import java.math.BigDecimal;
+              import java.util.Map;
+              import java.util.concurrent.ConcurrentHashMap;
+
+              @Service
+              class PriceService {
+                  private static final Map<String, BigDecimal> PRICE_CACHE = new ConcurrentHashMap<>();
+                  private final Map<String, String> descriptions = new ConcurrentHashMap<>();
+
+                  public BigDecimal price(String sku) {
+                      return PRICE_CACHE.computeIfAbsent(sku, this::loadPrice);
+                  }
+
+                  public String description(String sku) {
+                      return descriptions.computeIfAbsent(sku, s -> s.toUpperCase() + " " + loadPrice(s));
+                  }
+
+                  BigDecimal loadPrice(String sku) {
+                      return BigDecimal.ONE;
+                  }
+              }
+              """,
+            """
+              import org.springframework.cache.annotation.Cacheable;
+              import org.springframework.stereotype.Service;
+
+              import java.math.BigDecimal;
+
+              @Service
+              class PriceService {
+
+                  @Cacheable("PriceService.priceCache")
+                  public BigDecimal price(String sku) {
+                      return loadPrice(sku);
+                  }
+
+                  @Cacheable("PriceService.descriptions")
+                  public String description(String sku) {
+                      return sku.toUpperCase() + " " + loadPrice(sku);
+                  }
+
+                  BigDecimal loadPrice(String sku) {
+                      return BigDecimal.ONE;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepMapsUsedElsewhere() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.stereotype.Component;
+
+              import java.util.Map;
+              import java.util.concurrent.ConcurrentHashMap;
+
+              @Component
+              class RateProvider {
+                  private final Map<String, Double> rates = new ConcurrentHashMap<>();
+
+                  public Double rate(String currency) {
+                      return rates.computeIfAbsent(currency, c -> 1.0);
+                  }
+
+                  public void clear() {
+                      rates.clear();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSelfInvokedMethods() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.stereotype.Component;
+
+              import java.util.Map;
+              import java.util.concurrent.ConcurrentHashMap;
+
+              @Component
+              class RateProvider {
+                  private final Map<String, Double> rates = new ConcurrentHashMap<>();
+
+                  public Double rate(String currency) {
+                      return rates.computeIfAbsent(currency, c -> 1.0);
+                  }
+
+                  public Double convert(String currency, double amount) {
+                      return rate(currency) * amount;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void cacheNames() {
+        assertThat(MemoizingMapToCacheable.cacheName("com.example.PriceService", "PRICE_CACHE")).isEqualTo("com.example.PriceService.priceCache");
+        assertThat(MemoizingMapToCacheable.cacheName("com.example.RateProvider", "rates")).isEqualTo("com.example.RateProvider.rates");
+    }
+}
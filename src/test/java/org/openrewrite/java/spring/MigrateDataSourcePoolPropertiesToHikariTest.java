@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.mavenProject;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.maven.Assertions.pomXml;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class MigrateDataSourcePoolPropertiesToHikariTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipeFromResources("org.openrewrite.java.spring.MigrateDataSourcePoolPropertiesToHikari");
+    }
+
+    //language=xml
+    private static final String POM_WITH_HIKARI = """
+      <project>
+          <groupId>com.example</groupId>
+          <artifactId>project</artifactId>
+          <version>1.0.0</version>
+          <dependencies>
+              <dependency>
+                  <groupId>com.zaxxer</groupId>
+                  <artifactId>HikariCP</artifactId>
+                  <version>5.1.0</version>
+              </dependency>
+          </dependencies>
+      </project>
+      """;
+
+    @DocumentExample
+    @Test
+    void tomcatPoolYaml() {
+        rewriteRun(
+          mavenProject("project",
+            pomXml(POM_WITH_HIKARI),
+            srcMainResources(
+              //language=yaml
+              yaml(
+                """
+                  spring:
+                    datasource:
+                      tomcat:
+                        max-active: 50
+                        max-wait: 10000
+                        validation-query: SELECT 1
+                  """,
+                """
+                  spring:
+                    datasource:
+                        hikari.maximum-pool-size: 50
+                        hikari.connection-timeout: 10000
+                        hikari.connection-test-query: SELECT 1
+                  """
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void dbcp2PoolProperties() {
+        rewriteRun(
+          mavenProject("project",
+            pomXml(POM_WITH_HIKARI),
+            srcMainResources(
+              properties(
+                """
+                  spring.datasource.type=org.apache.commons.dbcp2.BasicDataSource
+                  spring.datasource.dbcp2.max-total=30
+                  spring.datasource.dbcp2.max-wait-millis=5000
+                  spring.datasource.dbcp2.remove-abandoned-timeout=60
+                  """,
+                """
+                  spring.datasource.type=com.zaxxer.hikari.HikariDataSource
+                  spring.datasource.hikari.maximum-pool-size=30
+                  spring.datasource.hikari.connection-timeout=5000
+                  spring.datasource.dbcp2.remove-abandoned-timeout=60
+                  """
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepPropertiesWithoutHikari() {
+        rewriteRun(
+          mavenProject("project",
+            //language=xml
+            pomXml(
+              """
+                <project>
+                    <groupId>com.example</groupId>
+                    <artifactId>project</artifactId>
+                    <version>1.0.0</version>
+                </project>
+                """
+            ),
+            srcMainResources(
+              properties(
+                """
+                  spring.datasource.type=org.apache.commons.dbcp2.BasicDataSource
+                  spring.datasource.dbcp2.max-total=30
+                  """
+              )
+            )
+          )
+        );
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Tree;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.mavenProject;
+import static org.openrewrite.java.Assertions.srcMainJava;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.maven.Assertions.pomXml;
+import static org.openrewrite.properties.Assertions.properties;
+
+class MigrateToCaffeineCacheTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateToCaffeineCache(null, null))
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(), "spring-context-6"));
+    }
+
+    //language=java
+    private static final String ENABLE_CACHING = """
+      import org.springframework.cache.annotation.EnableCaching;
+      import org.springframework.context.annotation.Configuration;
+
+      @Configuration
+      @EnableCaching
+      class CacheConfiguration {
+      }
+      """;
+
+    //language=xml
+    private static final String POM = """
+      <project>
+          <groupId>com.example</groupId>
+          <artifactId>demo</artifactId>
+          <version>1.0.0</version>
+          <dependencies>
+              <dependency>
+                  <groupId>org.springframework</groupId>
+                  <artifactId>spring-context</artifactId>
+                  <version>6.1.14</version>
+              </dependency>
+          </dependencies>
+      </project>
+      """;
+
+    @DocumentExample
+    @Test
+    void addCaffeineSpecAndCacheNames() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              @EnableCaching
+              class CacheConfiguration {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              import org.springframework.cache.annotation.CacheEvict;
+              import org.springframework.cache.annotation.Cacheable;
+              import org.springframework.stereotype.Service;
+
+              @Service
+              class CustomerService {
+                  @Cacheable("customers")
+                  public String customer(String id) {
+                      return id;
+                  }
+
+                  @CacheEvict(cacheNames = {"customers", "addresses"}, allEntries = true)
+                  public void clear() {
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                server.port=8080
+                """,
+              """
+                server.port=8080
+                spring.cache.cache-names=addresses,customers
+                spring.cache.caffeine.spec=maximumSize=1000,expireAfterWrite=10m
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void addCaffeineDependency() {
+        rewriteRun(
+          mavenProject("project",
+            srcMainJava(
+              //language=java
+              java(ENABLE_CACHING)
+            ),
+            srcMainResources(
+              properties(
+                """
+                  server.port=8080
+                  """,
+                """
+                  server.port=8080
+                  spring.cache.caffeine.spec=maximumSize=1000,expireAfterWrite=10m
+                  """,
+                s -> s.path("application.properties")
+              )
+            ),
+            //language=xml
+            pomXml(
+              POM,
+              spec -> spec.after(actual -> assertThat(actual)
+                .containsPattern("<groupId>com.github.ben-manes.caffeine</groupId>\\s*<artifactId>caffeine</artifactId>\\s*<version>3\\.")
+                .actual())
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepProjectsWithoutApplicationConfiguration() {
+        rewriteRun(
+          mavenProject("project",
+            srcMainJava(
+              //language=java
+              java(ENABLE_CACHING)
+            ),
+            //language=xml
+            pomXml(POM)
+          )
+        );
+    }
+
+    @Test
+    void keepProjectsWithOtherCacheProvider() {
+        rewriteRun(
+          spec -> spec.beforeRecipe(sources -> sources.replaceAll(source -> source.withMarkers(source.getMarkers()
+            .computeByType(new JavaSourceSet(Tree.randomId(), "main",
+                singletonList(JavaType.ShallowClass.build("org.springframework.data.redis.connection.RedisConnectionFactory")), emptyMap()),
+              (existing, redis) -> redis)))),
+          //language=java
+          java(ENABLE_CACHING),
+          srcMainResources(
+            properties(
+              """
+                server.port=8080
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void includeConvertedMemoizingMaps() {
+        rewriteRun(
+          spec -> spec.recipe(new MigrateToCaffeineCache("maximumSize=500", true)),
+          //language=java
+          java(
+            """
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.stereotype.Service;
+
+              import java.util.Map;
+              import java.util.concurrent.ConcurrentHashMap;
+
+              @Service
+              @EnableCaching
+              class RateService {
+                  private final Map<String, Double> rates = new ConcurrentHashMap<>();
+
+                  public Double rate(String currency) {
+                      return rates.computeIfAbsent(currency, c -> 1.0);
+                  }
+              }
+              """,
+            """
+              import org.springframework.cache.annotation.Cacheable;
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.stereotype.Service;
+
+              @Service
+              @EnableCaching
+              class RateService {
+
+                  @Cacheable("RateService.rates")
+                  public Double rate(String currency) {
+                      return 1.0;
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                server.port=8080
+                """,
+              """
+                server.port=8080
+                spring.cache.cache-names=RateService.rates
+                spring.cache.caffeine.spec=maximumSize=500
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepMemoizingMapsWithoutCaffeineCaches() {
+        rewriteRun(
+          spec -> spec.recipe(new MigrateToCaffeineCache(null, true)),
+          //language=java
+          java(
+            """
+              import org.springframework.cache.CacheManager;
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              @EnableCaching
+              class CacheConfiguration {
+                  @Bean
+                  CacheManager cacheManager() {
+                      return new ConcurrentMapCacheManager();
+                  }
+              }
+              """,
+            """
+              import org.springframework.cache.CacheManager;
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              @EnableCaching
+              class CacheConfiguration {
+                  @Bean
+                  CacheManager cacheManager() {
+                      return /*~~(Unbounded cache manager)~~>*/new ConcurrentMapCacheManager();
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              import org.springframework.stereotype.Service;
+
+              import java.util.Map;
+              import java.util.concurrent.ConcurrentHashMap;
+
+              @Service
+              class RateService {
+                  private final Map<String, Double> rates = new ConcurrentHashMap<>();
+
+                  public Double rate(String currency) {
+                      return rates.computeIfAbsent(currency, c -> 1.0);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markConcurrentMapCacheManagerBean() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.cache.CacheManager;
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              @EnableCaching
+              class CacheConfiguration {
+                  @Bean
+                  CacheManager cacheManager() {
+                      return new ConcurrentMapCacheManager("customers");
+                  }
+              }
+              """,
+            """
+              import org.springframework.cache.CacheManager;
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              @EnableCaching
+              class CacheConfiguration {
+                  @Bean
+                  CacheManager cacheManager() {
+                      return /*~~(Unbounded cache manager)~~>*/new ConcurrentMapCacheManager("customers");
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                server.port=8080
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void skipUnknownCacheNames() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.cache.annotation.Cacheable;
+              import org.springframework.cache.annotation.EnableCaching;
+              import org.springframework.stereotype.Service;
+
+              @Service
+              @EnableCaching
+              class CustomerService {
+                  static final String CUSTOMERS = "customers";
+
+                  @Cacheable(CUSTOMERS)
+                  public String customer(String id) {
+                      return id;
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                server.port=8080
+                """,
+              """
+                server.port=8080
+                spring.cache.caffeine.spec=maximumSize=1000,expireAfterWrite=10m
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.batch;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.ChunkOrientedSteps;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class AuditChunkOrientedStepsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new AuditChunkOrientedSteps(null, null))
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "spring-batch-core-5.1",
+            "spring-batch-infrastructure-5.1",
+            "spring-core-6",
+            "spring-tx-5"
+          ));
+    }
+
+    @DocumentExample
+    @Test
+    void addTaskExecutorForThreadSafeReader() {
+        rewriteRun(
+          spec -> spec.recipe(new AuditChunkOrientedSteps(true, 100)),
+          //language=java
+          java(
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.database.JdbcBatchItemWriter;
+              import org.springframework.batch.item.database.JdbcPagingItemReader;
+              import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ImportJobConfig {
+                  JdbcPagingItemReader<String> reader() {
+                      return new JdbcPagingItemReaderBuilder<String>()
+                              .name("reader")
+                              .saveState(false)
+                              .build();
+                  }
+
+                  Step importStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcPagingItemReader<String> reader, JdbcBatchItemWriter<String> writer) {
+                      return new StepBuilder("importStep", jobRepository)
+                              .<String, String>chunk(1, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.database.JdbcBatchItemWriter;
+              import org.springframework.batch.item.database.JdbcPagingItemReader;
+              import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+              import org.springframework.core.task.VirtualThreadTaskExecutor;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ImportJobConfig {
+                  JdbcPagingItemReader<String> reader() {
+                      return new JdbcPagingItemReaderBuilder<String>()
+                              .name("reader")
+                              .saveState(false)
+                              .build();
+                  }
+
+                  Step importStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcPagingItemReader<String> reader, JdbcBatchItemWriter<String> writer) {
+                      return new StepBuilder("importStep", jobRepository)
+                              .<String, String>chunk(100, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .taskExecutor(new VirtualThreadTaskExecutor("importStep-"))
+                              .build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportSingleThreadedStep() {
+        rewriteRun(
+          spec -> spec.dataTable(ChunkOrientedSteps.Row.class, rows -> assertThat(rows)
+            .containsExactly(new ChunkOrientedSteps.Row(
+              "ExportJobConfig.java",
+              "exportStep",
+              "10",
+              "org.springframework.batch.item.database.JdbcCursorItemReader",
+              "org.springframework.batch.item.ItemWriter",
+              false,
+              "",
+              ""
+            ))),
+          //language=java
+          java(
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.ItemWriter;
+              import org.springframework.batch.item.database.JdbcCursorItemReader;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ExportJobConfig {
+                  Step exportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcCursorItemReader<String> reader, ItemWriter<String> writer) {
+                      return new StepBuilder("exportStep", jobRepository)
+                              .<String, String>chunk(10, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.ItemWriter;
+              import org.springframework.batch.item.database.JdbcCursorItemReader;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ExportJobConfig {
+                  Step exportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcCursorItemReader<String> reader, ItemWriter<String> writer) {
+                      return /*~~(Single-threaded step)~~>*/new StepBuilder("exportStep", jobRepository)
+                              .<String, String>chunk(10, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSingleThreadedWhenWriterOrReaderStateIsUnsafe() {
+        rewriteRun(
+          spec -> spec.recipe(new AuditChunkOrientedSteps(true, null)),
+          //language=java
+          java(
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.database.JdbcBatchItemWriter;
+              import org.springframework.batch.item.database.JdbcPagingItemReader;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ImportJobConfig {
+                  Step importStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcPagingItemReader<String> reader, JdbcBatchItemWriter<String> writer) {
+                      return new StepBuilder("importStep", jobRepository)
+                              .<String, String>chunk(100, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.database.JdbcBatchItemWriter;
+              import org.springframework.batch.item.database.JdbcPagingItemReader;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ImportJobConfig {
+                  Step importStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcPagingItemReader<String> reader, JdbcBatchItemWriter<String> writer) {
+                      return /*~~(Single-threaded step, as the reader isn't configured with `saveState(false)` in this class)~~>*/new StepBuilder("importStep", jobRepository)
+                              .<String, String>chunk(100, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.ItemWriter;
+              import org.springframework.batch.item.database.JdbcPagingItemReader;
+              import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ExportJobConfig {
+                  JdbcPagingItemReader<String> reader() {
+                      return new JdbcPagingItemReaderBuilder<String>()
+                              .name("reader")
+                              .saveState(false)
+                              .build();
+                  }
+
+                  Step exportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcPagingItemReader<String> reader, ItemWriter<String> writer) {
+                      return new StepBuilder("exportStep", jobRepository)
+                              .<String, String>chunk(100, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.batch.core.Step;
+              import org.springframework.batch.core.repository.JobRepository;
+              import org.springframework.batch.core.step.builder.StepBuilder;
+              import org.springframework.batch.item.ItemWriter;
+              import org.springframework.batch.item.database.JdbcPagingItemReader;
+              import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+              import org.springframework.transaction.PlatformTransactionManager;
+
+              class ExportJobConfig {
+                  JdbcPagingItemReader<String> reader() {
+                      return new JdbcPagingItemReaderBuilder<String>()
+                              .name("reader")
+                              .saveState(false)
+                              .build();
+                  }
+
+                  Step exportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  JdbcPagingItemReader<String> reader, ItemWriter<String> writer) {
+                      return /*~~(Single-threaded step, as the writer isn't known to be thread-safe)~~>*/new StepBuilder("exportStep", jobRepository)
+                              .<String, String>chunk(100, transactionManager)
+                              .reader(reader)
+                              .writer(writer)
+                              .build();
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -75,7 +75,7 @@ class HeadersConfigurerLambdaDslTest implements RewriteTest {
                   protected void configure(HttpSecurity http) throws Exception {
                       http
                               .headers(headers -> headers
-                                      .contentSecurityPolicy(policy -> policy
+                                       .contentSecurityPolicy(policy -> policy
                                               .policyDirectives("foobar")));
                   }
               }
@@ -114,8 +114,8 @@ class HeadersConfigurerLambdaDslTest implements RewriteTest {
                   @Override
                   protected void configure(HttpSecurity http) throws Exception {
                       http
-                              .headers()
-                              .xssProtection(protection -> protection.and());
+                        .headers()
+                        .xssProtection(protection -> protection.and());
                   }
               }
               """
@@ -153,8 +153,8 @@ class HeadersConfigurerLambdaDslTest implements RewriteTest {
                   @Override
                   protected void configure(HttpSecurity http) throws Exception {
                       http
-                              .headers()
-                              .xssProtection(protection -> protection.disable());
+                        .headers()
+                        .xssProtection(protection -> protection.disable());
                   }
               }
               """
@@ -192,8 +192,8 @@ class HeadersConfigurerLambdaDslTest implements RewriteTest {
               public class WebSecurityConfig {
                   protected void configure(HttpSecurity http) throws Exception {
                       http
-                              .headers()
-                              .xssProtection(protection -> protection
+                          .headers()
+                          .xssProtection(protection -> protection
                                       .and()
                                       .headerValue(XXssProtectionHeaderWriter.HeaderValue.DISABLED));
                   }
@@ -280,7 +280,7 @@ class HeadersConfigurerLambdaDslTest implements RewriteTest {
                   protected void configure(HttpSecurity http) throws Exception {
                       http
                               .headers(headers -> headers
-                                      .referrerPolicy(policy -> policy
+                                       .referrerPolicy(policy -> policy
                                               .policy(ReferrerPolicy.ORIGIN)));
                   }
               }
@@ -328,10 +328,10 @@ class HeadersConfigurerLambdaDslTest implements RewriteTest {
                   protected void configure(HttpSecurity http) throws Exception {
                       http
                               .headers(headers -> headers
-                                      .contentSecurityPolicy(policy -> policy
+                                       .contentSecurityPolicy(policy -> policy
                                               .policyDirectives("foobar").reportOnly())
-                                      .cacheControl(withDefaults())
-                                      .referrerPolicy(policy -> policy
+                                       .cacheControl(withDefaults())
+                                       .referrerPolicy(policy -> policy
                                               .policy(ReferrerPolicy.ORIGIN)));
                   }
               }
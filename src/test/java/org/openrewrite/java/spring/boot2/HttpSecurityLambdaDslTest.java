@@ -16,13 +16,21 @@
 package org.openrewrite.java.spring.boot2;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyMap;
 import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.test.RewriteTest.toRecipe;
 
 class HttpSecurityLambdaDslTest implements RewriteTest {
 
@@ -256,6 +264,37 @@ class HttpSecurityLambdaDslTest implements RewriteTest {
         );
     }
 
+    @Test
+    void keepFormattingOutsideOfConvertedInvocations() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+
+              class ApiSecurityConfig {
+                  void configure(HttpSecurity http) throws Exception {
+                      http.antMatcher( "/api/**" )
+                              .authorizeRequests()
+                              .anyRequest().authenticated();
+                  }
+              }
+              """,
+            """
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+
+              class ApiSecurityConfig {
+                  void configure(HttpSecurity http) throws Exception {
+                      http.antMatcher( "/api/**" )
+                              .authorizeRequests(requests -> requests
+                                      .anyRequest().authenticated());
+                  }
+              }
+              """
+          )
+        );
+    }
+
     @Test
     void disableIsTerminal() {
         rewriteRun(
@@ -341,4 +380,61 @@ class HttpSecurityLambdaDslTest implements RewriteTest {
           )
         );
     }
+
+    /**
+     * Converts the same generated chain of more than 200 calls with the chain-at-once mode used by the recipe and
+     * with the per-invocation mode, which must produce identical results.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void convertLongChainIdenticallyInBothModes(boolean convertWholeChains) {
+        String matchers = IntStream.range(0, 100)
+          .mapToObj(i -> "                        .antMatchers(\"/path" + i + "/**\").permitAll()")
+          .collect(Collectors.joining("\n"));
+        rewriteRun(
+          spec -> spec.recipe(toRecipe(() -> new ConvertToSecurityDslVisitor<>(
+            "org.springframework.security.config.annotation.web.builders.HttpSecurity",
+            Arrays.asList("authorizeRequests", "formLogin", "rememberMe"),
+            emptyMap(), emptyMap(), convertWholeChains))),
+          //language=java
+          java(
+            """
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+
+              class LongChainSecurityConfig {
+                  void configure(HttpSecurity http) throws Exception {
+                      http
+                              .authorizeRequests()
+              %s
+                                      .anyRequest().authenticated()
+                                      .and()
+                              .formLogin()
+                                      .loginPage("/login")
+                                      .permitAll()
+                                      .and()
+                              .rememberMe();
+                  }
+              }
+              """.formatted(matchers),
+            """
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+
+              import static org.springframework.security.config.Customizer.withDefaults;
+
+              class LongChainSecurityConfig {
+                  void configure(HttpSecurity http) throws Exception {
+                      http
+                              .authorizeRequests(requests -> requests
+              %s
+                                      .anyRequest().authenticated())
+                              .formLogin(login -> login
+                                      .loginPage("/login")
+                                      .permitAll())
+                              .rememberMe(withDefaults());
+                  }
+              }
+              """.formatted(matchers)
+          )
+        );
+    }
 }
@@ -26,6 +26,7 @@ import org.openrewrite.marker.SearchResult;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 import static org.openrewrite.test.RewriteTest.toRecipe;
 
@@ -703,6 +704,47 @@ class EntityIdForRepositoryVisitorTest implements RewriteTest {
         );
     }
 
+    @Test
+    void domain_type_with_generic_id() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.data.annotation.Id;
+
+              public abstract class AbstractEntity<ID> {
+                  @Id ID id;
+              }
+              """
+          ),
+          java(
+            """
+              public class Employee extends AbstractEntity<String> {
+              }
+              """
+          ),
+          java(
+            """
+              import org.springframework.data.repository.Repository;
+
+              interface EmployeeRepository extends Repository<Employee, Long> {}
+              """,
+            """
+              import org.springframework.data.repository.Repository;
+
+              interface EmployeeRepository extends Repository<Employee, /*~~(Expected Domain Type ID is 'java.lang.String')~~>*/Long> {}
+              """
+          ),
+          java(
+            """
+              import org.springframework.data.repository.Repository;
+
+              interface OtherEmployeeRepository extends Repository<Employee, String> {}
+              """
+          )
+        );
+    }
+
     @Test
     void id_field_invalid_DomainId_1() {
         //language=java
@@ -831,4 +873,50 @@ class EntityIdForRepositoryVisitorTest implements RewriteTest {
         );
     }
 
+
+    @Test
+    void reuseCachedIdTypes() {
+        EntityIdForRepositoryVisitor.IdTypeCache cache = new EntityIdForRepositoryVisitor.IdTypeCache();
+        for (int run = 0; run < 2; run++) {
+            //language=java
+            rewriteRun(
+              spec -> spec.recipe(toRecipe(() -> new EntityIdForRepositoryVisitor<>(false, cache))),
+              java(
+                """
+                  import org.springframework.data.annotation.Id;
+
+                  public class Customer {
+                      @Id String id;
+                  }
+                  """
+              ),
+              java(
+                """
+                  import org.springframework.data.repository.NoRepositoryBean;
+                  import org.springframework.data.repository.Repository;
+
+                  @NoRepositoryBean
+                  interface MyIntermediateRepository<T extends Customer, ID extends Number> extends Repository<T, ID>{}
+                  """
+              ),
+              java(
+                """
+                  interface MyConcreteRepository extends MyIntermediateRepository<Customer, Long>{}
+                  """,
+                """
+                  interface MyConcreteRepository extends MyIntermediateRepository<Customer, /*~~(Expected Domain Type ID is 'java.lang.String')~~>*/Long>{}
+                  """
+              ),
+              java(
+                """
+                  interface MyOtherRepository extends MyIntermediateRepository<Customer, Integer>{}
+                  """,
+                """
+                  interface MyOtherRepository extends MyIntermediateRepository<Customer, /*~~(Expected Domain Type ID is 'java.lang.String')~~>*/Integer>{}
+                  """
+              )
+            );
+            assertThat(cache.size()).isPositive();
+        }
+    }
 }
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.srcMainJava;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class LimitReactorContextPropagationTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new LimitReactorContextPropagation())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+              "reactor-core", "reactive-streams")
+            //language=java
+            .dependsOn(
+              """
+                package org.slf4j;
+
+                public class MDC {
+                    public static String get(String key) {
+                        return null;
+                    }
+                }
+                """
+            ));
+    }
+
+    @DocumentExample
+    @Test
+    void limitContextPropagation() {
+        rewriteRun(
+          srcMainJava(
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id) {
+                        return Mono.just(id)
+                                .doOnNext(o -> System.out.println(MDC.get("traceId") + " " + o))
+                                .map(o -> o + MDC.get("tenant"));
+                    }
+                }
+                """,
+              """
+                package com.example;
+
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id) {
+                        return Mono.just(id)
+                                .<String>handle((o, sink) -> {
+                                    System.out.println(MDC.get("traceId") + " " + o);
+                                    sink.next(o);
+                                })
+                                .<String>handle((o, sink) -> sink.next(o + MDC.get("tenant"))).contextCapture();
+                    }
+                }
+                """
+            )
+          ),
+          srcMainResources(
+            properties(
+              "spring.reactor.context-propagation=auto",
+              "spring.reactor.context-propagation=limited",
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void markReadsThatNeedAutomaticPropagation() {
+        rewriteRun(
+          srcMainJava(
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id) {
+                        return Mono.just(id)
+                                .flatMap(o -> Mono.just(o + MDC.get("tenant")));
+                    }
+                }
+                """,
+              """
+                package com.example;
+
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id) {
+                        return Mono.just(id)
+                                .flatMap(o -> Mono.just(o + /*~~(Reads `ThreadLocal` context in `flatMap`, which needs automatic context propagation)~~>*/MDC.get("tenant")));
+                    }
+                }
+                """
+            )
+          ),
+          srcMainResources(
+            //language=yaml
+            yaml(
+              """
+                spring:
+                  reactor:
+                    context-propagation: auto
+                """,
+              s -> s.path("application.yml")
+            )
+          )
+        );
+    }
+
+    @Test
+    void markCallbacksCallingMethodsThatRead() {
+        rewriteRun(
+          srcMainJava(
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id) {
+                        return Mono.just(id)
+                                .map(this::toDto)
+                                .filter(o -> isTenant(o));
+                    }
+
+                    String toDto(String order) {
+                        return order + MDC.get("tenant");
+                    }
+
+                    boolean isTenant(String order) {
+                        return tenant().equals(order);
+                    }
+
+                    String tenant() {
+                        return MDC.get("tenant");
+                    }
+                }
+                """,
+              """
+                package com.example;
+
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id) {
+                        return Mono.just(id)
+                                .map(/*~~(References a method that reads `ThreadLocal` context in `map`, which needs automatic context propagation)~~>*/this::toDto)
+                                .filter(o -> /*~~(Calls a method that reads `ThreadLocal` context in `filter`, which needs automatic context propagation)~~>*/isTenant(o));
+                    }
+
+                    String toDto(String order) {
+                        return order + MDC.get("tenant");
+                    }
+
+                    boolean isTenant(String order) {
+                        return tenant().equals(order);
+                    }
+
+                    String tenant() {
+                        return MDC.get("tenant");
+                    }
+                }
+                """
+            )
+          ),
+          srcMainResources(
+            properties(
+              "spring.reactor.context-propagation=auto",
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void markReadsInNestedLambdas() {
+        rewriteRun(
+          srcMainJava(
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import java.util.List;
+                import java.util.Optional;
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id, List<String> items) {
+                        return Mono.just(id)
+                                .doOnNext(o -> items.forEach(i -> System.out.println(MDC.get("traceId") + " " + i)))
+                                .map(o -> Optional.of(o).map(v -> v + tenant()).orElse(o));
+                    }
+
+                    String tenant() {
+                        return MDC.get("tenant");
+                    }
+                }
+                """,
+              """
+                package com.example;
+
+                import java.util.List;
+                import java.util.Optional;
+                import org.slf4j.MDC;
+                import reactor.core.publisher.Mono;
+
+                class Orders {
+                    Mono<String> order(String id, List<String> items) {
+                        return Mono.just(id)
+                                .doOnNext(o -> items.forEach(i -> System.out.println(/*~~(Reads `ThreadLocal` context in `doOnNext`, which needs automatic context propagation)~~>*/MDC.get("traceId") + " " + i)))
+                                .map(o -> Optional.of(o).map(v -> v + /*~~(Calls a method that reads `ThreadLocal` context in `map`, which needs automatic context propagation)~~>*/tenant()).orElse(o));
+                    }
+
+                    String tenant() {
+                        return MDC.get("tenant");
+                    }
+                }
+                """
+            )
+          ),
+          srcMainResources(
+            properties(
+              "spring.reactor.context-propagation=auto",
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.UnmigratedExecutors;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.javaVersion;
+
+class MigrateExecutorsToVirtualThreadsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateExecutorsToVirtualThreads())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(), "spring-core-6", "spring-context-6"))
+          .allSources(source -> source.markers(javaVersion(21)));
+    }
+
+    @DocumentExample
+    @Test
+    void executorsFactoryMethods() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import java.util.concurrent.ExecutorService;
+              import java.util.concurrent.Executors;
+
+              import org.springframework.context.annotation.Bean;
+
+              class Config {
+                  @Bean
+                  ExecutorService taskExecutor() {
+                      return Executors.newCachedThreadPool();
+                  }
+              }
+              """,
+            """
+              import java.util.concurrent.ExecutorService;
+              import java.util.concurrent.Executors;
+
+              import org.springframework.context.annotation.Bean;
+
+              class Config {
+                  @Bean
+                  ExecutorService taskExecutor() {
+                      return Executors.newVirtualThreadPerTaskExecutor();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void simpleAsyncTaskExecutorBeans() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.core.task.AsyncTaskExecutor;
+              import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+              class Config {
+                  @Bean
+                  AsyncTaskExecutor returned() {
+                      return new SimpleAsyncTaskExecutor("returned-");
+                  }
+
+                  @Bean
+                  AsyncTaskExecutor configured() {
+                      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+                      executor.setConcurrencyLimit(100);
+                      return executor;
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.core.task.AsyncTaskExecutor;
+              import org.springframework.core.task.SimpleAsyncTaskExecutor;
+              import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+              class Config {
+                  @Bean
+                  AsyncTaskExecutor returned() {
+                      return new VirtualThreadTaskExecutor("returned-");
+                  }
+
+                  @Bean
+                  AsyncTaskExecutor configured() {
+                      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+                      executor.setVirtualThreads(true);
+                      executor.setConcurrencyLimit(100);
+                      return executor;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportUnmigratableExecutors() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnmigratedExecutors.Row.class, rows -> assertThat(rows)
+            .extracting(UnmigratedExecutors.Row::getExecutor, UnmigratedExecutors.Row::getReason)
+            .containsExactly(
+              tuple("new ThreadPoolTaskExecutor()", "Pool sizes, queue capacity and rejection policy have no virtual thread equivalent; " +
+                "consider a `SimpleAsyncTaskExecutor` with virtual threads and a concurrency limit"),
+              tuple("Executors.newFixedThreadPool(10)", "The pool is bounded to 10 threads, which a virtual thread per task executor isn't; " +
+                "limit the concurrency of the tasks themselves before migrating"),
+              tuple("Executors.newCachedThreadPool()", "Only executors created in `@Bean` methods are migrated, " +
+                "as the use of other executors isn't known"),
+              tuple("Executors.newScheduledThreadPool(2)", "Only `newFixedThreadPool(int)` and `newCachedThreadPool()` are migrated; " +
+                "scheduled, single-threaded, work-stealing and `ThreadFactory` based executors are not"),
+              tuple("Executors.newCachedThreadPool()", "The executor is cast to its `ThreadPoolExecutor` implementation")
+            )),
+          java(
+            """
+              import java.util.concurrent.ExecutorService;
+              import java.util.concurrent.Executors;
+              import java.util.concurrent.ScheduledExecutorService;
+              import java.util.concurrent.ThreadPoolExecutor;
+
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+              class Config {
+                  @Bean
+                  ThreadPoolTaskExecutor taskExecutor() {
+                      return new ThreadPoolTaskExecutor();
+                  }
+
+                  @Bean
+                  ExecutorService boundedExecutor() {
+                      return Executors.newFixedThreadPool(10);
+                  }
+
+                  ExecutorService cached = Executors.newCachedThreadPool();
+
+                  ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+                  @Bean
+                  ThreadPoolExecutor pool() {
+                      return (ThreadPoolExecutor) Executors.newCachedThreadPool();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportExecutorsDeclaredAsTypesVirtualThreadTaskExecutorDoesNotImplement() {
+        String reason = "The executor is used as a type that `VirtualThreadTaskExecutor` doesn't implement, " +
+          "like `SimpleAsyncTaskExecutor`, outside of a local variable";
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnmigratedExecutors.Row.class, rows -> assertThat(rows)
+            .extracting(UnmigratedExecutors.Row::getExecutor, UnmigratedExecutors.Row::getReason)
+            .containsExactly(
+              tuple("new SimpleAsyncTaskExecutor()", reason),
+              tuple("new SimpleAsyncTaskExecutor(\"closeable-\")", reason)
+            )),
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.core.task.AsyncListenableTaskExecutor;
+              import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+              class Config {
+                  @Bean
+                  AsyncListenableTaskExecutor listenable() {
+                      return new SimpleAsyncTaskExecutor();
+                  }
+
+                  @Bean
+                  AutoCloseable closeable() {
+                      return new SimpleAsyncTaskExecutor("closeable-");
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noChangeBeforeJava21() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import java.util.concurrent.ExecutorService;
+              import java.util.concurrent.Executors;
+
+              class A {
+                  private final ExecutorService fixed = Executors.newFixedThreadPool(10);
+              }
+              """,
+            spec -> spec.markers(javaVersion(17))
+          )
+        );
+    }
+}
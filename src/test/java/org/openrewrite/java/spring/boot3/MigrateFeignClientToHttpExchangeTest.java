@@ -0,0 +1,614 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.emptyMap;
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.srcMainJava;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class MigrateFeignClientToHttpExchangeTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateFeignClientToHttpExchange())
+          .beforeRecipe(MigrateFeignClientToHttpExchangeTest::withHttpClientClasspath)
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+              "spring-web-6", "spring-context-6")
+            //language=java
+            .dependsOn(
+              """
+                package org.springframework.cloud.openfeign;
+
+                public @interface FeignClient {
+                    String value() default "";
+                    String name() default "";
+                    String url() default "";
+                    String path() default "";
+                    Class<?> fallback() default void.class;
+                }
+                """,
+              """
+                package org.springframework.cloud.openfeign;
+
+                public @interface EnableFeignClients {
+                }
+                """,
+              """
+                package feign;
+
+                public class RequestTemplate {
+                    public RequestTemplate header(String name, String... values) {
+                        return this;
+                    }
+                }
+                """,
+              """
+                package feign;
+
+                public interface RequestInterceptor {
+                    void apply(RequestTemplate template);
+                }
+                """,
+              """
+                package feign;
+
+                public class FeignException extends RuntimeException {
+                    public int status() {
+                        return 0;
+                    }
+                }
+                """
+            ));
+    }
+
+    /**
+     * Puts Spring Boot 3.4 and Apache HttpClient 5 on the classpath of the main source set.
+     */
+    private static void withHttpClientClasspath(List<SourceFile> sources) {
+        JavaSourceSet main = new JavaSourceSet(Tree.randomId(), "main", Arrays.asList(
+          JavaType.ShallowClass.build("org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder"),
+          JavaType.ShallowClass.build("org.apache.hc.client5.http.impl.classic.HttpClients")
+        ), emptyMap());
+        sources.replaceAll(source -> source.withMarkers(source.getMarkers().computeByType(main, (existing, classpath) -> classpath)));
+    }
+
+    //language=java
+    private static final String APPLICATION = """
+      package com.example;
+
+      import org.springframework.cloud.openfeign.EnableFeignClients;
+      import org.springframework.context.annotation.Configuration;
+
+      @Configuration
+      @EnableFeignClients
+      class Application {
+      }
+      """;
+
+    @DocumentExample
+    @Test
+    void migrateFeignClient() {
+        rewriteRun(
+          srcMainJava(
+            java(
+              APPLICATION,
+              """
+                package com.example;
+
+                import org.springframework.context.annotation.Configuration;
+
+                @Configuration
+                class Application {
+                }
+                """,
+              s -> s.path("src/main/java/com/example/Application.java")
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.PathVariable;
+                import org.springframework.web.bind.annotation.PostMapping;
+                import org.springframework.web.bind.annotation.RequestBody;
+                import org.springframework.web.bind.annotation.RequestMapping;
+                import org.springframework.web.bind.annotation.RequestMethod;
+
+                @FeignClient(name = "stores", url = "${stores.url}", path = "/api")
+                interface StoreClient {
+                    @GetMapping({"/stores/{id}"})
+                    String store(@PathVariable("id") long id);
+
+                    @PostMapping(path = {"/stores"}, consumes = {"application/json"}, produces = "application/json")
+                    String create(@RequestBody String store);
+
+                    @RequestMapping(method = RequestMethod.DELETE, path = "/stores/{id}")
+                    void delete(@PathVariable("id") long id);
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.web.bind.annotation.PathVariable;
+                import org.springframework.web.bind.annotation.RequestBody;
+                import org.springframework.web.service.annotation.DeleteExchange;
+                import org.springframework.web.service.annotation.GetExchange;
+                import org.springframework.web.service.annotation.HttpExchange;
+                import org.springframework.web.service.annotation.PostExchange;
+
+                @HttpExchange("/api")
+                interface StoreClient {
+                    @GetExchange("/stores/{id}")
+                    String store(@PathVariable("id") long id);
+
+                    @PostExchange(url = "/stores", contentType = "application/json", accept = "application/json")
+                    String create(@RequestBody String store);
+
+                    @DeleteExchange(url = "/stores/{id}")
+                    void delete(@PathVariable("id") long id);
+                }
+                """
+            ),
+            //language=java
+            java(
+              null,
+              """
+                package com.example;
+
+                import org.springframework.beans.factory.annotation.Value;
+                import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+                import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
+                import org.springframework.context.annotation.Bean;
+                import org.springframework.context.annotation.Configuration;
+                import org.springframework.http.client.ClientHttpRequestFactory;
+                import org.springframework.web.client.RestClient;
+                import org.springframework.web.client.support.RestClientAdapter;
+                import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+                import java.time.Duration;
+
+                @Configuration(proxyBeanMethods = false)
+                class HttpInterfaceClientsConfiguration {
+
+                    @Bean
+                    ClientHttpRequestFactory httpInterfaceRequestFactory() {
+                        return ClientHttpRequestFactoryBuilder.httpComponents()
+                                .withConnectionManagerCustomizer(connectionManager -> connectionManager
+                                        .setMaxConnTotal(200)
+                                        .setMaxConnPerRoute(20))
+                                .build(ClientHttpRequestFactorySettings.defaults()
+                                        .withConnectTimeout(Duration.ofMillis(2000))
+                                        .withReadTimeout(Duration.ofMillis(5000)));
+                    }
+
+                    @Bean
+                    StoreClient storeClient(RestClient.Builder restClientBuilder, ClientHttpRequestFactory httpInterfaceRequestFactory, @Value("${stores.url}") String url) {
+                        RestClient restClient = restClientBuilder.clone()
+                                .baseUrl(url)
+                                .requestFactory(httpInterfaceRequestFactory)
+                                .build();
+                        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient)).build()
+                                .createClient(StoreClient.class);
+                    }
+                }
+                """,
+              s -> s.path("src/main/java/com/example/HttpInterfaceClientsConfiguration.java")
+            )
+          ),
+          srcMainResources(
+            properties(
+              """
+                feign.client.config.default.connectTimeout=2000
+                feign.client.config.default.read-timeout=5000
+                spring.cloud.openfeign.httpclient.max-connections-per-route=20
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void markClientsWithFeignSpecificFeatures() {
+        rewriteRun(
+          srcMainJava(
+            java(APPLICATION, s -> s.path("src/main/java/com/example/Application.java")),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "stores", url = "http://stores", fallback = StoreClientFallback.class)
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(Uses the Feign-specific `fallback` attribute)~~>*/@FeignClient(name = "stores", url = "http://stores", fallback = StoreClientFallback.class)
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                class StoreClientFallback implements StoreClient {
+                    @Override
+                    public String stores() {
+                        return "";
+                    }
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient("inventory")
+                interface InventoryClient {
+                    @GetMapping("/items")
+                    String items();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(Resolves `inventory` through service discovery, which needs a load-balanced `RestClient.Builder`)~~>*/@FeignClient("inventory")
+                interface InventoryClient {
+                    @GetMapping("/items")
+                    String items();
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "orders", url = "http://orders")
+                interface OrderClient {
+                    @GetMapping({"/orders", "/orders/all"})
+                    String orders();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(`orders` is mapped to multiple paths)~~>*/@FeignClient(name = "orders", url = "http://orders")
+                interface OrderClient {
+                    @GetMapping({"/orders", "/orders/all"})
+                    String orders();
+                }
+                """
+            )
+          )
+        );
+    }
+
+    @Test
+    void markClientsWithRetryers() {
+        rewriteRun(
+          srcMainJava(
+            java(APPLICATION, s -> s.path("src/main/java/com/example/Application.java")),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(Configures a Feign retryer, which `RestClient` has no equivalent of)~~>*/@FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """
+            )
+          ),
+          srcMainResources(
+            //language=yaml
+            yaml(
+              """
+                spring:
+                  cloud:
+                    openfeign:
+                      client:
+                        config:
+                          stores:
+                            retryer: feign.Retryer.Default
+                """,
+              s -> s.path("application.yml")
+            )
+          )
+        );
+    }
+
+    @Test
+    void markClientsWithCodecsPathPrefixesOrCallersCatchingFeignException() {
+        rewriteRun(
+          srcMainJava(
+            java(APPLICATION, s -> s.path("src/main/java/com/example/Application.java")),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(Configures a Feign `errorDecoder`, which the `RestClient` doesn't use)~~>*/@FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.RequestMapping;
+
+                @FeignClient(name = "inventory", url = "http://inventory")
+                @RequestMapping("/api")
+                interface InventoryClient {
+                    @GetMapping("/items")
+                    String items();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.RequestMapping;
+
+                /*~~(Declares a path prefix with a class-level `@RequestMapping`, which should be moved to the `path` attribute first)~~>*/@FeignClient(name = "inventory", url = "http://inventory")
+                @RequestMapping("/api")
+                interface InventoryClient {
+                    @GetMapping("/items")
+                    String items();
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "orders", url = "http://orders")
+                interface OrderClient {
+                    @GetMapping("/orders")
+                    String orders();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(Callers catch `FeignException`, which the `RestClient` doesn't throw)~~>*/@FeignClient(name = "orders", url = "http://orders")
+                interface OrderClient {
+                    @GetMapping("/orders")
+                    String orders();
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import feign.FeignException;
+
+                class OrderService {
+                    private final OrderClient orderClient;
+
+                    OrderService(OrderClient orderClient) {
+                        this.orderClient = orderClient;
+                    }
+
+                    String orders() {
+                        try {
+                            return orderClient.orders();
+                        } catch (FeignException e) {
+                            return "";
+                        }
+                    }
+                }
+                """
+            )
+          ),
+          srcMainResources(
+            properties(
+              """
+                feign.client.config.stores.error-decoder=com.example.StoreErrorDecoder
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void markClientsWhenRequestInterceptorsApply() {
+        rewriteRun(
+          srcMainJava(
+            java(APPLICATION, s -> s.path("src/main/java/com/example/Application.java")),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import feign.RequestInterceptor;
+                import feign.RequestTemplate;
+                import org.springframework.stereotype.Component;
+
+                @Component
+                class AuthorizationInterceptor implements RequestInterceptor {
+                    @Override
+                    public void apply(RequestTemplate template) {
+                        template.header("Authorization", "Bearer token");
+                    }
+                }
+                """
+            ),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(A `RequestInterceptor` bean applies to all Feign clients, but not to the `RestClient`)~~>*/@FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """
+            )
+          )
+        );
+    }
+
+    @Test
+    void markClientsWithoutSpringBoot34() {
+        rewriteRun(
+          spec -> spec.beforeRecipe(sources -> sources.replaceAll(source ->
+            source.withMarkers(source.getMarkers().removeByType(JavaSourceSet.class)))),
+          srcMainJava(
+            java(APPLICATION, s -> s.path("src/main/java/com/example/Application.java")),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                @FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.cloud.openfeign.FeignClient;
+                import org.springframework.web.bind.annotation.GetMapping;
+
+                /*~~(The `RestClient` configuration requires Spring Boot 3.4 or later)~~>*/@FeignClient(name = "stores", url = "http://stores")
+                interface StoreClient {
+                    @GetMapping("/stores")
+                    String stores();
+                }
+                """
+            )
+          )
+        );
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.boot3;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.spring.table.UnmigratedRestTemplateCalls;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class MigrateRestTemplateToRestClientTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateRestTemplateToRestClient(null, null))
+          .beforeRecipe(MigrateRestTemplateToRestClientTest::withHttpClientClasspath)
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "spring-web-6", "spring-core-6", "spring-beans-6", "spring-context-6", "spring-boot-3"));
+    }
+
+    private static void withHttpClientClasspath(List<SourceFile> sources) {
+        JavaSourceSet main = new JavaSourceSet(Tree.randomId(), "main", Arrays.asList(
+          JavaType.ShallowClass.build("org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder"),
+          JavaType.ShallowClass.build("org.apache.hc.client5.http.impl.classic.HttpClients")
+        ), emptyMap());
+        sources.replaceAll(source -> source.withMarkers(source.getMarkers().computeByType(main, (existing, classpath) -> classpath)));
+    }
+
+    @DocumentExample
+    @Test
+    void injectedRestTemplate() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.http.ResponseEntity;
+              import org.springframework.web.client.RestTemplate;
+
+              class OrderClient {
+                  private final RestTemplate restTemplate;
+
+                  OrderClient(RestTemplate restTemplate) {
+                      this.restTemplate = restTemplate;
+                  }
+
+                  String find(String id) {
+                      return restTemplate.getForObject("/orders/{id}", String.class, id);
+                  }
+
+                  ResponseEntity<String> create(String order) {
+                      return restTemplate.postForEntity("/orders", order, String.class);
+                  }
+
+                  void update(String id, String order) {
+                      restTemplate.put("/orders/{id}", order, id);
+                  }
+
+                  void remove(String id) {
+                      this.restTemplate.delete("/orders/{id}", id);
+                  }
+              }
+              """,
+            """
+              import org.springframework.http.ResponseEntity;
+              import org.springframework.web.client.RestClient;
+              import org.springframework.web.client.RestTemplate;
+
+              class OrderClient {
+                  private final RestClient restTemplate;
+
+                  OrderClient(RestTemplate restTemplate) {
+                      this.restTemplate = RestClient.create(restTemplate);
+                  }
+
+                  String find(String id) {
+                      return restTemplate.get().uri("/orders/{id}", id).retrieve().body(String.class);
+                  }
+
+                  ResponseEntity<String> create(String order) {
+                      return restTemplate.post().uri("/orders").body(order).retrieve().toEntity(String.class);
+                  }
+
+                  void update(String id, String order) {
+                      restTemplate.put().uri("/orders/{id}", id).body(order).retrieve().toBodilessEntity();
+                  }
+
+                  void remove(String id) {
+                      this.restTemplate.delete().uri("/orders/{id}", id).retrieve().toBodilessEntity();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void newRestTemplateField() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.web.client.RestTemplate;
+
+              class OrderClient {
+                  private final RestTemplate restTemplate = new RestTemplate();
+
+                  String find(String id) {
+                      return restTemplate.getForObject("/orders/{id}", String.class, id);
+                  }
+              }
+              """,
+            """
+              import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+              import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
+              import org.springframework.web.client.RestClient;
+
+              import java.time.Duration;
+
+              class OrderClient {
+                  private final RestClient restTemplate = RestClient.builder().requestFactory(ClientHttpRequestFactoryBuilder.httpComponents().build(ClientHttpRequestFactorySettings.defaults().withConnectTimeout(Duration.ofSeconds(5)).withReadTimeout(Duration.ofSeconds(30)))).build();
+
+                  String find(String id) {
+                      return restTemplate.get().uri("/orders/{id}", id).retrieve().body(String.class);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void pooledRestTemplateBean() {
+        //language=java
+        rewriteRun(
+          spec -> spec.recipe(new MigrateRestTemplateToRestClient(2, 10)),
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.web.client.RestTemplate;
+
+              class ClientConfig {
+                  @Bean
+                  RestTemplate restTemplate() {
+                      return new RestTemplate();
+                  }
+              }
+              """,
+            """
+              import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+              import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.web.client.RestTemplate;
+
+              import java.time.Duration;
+
+              class ClientConfig {
+                  @Bean
+                  RestTemplate restTemplate() {
+                      return new RestTemplate(ClientHttpRequestFactoryBuilder.httpComponents().build(ClientHttpRequestFactorySettings.defaults().withConnectTimeout(Duration.ofSeconds(2)).withReadTimeout(Duration.ofSeconds(10))));
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportUnmigratableCalls() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnmigratedRestTemplateCalls.Row.class, rows -> assertThat(rows)
+            .extracting(UnmigratedRestTemplateCalls.Row::getCall)
+            .containsExactlyInAnyOrder(
+              "restTemplate.getForObject(\"/orders/{id}\", String.class, id)",
+              "restTemplate.exchange(request, String.class)",
+              "new RestTemplate()",
+              "perCall.getForObject(\"/orders\", String.class)"
+            )),
+          java(
+            """
+              import org.springframework.http.RequestEntity;
+              import org.springframework.http.ResponseEntity;
+              import org.springframework.web.client.RestTemplate;
+
+              class OrderClient {
+                  private final RestTemplate restTemplate;
+
+                  OrderClient(RestTemplate restTemplate) {
+                      this.restTemplate = restTemplate;
+                  }
+
+                  String find(String id) {
+                      return restTemplate.getForObject("/orders/{id}", String.class, id);
+                  }
+
+                  ResponseEntity<String> exchange(RequestEntity<Void> request) {
+                      return restTemplate.exchange(request, String.class);
+                  }
+
+                  String all() {
+                      RestTemplate perCall = new RestTemplate();
+                      return perCall.getForObject("/orders", String.class);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportFieldInjectedRestTemplate() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnmigratedRestTemplateCalls.Row.class, rows -> assertThat(rows)
+            .extracting(UnmigratedRestTemplateCalls.Row::getReason)
+            .containsExactly("Other uses of the field prevent its migration: The field is injected, and Spring Boot doesn't auto-configure a `RestClient` bean")),
+          java(
+            """
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.web.client.RestTemplate;
+
+              class OrderClient {
+                  @Autowired
+                  private RestTemplate restTemplate;
+
+                  String find(String id) {
+                      return restTemplate.getForObject("/orders/{id}", String.class, id);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportRestTemplateInjectedByLombokConstructor() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnmigratedRestTemplateCalls.Row.class, rows -> assertThat(rows)
+            .extracting(UnmigratedRestTemplateCalls.Row::getReason)
+            .containsExactly("Other uses of the field prevent its migration: The field is injected, and Spring Boot doesn't auto-configure a `RestClient` bean")),
+          java(
+            """
+              package lombok;
+
+              import java.lang.annotation.ElementType;
+              import java.lang.annotation.Retention;
+              import java.lang.annotation.RetentionPolicy;
+              import java.lang.annotation.Target;
+
+              @Target({ElementType.TYPE})
+              @Retention(RetentionPolicy.SOURCE)
+              public @interface RequiredArgsConstructor {
+              }
+              """
+          ),
+          java(
+            """
+              import lombok.RequiredArgsConstructor;
+              import org.springframework.web.client.RestTemplate;
+
+              @RequiredArgsConstructor
+              class OrderClient {
+                  private final RestTemplate restTemplate;
+
+                  String find(String id) {
+                      return restTemplate.getForObject("/orders/{id}", String.class, id);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepRestTemplateBeforeSpringBoot34() {
+        //language=java
+        rewriteRun(
+          spec -> spec.beforeRecipe(sources -> sources.replaceAll(source ->
+            source.withMarkers(source.getMarkers().removeByType(JavaSourceSet.class)))),
+          java(
+            """
+              import org.springframework.web.client.RestTemplate;
+
+              class OrderClient {
+                  private final RestTemplate restTemplate = new RestTemplate();
+
+                  String find(String id) {
+                      return restTemplate.getForObject("/orders/{id}", String.class, id);
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,618 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.data;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.mavenProject;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.properties.Assertions.properties;
+
+class ConfigureJpaOpenInViewAndBatchingTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new ConfigureJpaOpenInViewAndBatching(null))
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "javax.persistence-api", "spring-data-jpa-2.7", "spring-data-commons-2.7",
+            "spring-web-5", "spring-context-5", "spring-tx-5"));
+    }
+
+    //language=java
+    private static final String ORDER = """
+      package com.example;
+
+      import javax.persistence.*;
+      import java.util.List;
+
+      @Entity
+      public class Order {
+          @Id
+          @GeneratedValue
+          private Long id;
+
+          private String customer;
+
+          @OneToMany(mappedBy = "order")
+          private List<OrderLine> lines;
+
+          public Long getId() {
+              return id;
+          }
+
+          public String getCustomer() {
+              return customer;
+          }
+
+          public List<OrderLine> getLines() {
+              return lines;
+          }
+      }
+      """;
+
+    //language=java
+    private static final String ORDER_LINE = """
+      package com.example;
+
+      import javax.persistence.*;
+
+      @Entity
+      public class OrderLine {
+          @Id
+          @GeneratedValue(strategy = GenerationType.IDENTITY)
+          private Long id;
+
+          @ManyToOne(fetch = FetchType.LAZY)
+          private Order order;
+
+          public Order getOrder() {
+              return order;
+          }
+      }
+      """;
+
+    //language=java
+    private static final String ORDER_LINE_WITHOUT_BATCHED_INSERTS = """
+      package com.example;
+
+      import javax.persistence.*;
+
+      @Entity
+      public class OrderLine {
+          @Id
+          /*~~(Hibernate does not batch inserts of entities with `IDENTITY` ids)~~>*/@GeneratedValue(strategy = GenerationType.IDENTITY)
+          private Long id;
+
+          @ManyToOne(fetch = FetchType.LAZY)
+          private Order order;
+
+          public Order getOrder() {
+              return order;
+          }
+      }
+      """;
+
+    //language=java
+    private static final String REPOSITORY = """
+      package com.example;
+
+      import org.springframework.data.jpa.repository.JpaRepository;
+
+      public interface OrderRepository extends JpaRepository<Order, Long> {
+      }
+      """;
+
+    @DocumentExample
+    @Test
+    void disableOpenInViewAndEnableBatching() {
+        rewriteRun(
+          java(ORDER),
+          java(ORDER_LINE, ORDER_LINE_WITHOUT_BATCHED_INSERTS),
+          java(REPOSITORY),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.transaction.annotation.Transactional;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.PostMapping;
+              import org.springframework.web.bind.annotation.RequestBody;
+              import org.springframework.web.bind.annotation.RestController;
+
+              import java.util.List;
+
+              @RestController
+              class OrderController {
+                  private final OrderRepository orders;
+
+                  OrderController(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  @GetMapping("/orders/{id}/customer")
+                  String customer(@PathVariable Long id) {
+                      return orders.getById(id).getCustomer();
+                  }
+
+                  @Transactional(readOnly = true)
+                  @GetMapping("/orders/{id}/lines")
+                  int lines(@PathVariable Long id) {
+                      return orders.getById(id).getLines().size();
+                  }
+
+                  @PostMapping("/orders")
+                  void save(@RequestBody List<Order> batch) {
+                      orders.saveAll(batch);
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                spring.datasource.url=jdbc:postgresql://localhost/orders
+                """,
+              """
+                spring.datasource.url=jdbc:postgresql://localhost/orders
+                spring.jpa.open-in-view=false
+                spring.jpa.properties.hibernate.jdbc.batch_size=50
+                spring.jpa.properties.hibernate.order_inserts=true
+                spring.jpa.properties.hibernate.order_updates=true
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepOpenInViewForLazyLoadingHandlers() {
+        rewriteRun(
+          java(ORDER),
+          java(ORDER_LINE),
+          java(REPOSITORY),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class OrderController {
+                  private final OrderRepository orders;
+
+                  OrderController(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  @GetMapping("/orders/{id}/lines")
+                  int lines(@PathVariable Long id) {
+                      return orders.getById(id).getLines().size();
+                  }
+
+                  @GetMapping("/orders/{id}")
+                  Order order(@PathVariable Long id) {
+                      return orders.getById(id);
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class OrderController {
+                  private final OrderRepository orders;
+
+                  OrderController(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  /*~~(Loads lazy association `Order.getLines()` outside of a transaction)~~>*/@GetMapping("/orders/{id}/lines")
+                  int lines(@PathVariable Long id) {
+                      return orders.getById(id).getLines().size();
+                  }
+
+                  /*~~(Returns `Order` with lazy association `getLines` outside of a transaction)~~>*/@GetMapping("/orders/{id}")
+                  Order order(@PathVariable Long id) {
+                      return orders.getById(id);
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                spring.datasource.url=jdbc:postgresql://localhost/orders
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepOpenInViewForViewsAndEntitiesPassedToOtherMethods() {
+        rewriteRun(
+          spec -> spec.parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "javax.persistence-api", "spring-data-jpa-2.7", "spring-data-commons-2.7",
+            "spring-web-5", "spring-webmvc-5", "spring-context-5", "spring-tx-5")),
+          java(ORDER),
+          java(ORDER_LINE),
+          java(REPOSITORY),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              public class OrderMapper {
+                  public String toSummary(Order order) {
+                      return order.getCustomer() + ": " + order.getLines().size();
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Controller;
+              import org.springframework.ui.Model;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.ResponseBody;
+
+              @Controller
+              class OrderController {
+                  private final OrderRepository orders;
+                  private final OrderMapper mapper;
+
+                  OrderController(OrderRepository orders, OrderMapper mapper) {
+                      this.orders = orders;
+                      this.mapper = mapper;
+                  }
+
+                  @GetMapping("/orders/{id}")
+                  String order(@PathVariable Long id, Model model) {
+                      model.addAttribute("order", orders.getById(id).getCustomer());
+                      return "order";
+                  }
+
+                  @ResponseBody
+                  @GetMapping("/orders/{id}/summary")
+                  String summary(@PathVariable Long id) {
+                      return mapper.toSummary(orders.getById(id));
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Controller;
+              import org.springframework.ui.Model;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.ResponseBody;
+
+              @Controller
+              class OrderController {
+                  private final OrderRepository orders;
+                  private final OrderMapper mapper;
+
+                  OrderController(OrderRepository orders, OrderMapper mapper) {
+                      this.orders = orders;
+                      this.mapper = mapper;
+                  }
+
+                  /*~~(Renders a view, whose template may load lazy associations of the model's entities outside of a transaction)~~>*/@GetMapping("/orders/{id}")
+                  String order(@PathVariable Long id, Model model) {
+                      model.addAttribute("order", orders.getById(id).getCustomer());
+                      return "order";
+                  }
+
+                  /*~~(Passes `Order` with lazy association `getLines` to `toSummary`, which may load it outside of a transaction)~~>*/@ResponseBody
+                  @GetMapping("/orders/{id}/summary")
+                  String summary(@PathVariable Long id) {
+                      return mapper.toSummary(orders.getById(id));
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                spring.datasource.url=jdbc:postgresql://localhost/orders
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepOpenInViewForHandlersCallingMethodsWithoutTransaction() {
+        rewriteRun(
+          java(ORDER),
+          java(ORDER_LINE),
+          java(REPOSITORY),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+
+              @Service
+              public class OrderService {
+                  private final OrderRepository orders;
+
+                  OrderService(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  public int lineCount(Long id) {
+                      return orders.getById(id).getLines().size();
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              @Transactional(readOnly = true)
+              public class OrderReports {
+                  private final OrderRepository orders;
+
+                  OrderReports(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  public int lineCount(Long id) {
+                      return orders.getById(id).getLines().size();
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class OrderController {
+                  private final OrderService service;
+                  private final OrderReports reports;
+
+                  OrderController(OrderService service, OrderReports reports) {
+                      this.service = service;
+                      this.reports = reports;
+                  }
+
+                  @GetMapping("/orders/{id}/lines")
+                  int lines(@PathVariable Long id) {
+                      return service.lineCount(id);
+                  }
+
+                  @GetMapping("/reports/{id}/lines")
+                  int reportedLines(@PathVariable Long id) {
+                      return reports.lineCount(id);
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class OrderController {
+                  private final OrderService service;
+                  private final OrderReports reports;
+
+                  OrderController(OrderService service, OrderReports reports) {
+                      this.service = service;
+                      this.reports = reports;
+                  }
+
+                  /*~~(Calls `OrderService.lineCount`, which loads lazy association `Order.getLines()` outside of a transaction)~~>*/@GetMapping("/orders/{id}/lines")
+                  int lines(@PathVariable Long id) {
+                      return service.lineCount(id);
+                  }
+
+                  @GetMapping("/reports/{id}/lines")
+                  int reportedLines(@PathVariable Long id) {
+                      return reports.lineCount(id);
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                spring.datasource.url=jdbc:postgresql://localhost/orders
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+
+    @Test
+    void configureEachProject() {
+        rewriteRun(
+          mavenProject("orders",
+            java(ORDER),
+            java(ORDER_LINE),
+            java(REPOSITORY),
+            //language=java
+            java(
+              """
+                package com.example;
+
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.PathVariable;
+                import org.springframework.web.bind.annotation.RestController;
+
+                @RestController
+                class OrderController {
+                    private final OrderRepository orders;
+
+                    OrderController(OrderRepository orders) {
+                        this.orders = orders;
+                    }
+
+                    @GetMapping("/orders/{id}/lines")
+                    int lines(@PathVariable Long id) {
+                        return orders.getById(id).getLines().size();
+                    }
+                }
+                """,
+              """
+                package com.example;
+
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.PathVariable;
+                import org.springframework.web.bind.annotation.RestController;
+
+                @RestController
+                class OrderController {
+                    private final OrderRepository orders;
+
+                    OrderController(OrderRepository orders) {
+                        this.orders = orders;
+                    }
+
+                    /*~~(Loads lazy association `Order.getLines()` outside of a transaction)~~>*/@GetMapping("/orders/{id}/lines")
+                    int lines(@PathVariable Long id) {
+                        return orders.getById(id).getLines().size();
+                    }
+                }
+                """
+            ),
+            srcMainResources(
+              properties(
+                """
+                  spring.datasource.url=jdbc:postgresql://localhost/orders
+                  """,
+                s -> s.path("application.properties")
+              )
+            )
+          ),
+          mavenProject("billing",
+            //language=java
+            java(
+              """
+                package com.example.billing;
+
+                import javax.persistence.Entity;
+                import javax.persistence.Id;
+
+                @Entity
+                public class Invoice {
+                    @Id
+                    private Long id;
+                }
+                """
+            ),
+            srcMainResources(
+              properties(
+                """
+                  spring.datasource.url=jdbc:postgresql://localhost/billing
+                  """,
+                """
+                  spring.datasource.url=jdbc:postgresql://localhost/billing
+                  spring.jpa.open-in-view=false
+                  """,
+                s -> s.path("application.properties")
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void batchSavesInLoops() {
+        rewriteRun(
+          spec -> spec.recipe(new ConfigureJpaOpenInViewAndBatching(100)),
+          java(ORDER),
+          java(ORDER_LINE, ORDER_LINE_WITHOUT_BATCHED_INSERTS),
+          java(REPOSITORY),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import java.util.List;
+
+              class OrderImporter {
+                  private final OrderRepository orders;
+
+                  OrderImporter(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  void importOrders(List<Order> batch) {
+                      for (Order order : batch) {
+                          orders.save(order);
+                      }
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              """
+                spring.jpa.open-in-view=true
+                """,
+              """
+                spring.jpa.open-in-view=true
+                spring.jpa.properties.hibernate.jdbc.batch_size=100
+                spring.jpa.properties.hibernate.order_inserts=true
+                spring.jpa.properties.hibernate.order_updates=true
+                """,
+              s -> s.path("application.properties")
+            )
+          )
+        );
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.data;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.UnboundedRepositoryLoads;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.openrewrite.java.Assertions.java;
+
+class StreamUnboundedRepositoryLoadsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new StreamUnboundedRepositoryLoads())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "javax.persistence-api", "spring-data-jpa-2.7", "spring-data-commons-2.7",
+            "spring-context-5", "spring-web-5", "spring-tx-5"));
+    }
+
+    //language=java
+    private static final String ORDER = """
+      package com.example;
+
+      import javax.persistence.Entity;
+      import javax.persistence.Id;
+
+      @Entity
+      public class Order {
+          @Id
+          private Long id;
+
+          private String customer;
+
+          public String getCustomer() {
+              return customer;
+          }
+      }
+      """;
+
+    //language=java
+    private static final String NOTIFICATIONS = """
+      package com.example;
+
+      public interface Notifications {
+          void remind(String customer);
+
+          void report(String report);
+      }
+      """;
+
+    @DocumentExample
+    @Test
+    void streamLoopsInScheduledJobs() {
+        rewriteRun(
+          java(ORDER),
+          java(NOTIFICATIONS),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.data.jpa.repository.JpaRepository;
+
+              import java.util.List;
+
+              public interface OrderRepository extends JpaRepository<Order, Long> {
+                  List<Order> findByStatus(String status);
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.data.jpa.repository.JpaRepository;
+              import org.springframework.data.jpa.repository.QueryHints;
+
+              import java.util.List;
+
+              import javax.persistence.QueryHint;
+              import java.util.stream.Stream;
+
+              public interface OrderRepository extends JpaRepository<Order, Long> {
+                  List<Order> findByStatus(String status);
+
+                  @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+                  Stream<Order> streamByStatus(String status);
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.scheduling.annotation.Scheduled;
+
+              class OrderReminders {
+                  private final OrderRepository orders;
+                  private final Notifications notifications;
+
+                  OrderReminders(OrderRepository orders, Notifications notifications) {
+                      this.orders = orders;
+                      this.notifications = notifications;
+                  }
+
+                  @Scheduled(cron = "0 0 8 * * *")
+                  void remindAll() {
+                      for (Order order : orders.findAll()) {
+                          notifications.remind(order.getCustomer());
+                      }
+                  }
+
+                  @Scheduled(cron = "0 0 9 * * *")
+                  public void remindOpen() {
+                      StringBuilder report = new StringBuilder();
+                      for (Order order : orders.findByStatus("OPEN")) {
+                          report.append(order.getCustomer()).append(' ');
+                      }
+                      System.out.println(report);
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.scheduling.annotation.Scheduled;
+              import org.springframework.transaction.annotation.Transactional;
+
+              import javax.persistence.EntityManager;
+              import javax.persistence.PersistenceContext;
+
+              import java.util.stream.Stream;
+
+              class OrderReminders {
+                  @PersistenceContext
+                  private EntityManager entityManager;
+                  private final OrderRepository orders;
+                  private final Notifications notifications;
+
+                  OrderReminders(OrderRepository orders, Notifications notifications) {
+                      this.orders = orders;
+                      this.notifications = notifications;
+                  }
+
+                  @Scheduled(cron = "0 0 8 * * *")
+                  void remindAll() {
+                      for (Order order : /*~~(Loads every matching `Order` into memory)~~>*/orders.findAll()) {
+                          notifications.remind(order.getCustomer());
+                      }
+                  }
+
+                  @Scheduled(cron = "0 0 9 * * *")
+                  @Transactional(readOnly = true)
+                  public void remindOpen() {
+                      StringBuilder report = new StringBuilder();
+                      try (Stream<Order> orderStream = orders.streamByStatus("OPEN")) {
+                          orderStream.forEach(order -> {
+                              report.append(order.getCustomer()).append(' ');
+                              entityManager.detach(order);
+                          });
+                      }
+                      System.out.println(report);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markLoadsThatCannotBeStreamed() {
+        rewriteRun(
+          spec -> spec.dataTable(UnboundedRepositoryLoads.Row.class, rows -> assertThat(rows)
+            .extracting(UnboundedRepositoryLoads.Row::getMethod, UnboundedRepositoryLoads.Row::getCaller)
+            .containsExactly(
+              tuple("findByStatus", "Controller"),
+              tuple("findAll", "Scheduled job")
+            )),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.data.jpa.repository.JpaRepository;
+
+              import java.util.List;
+
+              public interface OrderRepository extends JpaRepository<Order, Long> {
+                  List<Order> findByStatus(String status);
+                  List<Order> findTop10ByStatus(String status);
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.scheduling.annotation.Scheduled;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RequestParam;
+              import org.springframework.web.bind.annotation.RestController;
+
+              import java.util.List;
+
+              @RestController
+              class OrderController {
+                  private final OrderRepository orders;
+
+                  OrderController(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  @GetMapping("/orders")
+                  List<Order> orders(@RequestParam String status) {
+                      return orders.findByStatus(status);
+                  }
+
+                  @GetMapping("/orders/latest")
+                  List<Order> latest(@RequestParam String status) {
+                      return orders.findTop10ByStatus(status);
+                  }
+
+                  @Scheduled(fixedRate = 60000)
+                  void count() {
+                      int count = 0;
+                      for (Order order : orders.findAll()) {
+                          count++;
+                      }
+                      System.out.println(count);
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.scheduling.annotation.Scheduled;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RequestParam;
+              import org.springframework.web.bind.annotation.RestController;
+
+              import java.util.List;
+
+              @RestController
+              class OrderController {
+                  private final OrderRepository orders;
+
+                  OrderController(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  @GetMapping("/orders")
+                  List<Order> orders(@RequestParam String status) {
+                      return /*~~(Loads every matching `Order` into memory)~~>*/orders.findByStatus(status);
+                  }
+
+                  @GetMapping("/orders/latest")
+                  List<Order> latest(@RequestParam String status) {
+                      return orders.findTop10ByStatus(status);
+                  }
+
+                  @Scheduled(fixedRate = 60000)
+                  void count() {
+                      int count = 0;
+                      for (Order order : /*~~(Loads every matching `Order` into memory)~~>*/orders.findAll()) {
+                          count++;
+                      }
+                      System.out.println(count);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markLoopsInMethodsThatCannotBeReadOnly() {
+        rewriteRun(
+          java(ORDER),
+          java(NOTIFICATIONS),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.data.jpa.repository.JpaRepository;
+
+              import java.util.List;
+
+              public interface OrderRepository extends JpaRepository<Order, Long> {
+                  List<Order> findByStatus(String status);
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.scheduling.annotation.Scheduled;
+
+              class OrderReminders {
+                  private final OrderRepository orders;
+                  private final Notifications notifications;
+
+                  OrderReminders(OrderRepository orders, Notifications notifications) {
+                      this.orders = orders;
+                      this.notifications = notifications;
+                  }
+
+                  @Scheduled(cron = "0 0 9 * * *")
+                  public void reportOpen() {
+                      StringBuilder report = new StringBuilder();
+                      for (Order order : orders.findByStatus("OPEN")) {
+                          report.append(order.getCustomer()).append(' ');
+                      }
+                      notifications.report(report.toString());
+                  }
+
+                  @Scheduled(cron = "0 0 10 * * *")
+                  void printOpen() {
+                      for (Order order : orders.findByStatus("OPEN")) {
+                          System.out.println(order.getCustomer());
+                      }
+                  }
+
+                  @Scheduled(cron = "0 0 11 * * *")
+                  private void printClosed() {
+                      for (Order order : orders.findByStatus("CLOSED")) {
+                          System.out.println(order.getCustomer());
+                      }
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.scheduling.annotation.Scheduled;
+
+              class OrderReminders {
+                  private final OrderRepository orders;
+                  private final Notifications notifications;
+
+                  OrderReminders(OrderRepository orders, Notifications notifications) {
+                      this.orders = orders;
+                      this.notifications = notifications;
+                  }
+
+                  @Scheduled(cron = "0 0 9 * * *")
+                  public void reportOpen() {
+                      StringBuilder report = new StringBuilder();
+                      for (Order order : /*~~(Loads every matching `Order` into memory)~~>*/orders.findByStatus("OPEN")) {
+                          report.append(order.getCustomer()).append(' ');
+                      }
+                      notifications.report(report.toString());
+                  }
+
+                  @Scheduled(cron = "0 0 10 * * *")
+                  void printOpen() {
+                      for (Order order : /*~~(Loads every matching `Order` into memory)~~>*/orders.findByStatus("OPEN")) {
+                          System.out.println(order.getCustomer());
+                      }
+                  }
+
+                  @Scheduled(cron = "0 0 11 * * *")
+                  private void printClosed() {
+                      for (Order order : /*~~(Loads every matching `Order` into memory)~~>*/orders.findByStatus("CLOSED")) {
+                          System.out.println(order.getCustomer());
+                      }
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markBatchReaders() {
+        rewriteRun(
+          spec -> spec.parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+              "javax.persistence-api", "spring-data-jpa-2.7", "spring-data-commons-2.7")
+            //language=java
+            .dependsOn(
+              """
+                package org.springframework.batch.item;
+
+                public interface ItemReader<T> {
+                    T read() throws Exception;
+                }
+                """
+            )),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.data.jpa.repository.JpaRepository;
+
+              public interface OrderRepository extends JpaRepository<Order, Long> {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.batch.item.ItemReader;
+
+              import java.util.Iterator;
+
+              class OrderReader implements ItemReader<Order> {
+                  private final OrderRepository orders;
+                  private Iterator<Order> iterator;
+
+                  OrderReader(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  @Override
+                  public Order read() {
+                      if (iterator == null) {
+                          iterator = orders.findAll().iterator();
+                      }
+                      return iterator.hasNext() ? iterator.next() : null;
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.batch.item.ItemReader;
+
+              import java.util.Iterator;
+
+              class OrderReader implements ItemReader<Order> {
+                  private final OrderRepository orders;
+                  private Iterator<Order> iterator;
+
+                  OrderReader(OrderRepository orders) {
+                      this.orders = orders;
+                  }
+
+                  @Override
+                  public Order read() {
+                      if (iterator == null) {
+                          iterator = /*~~(Loads every matching `Order` into memory)~~>*/orders.findAll().iterator();
+                      }
+                      return iterator.hasNext() ? iterator.next() : null;
+                  }
+              }
+              """
+          )
+        );
+    }
+}
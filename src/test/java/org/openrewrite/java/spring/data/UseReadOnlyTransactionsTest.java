@@ -0,0 +1,340 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.data;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+
+class UseReadOnlyTransactionsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new UseReadOnlyTransactions())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+              "spring-data-commons-2.7", "spring-context-5", "spring-tx-5")
+            //language=java
+            .dependsOn(
+              """
+                package com.example;
+
+                import org.springframework.data.repository.CrudRepository;
+
+                public interface CustomerRepository extends CrudRepository<Customer, Long> {
+                    Customer findByName(String name);
+                    long countByActiveTrue();
+                }
+                """,
+              """
+                package com.example;
+
+                import java.util.List;
+
+                public class Customer {
+                    private String name;
+                    public String status;
+                    private List<String> tags;
+                    public String getName() {
+                        return name;
+                    }
+                    public List<String> getTags() {
+                        return tags;
+                    }
+                    public void setName(String name) {
+                        this.name = name;
+                    }
+                }
+                """
+            ));
+    }
+
+    @DocumentExample
+    @Test
+    void addReadOnlyToQueryOnlyMethods() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              @Transactional
+              class CustomerService {
+                  private final CustomerRepository customers;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  public String name(String name) {
+                      return customers.findByName(name).getName().toUpperCase();
+                  }
+
+                  @Transactional(timeout = 5)
+                  public long active() {
+                      return customers.countByActiveTrue();
+                  }
+
+                  public void rename(String name, String newName) {
+                      customers.findByName(name).setName(newName);
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              @Transactional
+              class CustomerService {
+                  private final CustomerRepository customers;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  @Transactional(readOnly = true)
+                  public String name(String name) {
+                      return customers.findByName(name).getName().toUpperCase();
+                  }
+
+                  @Transactional(readOnly = true, timeout = 5)
+                  public long active() {
+                      return customers.countByActiveTrue();
+                  }
+
+                  public void rename(String name, String newName) {
+                      customers.findByName(name).setName(newName);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markMixedReadsAndWrites() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              class CustomerService {
+                  private final CustomerRepository customers;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  @Transactional
+                  public void register(Customer customer) {
+                      if (customers.findByName(customer.getName()) == null) {
+                          customers.save(customer);
+                      }
+                  }
+
+                  @Transactional(readOnly = true)
+                  public long active() {
+                      return customers.countByActiveTrue();
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              class CustomerService {
+                  private final CustomerRepository customers;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  /*~~(Reads with `findByName` and writes with `save` in one read-write transaction)~~>*/@Transactional
+                  public void register(Customer customer) {
+                      if (customers.findByName(customer.getName()) == null) {
+                          customers.save(customer);
+                      }
+                  }
+
+                  @Transactional(readOnly = true)
+                  public long active() {
+                      return customers.countByActiveTrue();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void repeatClassLevelAttributes() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Propagation;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              @Transactional(value = "customerTransactionManager", propagation = Propagation.REQUIRES_NEW, timeout = 5)
+              class CustomerService {
+                  private final CustomerRepository customers;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  public long active() {
+                      return customers.countByActiveTrue();
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Propagation;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @Service
+              @Transactional(value = "customerTransactionManager", propagation = Propagation.REQUIRES_NEW, timeout = 5)
+              class CustomerService {
+                  private final CustomerRepository customers;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  @Transactional(value = "customerTransactionManager", propagation = Propagation.REQUIRES_NEW, timeout = 5, readOnly = true)
+                  public long active() {
+                      return customers.countByActiveTrue();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void leaveMethodsThatModifyLoadedEntities() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              import java.util.ArrayList;
+              import java.util.List;
+
+              @Service
+              @Transactional
+              class CustomerService {
+                  private final CustomerRepository customers;
+                  private int lookups;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  public void tag(String name, String tag) {
+                      customers.findByName(name).getTags().add(tag);
+                  }
+
+                  public void close(String name) {
+                      customers.findByName(name).status = "CLOSED";
+                  }
+
+                  public long active() {
+                      lookups++;
+                      return customers.countByActiveTrue();
+                  }
+
+                  public List<String> tags(String name) {
+                      List<String> tags = new ArrayList<>();
+                      tags.addAll(customers.findByName(name).getTags());
+                      return tags;
+                  }
+              }
+              """,
+            """
+              package com.example;
+
+              import org.springframework.stereotype.Service;
+              import org.springframework.transaction.annotation.Transactional;
+
+              import java.util.ArrayList;
+              import java.util.List;
+
+              @Service
+              @Transactional
+              class CustomerService {
+                  private final CustomerRepository customers;
+                  private int lookups;
+
+                  CustomerService(CustomerRepository customers) {
+                      this.customers = customers;
+                  }
+
+                  public void tag(String name, String tag) {
+                      customers.findByName(name).getTags().add(tag);
+                  }
+
+                  public void close(String name) {
+                      customers.findByName(name).status = "CLOSED";
+                  }
+
+                  public long active() {
+                      lookups++;
+                      return customers.countByActiveTrue();
+                  }
+
+                  @Transactional(readOnly = true)
+                  public List<String> tags(String name) {
+                      List<String> tags = new ArrayList<>();
+                      tags.addAll(customers.findByName(name).getTags());
+                      return tags;
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.framework;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+
+class AddProxyBeanMethodsFalseTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new AddProxyBeanMethodsFalse())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(), "spring-context-5.+"));
+    }
+
+    @DocumentExample
+    @Test
+    void addProxyBeanMethodsFalse() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              class ClockConfiguration {
+                  @Bean
+                  java.time.Clock clock() {
+                      return java.time.Clock.systemUTC();
+                  }
+
+                  @Bean
+                  String zone(java.time.Clock clock) {
+                      return clock.getZone().getId();
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration(proxyBeanMethods = false)
+              class ClockConfiguration {
+                  @Bean
+                  java.time.Clock clock() {
+                      return java.time.Clock.systemUTC();
+                  }
+
+                  @Bean
+                  String zone(java.time.Clock clock) {
+                      return clock.getZone().getId();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepProxyForInterBeanCalls() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              class ClockConfiguration {
+                  @Bean
+                  java.time.Clock clock() {
+                      return java.time.Clock.systemUTC();
+                  }
+
+                  @Bean
+                  String zone() {
+                      return this.clock().getZone().getId();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepProxyForInterBeanMethodReference() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import java.util.function.Supplier;
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration
+              class ClockConfiguration {
+                  @Bean
+                  java.time.Clock clock() {
+                      return java.time.Clock.systemUTC();
+                  }
+
+                  @Bean
+                  Supplier<java.time.Clock> clockSupplier() {
+                      return this::clock;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepExistingAttribute() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration(proxyBeanMethods = true)
+              class ClockConfiguration {
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void addToExistingAttributes() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration("clocks")
+              class ClockConfiguration {
+                  @Bean
+                  java.time.Clock clock() {
+                      return java.time.Clock.systemUTC();
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+
+              @Configuration(proxyBeanMethods = false, value = "clocks")
+              class ClockConfiguration {
+                  @Bean
+                  java.time.Clock clock() {
+                      return java.time.Clock.systemUTC();
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.framework;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+
+class JdbcTemplateUpdateInLoopToBatchUpdateTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new JdbcTemplateUpdateInLoopToBatchUpdate())
+          .parser(JavaParser.fromJavaVersion()
+            .classpathFromResources(new InMemoryExecutionContext(),
+              "spring-jdbc-4.1.+",
+              "spring-tx-4.1.+",
+              "spring-beans-5.+",
+              "spring-core-5.+"
+            )
+          );
+    }
+
+    @DocumentExample
+    @Test
+    void updateInForEachLoop() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+
+              import java.util.List;
+
+              class PersonDao {
+                  private static final String INSERT = "insert into person (name, age) values (?, ?)";
+
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonDao(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  void insert(List<String> names) {
+                      for (String name : names) {
+                          int age = name.length();
+                          jdbcTemplate.update(INSERT, name, age);
+                      }
+                  }
+              }
+              """,
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+
+              import java.util.ArrayList;
+              import java.util.List;
+
+              class PersonDao {
+                  private static final String INSERT = "insert into person (name, age) values (?, ?)";
+
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonDao(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  void insert(List<String> names) {
+                      List<Object[]> batchArgs = new ArrayList<>();
+                      for (String name : names) {
+                          int age = name.length();
+                          batchArgs.add(new Object[]{name, age});
+                      }
+                      jdbcTemplate.batchUpdate(INSERT, batchArgs);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void namedParameterUpdateInForEachCallback() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+              import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+              import java.util.List;
+
+              class PersonDao {
+                  private NamedParameterJdbcTemplate jdbcTemplate;
+
+                  void insert(List<String> names) {
+                      names.forEach(name -> jdbcTemplate.update("insert into person (name) values (:name)", new MapSqlParameterSource("name", name)));
+                  }
+              }
+              """,
+            """
+              import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+              import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+              import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+              import java.util.ArrayList;
+              import java.util.List;
+
+              class PersonDao {
+                  private NamedParameterJdbcTemplate jdbcTemplate;
+
+                  void insert(List<String> names) {
+                      List<SqlParameterSource> batchArgs = new ArrayList<>();
+                      names.forEach(name -> batchArgs.add(new MapSqlParameterSource("name", name)));
+                      jdbcTemplate.batchUpdate("insert into person (name) values (:name)", batchArgs.toArray(new SqlParameterSource[0]));
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noChangeWhenUpdateCountIsUsed() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+
+              import java.util.List;
+
+              class PersonDao {
+                  private JdbcTemplate jdbcTemplate;
+
+                  int insert(List<String> names) {
+                      int inserted = 0;
+                      for (String name : names) {
+                          inserted += jdbcTemplate.update("insert into person (name) values (?)", name);
+                      }
+                      return inserted;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noChangeForPerRowSqlOrErrorHandling() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.dao.DataAccessException;
+              import org.springframework.jdbc.core.JdbcTemplate;
+
+              import java.util.List;
+
+              class PersonDao {
+                  private JdbcTemplate jdbcTemplate;
+
+                  void insert(String table, List<String> names) {
+                      for (String name : names) {
+                          jdbcTemplate.update("insert into " + table + " (name) values (?)", name);
+                      }
+                      for (String name : names) {
+                          try {
+                              jdbcTemplate.update("insert into person (name) values (?)", name);
+                          } catch (DataAccessException e) {
+                              // skip duplicates
+                          }
+                      }
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void noChangeWhenLoopCallsOtherBeans() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+
+              import java.util.List;
+
+              class PersonDao {
+                  private JdbcTemplate jdbcTemplate;
+                  private AddressDao addressDao;
+
+                  void insert(List<String> names) {
+                      for (String name : names) {
+                          jdbcTemplate.update("insert into person (name, address) values (?, ?)", name, addressDao.getDefault());
+                      }
+                  }
+              }
+
+              class AddressDao {
+                  String getDefault() {
+                      return "";
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.BlockingKafkaSends;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class ReplaceBlockingKafkaSendGetTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new ReplaceBlockingKafkaSendGet())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "kafka-clients-3",
+            "spring-beans-5",
+            "spring-context-5",
+            "spring-core-5",
+            "spring-kafka-2.9",
+            "spring-messaging-5",
+            "slf4j-api"
+          ));
+    }
+
+    @DocumentExample
+    @Test
+    void loggedSendCompletesAsynchronously() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.slf4j.Logger;
+              import org.slf4j.LoggerFactory;
+              import org.springframework.kafka.core.KafkaTemplate;
+              import org.springframework.kafka.support.SendResult;
+
+              import java.util.concurrent.ExecutionException;
+
+              class OrderPublisher {
+                  private static final Logger log = LoggerFactory.getLogger(OrderPublisher.class);
+
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  void publish(String order) {
+                      try {
+                          SendResult<String, String> sent = kafkaTemplate.send("orders", order).get();
+                          log.info("Published order at offset {}", sent.getRecordMetadata().offset());
+                      } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                      } catch (ExecutionException e) {
+                          log.error("Failed to publish order", e);
+                      }
+                  }
+              }
+              """,
+            """
+              import org.slf4j.Logger;
+              import org.slf4j.LoggerFactory;
+              import org.springframework.kafka.core.KafkaTemplate;
+              import org.springframework.kafka.support.SendResult;
+
+              import java.util.concurrent.ExecutionException;
+
+              class OrderPublisher {
+                  private static final Logger log = LoggerFactory.getLogger(OrderPublisher.class);
+
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  void publish(String order) {
+                      kafkaTemplate.send("orders", order).completable().whenComplete((sent, e) -> {
+                          if (e == null) {
+                              log.info("Published order at offset {}", sent.getRecordMetadata().offset());
+                          } else {
+                              log.error("Failed to publish order", e);
+                          }
+                      });
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void ignoredSendNoLongerWaits() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.springframework.kafka.core.KafkaTemplate;
+
+              import java.util.concurrent.ExecutionException;
+
+              class OrderPublisher {
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  void publish(String order) {
+                      try {
+                          kafkaTemplate.send("orders", order).get();
+                      } catch (InterruptedException | ExecutionException e) {
+                      }
+                  }
+              }
+              """,
+            """
+              import org.springframework.kafka.core.KafkaTemplate;
+
+              import java.util.concurrent.ExecutionException;
+
+              class OrderPublisher {
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  void publish(String order) {
+                      kafkaTemplate.send("orders", order);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markSendWhoseSynchronousFailuresAreCaught() {
+        //language=java
+        rewriteRun(
+          java(
+            """
+              import org.slf4j.Logger;
+              import org.slf4j.LoggerFactory;
+              import org.springframework.kafka.core.KafkaTemplate;
+
+              class OrderPublisher {
+                  private static final Logger log = LoggerFactory.getLogger(OrderPublisher.class);
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  void publish(String order) {
+                      try {
+                          kafkaTemplate.send("orders", order).get();
+                      } catch (Exception e) {
+                          log.error("Failed to publish order", e);
+                      }
+                  }
+              }
+              """,
+            """
+              import org.slf4j.Logger;
+              import org.slf4j.LoggerFactory;
+              import org.springframework.kafka.core.KafkaTemplate;
+
+              class OrderPublisher {
+                  private static final Logger log = LoggerFactory.getLogger(OrderPublisher.class);
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  void publish(String order) {
+                      try {
+                          /*~~(Send failures are handled synchronously)~~>*/kafkaTemplate.send("orders", order).get();
+                      } catch (Exception e) {
+                          log.error("Failed to publish order", e);
+                      }
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markSendWhoseResultIsNeeded() {
+        rewriteRun(
+          spec -> spec.dataTable(BlockingKafkaSends.Row.class, rows -> assertThat(rows)
+            .singleElement()
+            .satisfies(row -> {
+                assertThat(row.getClassName()).isEqualTo("OrderPublisher");
+                assertThat(row.getSend()).isEqualTo("kafkaTemplate.send(\"orders\", order).get(5, TimeUnit.SECONDS)");
+                assertThat(row.getReason()).isEqualTo("The send result is used synchronously");
+            })),
+          //language=java
+          java(
+            """
+              import org.springframework.kafka.core.KafkaTemplate;
+
+              import java.util.concurrent.TimeUnit;
+
+              class OrderPublisher {
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  long publish(String order) throws Exception {
+                      return kafkaTemplate.send("orders", order).get(5, TimeUnit.SECONDS).getRecordMetadata().offset();
+                  }
+              }
+              """,
+            """
+              import org.springframework.kafka.core.KafkaTemplate;
+
+              import java.util.concurrent.TimeUnit;
+
+              class OrderPublisher {
+                  private KafkaTemplate<String, String> kafkaTemplate;
+
+                  long publish(String order) throws Exception {
+                      return /*~~(The send result is used synchronously)~~>*/kafkaTemplate.send("orders", order).get(5, TimeUnit.SECONDS).getRecordMetadata().offset();
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.mvc;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.mavenProject;
+import static org.openrewrite.java.Assertions.srcMainResources;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class MigrateToPathPatternParserTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateToPathPatternParser())
+          .parser(JavaParser.fromJavaVersion()
+            .classpathFromResources(new InMemoryExecutionContext(), "spring-webmvc-5", "spring-web-5", "spring-context-5", "spring-core-5"));
+    }
+
+    @DocumentExample
+    @Test
+    void removeAntPathMatcher() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Configuration;
+              import org.springframework.util.AntPathMatcher;
+              import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+              import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+              @Configuration
+              class WebConfiguration implements WebMvcConfigurer {
+                  @Override
+                  public void configurePathMatch(PathMatchConfigurer configurer) {
+                      configurer.setPathMatcher(new AntPathMatcher());
+                      configurer.setUseSuffixPatternMatch(false);
+                      configurer.setUseTrailingSlashMatch(true);
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Configuration;
+              import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+              import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+              @Configuration
+              class WebConfiguration implements WebMvcConfigurer {
+                  @Override
+                  public void configurePathMatch(PathMatchConfigurer configurer) {
+                      configurer.setUseTrailingSlashMatch(true);
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              "spring.mvc.pathmatch.matching-strategy=ant_path_matcher",
+              "spring.mvc.pathmatch.matching-strategy=path_pattern_parser"
+            )
+          )
+        );
+    }
+
+    @Test
+    void replaceDoubleWildcardWithinSegment() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class StaticController {
+                  @GetMapping(value = {"/static/**.html", "/assets/**"}, produces = "text/**")
+                  String page() {
+                      return "";
+                  }
+              }
+              """,
+            """
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class StaticController {
+                  @GetMapping(value = {"/static/*.html", "/assets/**"}, produces = "text/**")
+                  String page() {
+                      return "";
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            //language=yaml
+            yaml(
+              """
+                spring:
+                  mvc:
+                    pathmatch:
+                      matching-strategy: ant_path_matcher
+                """,
+              """
+                spring:
+                  mvc:
+                    pathmatch:
+                      matching-strategy: path_pattern_parser
+                """
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepAntPathMatcherForDoubleWildcardBeforeLastSegment() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class ReportController {
+                  @GetMapping("/reports/**/summary")
+                  String summary() {
+                      return "";
+                  }
+              }
+              """,
+            """
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class ReportController {
+                  @GetMapping(/*~~(`**` is only supported as the last path segment by `PathPatternParser`)~~>*/"/reports/**/summary")
+                  String summary() {
+                      return "";
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              "spring.mvc.pathmatch.matching-strategy=ant_path_matcher"
+            )
+          )
+        );
+    }
+
+    @Test
+    void keepAntPathMatcherForConstantMapping() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class ReportController {
+                  static final String REPORTS = "/reports/**/summary";
+
+                  @GetMapping(value = {REPORTS, "/summary"}, produces = "application/json")
+                  String summary() {
+                      return "";
+                  }
+              }
+              """,
+            """
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class ReportController {
+                  static final String REPORTS = "/reports/**/summary";
+
+                  @GetMapping(value = {/*~~(Not a literal, so it can't be verified to be supported by `PathPatternParser`)~~>*/REPORTS, "/summary"}, produces = "application/json")
+                  String summary() {
+                      return "";
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              "spring.mvc.pathmatch.matching-strategy=ant_path_matcher"
+            )
+          )
+        );
+    }
+
+    @Test
+    void migrateRegistryPatterns() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Configuration;
+              import org.springframework.web.servlet.config.annotation.CorsRegistry;
+              import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+              import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+              import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+              import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+              @Configuration
+              class WebConfiguration implements WebMvcConfigurer {
+                  @Override
+                  public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                      registry.addResourceHandler("/static/**.css", "/**/favicon.ico").addResourceLocations("classpath:/static/");
+                  }
+
+                  @Override
+                  public void addInterceptors(InterceptorRegistry registry) {
+                      registry.addInterceptor(new HandlerInterceptorAdapter() {
+                      }).addPathPatterns("/api/**").excludePathPatterns("/api/**.json");
+                  }
+
+                  @Override
+                  public void addCorsMappings(CorsRegistry registry) {
+                      registry.addMapping("/api/**");
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Configuration;
+              import org.springframework.web.servlet.config.annotation.CorsRegistry;
+              import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+              import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+              import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+              import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+              @Configuration
+              class WebConfiguration implements WebMvcConfigurer {
+                  @Override
+                  public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                      registry.addResourceHandler("/static/*.css", /*~~(`**` is only supported as the last path segment by `PathPatternParser`)~~>*/"/**/favicon.ico").addResourceLocations("classpath:/static/");
+                  }
+
+                  @Override
+                  public void addInterceptors(InterceptorRegistry registry) {
+                      registry.addInterceptor(new HandlerInterceptorAdapter() {
+                      }).addPathPatterns("/api/**").excludePathPatterns("/api/*.json");
+                  }
+
+                  @Override
+                  public void addCorsMappings(CorsRegistry registry) {
+                      registry.addMapping("/api/**");
+                  }
+              }
+              """
+          ),
+          srcMainResources(
+            properties(
+              "spring.mvc.pathmatch.matching-strategy=ant_path_matcher"
+            )
+          )
+        );
+    }
+
+    @Test
+    void switchEachProjectOnItsOwn() {
+        rewriteRun(
+          mavenProject("reports",
+            //language=java
+            java(
+              """
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.RestController;
+
+                @RestController
+                class ReportController {
+                    @GetMapping("/reports/**/summary")
+                    String summary() {
+                        return "";
+                    }
+                }
+                """,
+              """
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.RestController;
+
+                @RestController
+                class ReportController {
+                    @GetMapping(/*~~(`**` is only supported as the last path segment by `PathPatternParser`)~~>*/"/reports/**/summary")
+                    String summary() {
+                        return "";
+                    }
+                }
+                """
+            ),
+            srcMainResources(
+              properties(
+                "spring.mvc.pathmatch.matching-strategy=ant_path_matcher"
+              )
+            )
+          ),
+          mavenProject("orders",
+            //language=java
+            java(
+              """
+                import org.springframework.web.bind.annotation.GetMapping;
+                import org.springframework.web.bind.annotation.RestController;
+
+                @RestController
+                class OrderController {
+                    @GetMapping("/orders/**")
+                    String orders() {
+                        return "";
+                    }
+                }
+                """
+            ),
+            srcMainResources(
+              properties(
+                "spring.mvc.pathmatch.matching-strategy=ant_path_matcher",
+                "spring.mvc.pathmatch.matching-strategy=path_pattern_parser"
+              )
+            )
+          )
+        );
+    }
+
+    @Test
+    void markCustomUrlPathHelper() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.util.AntPathMatcher;
+              import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+              import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+              import org.springframework.web.util.UrlPathHelper;
+
+              class WebConfiguration implements WebMvcConfigurer {
+                  @Override
+                  public void configurePathMatch(PathMatchConfigurer configurer) {
+                      configurer.setPathMatcher(new AntPathMatcher());
+                      configurer.setUrlPathHelper(new UrlPathHelper());
+                  }
+              }
+              """,
+            """
+              import org.springframework.util.AntPathMatcher;
+              import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+              import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+              import org.springframework.web.util.UrlPathHelper;
+
+              class WebConfiguration implements WebMvcConfigurer {
+                  @Override
+                  public void configurePathMatch(PathMatchConfigurer configurer) {
+                      configurer.setPathMatcher(new AntPathMatcher());
+                      /*~~(Not supported by `PathPatternParser`)~~>*/configurer.setUrlPathHelper(new UrlPathHelper());
+                  }
+              }
+              """
+          )
+        );
+    }
+}
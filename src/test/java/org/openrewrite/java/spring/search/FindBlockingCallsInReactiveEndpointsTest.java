@@ -0,0 +1,299 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.search;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.ReactiveBlockingCalls;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class FindBlockingCallsInReactiveEndpointsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new FindBlockingCallsInReactiveEndpoints())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "spring-web-5.+", "spring-webflux-5.+", "spring-jdbc-4.1.+", "spring-context-5.+", "spring-core-5.+", "spring-beans-5.+", "spring-tx-5.+", "reactor-core", "reactive-streams"));
+    }
+
+    @DocumentExample
+    @Test
+    void transitiveBlockingCall() {
+        rewriteRun(
+          spec -> spec.dataTable(ReactiveBlockingCalls.Row.class, rows -> assertThat(rows)
+            .singleElement()
+            .satisfies(row -> {
+                assertThat(row.getHandler()).isEqualTo("find");
+                assertThat(row.getBlockingCall()).isEqualTo("JdbcTemplate.queryForObject");
+                assertThat(row.getCallPath()).isEqualTo("find -> load -> JdbcTemplate.queryForObject");
+            })),
+          //language=java
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+              import org.springframework.web.bind.annotation.*;
+              import reactor.core.publisher.Mono;
+
+              @RestController
+              class PersonController {
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonController(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  @GetMapping("/person/{id}")
+                  Mono<String> find(@PathVariable String id) {
+                      return Mono.just(load(id));
+                  }
+
+                  private String load(String id) {
+                      return jdbcTemplate.queryForObject("select name from person where id = ?", String.class, id);
+                  }
+              }
+              """,
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+              import org.springframework.web.bind.annotation.*;
+              import reactor.core.publisher.Mono;
+
+              @RestController
+              class PersonController {
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonController(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  /*~~(Calls blocking JdbcTemplate.queryForObject)~~>*/@GetMapping("/person/{id}")
+                  Mono<String> find(@PathVariable String id) {
+                      return Mono.just(load(id));
+                  }
+
+                  private String load(String id) {
+                      return jdbcTemplate.queryForObject("select name from person where id = ?", String.class, id);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void handlerFunctionBlocking() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.web.reactive.function.server.ServerRequest;
+              import org.springframework.web.reactive.function.server.ServerResponse;
+              import reactor.core.publisher.Mono;
+
+              class PersonHandler {
+                  Mono<ServerResponse> get(ServerRequest request) {
+                      String name = Mono.just("name").block();
+                      return ServerResponse.ok().bodyValue(name);
+                  }
+              }
+              """,
+            """
+              import org.springframework.web.reactive.function.server.ServerRequest;
+              import org.springframework.web.reactive.function.server.ServerResponse;
+              import reactor.core.publisher.Mono;
+
+              class PersonHandler {
+                  /*~~(Calls blocking Mono.block)~~>*/Mono<ServerResponse> get(ServerRequest request) {
+                      String name = Mono.just("name").block();
+                      return ServerResponse.ok().bodyValue(name);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void routerFunctionHandlerLambda() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.web.reactive.function.server.RouterFunction;
+              import org.springframework.web.reactive.function.server.ServerResponse;
+
+              import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+              import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+              class Routes {
+                  RouterFunction<ServerResponse> routes() {
+                      return route(GET("/slow"), request -> {
+                          pause();
+                          return ServerResponse.ok().build();
+                      });
+                  }
+
+                  private void pause() {
+                      try {
+                          Thread.sleep(100);
+                      } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                      }
+                  }
+              }
+              """,
+            """
+              import org.springframework.web.reactive.function.server.RouterFunction;
+              import org.springframework.web.reactive.function.server.ServerResponse;
+
+              import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+              import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+              class Routes {
+                  /*~~(Calls blocking Thread.sleep)~~>*/RouterFunction<ServerResponse> routes() {
+                      return route(GET("/slow"), request -> {
+                          pause();
+                          return ServerResponse.ok().build();
+                      });
+                  }
+
+                  private void pause() {
+                      try {
+                          Thread.sleep(100);
+                      } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                      }
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void blockingCallOffloadedWithSubscribeOn() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+              import org.springframework.web.bind.annotation.*;
+              import reactor.core.publisher.Mono;
+              import reactor.core.scheduler.Schedulers;
+
+              @RestController
+              class PersonController {
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonController(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  @GetMapping("/count")
+                  Mono<Integer> count() {
+                      return Mono.fromCallable(() -> jdbcTemplate.queryForObject("select count(*) from person", Integer.class))
+                        .subscribeOn(Schedulers.boundedElastic());
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void blockingArgumentEvaluatedBeforeSubscribeOn() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+              import org.springframework.web.bind.annotation.*;
+              import reactor.core.publisher.Mono;
+              import reactor.core.scheduler.Schedulers;
+
+              @RestController
+              class PersonController {
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonController(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  @GetMapping("/count")
+                  Mono<Integer> count() {
+                      return Mono.just(jdbcTemplate.queryForObject("select count(*) from person", Integer.class))
+                        .subscribeOn(Schedulers.boundedElastic());
+                  }
+              }
+              """,
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+              import org.springframework.web.bind.annotation.*;
+              import reactor.core.publisher.Mono;
+              import reactor.core.scheduler.Schedulers;
+
+              @RestController
+              class PersonController {
+                  private final JdbcTemplate jdbcTemplate;
+
+                  PersonController(JdbcTemplate jdbcTemplate) {
+                      this.jdbcTemplate = jdbcTemplate;
+                  }
+
+                  /*~~(Calls blocking JdbcTemplate.queryForObject)~~>*/@GetMapping("/count")
+                  Mono<Integer> count() {
+                      return Mono.just(jdbcTemplate.queryForObject("select count(*) from person", Integer.class))
+                        .subscribeOn(Schedulers.boundedElastic());
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void nonReactiveEndpoint() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.jdbc.core.JdbcTemplate;
+              import org.springframework.web.bind.annotation.*;
+              import reactor.core.publisher.Mono;
+
+              @RestController
+              class PersonController {
+                  private JdbcTemplate jdbcTemplate;
+
+                  @GetMapping("/count")
+                  Integer count() {
+                      return jdbcTemplate.queryForObject("select count(*) from person", Integer.class);
+                  }
+
+                  Mono<String> unused() {
+                      return Mono.empty();
+                  }
+              }
+              """
+          )
+        );
+    }
+}
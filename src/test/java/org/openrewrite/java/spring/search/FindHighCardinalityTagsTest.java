@@ -0,0 +1,190 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.search;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.HighCardinalityTags;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.openrewrite.java.Assertions.java;
+
+class FindHighCardinalityTagsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new FindHighCardinalityTags())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "micrometer-core", "micrometer-commons", "micrometer-observation",
+            "spring-context-6", "spring-beans-6", "spring-web-6", "jakarta.servlet-api"));
+    }
+
+    @DocumentExample
+    @Test
+    void findUnboundedLowCardinalityKeyValues() {
+        rewriteRun(
+          spec -> spec.dataTable(HighCardinalityTags.Row.class, rows -> assertThat(rows)
+            .extracting(HighCardinalityTags.Row::getTagKey, HighCardinalityTags.Row::getValueSource)
+            .containsExactly(
+              tuple("uri", "request URI"),
+              tuple("user", "user ID")
+            )),
+          //language=java
+          java(
+            """
+              import io.micrometer.common.KeyValue;
+              import io.micrometer.common.KeyValues;
+              import jakarta.servlet.http.HttpServletRequest;
+              import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+              import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+              class CustomObservationConvention extends DefaultServerRequestObservationConvention {
+                  @Override
+                  public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                      HttpServletRequest request = context.getCarrier();
+                      String user = request.getRemoteUser();
+                      return super.getLowCardinalityKeyValues(context)
+                              .and(KeyValue.of("method", request.getMethod()))
+                              .and(KeyValue.of("uri", request.getRequestURI()))
+                              .and(KeyValue.of("user", user));
+                  }
+
+                  @Override
+                  public KeyValues getHighCardinalityKeyValues(ServerRequestObservationContext context) {
+                      return KeyValues.of("query", context.getCarrier().getQueryString());
+                  }
+              }
+              """,
+            """
+              import io.micrometer.common.KeyValue;
+              import io.micrometer.common.KeyValues;
+              import jakarta.servlet.http.HttpServletRequest;
+              import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+              import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+              class CustomObservationConvention extends DefaultServerRequestObservationConvention {
+                  @Override
+                  public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                      HttpServletRequest request = context.getCarrier();
+                      String user = request.getRemoteUser();
+                      return super.getLowCardinalityKeyValues(context)
+                              .and(KeyValue.of("method", request.getMethod()))
+                              .and(KeyValue.of("uri", /*~~(High-cardinality request URI)~~>*/request.getRequestURI()))
+                              .and(KeyValue.of("user", /*~~(High-cardinality user ID)~~>*/user));
+                  }
+
+                  @Override
+                  public KeyValues getHighCardinalityKeyValues(ServerRequestObservationContext context) {
+                      return KeyValues.of("query", context.getCarrier().getQueryString());
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void findUnboundedMeterTags() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import io.micrometer.core.instrument.Counter;
+              import io.micrometer.core.instrument.MeterRegistry;
+              import io.micrometer.core.instrument.Tags;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class OrderController {
+                  private final MeterRegistry registry;
+
+                  OrderController(MeterRegistry registry) {
+                      this.registry = registry;
+                  }
+
+                  @GetMapping("/orders/{id}")
+                  String order(@PathVariable String id) {
+                      try {
+                          Counter.builder("orders").tag("order", "order-" + id).register(registry).increment();
+                          return id;
+                      } catch (IllegalStateException e) {
+                          registry.counter("order.errors", Tags.of("exception", e.getClass().getSimpleName(), "message", e.getMessage())).increment();
+                          throw e;
+                      }
+                  }
+              }
+              """,
+            """
+              import io.micrometer.core.instrument.Counter;
+              import io.micrometer.core.instrument.MeterRegistry;
+              import io.micrometer.core.instrument.Tags;
+              import org.springframework.web.bind.annotation.GetMapping;
+              import org.springframework.web.bind.annotation.PathVariable;
+              import org.springframework.web.bind.annotation.RestController;
+
+              @RestController
+              class OrderController {
+                  private final MeterRegistry registry;
+
+                  OrderController(MeterRegistry registry) {
+                      this.registry = registry;
+                  }
+
+                  @GetMapping("/orders/{id}")
+                  String order(@PathVariable String id) {
+                      try {
+                          Counter.builder("orders").tag("order", /*~~(High-cardinality path variable)~~>*/"order-" + id).register(registry).increment();
+                          return id;
+                      } catch (IllegalStateException e) {
+                          registry.counter("order.errors", Tags.of("exception", e.getClass().getSimpleName(), "message", /*~~(High-cardinality exception message)~~>*/e.getMessage())).increment();
+                          throw e;
+                      }
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void ignoreBoundedTags() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import io.micrometer.core.instrument.MeterRegistry;
+              import io.micrometer.core.instrument.Tag;
+              import jakarta.servlet.http.HttpServletRequest;
+
+              class RequestMetrics {
+                  void record(MeterRegistry registry, HttpServletRequest request, int status) {
+                      registry.counter("requests", java.util.List.of(
+                              Tag.of("method", request.getMethod()),
+                              Tag.of("status", String.valueOf(status)))).increment();
+                  }
+              }
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.security6;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class SimplifyRequestMatchersTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new SimplifyRequestMatchers(null))
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "spring-context-6", "spring-beans-6", "spring-web-6",
+            "spring-security-web-6", "spring-security-config-6", "spring-security-core-6"));
+    }
+
+    @DocumentExample
+    @Test
+    void mergeRules() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers("/health").permitAll()
+                              .requestMatchers("/static/**").permitAll()
+                              .requestMatchers("/admin/**").hasRole("ADMIN")
+                              .anyRequest().authenticated());
+                      return http.build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers("/health", "/static/**").permitAll()
+                              .requestMatchers("/admin/**").hasRole("ADMIN")
+                              .anyRequest().authenticated());
+                      return http.build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void markRegularExpressionsWithPathPattern() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+              import org.springframework.security.web.util.matcher.RegexRequestMatcher;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers(new RegexRequestMatcher("^/health$", null)).permitAll()
+                              .requestMatchers(RegexRequestMatcher.regexMatcher("^/api/.*")).authenticated()
+                              .anyRequest().denyAll());
+                      return http.build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+              import org.springframework.security.web.util.matcher.RegexRequestMatcher;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers(/*~~(Could be the path pattern `/health`, which unlike the regular expression ignores the query string)~~>*/new RegexRequestMatcher("^/health$", null)).permitAll()
+                              .requestMatchers(/*~~(Could be the path pattern `/api/**`, which unlike the regular expression also matches `/api` and ignores the query string)~~>*/RegexRequestMatcher.regexMatcher("^/api/.*")).authenticated()
+                              .anyRequest().denyAll());
+                      return http.build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepRegularExpressionsWithoutPathPattern() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+              import org.springframework.security.web.util.matcher.RegexRequestMatcher;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers(new RegexRequestMatcher("^/users/[0-9]+$", null)).hasRole("ADMIN")
+                              .requestMatchers(new RegexRequestMatcher(".*\\\\.css", "GET")).permitAll()
+                              .anyRequest().authenticated());
+                      return http.build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepRulesWithDifferentAuthorization() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers("/admin/**").hasRole("ADMIN")
+                              .requestMatchers("/ops/**").hasRole("OPS")
+                              .requestMatchers("/public/**").permitAll()
+                              .anyRequest().authenticated());
+                      return http.build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void reportLongChains() {
+        rewriteRun(
+          spec -> spec.recipe(new SimplifyRequestMatchers(2)),
+          //language=java
+          java(
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers("/admin/**").hasRole("ADMIN")
+                              .requestMatchers("/ops/**", "/metrics/**").hasRole("OPS")
+                              .anyRequest().authenticated());
+                      return http.build();
+                  }
+              }
+              """,
+            """
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+              import org.springframework.security.web.SecurityFilterChain;
+
+              class SecurityConfig {
+                  @Bean
+                  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+                      http.authorizeHttpRequests(authz -> authz
+                              .requestMatchers("/admin/**").hasRole("ADMIN")
+                              .requestMatchers("/ops/**", "/metrics/**").hasRole("OPS")
+                              ./*~~(3 request matchers are evaluated before `anyRequest()`)~~>*/anyRequest().authenticated());
+                      return http.build();
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void pathPatterns() {
+        assertThat(SimplifyRequestMatchers.toPathPattern("^/api/v1/.*$")).isEqualTo("/api/v1/**");
+        assertThat(SimplifyRequestMatchers.toPathPattern("/robots\\.txt")).isEqualTo("/robots.txt");
+        assertThat(SimplifyRequestMatchers.toPathPattern("/robots.txt")).isNull();
+        assertThat(SimplifyRequestMatchers.toPathPattern("/api.*")).isNull();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.test;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.spring.table.TestContextCacheKeys;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class FindTestContextCacheKeysTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new FindTestContextCacheKeys())
+          .parser(JavaParser.fromJavaVersion().classpathFromResources(new InMemoryExecutionContext(),
+            "spring-boot-test-2", "spring-test-6", "spring-context-5"));
+    }
+
+    @DocumentExample
+    @Test
+    void countDistinctContexts() {
+        rewriteRun(
+          spec -> spec.dataTable(TestContextCacheKeys.Row.class, rows -> assertThat(rows)
+            .extracting(TestContextCacheKeys.Row::getTestClass, TestContextCacheKeys.Row::getClassesSharingContext,
+              TestContextCacheKeys.Row::getContextsInProject)
+            .containsExactlyInAnyOrder(
+              org.assertj.core.groups.Tuple.tuple("com.example.OrderTest", 2, 2),
+              org.assertj.core.groups.Tuple.tuple("com.example.InvoiceTest", 2, 2),
+              org.assertj.core.groups.Tuple.tuple("com.example.PaymentTest", 1, 2)
+            )),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.boot.test.context.SpringBootTest;
+
+              @SpringBootTest
+              abstract class AbstractIntegrationTest {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              class OrderTest extends AbstractIntegrationTest {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import org.springframework.boot.test.context.SpringBootTest;
+
+              @SpringBootTest
+              class InvoiceTest {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example;
+
+              import java.time.Clock;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+
+              @SpringBootTest
+              class PaymentTest {
+                  @MockBean
+                  Clock clock;
+              }
+              """,
+            """
+              package com.example;
+
+              import java.time.Clock;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+
+              /*~~(Unique test context)~~>*/@SpringBootTest
+              class PaymentTest {
+                  @MockBean
+                  Clock clock;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void dirtiesContextIsNeverShared() {
+        rewriteRun(
+          spec -> spec.dataTable(TestContextCacheKeys.Row.class, rows -> assertThat(rows)
+            .extracting(TestContextCacheKeys.Row::getClassesSharingContext)
+            .containsExactly(1, 1)),
+          //language=java
+          java(
+            """
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.test.annotation.DirtiesContext;
+
+              @SpringBootTest
+              @DirtiesContext
+              class FirstTest {
+              }
+              """,
+            """
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.test.annotation.DirtiesContext;
+
+              /*~~(Unique test context)~~>*/@SpringBootTest
+              @DirtiesContext
+              class FirstTest {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.test.annotation.DirtiesContext;
+
+              @SpringBootTest
+              @DirtiesContext
+              class SecondTest {
+              }
+              """,
+            """
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.test.annotation.DirtiesContext;
+
+              /*~~(Unique test context)~~>*/@SpringBootTest
+              @DirtiesContext
+              class SecondTest {
+              }
+              """
+          )
+        );
+    }
+}
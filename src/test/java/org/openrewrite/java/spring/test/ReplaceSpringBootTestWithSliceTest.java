@@ -0,0 +1,667 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.spring.test;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.java.Assertions.mavenProject;
+
+class ReplaceSpringBootTestWithSliceTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new ReplaceSpringBootTestWithSlice())
+          .parser(JavaParser.fromJavaVersion()
+            .classpathFromResources(new InMemoryExecutionContext(),
+              "spring-boot-test-2", "spring-test-6", "spring-context-5", "spring-beans-5", "spring-web-5",
+              "spring-tx-5", "spring-data-commons-2", "spring-data-jpa-2", "javax.persistence-api")
+            //language=java
+            .dependsOn(
+              """
+                package org.springframework.boot.test.autoconfigure.web.servlet;
+                public @interface AutoConfigureMockMvc {
+                    boolean addFilters() default true;
+                }
+                """,
+              """
+                package org.springframework.boot.test.autoconfigure.web.servlet;
+                public @interface WebMvcTest {
+                    Class<?>[] value() default {};
+                    Class<?>[] controllers() default {};
+                    String[] properties() default {};
+                }
+                """,
+              """
+                package org.springframework.boot.test.autoconfigure.json;
+                public @interface AutoConfigureJsonTesters {
+                }
+                """,
+              """
+                package org.springframework.boot.test.autoconfigure.orm.jpa;
+                public @interface DataJpaTest {
+                    String[] properties() default {};
+                }
+                """,
+              """
+                package org.springframework.security.web;
+                public interface SecurityFilterChain {
+                }
+                """,
+              """
+                package org.springframework.boot.test.autoconfigure.jdbc;
+                public @interface AutoConfigureTestDatabase {
+                    Replace replace() default Replace.ANY;
+                    enum Replace { ANY, AUTO_CONFIGURED, NONE }
+                }
+                """
+            ));
+    }
+
+    //language=java
+    private static final String ORDER_CONTROLLER = """
+      package com.example.orders;
+
+      import org.springframework.web.bind.annotation.RestController;
+
+      @RestController
+      public class OrderController {
+          private final OrderService orderService;
+          private final OrderRepository orderRepository;
+
+          public OrderController(OrderService orderService, OrderRepository orderRepository) {
+              this.orderService = orderService;
+              this.orderRepository = orderRepository;
+          }
+      }
+      """;
+
+    //language=java
+    private static final String ORDER_SERVICE = """
+      package com.example.orders;
+
+      public class OrderService {
+      }
+      """;
+
+    //language=java
+    private static final String ORDER_REPOSITORY = """
+      package com.example.orders;
+
+      import org.springframework.data.jpa.repository.JpaRepository;
+
+      public interface OrderRepository extends JpaRepository<Order, Long> {
+      }
+      """;
+
+    //language=java
+    private static final String ORDER = """
+      package com.example.orders;
+
+      import javax.persistence.Entity;
+      import javax.persistence.Id;
+
+      @Entity
+      public class Order {
+          @Id
+          Long id;
+      }
+      """;
+
+    @DocumentExample
+    @Test
+    void webMvcTestForControllerWithMockedDependencies() {
+        rewriteRun(
+          java(ORDER_CONTROLLER),
+          java(ORDER_SERVICE),
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @SpringBootTest
+              @AutoConfigureMockMvc
+              class OrderControllerTest {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """,
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @WebMvcTest
+              class OrderControllerTest {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepPropertiesOfSpringBootTest() {
+        rewriteRun(
+          java(ORDER_CONTROLLER),
+          java(ORDER_SERVICE),
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = "orders.page-size=10")
+              @AutoConfigureMockMvc
+              class OrderControllerIT {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @Autowired
+                  OrderController orderController;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """,
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @WebMvcTest(controllers = OrderController.class, properties = "orders.page-size=10")
+              class OrderControllerIT {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @Autowired
+                  OrderController orderController;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSpringBootTestWhenControllerDependencyIsNotMocked() {
+        rewriteRun(
+          java(ORDER_CONTROLLER),
+          java(ORDER_SERVICE),
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @SpringBootTest
+              @AutoConfigureMockMvc
+              class OrderControllerTest {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @MockBean
+                  OrderService orderService;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSpringBootTestWithSecurityConfiguration() {
+        rewriteRun(
+          java(ORDER_CONTROLLER),
+          java(ORDER_SERVICE),
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.context.annotation.Bean;
+              import org.springframework.context.annotation.Configuration;
+              import org.springframework.security.web.SecurityFilterChain;
+
+              @Configuration
+              public class SecurityConfiguration {
+                  @Bean
+                  SecurityFilterChain securityFilterChain() {
+                      return null;
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @SpringBootTest
+              @AutoConfigureMockMvc
+              class OrderControllerTest {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSpringBootTestWhenControllerAdviceDependencyIsNotMocked() {
+        rewriteRun(
+          java(ORDER_CONTROLLER),
+          java(ORDER_SERVICE),
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              public class ErrorReporter {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.web.bind.annotation.ControllerAdvice;
+
+              @ControllerAdvice
+              public class OrderControllerAdvice {
+                  private final ErrorReporter errorReporter;
+
+                  public OrderControllerAdvice(ErrorReporter errorReporter) {
+                      this.errorReporter = errorReporter;
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @SpringBootTest
+              @AutoConfigureMockMvc
+              class OrderControllerTest {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSpringBootTestWhenJsonComponentDependencyIsNotMocked() {
+        rewriteRun(
+          java(ORDER_CONTROLLER),
+          java(ORDER_SERVICE),
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package org.springframework.boot.jackson;
+
+              public @interface JsonComponent {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              public class CurrencyFormat {
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.boot.jackson.JsonComponent;
+
+              @JsonComponent
+              public class MoneyJsonComponent {
+                  private final CurrencyFormat currencyFormat;
+
+                  public MoneyJsonComponent(CurrencyFormat currencyFormat) {
+                      this.currencyFormat = currencyFormat;
+                  }
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.mock.mockito.MockBean;
+              import org.springframework.test.web.servlet.MockMvc;
+
+              @SpringBootTest
+              @AutoConfigureMockMvc
+              class OrderControllerTest {
+                  @Autowired
+                  MockMvc mockMvc;
+
+                  @MockBean
+                  OrderService orderService;
+
+                  @MockBean
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void ignoreSecurityConfigurationOfOtherProjects() {
+        rewriteRun(
+          mavenProject("admin",
+            //language=java
+            java(
+              """
+                package com.example.admin;
+
+                import org.springframework.context.annotation.Bean;
+                import org.springframework.context.annotation.Configuration;
+                import org.springframework.security.web.SecurityFilterChain;
+
+                @Configuration
+                public class SecurityConfiguration {
+                    @Bean
+                    SecurityFilterChain securityFilterChain() {
+                        return null;
+                    }
+                }
+                """
+            )
+          ),
+          mavenProject("orders",
+            java(ORDER_CONTROLLER),
+            java(ORDER_SERVICE),
+            java(ORDER_REPOSITORY),
+            java(ORDER),
+            //language=java
+            java(
+              """
+                package com.example.orders;
+
+                import org.springframework.beans.factory.annotation.Autowired;
+                import org.springframework.boot.test.context.SpringBootTest;
+                import org.springframework.boot.test.mock.mockito.MockBean;
+                import org.springframework.test.web.servlet.MockMvc;
+
+                @SpringBootTest
+                class OrderControllerTest {
+                    @Autowired
+                    MockMvc mockMvc;
+
+                    @MockBean
+                    OrderService orderService;
+
+                    @MockBean
+                    OrderRepository orderRepository;
+                }
+                """,
+              """
+                package com.example.orders;
+
+                import org.springframework.beans.factory.annotation.Autowired;
+                import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+                import org.springframework.boot.test.mock.mockito.MockBean;
+                import org.springframework.test.web.servlet.MockMvc;
+
+                @WebMvcTest
+                class OrderControllerTest {
+                    @Autowired
+                    MockMvc mockMvc;
+
+                    @MockBean
+                    OrderService orderService;
+
+                    @MockBean
+                    OrderRepository orderRepository;
+                }
+                """
+            )
+          )
+        );
+    }
+
+    @Test
+    void dataJpaTestForTransactionalRepositoryTest() {
+        rewriteRun(
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @SpringBootTest
+              @Transactional
+              class OrderRepositoryTest {
+                  @Autowired
+                  OrderRepository orderRepository;
+              }
+              """,
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+              import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+              import org.springframework.transaction.annotation.Transactional;
+
+              @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+              @DataJpaTest
+              @Transactional
+              class OrderRepositoryTest {
+                  @Autowired
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSpringBootTestForNonTransactionalRepositoryTest() {
+        rewriteRun(
+          java(ORDER_REPOSITORY),
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.context.SpringBootTest;
+
+              @SpringBootTest
+              class OrderRepositoryTest {
+                  @Autowired
+                  OrderRepository orderRepository;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void jsonTestForJsonTesters() {
+        rewriteRun(
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.json.JacksonTester;
+
+              @SpringBootTest
+              @AutoConfigureJsonTesters
+              class OrderJsonTest {
+                  @Autowired
+                  JacksonTester<Order> json;
+              }
+              """,
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.boot.test.autoconfigure.json.JsonTest;
+              import org.springframework.boot.test.json.JacksonTester;
+
+              @JsonTest
+              class OrderJsonTest {
+                  @Autowired
+                  JacksonTester<Order> json;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepSpringBootTestWithCustomConfiguration() {
+        rewriteRun(
+          java(ORDER),
+          //language=java
+          java(
+            """
+              package com.example.orders;
+
+              import org.springframework.beans.factory.annotation.Autowired;
+              import org.springframework.beans.factory.annotation.Value;
+              import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
+              import org.springframework.boot.test.context.SpringBootTest;
+              import org.springframework.boot.test.json.JacksonTester;
+
+              @SpringBootTest
+              @AutoConfigureJsonTesters
+              class OrderJsonTest {
+                  @Autowired
+                  JacksonTester<Order> json;
+
+                  @Value("${orders.currency}")
+                  String currency;
+              }
+              """
+          )
+        );
+    }
+}
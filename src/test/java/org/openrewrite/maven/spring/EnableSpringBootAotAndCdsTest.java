@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.maven.spring;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.maven.Assertions.pomXml;
+
+class EnableSpringBootAotAndCdsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new EnableSpringBootAotAndCds());
+    }
+
+    @DocumentExample
+    @Test
+    void addProcessAotAndImageEnvironment() {
+        //language=xml
+        rewriteRun(
+          pomXml(
+            """
+              <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.openrewrite.example</groupId>
+                  <artifactId>my-app</artifactId>
+                  <version>1</version>
+                  <build>
+                      <plugins>
+                          <plugin>
+                              <groupId>org.springframework.boot</groupId>
+                              <artifactId>spring-boot-maven-plugin</artifactId>
+                          </plugin>
+                      </plugins>
+                  </build>
+              </project>
+              """,
+            """
+              <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.openrewrite.example</groupId>
+                  <artifactId>my-app</artifactId>
+                  <version>1</version>
+                  <build>
+                      <plugins>
+                          <plugin>
+                              <groupId>org.springframework.boot</groupId>
+                              <artifactId>spring-boot-maven-plugin</artifactId>
+                              <executions>
+                                  <execution>
+                                      <id>process-aot</id>
+                                      <goals>
+                                          <goal>process-aot</goal>
+                                      </goals>
+                                  </execution>
+                              </executions>
+                              <configuration>
+                                  <image>
+                                      <env>
+                                          <BP_JVM_CDS_ENABLED>true</BP_JVM_CDS_ENABLED>
+                                          <BP_SPRING_AOT_ENABLED>true</BP_SPRING_AOT_ENABLED>
+                                      </env>
+                                  </image>
+                              </configuration>
+                          </plugin>
+                      </plugins>
+                  </build>
+              </project>
+              """
+          )
+        );
+    }
+
+    @Test
+    void completeExistingConfiguration() {
+        //language=xml
+        rewriteRun(
+          pomXml(
+            """
+              <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.openrewrite.example</groupId>
+                  <artifactId>my-app</artifactId>
+                  <version>1</version>
+                  <build>
+                      <plugins>
+                          <plugin>
+                              <groupId>org.springframework.boot</groupId>
+                              <artifactId>spring-boot-maven-plugin</artifactId>
+                              <executions>
+                                  <execution>
+                                      <id>repackage</id>
+                                      <goals>
+                                          <goal>repackage</goal>
+                                      </goals>
+                                  </execution>
+                              </executions>
+                              <configuration>
+                                  <image>
+                                      <env>
+                                          <BP_JVM_CDS_ENABLED>true</BP_JVM_CDS_ENABLED>
+                                      </env>
+                                  </image>
+                              </configuration>
+                          </plugin>
+                      </plugins>
+                  </build>
+              </project>
+              """,
+            """
+              <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.openrewrite.example</groupId>
+                  <artifactId>my-app</artifactId>
+                  <version>1</version>
+                  <build>
+                      <plugins>
+                          <plugin>
+                              <groupId>org.springframework.boot</groupId>
+                              <artifactId>spring-boot-maven-plugin</artifactId>
+                              <executions>
+                                  <execution>
+                                      <id>repackage</id>
+                                      <goals>
+                                          <goal>repackage</goal>
+                                      </goals>
+                                  </execution>
+                                  <execution>
+                                      <id>process-aot</id>
+                                      <goals>
+                                          <goal>process-aot</goal>
+                                      </goals>
+                                  </execution>
+                              </executions>
+                              <configuration>
+                                  <image>
+                                      <env>
+                                          <BP_JVM_CDS_ENABLED>true</BP_JVM_CDS_ENABLED>
+                                          <BP_SPRING_AOT_ENABLED>true</BP_SPRING_AOT_ENABLED>
+                                      </env>
+                                  </image>
+                              </configuration>
+                          </plugin>
+                      </plugins>
+                  </build>
+              </project>
+              """
+          )
+        );
+    }
+}